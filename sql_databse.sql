@@ -26,13 +26,35 @@ CREATE TABLE `chromosomes` (
   `genome_id` int NOT NULL,
   `name` varchar(50) NOT NULL,
   `length` int NOT NULL,
-  `sequence` text,
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`chromosome_id`),
   KEY `genome_id` (`genome_id`),
   CONSTRAINT `chromosomes_ibfk_1` FOREIGN KEY (`genome_id`) REFERENCES `genomes` (`genome_id`) ON DELETE CASCADE
 );
 
+CREATE TABLE `chromosome_sequence_blocks` (
+  `chromosome_id` int NOT NULL,
+  `block_no` int NOT NULL,
+  `data` mediumblob NOT NULL,
+  PRIMARY KEY (`chromosome_id`,`block_no`),
+  CONSTRAINT `chromosome_sequence_blocks_ibfk_1` FOREIGN KEY (`chromosome_id`) REFERENCES `chromosomes` (`chromosome_id`) ON DELETE CASCADE
+);
+
+CREATE TABLE `chromosome_composition_index` (
+  `chromosome_id` int NOT NULL,
+  `data` longblob NOT NULL,
+  PRIMARY KEY (`chromosome_id`),
+  CONSTRAINT `chromosome_composition_index_ibfk_1` FOREIGN KEY (`chromosome_id`) REFERENCES `chromosomes` (`chromosome_id`) ON DELETE CASCADE
+);
+
+CREATE TABLE `chromosome_zoom_levels` (
+  `chromosome_id` int NOT NULL,
+  `bin_size` int NOT NULL,
+  `data` longblob NOT NULL,
+  PRIMARY KEY (`chromosome_id`,`bin_size`),
+  CONSTRAINT `chromosome_zoom_levels_ibfk_1` FOREIGN KEY (`chromosome_id`) REFERENCES `chromosomes` (`chromosome_id`) ON DELETE CASCADE
+);
+
 CREATE TABLE `functions` (
   `function_id` int NOT NULL AUTO_INCREMENT,
   `code` varchar(50) NOT NULL,
@@ -51,14 +73,23 @@ CREATE TABLE `genes` (
   `start_position` int NOT NULL,
   `end_position` int NOT NULL,
   `strand` char(1) NOT NULL,
-  `sequence` text,
+  `bin` int NOT NULL,
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`gene_id`),
-  KEY `chromosome_id` (`chromosome_id`),
+  KEY `chromosome_bin_start` (`chromosome_id`,`bin`,`start_position`),
+  KEY `chromosome_start` (`chromosome_id`,`start_position`),
+  KEY `chromosome_end` (`chromosome_id`,`end_position`),
   CONSTRAINT `genes_ibfk_1` FOREIGN KEY (`chromosome_id`) REFERENCES `chromosomes` (`chromosome_id`) ON DELETE CASCADE,
   CONSTRAINT `genes_chk_1` CHECK ((`strand` in (_utf8mb4'+',_utf8mb4'-')))
 );
 
+CREATE TABLE `gene_sequences` (
+  `gene_id` int NOT NULL,
+  `packed_sequence` longblob NOT NULL,
+  PRIMARY KEY (`gene_id`),
+  CONSTRAINT `gene_sequences_ibfk_1` FOREIGN KEY (`gene_id`) REFERENCES `genes` (`gene_id`) ON DELETE CASCADE
+);
+
 CREATE TABLE `gene_function` (
   `gene_id` int NOT NULL,
   `function_id` int NOT NULL,
@@ -97,3 +128,21 @@ CREATE TABLE `usuario_rol` (
   CONSTRAINT `fk_rol` FOREIGN KEY (`rol_id`) REFERENCES `rol` (`id`),
   CONSTRAINT `fk_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`)
 );
+
+CREATE TABLE `analysis_jobs` (
+  `job_id` bigint NOT NULL AUTO_INCREMENT,
+  `type` varchar(20) NOT NULL,
+  `status` varchar(10) NOT NULL,
+  `username` varchar(100) NOT NULL,
+  `parameters` mediumtext NOT NULL,
+  `progress` double NOT NULL DEFAULT '0',
+  `result_type` varchar(50) DEFAULT NULL,
+  `result_size` bigint DEFAULT NULL,
+  `error` varchar(1000) DEFAULT NULL,
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  `started_at` timestamp NULL DEFAULT NULL,
+  `finished_at` timestamp NULL DEFAULT NULL,
+  PRIMARY KEY (`job_id`),
+  KEY `username` (`username`,`job_id`),
+  KEY `status` (`status`)
+);
@@ -0,0 +1,173 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.Nucleotides;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Alineamiento local ({@link SmithWaterman}) de una consulta contra muchas secuencias (genes o
+ * rangos de Chromosomes) dentro de un tiempo límite. Cada secuencia se lee y se alinea en una
+ * tarea aparte del pool de análisis; las que no terminan a tiempo se cancelan y se cuentan, y el
+ * resultado incluye lo que sí se alineó.
+ * <p>
+ * En la hebra - se alinea el reverso complementario de la consulta contra la hebra + de la
+ * secuencia, como en SAM: coordenadas y CIGAR están siempre en la orientación del Chromosome.
+ */
+@Component
+public class AlignmentEngine {
+
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+
+    public AlignmentEngine(SequenceBackend sequenceBackend,
+                           @Qualifier("analysisPool") ForkJoinPool analysisPool) {
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+    }
+
+    /**
+     * Secuencia contra la que alinear.
+     * @param geneId ID del Gene, o null si es un rango arbitrario.
+     * @param geneSymbol Símbolo del Gene, o null.
+     * @param chromosomeId ID del Chromosome.
+     * @param chromosomeName Nombre del Chromosome.
+     * @param start Posición inicial en el Chromosome (inclusive, base 0).
+     * @param end Posición final en el Chromosome (exclusive).
+     */
+    public record Target(Long geneId, String geneSymbol, Long chromosomeId, String chromosomeName,
+                         int start, int end) {
+    }
+
+    /**
+     * Alineamiento validado y listo para ejecutarse.
+     * @param query Consulta.
+     * @param scoring Puntajes.
+     * @param bothStrands Si es true, también se alinea el reverso complementario de la consulta.
+     * @param targets Secuencias.
+     * @param minScore Puntaje mínimo de los resultados (al menos 1).
+     * @param limit Máximo de resultados.
+     * @param timeoutMillis Tiempo límite para toda la petición.
+     */
+    public record Request(String query, SmithWaterman.Scoring scoring, boolean bothStrands, List<Target> targets,
+                          int minScore, int limit, long timeoutMillis) {
+    }
+
+    /**
+     * Mejor alineamiento de la consulta contra una secuencia.
+     * @param target Secuencia.
+     * @param reverse true si el mejor alineamiento es el del reverso complementario.
+     * @param alignment Alineamiento; las coordenadas de la secuencia son relativas a target.start()
+     *                  y las de la consulta, a la consulta original en ambas hebras.
+     */
+    public record Hit(Target target, boolean reverse, SmithWaterman.Alignment alignment) {
+    }
+
+    /**
+     * @param hits Resultados ordenados por puntaje descendente.
+     * @param aligned Secuencias alineadas completas.
+     * @param timedOut Secuencias que no se alinearon a tiempo.
+     * @param vectorized Si se usó la implementación vectorizada.
+     */
+    public record Result(List<Hit> hits, int aligned, int timedOut, boolean vectorized) {
+    }
+
+    /**
+     * Alinear la consulta contra todas las secuencias del pedido.
+     */
+    public Result align(Request request) {
+        return align(request, progress -> { });
+    }
+
+    /**
+     * Alinear la consulta como {@link #align(Request)}, informando el avance.
+     * @param progress Receptor de la fracción de secuencias resueltas (alineadas o sin tiempo, 0 a
+     *                 1), llamado en el hilo que espera los resultados.
+     */
+    public Result align(Request request, DoubleConsumer progress) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(request.timeoutMillis());
+        SmithWaterman forward = new SmithWaterman(request.query(), request.scoring());
+        SmithWaterman reverse = request.bothStrands()
+                ? new SmithWaterman(Nucleotides.reverseComplement(request.query()), request.scoring()) : null;
+        int queryLength = request.query().length();
+
+        List<Future<Hit>> futures = new ArrayList<>(request.targets().size());
+        for (Target target : request.targets()) {
+            futures.add(analysisPool.submit(() -> align(target, forward, reverse, queryLength, deadline)));
+        }
+        List<Hit> hits = new ArrayList<>();
+        int aligned = 0;
+        int timedOut = 0;
+        int resolved = 0;
+        try {
+            for (Future<Hit> future : futures) {
+                progress.accept((double) resolved++ / futures.size());
+                Hit hit;
+                try {
+                    hit = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException | CancellationException e) {
+                    future.cancel(true);
+                    timedOut++;
+                    continue;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed to align against a sequence", e.getCause());
+                }
+                if (hit == null) {
+                    timedOut++;
+                    continue;
+                }
+                aligned++;
+                if (hit.alignment().score() >= request.minScore()) {
+                    hits.add(hit);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aligning", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        hits.sort(Comparator.comparingInt((Hit hit) -> hit.alignment().score()).reversed());
+        List<Hit> limited = hits.size() > request.limit() ? hits.subList(0, request.limit()) : hits;
+        return new Result(new ArrayList<>(limited), aligned, timedOut, forward.isVectorized());
+    }
+
+    /**
+     * @return Mejor alineamiento contra la secuencia, o null si se alcanzó el tiempo límite.
+     */
+    private Hit align(Target target, SmithWaterman forward, SmithWaterman reverse, int queryLength, long deadline) {
+        if (System.nanoTime() - deadline > 0) {
+            return null;
+        }
+        byte[] sequence = SmithWaterman.encode(sequenceBackend.read(target.chromosomeId(), target.start(), target.end()));
+        SmithWaterman.Alignment best = forward.align(sequence, deadline);
+        if (best == null) {
+            return null;
+        }
+        if (reverse != null) {
+            SmithWaterman.Alignment other = reverse.align(sequence, deadline);
+            if (other == null) {
+                return null;
+            }
+            if (other.score() > best.score()) {
+                // Coordenadas de la consulta en su orientación original
+                SmithWaterman.Alignment mapped = new SmithWaterman.Alignment(other.score(),
+                        queryLength - other.queryEnd(), queryLength - other.queryStart(),
+                        other.targetStart(), other.targetEnd(), other.cigar(), other.matches(), other.columns());
+                return new Hit(target, true, mapped);
+            }
+        }
+        return new Hit(target, false, best);
+    }
+}
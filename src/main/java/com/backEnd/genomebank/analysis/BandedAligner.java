@@ -0,0 +1,144 @@
+package com.backEnd.genomebank.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Alineamiento local (Smith-Waterman con gaps afines) restringido a una banda de diagonales
+ * alrededor de unas semillas: solo se calculan las celdas (i, j) con diagonalLow <= j - i <=
+ * diagonalHigh, así que el costo es longitud de la consulta por ancho de la banda en lugar de
+ * longitud de la consulta por longitud de la secuencia. Las celdas fuera de la banda se tratan
+ * como si el alineamiento no pudiera pasar por ellas.
+ */
+final class BandedAligner {
+
+    private static final int NEGATIVE = Integer.MIN_VALUE / 4;
+
+    private BandedAligner() {
+    }
+
+    /**
+     * @param query Consulta codificada con {@link SmithWaterman#encode(CharSequence)}.
+     * @param target Secuencia codificada.
+     * @param diagonalLow Menor diagonal (posición en la secuencia menos posición en la consulta).
+     * @param diagonalHigh Mayor diagonal.
+     * @param scoring Puntajes.
+     * @return Mejor alineamiento dentro de la banda, con CIGAR.
+     */
+    static SmithWaterman.Alignment align(byte[] query, byte[] target, int diagonalLow, int diagonalHigh,
+                                         SmithWaterman.Scoring scoring) {
+        int rows = query.length;
+        int columns = target.length;
+        int width = diagonalHigh - diagonalLow + 1;
+        // Celda (i, j) en la columna c = j - i - diagonalLow de la fila i; mismas marcas que SmithWaterman
+        byte[] directions = new byte[(rows + 1) * width];
+        int[] h = new int[width];
+        int[] f = new int[width];
+        int[] previousH = new int[width];
+        int[] previousF = new int[width];
+        Arrays.fill(previousF, NEGATIVE);
+        int best = 0;
+        int bestRow = 0;
+        int bestCell = 0;
+        for (int i = 1; i <= rows; i++) {
+            Arrays.fill(h, 0);
+            Arrays.fill(f, NEGATIVE);
+            int first = Math.max(0, 1 - i - diagonalLow);
+            int last = Math.min(width - 1, columns - i - diagonalLow);
+            int queryCode = query[i - 1];
+            int e = NEGATIVE;
+            int left = 0;
+            for (int c = first; c <= last; c++) {
+                int j = i + diagonalLow + c;
+                byte direction = 0;
+                int extendE = e - scoring.gapExtend();
+                int openE = left - scoring.gapOpen();
+                if (extendE > openE) {
+                    e = extendE;
+                    direction |= 4;
+                } else {
+                    e = openE;
+                }
+                // La celda de arriba (i - 1, j) está en la columna c + 1 de la fila anterior
+                int upH = c + 1 < width ? previousH[c + 1] : 0;
+                int upF = c + 1 < width ? previousF[c + 1] : NEGATIVE;
+                int extendF = upF - scoring.gapExtend();
+                int openF = upH - scoring.gapOpen();
+                if (extendF > openF) {
+                    f[c] = extendF;
+                    direction |= 8;
+                } else {
+                    f[c] = openF;
+                }
+                int score = previousH[c] + scoring.score(queryCode, target[j - 1]);
+                int source = 1;
+                if (e > score) {
+                    score = e;
+                    source = 2;
+                }
+                if (f[c] > score) {
+                    score = f[c];
+                    source = 3;
+                }
+                if (score <= 0) {
+                    score = 0;
+                    source = 0;
+                }
+                h[c] = score;
+                left = score;
+                directions[i * width + c] = (byte) (direction | source);
+                if (score > best) {
+                    best = score;
+                    bestRow = i;
+                    bestCell = c;
+                }
+            }
+            int[] swap = previousH;
+            previousH = h;
+            h = swap;
+            swap = previousF;
+            previousF = f;
+            f = swap;
+        }
+        if (best == 0) {
+            return new SmithWaterman.Alignment(0, 0, 0, 0, 0, null, -1, -1);
+        }
+
+        StringBuilder operations = new StringBuilder();
+        int i = bestRow;
+        int c = bestCell;
+        int state = 0;
+        int matches = 0;
+        while (i > 0 && c >= 0 && c < width && i + diagonalLow + c > 0) {
+            int direction = directions[i * width + c];
+            if (state == 0) {
+                int source = direction & 3;
+                if (source == 0) {
+                    break;
+                }
+                if (source == 1) {
+                    int j = i + diagonalLow + c;
+                    if (query[i - 1] == target[j - 1] && query[i - 1] != SmithWaterman.OTHER) {
+                        matches++;
+                    }
+                    operations.append('M');
+                    i--;
+                } else {
+                    state = source;
+                }
+            } else if (state == 2) {
+                operations.append('D');
+                state = (direction & 4) != 0 ? 2 : 0;
+                c--;
+            } else {
+                operations.append('I');
+                state = (direction & 8) != 0 ? 3 : 0;
+                i--;
+                c++;
+            }
+        }
+        int queryStart = i;
+        int targetStart = i + diagonalLow + c;
+        return new SmithWaterman.Alignment(best, queryStart, bestRow, targetStart, bestRow + diagonalLow + bestCell,
+                SmithWaterman.cigar(operations.reverse(), queryStart, rows - bestRow), matches, operations.length());
+    }
+}
@@ -0,0 +1,103 @@
+package com.backEnd.genomebank.analysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Composición de una secuencia calculada por {@link CompositionEngine}: conteo de cada carácter
+ * (distinguiendo mayúsculas de minúsculas, para poder informar las bases con soft-masking) y
+ * conteo de los 16 dinucleótidos formados por A, C, G y T.
+ * Las consultas por base no distinguen mayúsculas de minúsculas.
+ */
+public final class BaseComposition {
+
+    /** Códigos IUPAC de ambigüedad, además de N. */
+    public static final String IUPAC_AMBIGUITY_CODES = "RYSWKMBDHV";
+    static final String BASES = "ACGT";
+
+    private final long[] characterCounts;
+    private final long[] dinucleotideCounts;
+
+    BaseComposition(long[] characterCounts, long[] dinucleotideCounts) {
+        this.characterCounts = characterCounts;
+        this.dinucleotideCounts = dinucleotideCounts;
+    }
+
+    /**
+     * @param base Base o código IUPAC.
+     * @return Número de apariciones, en mayúscula o minúscula.
+     */
+    public long count(char base) {
+        return characterCounts[Character.toUpperCase(base)] + characterCounts[Character.toLowerCase(base)];
+    }
+
+    public long a() {
+        return count('A');
+    }
+
+    public long c() {
+        return count('C');
+    }
+
+    public long g() {
+        return count('G');
+    }
+
+    public long t() {
+        return count('T');
+    }
+
+    public long n() {
+        return count('N');
+    }
+
+    /**
+     * @return Número de bases en minúscula (regiones enmascaradas, por ejemplo repeticiones).
+     */
+    public long softMasked() {
+        long total = 0;
+        for (char c = 'a'; c <= 'z'; c++) {
+            total += characterCounts[c];
+        }
+        return total;
+    }
+
+    /**
+     * @return Conteo de cada código IUPAC de ambigüedad (sin incluir N).
+     */
+    public Map<String, Long> iupacCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (char code : IUPAC_AMBIGUITY_CODES.toCharArray()) {
+            counts.put(String.valueOf(code), count(code));
+        }
+        return counts;
+    }
+
+    /**
+     * @param first Primera base (A, C, G o T).
+     * @param second Segunda base (A, C, G o T).
+     * @return Número de veces que la segunda base sigue a la primera.
+     */
+    public long dinucleotide(char first, char second) {
+        return dinucleotideCounts[BASES.indexOf(Character.toUpperCase(first)) * 4
+                + BASES.indexOf(Character.toUpperCase(second))];
+    }
+
+    /**
+     * @return Frecuencia relativa de cada dinucleótido (AA, AC, ... TT) sobre el total de
+     * pares de bases A/C/G/T consecutivas.
+     */
+    public Map<String, Double> dinucleotideFrequencies() {
+        long total = 0;
+        for (long count : dinucleotideCounts) {
+            total += count;
+        }
+        Map<String, Double> frequencies = new LinkedHashMap<>();
+        for (int i = 0; i < 16; i++) {
+            String pair = "" + BASES.charAt(i / 4) + BASES.charAt(i % 4);
+            double frequency = total == 0 ? 0.0 : (double) dinucleotideCounts[i] / total;
+            frequencies.put(pair, Math.round(frequency * 1_000_000.0) / 1_000_000.0);
+        }
+        return frequencies;
+    }
+}
@@ -0,0 +1,168 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cálculo en paralelo de la composición de bases de un rango de un Chromosome.
+ * El rango se divide con fork-join en segmentos; cada segmento se lee del
+ * {@link SequenceBackend} y se cuenta directamente sobre los fragmentos entregados, sin copiar
+ * ni convertir la secuencia. Los dinucleótidos que cruzan el límite entre dos segmentos se
+ * cuentan al combinar sus resultados.
+ */
+@Component
+public class CompositionEngine {
+
+    /** Tamaño máximo de segmento contado por una sola tarea. */
+    static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final byte[] CODES = new byte[256];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        for (int i = 0; i < 4; i++) {
+            CODES[BaseComposition.BASES.charAt(i)] = (byte) i;
+            CODES[Character.toLowerCase(BaseComposition.BASES.charAt(i))] = (byte) i;
+        }
+    }
+
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+
+    /**
+     * Chromosome cuya composición se calcula completa.
+     * @param chromosomeId ID del Chromosome.
+     * @param name Nombre del Chromosome.
+     * @param length Longitud de su secuencia.
+     */
+    public record Target(Long chromosomeId, String name, int length) {
+    }
+
+    public CompositionEngine(SequenceBackend sequenceBackend,
+                             @Qualifier("analysisPool") ForkJoinPool analysisPool) {
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+    }
+
+    /**
+     * Calcular la composición de un rango de la secuencia de un Chromosome.
+     * @param chromosomeId ID del Chromosome.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @return Composición del rango.
+     */
+    public BaseComposition compute(Long chromosomeId, int start, int end) {
+        Counts counts = analysisPool.invoke(new CompositionTask(chromosomeId, start, end));
+        return new BaseComposition(counts.characters, counts.dinucleotides);
+    }
+
+    /**
+     * Tarea fork-join que divide el rango a la mitad hasta llegar a {@link #SEGMENT_SIZE}.
+     */
+    private final class CompositionTask extends RecursiveTask<Counts> {
+        private final Long chromosomeId;
+        private final int start;
+        private final int end;
+
+        CompositionTask(Long chromosomeId, int start, int end) {
+            this.chromosomeId = chromosomeId;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (end - start <= SEGMENT_SIZE) {
+                Counts counts = new Counts();
+                try {
+                    sequenceBackend.stream(chromosomeId, start, end, counts::add);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return counts;
+            }
+            int middle = start + (end - start) / 2;
+            CompositionTask left = new CompositionTask(chromosomeId, start, middle);
+            CompositionTask right = new CompositionTask(chromosomeId, middle, end);
+            right.fork();
+            Counts counts = left.compute();
+            counts.merge(right.join());
+            return counts;
+        }
+    }
+
+    /**
+     * Acumulador de conteos de un segmento contiguo.
+     */
+    static final class Counts {
+        final long[] characters = new long[256];
+        final long[] dinucleotides = new long[16];
+        private int firstCode = -1;
+        private int lastCode = -1;
+        private boolean empty = true;
+
+        void add(ByteBuffer chunk) {
+            int length = chunk.remaining();
+            if (length == 0) {
+                return;
+            }
+            int previous = lastCode;
+            if (chunk.hasArray()) {
+                byte[] array = chunk.array();
+                int from = chunk.arrayOffset() + chunk.position();
+                for (int i = from, to = from + length; i < to; i++) {
+                    previous = count(array[i] & 0xFF, previous);
+                }
+            } else {
+                for (int i = chunk.position(), to = chunk.limit(); i < to; i++) {
+                    previous = count(chunk.get(i) & 0xFF, previous);
+                }
+            }
+            if (empty) {
+                firstCode = CODES[chunk.get(chunk.position()) & 0xFF];
+                empty = false;
+            }
+            lastCode = previous;
+            chunk.position(chunk.limit());
+        }
+
+        private int count(int b, int previous) {
+            characters[b]++;
+            int code = CODES[b];
+            if (previous >= 0 && code >= 0) {
+                dinucleotides[(previous << 2) | code]++;
+            }
+            return code;
+        }
+
+        /**
+         * Agregar los conteos del segmento que sigue inmediatamente a este.
+         */
+        void merge(Counts next) {
+            if (next.empty) {
+                return;
+            }
+            for (int i = 0; i < characters.length; i++) {
+                characters[i] += next.characters[i];
+            }
+            for (int i = 0; i < dinucleotides.length; i++) {
+                dinucleotides[i] += next.dinucleotides[i];
+            }
+            if (empty) {
+                firstCode = next.firstCode;
+                empty = false;
+            } else if (lastCode >= 0 && next.firstCode >= 0) {
+                dinucleotides[(lastCode << 2) | next.firstCode]++;
+            }
+            lastCode = next.lastCode;
+        }
+    }
+}
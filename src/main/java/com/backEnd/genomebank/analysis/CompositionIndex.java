@@ -0,0 +1,225 @@
+package com.backEnd.genomebank.analysis;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Índice de composición de un Chromosome: conteos acumulados de A, C, G, T, N y bases en
+ * minúscula al final de cada bin de {@link #BIN_SIZE} bases.
+ * El conteo de cualquier conjunto de bins completos se obtiene restando dos sumas prefijas;
+ * solo los bins parciales de los extremos de un rango deben leerse de la secuencia.
+ * Se serializa como conteos por bin de 16 bits y las sumas prefijas se reconstruyen al cargarlo.
+ */
+public final class CompositionIndex {
+
+    public static final int BIN_SIZE = 4096;
+
+    public static final int A = 0;
+    public static final int C = 1;
+    public static final int G = 2;
+    public static final int T = 3;
+    public static final int N = 4;
+    public static final int SOFT_MASKED = 5;
+    public static final int COUNTERS = 6;
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte[] COUNTER_OF = new byte[256];
+
+    static {
+        Arrays.fill(COUNTER_OF, (byte) -1);
+        String bases = "ACGTN";
+        for (int i = 0; i < bases.length(); i++) {
+            COUNTER_OF[bases.charAt(i)] = (byte) i;
+            COUNTER_OF[Character.toLowerCase(bases.charAt(i))] = (byte) i;
+        }
+    }
+
+    private final int length;
+    private final int[][] prefix;
+
+    private CompositionIndex(int length, int[][] prefix) {
+        this.length = length;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Construir el índice a partir de los conteos de cada bin.
+     * @param length Longitud de la secuencia.
+     * @param binCounts Conteos por contador y bin ([COUNTERS][número de bins]).
+     * @return Índice con las sumas prefijas.
+     */
+    static CompositionIndex fromBinCounts(int length, int[][] binCounts) {
+        int bins = binCount(length);
+        int[][] prefix = new int[COUNTERS][bins + 1];
+        for (int counter = 0; counter < COUNTERS; counter++) {
+            for (int bin = 0; bin < bins; bin++) {
+                prefix[counter][bin + 1] = prefix[counter][bin] + binCounts[counter][bin];
+            }
+        }
+        return new CompositionIndex(length, prefix);
+    }
+
+    /**
+     * Reconstruir un índice serializado con {@link #toBytes()}.
+     * @param bytes Bytes del índice.
+     * @return Índice.
+     */
+    public static CompositionIndex fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported composition index format " + version);
+        }
+        int binSize = buffer.getInt();
+        if (binSize != BIN_SIZE) {
+            throw new IllegalArgumentException("Unsupported composition index bin size " + binSize);
+        }
+        int length = buffer.getInt();
+        int bins = binCount(length);
+        int[][] binCounts = new int[COUNTERS][bins];
+        for (int counter = 0; counter < COUNTERS; counter++) {
+            for (int bin = 0; bin < bins; bin++) {
+                binCounts[counter][bin] = buffer.getChar();
+            }
+        }
+        return fromBinCounts(length, binCounts);
+    }
+
+    /**
+     * Serializar el índice para guardarlo en una columna BLOB.
+     * @return Bytes con versión, tamaño de bin, longitud y conteos por bin.
+     */
+    public byte[] toBytes() {
+        int bins = binCount(length);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + COUNTERS * bins * 2);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(BIN_SIZE);
+        buffer.putInt(length);
+        for (int counter = 0; counter < COUNTERS; counter++) {
+            for (int bin = 0; bin < bins; bin++) {
+                buffer.putChar((char) (prefix[counter][bin + 1] - prefix[counter][bin]));
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @return Longitud de la secuencia indexada.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Sumar a los conteos dados los de los bins [firstBin, lastBin).
+     * @param counts Conteos acumulados ([COUNTERS]).
+     * @param firstBin Primer bin (inclusive).
+     * @param lastBin Último bin (exclusive).
+     */
+    public void addBins(long[] counts, int firstBin, int lastBin) {
+        for (int counter = 0; counter < COUNTERS; counter++) {
+            counts[counter] += prefix[counter][lastBin] - prefix[counter][firstBin];
+        }
+    }
+
+    /**
+     * Sumar a los conteos dados los de un fragmento de secuencia.
+     * @param chunk Fragmento de bases ASCII; se consume por completo.
+     * @param counts Conteos acumulados ([COUNTERS]).
+     */
+    public static void count(ByteBuffer chunk, long[] counts) {
+        for (int i = chunk.position(), end = chunk.limit(); i < end; i++) {
+            byte b = chunk.get(i);
+            int counter = COUNTER_OF[b & 0xFF];
+            if (counter >= 0) {
+                counts[counter]++;
+            }
+            if (b >= 'a' && b <= 'z') {
+                counts[SOFT_MASKED]++;
+            }
+        }
+        chunk.position(chunk.limit());
+    }
+
+    static int binCount(int length) {
+        return (length + BIN_SIZE - 1) / BIN_SIZE;
+    }
+
+    /**
+     * Constructor incremental del índice: recibe las bases en orden, por fragmentos.
+     * Varios constructores pueden compartir el arreglo de conteos si cubren bins distintos.
+     */
+    public static final class Builder {
+        private static final int UNKNOWN_LENGTH = -1;
+
+        private final int length;
+        private int[][] binCounts;
+        private int position;
+
+        /**
+         * Constructor para una secuencia de longitud desconocida (por ejemplo, leída en streaming).
+         */
+        public Builder() {
+            this(UNKNOWN_LENGTH, new int[COUNTERS][64], 0);
+        }
+
+        /**
+         * @param length Longitud total de la secuencia.
+         */
+        public Builder(int length) {
+            this(length, new int[COUNTERS][binCount(length)], 0);
+        }
+
+        Builder(int length, int[][] binCounts, int position) {
+            this.length = length;
+            this.binCounts = binCounts;
+            this.position = position;
+        }
+
+        public void append(byte[] bases, int offset, int count) {
+            for (int i = offset, end = offset + count; i < end; i++) {
+                add(bases[i]);
+            }
+        }
+
+        public void append(ByteBuffer chunk) {
+            for (int i = chunk.position(), end = chunk.limit(); i < end; i++) {
+                add(chunk.get(i));
+            }
+            chunk.position(chunk.limit());
+        }
+
+        public void append(CharSequence sequence) {
+            for (int i = 0; i < sequence.length(); i++) {
+                add((byte) sequence.charAt(i));
+            }
+        }
+
+        private void add(byte b) {
+            int bin = position++ / BIN_SIZE;
+            if (length == UNKNOWN_LENGTH && bin == binCounts[0].length) {
+                for (int counter = 0; counter < COUNTERS; counter++) {
+                    binCounts[counter] = Arrays.copyOf(binCounts[counter], bin * 2);
+                }
+            }
+            int counter = COUNTER_OF[b & 0xFF];
+            if (counter >= 0) {
+                binCounts[counter][bin]++;
+            }
+            if (b >= 'a' && b <= 'z') {
+                binCounts[SOFT_MASKED][bin]++;
+            }
+        }
+
+        /**
+         * @return Índice de la secuencia recibida.
+         * @throws IllegalStateException si no se recibieron exactamente length bases.
+         */
+        public CompositionIndex build() {
+            if (length != UNKNOWN_LENGTH && position != length) {
+                throw new IllegalStateException("Expected " + length + " bases but got " + position);
+            }
+            return fromBinCounts(position, binCounts);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.entities.ChromosomeCompositionIndex;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.repositories.ChromosomeCompositionIndexRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Acceso a los índices de composición ({@link CompositionIndex}) de los Chromosomes.
+ * El índice se guarda junto con la secuencia cuando esta se escribe; los Chromosomes que aún
+ * no tienen índice lo construyen en paralelo la primera vez que se consultan.
+ * Los índices cargados se mantienen en memoria hasta que cambia la secuencia del Chromosome.
+ */
+@Component
+public class CompositionIndexStore {
+
+    /** Número de bins que cuenta una sola tarea al construir un índice en paralelo. */
+    private static final int BINS_PER_TASK = 1024;
+
+    private final ChromosomeCompositionIndexRepository indexRepository;
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+    private final Map<Long, CompositionIndex> loaded = new ConcurrentHashMap<>();
+
+    public CompositionIndexStore(ChromosomeCompositionIndexRepository indexRepository,
+                                 SequenceBackend sequenceBackend,
+                                 @Qualifier("analysisPool") ForkJoinPool analysisPool) {
+        this.indexRepository = indexRepository;
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+    }
+
+    /**
+     * Guardar el índice de una secuencia recién escrita, reemplazando el anterior.
+     * Debe llamarse en la misma transacción que escribe la secuencia.
+     * @param chromosomeId ID del Chromosome.
+     * @param index Índice de la nueva secuencia.
+     */
+    public void save(Long chromosomeId, CompositionIndex index) {
+        ChromosomeCompositionIndex entity = new ChromosomeCompositionIndex();
+        entity.setChromosomeId(chromosomeId);
+        entity.setData(index.toBytes());
+        indexRepository.save(entity);
+    }
+
+    /**
+     * Contar A, C, G, T, N y bases en minúscula en un rango, usando el índice para los bins
+     * completos y leyendo de la secuencia solo los bins parciales de los extremos.
+     * @param chromosomeId ID del Chromosome.
+     * @param length Longitud actual del Chromosome.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @return Conteos indexados por las constantes de {@link CompositionIndex}.
+     */
+    public long[] count(Long chromosomeId, int length, int start, int end) {
+        long[] counts = new long[CompositionIndex.COUNTERS];
+        int firstFullBin = (start + CompositionIndex.BIN_SIZE - 1) / CompositionIndex.BIN_SIZE;
+        int lastFullBin = end == length ? CompositionIndex.binCount(length) : end / CompositionIndex.BIN_SIZE;
+        if (firstFullBin >= lastFullBin) {
+            scan(chromosomeId, start, end, counts);
+            return counts;
+        }
+        CompositionIndex index = index(chromosomeId, length);
+        scan(chromosomeId, start, firstFullBin * CompositionIndex.BIN_SIZE, counts);
+        index.addBins(counts, firstFullBin, lastFullBin);
+        scan(chromosomeId, Math.min(end, lastFullBin * CompositionIndex.BIN_SIZE), end, counts);
+        return counts;
+    }
+
+    /**
+     * Obtener el índice de un Chromosome: de memoria, de la base de datos o construyéndolo.
+     * @param chromosomeId ID del Chromosome.
+     * @param length Longitud actual del Chromosome; un índice guardado con otra longitud se reconstruye.
+     * @return Índice de composición.
+     */
+    public CompositionIndex index(Long chromosomeId, int length) {
+        CompositionIndex index = loaded.get(chromosomeId);
+        if (index != null && index.length() == length) {
+            return index;
+        }
+        // computeIfAbsent evita construcciones duplicadas, y una invalidación concurrente espera
+        // a que termine la construcción antes de descartar su resultado
+        loaded.remove(chromosomeId, index);
+        return loaded.computeIfAbsent(chromosomeId, id -> loadOrBuild(id, length));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChromosomeChanged(ChromosomeChangedEvent event) {
+        loaded.remove(event.chromosomeId());
+    }
+
+    private CompositionIndex loadOrBuild(Long chromosomeId, int length) {
+        CompositionIndex stored = indexRepository.findById(chromosomeId)
+                .map(entity -> CompositionIndex.fromBytes(entity.getData()))
+                .filter(index -> index.length() == length)
+                .orElse(null);
+        if (stored != null) {
+            return stored;
+        }
+        int[][] binCounts = new int[CompositionIndex.COUNTERS][CompositionIndex.binCount(length)];
+        analysisPool.invoke(new BuildTask(chromosomeId, length, binCounts, 0, CompositionIndex.binCount(length)));
+        CompositionIndex built = CompositionIndex.fromBinCounts(length, binCounts);
+        if (indexRepository.existsById(chromosomeId)) {
+            // Índice guardado con otra longitud: se reemplaza
+            save(chromosomeId, built);
+        } else {
+            indexRepository.insertIfAbsent(chromosomeId, built.toBytes());
+        }
+        return built;
+    }
+
+    private void scan(Long chromosomeId, int start, int end, long[] counts) {
+        if (start >= end) {
+            return;
+        }
+        try {
+            sequenceBackend.stream(chromosomeId, start, end, chunk -> CompositionIndex.count(chunk, counts));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Tarea fork-join que cuenta un tramo de bins; cada hoja escribe solo en sus propios bins.
+     */
+    private final class BuildTask extends RecursiveAction {
+        private final Long chromosomeId;
+        private final int length;
+        private final int[][] binCounts;
+        private final int firstBin;
+        private final int lastBin;
+
+        BuildTask(Long chromosomeId, int length, int[][] binCounts, int firstBin, int lastBin) {
+            this.chromosomeId = chromosomeId;
+            this.length = length;
+            this.binCounts = binCounts;
+            this.firstBin = firstBin;
+            this.lastBin = lastBin;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastBin - firstBin <= BINS_PER_TASK) {
+                int start = firstBin * CompositionIndex.BIN_SIZE;
+                int end = (int) Math.min(length, (long) lastBin * CompositionIndex.BIN_SIZE);
+                CompositionIndex.Builder builder = new CompositionIndex.Builder(length, binCounts, start);
+                try {
+                    sequenceBackend.stream(chromosomeId, start, end, builder::append);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int middle = firstBin + (lastBin - firstBin) / 2;
+            invokeAll(new BuildTask(chromosomeId, length, binCounts, firstBin, middle),
+                    new BuildTask(chromosomeId, length, binCounts, middle, lastBin));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.GenomeRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Índices FM ({@link GenomeFmIndex}) de los Genomes, uno por archivo genome-{id}.fmi en el
+ * directorio configurado. La construcción, la invalidación y la reconstrucción en segundo plano
+ * son las de {@link GenomeIndexStore}.
+ */
+@Component
+public class FmIndexStore extends GenomeIndexStore<GenomeFmIndex> {
+
+    private final int partitionLength;
+
+    public FmIndexStore(ChromosomeRepository chromosomeRepository,
+                        GenomeRepository genomeRepository,
+                        SequenceBackend sequenceBackend,
+                        @Qualifier("indexingExecutor") ExecutorService indexingExecutor,
+                        @Value("${genomebank.analysis.fm-index.directory:fm-index}") String directory,
+                        @Value("${genomebank.analysis.fm-index.partition-length:268435456}") int partitionLength)
+            throws IOException {
+        super(chromosomeRepository, genomeRepository, sequenceBackend, indexingExecutor, directory, "fmi");
+        this.partitionLength = Math.min(partitionLength, GenomeFmIndex.MAX_TEXT_LENGTH);
+    }
+
+    @Override
+    protected GenomeFmIndex read(Path file) throws IOException {
+        return GenomeFmIndex.open(file);
+    }
+
+    @Override
+    protected void write(Path file, long genomeId, List<IndexedChromosome> chromosomes) throws IOException {
+        GenomeFmIndex.write(file, genomeId, chromosomes, partitionLength, sequenceBackend);
+    }
+}
@@ -0,0 +1,259 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.dto.analysis.GcWindowDTO;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Pista de ventanas deslizantes de un Chromosome: porcentaje GC, fracción de N y sesgos GC y AT
+ * de cada ventana, escritos como NDJSON (un objeto JSON por línea).
+ * Las ventanas empiezan en 0, step, 2·step... y la última que empieza dentro del Chromosome se
+ * recorta a su longitud; no se generan ventanas más allá de la primera que alcanza el final.
+ * El Chromosome se divide en regiones de ventanas consecutivas que se calculan en paralelo en el
+ * pool de análisis y se escriben en orden; como mucho hay dos regiones por hilo pendientes de
+ * escribir. Dentro de una región cada ventana se obtiene de la anterior sumando las bases que
+ * entran y restando las que salen, así que cada base se lee una sola vez.
+ */
+@Component
+public class GcTrackEngine {
+
+    public static final int MAX_WINDOW = 10_000_000;
+
+    /** Bases que cubre como mínimo una región (salvo que el Chromosome sea más corto). */
+    private static final int REGION_SPAN = 1 << 20;
+    /** Máximo de ventanas por región, para acotar el tamaño de su salida. */
+    private static final int MAX_WINDOWS_PER_REGION = 1 << 16;
+
+    private static final int A = 0;
+    private static final int C = 1;
+    private static final int G = 2;
+    private static final int T = 3;
+    private static final int N = 4;
+    private static final byte[] COUNTER_OF = new byte[256];
+
+    static {
+        Arrays.fill(COUNTER_OF, (byte) -1);
+        String bases = "ACGTN";
+        for (int i = 0; i < bases.length(); i++) {
+            COUNTER_OF[bases.charAt(i)] = (byte) i;
+            COUNTER_OF[Character.toLowerCase(bases.charAt(i))] = (byte) i;
+        }
+    }
+
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+    private final ObjectMapper objectMapper;
+
+    public GcTrackEngine(SequenceBackend sequenceBackend,
+                         @Qualifier("analysisPool") ForkJoinPool analysisPool,
+                         ObjectMapper objectMapper) {
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escribir la pista de un Chromosome.
+     * @param chromosomeId ID del Chromosome.
+     * @param chromosomeName Nombre del Chromosome, incluido en cada línea.
+     * @param length Longitud del Chromosome.
+     * @param window Tamaño de ventana (1 a {@link #MAX_WINDOW}).
+     * @param step Distancia entre el inicio de dos ventanas consecutivas (al menos 1).
+     * @param out Destino de las líneas NDJSON.
+     */
+    public void write(Long chromosomeId, String chromosomeName, int length, int window, int step,
+                      OutputStream out) throws IOException {
+        Track track = new Track(chromosomeId, chromosomeName, length, window, step);
+        int windowsPerRegion = Math.min(MAX_WINDOWS_PER_REGION, Math.max(1, Math.max(REGION_SPAN, window) / step));
+        int maxInFlight = analysisPool.getParallelism() * 2;
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        try {
+            for (int first = 0; first < track.windows; first += windowsPerRegion) {
+                int regionFirst = first;
+                int regionLast = (int) Math.min(track.windows, (long) first + windowsPerRegion);
+                pending.addLast(analysisPool.submit(() -> track.region(regionFirst, regionLast)));
+                while (pending.size() >= maxInFlight) {
+                    out.write(next(pending));
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(next(pending));
+            }
+        } finally {
+            // Si la escritura falla (por ejemplo, el cliente cerró la conexión) se descartan las regiones pendientes
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static byte[] next(Deque<Future<byte[]>> pending) throws IOException {
+        try {
+            return pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while computing GC track", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Failed to compute GC track", e.getCause());
+        }
+    }
+
+    /**
+     * Parámetros de una pista y cálculo de sus regiones.
+     */
+    private final class Track {
+        private final Long chromosomeId;
+        private final String chromosomeName;
+        private final int length;
+        private final int window;
+        private final int step;
+        private final int windows;
+
+        Track(Long chromosomeId, String chromosomeName, int length, int window, int step) {
+            this.chromosomeId = chromosomeId;
+            this.chromosomeName = chromosomeName;
+            this.length = length;
+            this.window = window;
+            this.step = step;
+            // Las ventanas empiezan antes del final del Chromosome y la última es la primera que lo alcanza
+            long reachingEnd = length <= window ? 1 : (length - window + (long) step - 1) / step + 1;
+            this.windows = (int) Math.min(reachingEnd, (length + (long) step - 1) / step);
+        }
+
+        int start(int index) {
+            return index * step;
+        }
+
+        int end(int index) {
+            return (int) Math.min(length, (long) index * step + window);
+        }
+
+        /**
+         * Calcular las líneas de las ventanas [first, last).
+         */
+        byte[] region(int first, int last) {
+            Slider slider = new Slider(this, first, last);
+            try {
+                if (step < window) {
+                    // Ventanas solapadas: una sola lectura de todo el tramo de la región
+                    slider.reset(start(first));
+                    sequenceBackend.stream(chromosomeId, start(first), end(last - 1), slider);
+                } else {
+                    // Ventanas separadas: se leen solo las bases de cada ventana
+                    for (int index = first; index < last; index++) {
+                        slider.reset(start(index));
+                        sequenceBackend.stream(chromosomeId, start(index), end(index), slider);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return slider.lines.toByteArray();
+        }
+    }
+
+    /**
+     * Conteos de la ventana actual. Las bases ya leídas se guardan en un búfer circular del tamaño
+     * de la ventana para poder restarlas cuando salen de ella.
+     */
+    private final class Slider implements SequenceChunkConsumer {
+        private final Track track;
+        private final byte[] ring;
+        private final int[] counts = new int[5];
+        private final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        private final int last;
+        private int next;
+        // Los conteos cubren las bases [low, position)
+        private int low;
+        private int position;
+
+        Slider(Track track, int first, int last) {
+            this.track = track;
+            this.ring = new byte[Math.min(track.window, track.end(last - 1) - track.start(first))];
+            this.last = last;
+            this.next = first;
+        }
+
+        void reset(int start) {
+            Arrays.fill(counts, 0);
+            low = start;
+            position = start;
+        }
+
+        @Override
+        public void accept(ByteBuffer chunk) throws IOException {
+            int ringSize = ring.length;
+            for (int i = chunk.position(), end = chunk.limit(); i < end; i++) {
+                if (position - low == ringSize) {
+                    remove(ring[low % ringSize]);
+                    low++;
+                }
+                byte b = chunk.get(i);
+                ring[position % ringSize] = b;
+                int counter = COUNTER_OF[b & 0xFF];
+                if (counter >= 0) {
+                    counts[counter]++;
+                }
+                position++;
+                if (next < last && position == track.end(next)) {
+                    int start = track.start(next);
+                    while (low < start) {
+                        remove(ring[low % ringSize]);
+                        low++;
+                    }
+                    appendLine(start, position);
+                    next++;
+                }
+            }
+            chunk.position(chunk.limit());
+        }
+
+        private void remove(byte b) {
+            int counter = COUNTER_OF[b & 0xFF];
+            if (counter >= 0) {
+                counts[counter]--;
+            }
+        }
+
+        private void appendLine(int start, int end) throws IOException {
+            int gc = counts[G] + counts[C];
+            int at = counts[A] + counts[T];
+            GcWindowDTO dto = new GcWindowDTO();
+            dto.setChromosome(track.chromosomeName);
+            dto.setStart(start);
+            dto.setEnd(end);
+            dto.setGcPercentage(ratio(gc, gc + at, 100, 100.0)); // 2 decimales
+            dto.setNFraction(ratio(counts[N], end - start, 1, 10_000.0)); // 4 decimales
+            dto.setGcSkew(ratio(counts[G] - counts[C], gc, 1, 10_000.0));
+            dto.setAtSkew(ratio(counts[A] - counts[T], at, 1, 10_000.0));
+            lines.write(objectMapper.writeValueAsBytes(dto));
+            lines.write('\n');
+        }
+    }
+
+    /**
+     * scale·numerator/denominator redondeado a 1/unit, o null si el denominador es 0.
+     */
+    private static Double ratio(long numerator, long denominator, int scale, double unit) {
+        if (denominator == 0) {
+            return null;
+        }
+        return Math.round((double) numerator * scale * unit / denominator) / unit;
+    }
+}
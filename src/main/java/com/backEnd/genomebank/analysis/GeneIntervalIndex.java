@@ -0,0 +1,235 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.entities.Chromosome;
+import com.backEnd.genomebank.entities.Gene;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.events.GenesChangedEvent;
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.GeneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Índice en memoria de los Genes de cada Chromosome ({@link GeneIntervals}), para responder
+ * consultas de solapamiento sin ir a la base de datos.
+ * <p>
+ * Se construye al arrancar, en el pool de indexación. Cuando cambian los Genes de un Chromosome
+ * (o el Chromosome mismo, que puede cambiar de nombre o eliminarse) su entrada se descarta y se
+ * reconstruye en segundo plano; varios cambios seguidos se agrupan en una sola reconstrucción y,
+ * mientras tanto, la primera consulta la carga. Un contador de versión por Chromosome impide
+ * guardar una entrada leída antes de la invalidación, como en {@link SequenceStatsCache}.
+ * <p>
+ * Si el conjunto de Genes no cabe en memoria, el índice se desactiva con
+ * {@code genomebank.analysis.gene-index.enabled=false} y cada consulta lee de la base de datos solo
+ * los Genes del rango pedido, con su columna de bins, y los k más cercanos a cada lado
+ * ({@link #findNearest}). Las operaciones entre conjuntos de Genes ({@link #find(Long)}) siguen
+ * leyendo el Chromosome completo.
+ */
+@Slf4j
+@Component
+public class GeneIntervalIndex {
+
+    /** Máximo de Genes cercanos que se piden a cada lado de una consulta. */
+    public static final int MAX_NEAREST = 100;
+
+    private final GeneRepository geneRepository;
+    private final ChromosomeRepository chromosomeRepository;
+    private final ExecutorService indexingExecutor;
+    private final boolean enabled;
+    private final Map<Long, GeneIntervals> chromosomes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public GeneIntervalIndex(GeneRepository geneRepository,
+                             ChromosomeRepository chromosomeRepository,
+                             @Qualifier("indexingExecutor") ExecutorService indexingExecutor,
+                             @Value("${genomebank.analysis.gene-index.enabled:true}") boolean enabled) {
+        this.geneRepository = geneRepository;
+        this.chromosomeRepository = chromosomeRepository;
+        this.indexingExecutor = indexingExecutor;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Obtener los Genes de un Chromosome que se solapan con un rango. Con el índice activo se
+     * devuelven todos los del Chromosome, cargándolos si no están en memoria; si no, solo los del
+     * rango, leídos de la base de datos.
+     * @param chromosomeId ID del Chromosome.
+     * @param start Inicio del rango.
+     * @param end Fin del rango (exclusivo).
+     * @return Genes del Chromosome, o vacío si el Chromosome no existe.
+     */
+    public Optional<GeneIntervals> find(Long chromosomeId, int start, int end) {
+        if (!enabled) {
+            return chromosomeRepository.findById(chromosomeId)
+                    .map(chromosome -> build(chromosome.getName(),
+                            geneRepository.findGenesInRange(chromosomeId, start, end)));
+        }
+        return find(chromosomeId);
+    }
+
+    /**
+     * Obtener los Genes de un Chromosome necesarios para responder a {@link GeneIntervals#overlapping},
+     * {@link GeneIntervals#nearestBefore} y {@link GeneIntervals#nearestAfter} sobre [start, end)
+     * con hasta k Genes por lado. Con el índice activo se devuelven todos los del Chromosome; si no,
+     * solo los que se solapan con el rango y los k más cercanos a cada lado, leídos de la base de
+     * datos con consultas limitadas.
+     * @param chromosomeId ID del Chromosome.
+     * @param start Inicio del rango.
+     * @param end Fin del rango (exclusivo).
+     * @param k Genes cercanos a cada lado.
+     * @return Genes del Chromosome, o vacío si el Chromosome no existe.
+     */
+    public Optional<GeneIntervals> findNearest(Long chromosomeId, int start, int end, int k) {
+        if (enabled) {
+            return find(chromosomeId);
+        }
+        return chromosomeRepository.findById(chromosomeId).map(chromosome -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Gene gene : geneRepository.findGenesInRange(chromosomeId, start, end)) {
+                rows.add(new Object[]{gene.getId(), gene.getSymbol(), gene.getStartPosition(),
+                        gene.getEndPosition(), gene.getStrand()});
+            }
+            rows.addAll(geneRepository.findIntervalsEndingBefore(chromosomeId, start, PageRequest.of(0, k)));
+            rows.addAll(geneRepository.findIntervalsStartingAfter(chromosomeId, end, PageRequest.of(0, k)));
+            return intervals(chromosome.getName(), rows);
+        });
+    }
+
+    /**
+     * Obtener todos los Genes de un Chromosome, cargándolos si no están en memoria. Con el índice
+     * desactivado se leen de la base de datos en cada llamada.
+     * @param chromosomeId ID del Chromosome.
+     * @return Genes del Chromosome, o vacío si el Chromosome no existe.
+     */
+    public Optional<GeneIntervals> find(Long chromosomeId) {
+        GeneIntervals cached = chromosomes.get(chromosomeId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long version = versions.getOrDefault(chromosomeId, 0L);
+        return chromosomeRepository.findById(chromosomeId)
+                .map(chromosome -> load(chromosome, version));
+    }
+
+    /**
+     * Construir el índice de todos los Chromosomes al arrancar. Se hace en segundo plano: las
+     * consultas que lleguen antes cargan su Chromosome por su cuenta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        indexingExecutor.execute(() -> {
+            long startTime = System.nanoTime();
+            long genes = 0;
+            // Versiones anteriores a la lectura de los Chromosomes, que pueden cambiar mientras tanto
+            Map<Long, Long> initialVersions = new HashMap<>(versions);
+            try {
+                for (Chromosome chromosome : chromosomeRepository.findAll()) {
+                    if (!chromosomes.containsKey(chromosome.getId())) {
+                        genes += load(chromosome, initialVersions.getOrDefault(chromosome.getId(), 0L)).size();
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not build the gene interval index", e);
+                return;
+            }
+            log.info("Indexed {} genes in {} ms", genes, (System.nanoTime() - startTime) / 1_000_000);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenesChanged(GenesChangedEvent event) {
+        invalidate(event.chromosomeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChromosomeChanged(ChromosomeChangedEvent event) {
+        invalidate(event.chromosomeId());
+    }
+
+    private void invalidate(Long chromosomeId) {
+        if (!enabled) {
+            return;
+        }
+        versions.merge(chromosomeId, 1L, Long::sum);
+        chromosomes.remove(chromosomeId);
+        if (pending.add(chromosomeId)) {
+            indexingExecutor.execute(() -> {
+                pending.remove(chromosomeId);
+                try {
+                    find(chromosomeId);
+                } catch (RuntimeException e) {
+                    log.warn("Could not index the genes of chromosome {}", chromosomeId, e);
+                }
+            });
+        }
+    }
+
+    private GeneIntervals load(Chromosome chromosome, long version) {
+        GeneIntervals intervals = intervals(chromosome.getName(),
+                geneRepository.findIntervalsByChromosomeId(chromosome.getId()));
+        if (enabled) {
+            // La comprobación se hace bajo el bloqueo de la entrada, el mismo que toma invalidate()
+            chromosomes.compute(chromosome.getId(), (id, previous) ->
+                    versions.getOrDefault(id, 0L) == version ? intervals : previous);
+        }
+        return intervals;
+    }
+
+    /**
+     * Construir el índice de un Chromosome a partir de filas (ID, símbolo, inicio, fin, hebra).
+     */
+    private static GeneIntervals intervals(String chromosomeName, List<Object[]> rows) {
+        int n = rows.size();
+        long[] ids = new long[n];
+        String[] symbols = new String[n];
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        char[] strands = new char[n];
+        for (int i = 0; i < n; i++) {
+            Object[] row = rows.get(i);
+            ids[i] = (Long) row[0];
+            symbols[i] = (String) row[1];
+            starts[i] = (Integer) row[2];
+            ends[i] = (Integer) row[3];
+            strands[i] = row[4] != null ? (Character) row[4] : '\0';
+        }
+        return new GeneIntervals(chromosomeName, ids, symbols, starts, ends, strands);
+    }
+
+    private static GeneIntervals build(String chromosomeName, List<Gene> genes) {
+        int n = genes.size();
+        long[] ids = new long[n];
+        String[] symbols = new String[n];
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        char[] strands = new char[n];
+        for (int i = 0; i < n; i++) {
+            Gene gene = genes.get(i);
+            ids[i] = gene.getId();
+            symbols[i] = gene.getSymbol();
+            starts[i] = gene.getStartPosition();
+            ends[i] = gene.getEndPosition();
+            strands[i] = gene.getStrand() != null ? gene.getStrand() : '\0';
+        }
+        return new GeneIntervals(chromosomeName, ids, symbols, starts, ends, strands);
+    }
+}
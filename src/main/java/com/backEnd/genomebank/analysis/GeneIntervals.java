@@ -0,0 +1,261 @@
+package com.backEnd.genomebank.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Genes de un Chromosome en un árbol de intervalos implícito sobre arreglos de {@code int}:
+ * los intervalos se ordenan por inicio y cada posición del arreglo es un nodo de un árbol
+ * binario (el nivel de un nodo es el número de unos finales de su posición), que guarda además
+ * el mayor fin de su subárbol. Una consulta de solapamiento cuesta O(log n + k). Una permutación
+ * ordenada por fin permite además encontrar por búsqueda binaria los k Genes más cercanos a cada
+ * lado de una posición ({@link #nearestBefore}, {@link #nearestAfter}).
+ * <p>
+ * Los intervalos son semiabiertos, [start, end), como en la tabla de Genes. Es inmutable: un
+ * cambio en los Genes se refleja construyendo otra instancia ({@link GeneIntervalIndex}).
+ */
+public final class GeneIntervals {
+
+    /** Nivel a partir del cual un subárbol se recorre linealmente. */
+    private static final int SCAN_LEVEL = 3;
+
+    private final String chromosomeName;
+    private final long[] ids;
+    private final String[] symbols;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnds;
+    /** Posiciones de los Genes ordenadas por fin, y sus fines. */
+    private final int[] endOrder;
+    private final int[] sortedEnds;
+    private final char[] strands;
+    private final int maxLevel;
+
+    /**
+     * @param chromosomeName Nombre del Chromosome.
+     * @param ids IDs de los Genes.
+     * @param symbols Símbolos de los Genes.
+     * @param starts Inicios de los Genes.
+     * @param ends Fines de los Genes.
+     * @param strands Hebras de los Genes ('\0' si no tienen).
+     */
+    public GeneIntervals(String chromosomeName, long[] ids, String[] symbols, int[] starts, int[] ends,
+                         char[] strands) {
+        int n = ids.length;
+        // Inicio en los 32 bits altos y posición original en los bajos: los empates quedan en el orden recibido
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (long) starts[i] << 32 | i;
+        }
+        Arrays.sort(order);
+        this.chromosomeName = chromosomeName;
+        this.ids = new long[n];
+        this.symbols = new String[n];
+        this.starts = new int[n];
+        this.ends = new int[n];
+        this.strands = new char[n];
+        for (int i = 0; i < n; i++) {
+            int source = (int) order[i];
+            this.ids[i] = ids[source];
+            this.symbols[i] = symbols[source];
+            this.starts[i] = starts[source];
+            this.ends[i] = ends[source];
+            this.strands[i] = strands[source];
+        }
+        this.maxEnds = new int[n];
+        this.maxLevel = index();
+        for (int i = 0; i < n; i++) {
+            order[i] = (long) this.ends[i] << 32 | i;
+        }
+        Arrays.sort(order);
+        this.endOrder = new int[n];
+        this.sortedEnds = new int[n];
+        for (int i = 0; i < n; i++) {
+            endOrder[i] = (int) order[i];
+            sortedEnds[i] = this.ends[endOrder[i]];
+        }
+    }
+
+    /**
+     * Chromosome sin Genes.
+     */
+    public static GeneIntervals empty(String chromosomeName) {
+        return new GeneIntervals(chromosomeName, new long[0], new String[0], new int[0], new int[0], new char[0]);
+    }
+
+    /**
+     * Calcular el mayor fin de cada subárbol, de las hojas a la raíz.
+     * @return Nivel de la raíz.
+     */
+    private int index() {
+        int n = starts.length;
+        if (n == 0) {
+            return -1;
+        }
+        int lastIndex = 0;
+        int last = 0;
+        for (int i = 0; i < n; i += 2) {
+            lastIndex = i;
+            last = maxEnds[i] = ends[i];
+        }
+        int k = 1;
+        for (; 1L << k <= n; k++) {
+            int x = 1 << (k - 1);
+            long step = (long) x << 2;
+            for (long i = ((long) x << 1) - 1; i < n; i += step) {
+                int node = (int) i;
+                int left = maxEnds[node - x];
+                int right = node + x < n ? maxEnds[node + x] : last;
+                maxEnds[node] = Math.max(ends[node], Math.max(left, right));
+            }
+            // El último nodo pasa a ser su padre, que puede quedar fuera del arreglo
+            lastIndex = (lastIndex >> k & 1) != 0 ? lastIndex - x : lastIndex + x;
+            if (lastIndex < n && maxEnds[lastIndex] > last) {
+                last = maxEnds[lastIndex];
+            }
+        }
+        return k - 1;
+    }
+
+    /**
+     * Posiciones de los Genes que se solapan con [start, end), en orden de inicio: los que
+     * cumplen {@code start(i) < end && end(i) > start}, la misma condición de
+     * {@code GeneRepository.findGenesInRange}.
+     * @param start Inicio del rango.
+     * @param end Fin del rango (exclusivo).
+     * @return Posiciones para los accesores de esta clase.
+     */
+    public int[] overlapping(int start, int end) {
+        if (maxLevel < 0) {
+            return new int[0];
+        }
+        int[] found = new int[8];
+        int count = 0;
+        int n = starts.length;
+        // Pila de nodos: nivel, posición y si ya se visitó su hijo izquierdo
+        int[] levels = new int[2 * maxLevel + 4];
+        long[] nodes = new long[levels.length];
+        boolean[] leftDone = new boolean[levels.length];
+        int top = 0;
+        levels[top] = maxLevel;
+        nodes[top] = (1L << maxLevel) - 1;
+        leftDone[top++] = false;
+        while (top > 0) {
+            top--;
+            int level = levels[top];
+            long node = nodes[top];
+            if (level <= SCAN_LEVEL) {
+                long first = node >> level << level;
+                long last = Math.min(n, first + (1L << (level + 1)) - 1);
+                for (int i = (int) first; i < last && starts[i] < end; i++) {
+                    if (start < ends[i]) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = i;
+                    }
+                }
+            } else if (!leftDone[top]) {
+                long left = node - (1L << (level - 1));
+                leftDone[top++] = true;
+                if (left >= n || maxEnds[(int) left] > start) {
+                    levels[top] = level - 1;
+                    nodes[top] = left;
+                    leftDone[top++] = false;
+                }
+            } else if (node < n && starts[(int) node] < end) {
+                if (start < ends[(int) node]) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = (int) node;
+                }
+                levels[top] = level - 1;
+                nodes[top] = node + (1L << (level - 1));
+                leftDone[top++] = false;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Genes que terminan en position o antes, del más cercano al más lejano (por fin descendente).
+     * @param position Posición de referencia.
+     * @param k Máximo de Genes.
+     * @return Posiciones para los accesores de esta clase.
+     */
+    public int[] nearestBefore(int position, int k) {
+        // Número de Genes con fin <= position
+        int count = upperBound(sortedEnds, position);
+        int[] found = new int[Math.min(k, count)];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = endOrder[count - 1 - i];
+        }
+        return found;
+    }
+
+    /**
+     * Genes que empiezan en position o después, del más cercano al más lejano (por inicio).
+     * @param position Posición de referencia.
+     * @param k Máximo de Genes.
+     * @return Posiciones para los accesores de esta clase.
+     */
+    public int[] nearestAfter(int position, int k) {
+        int first = upperBound(starts, position - 1);
+        int[] found = new int[Math.min(k, starts.length - first)];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = first + i;
+        }
+        return found;
+    }
+
+    /**
+     * Número de elementos de un arreglo ordenado menores o iguales a value.
+     */
+    private static int upperBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public String chromosomeName() {
+        return chromosomeName;
+    }
+
+    /**
+     * Número de Genes.
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    public long geneId(int i) {
+        return ids[i];
+    }
+
+    public String symbol(int i) {
+        return symbols[i];
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int end(int i) {
+        return ends[i];
+    }
+
+    /**
+     * Hebra del Gene, o null si no tiene.
+     */
+    public Character strand(int i) {
+        return strands[i] == '\0' ? null : strands[i];
+    }
+}
@@ -0,0 +1,448 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice FM de las secuencias de un Genome, guardado en un archivo y leído mediante memory-mapping.
+ * Los Chromosomes se concatenan en particiones de tamaño acotado, cada una con su propio índice;
+ * contar las apariciones de un patrón cuesta O(longitud del patrón) por partición, sin importar el
+ * tamaño del Genome, y cada ubicación cuesta como mucho {@link #SAMPLE_RATE} pasos más.
+ * <p>
+ * El texto de cada partición usa los símbolos 0 (separador tras cada Chromosome), 1-4 (A, C, G, T,
+ * sin distinguir mayúsculas/minúsculas) y 5 (cualquier otro código), y los patrones solo pueden
+ * tener A, C, G y T, así que una coincidencia nunca cruza un separador ni una N. La BWT se guarda
+ * en bloques de 64 filas de 64 bytes (una línea de caché): los conteos de A, C, G y T antes del
+ * bloque, un bit por fila para cada base y un bit por fila con posición muestreada. Se muestrean
+ * las posiciones múltiplo de {@link #SAMPLE_RATE} y las que siguen a un símbolo que no es A, C,
+ * G ni T, de modo que recorrer la BWT desde una coincidencia nunca necesita esos símbolos.
+ */
+public final class GenomeFmIndex implements GenomeIndexStore.GenomeIndex {
+
+    public static final int SAMPLE_RATE = 32;
+
+    private static final long MAGIC = 0x31494d46424e4547L; // "GENBFMI1"
+    private static final int VERSION = 1;
+    private static final int BLOCK_BYTES = 64;
+    private static final int SAMPLED_RANK = 16;
+    private static final int BITS = 24;
+    private static final int SAMPLED_BITS = 56;
+    private static final byte SEPARATOR = 0;
+    private static final byte OTHER = 5;
+    /** Mayor texto de una partición; el índice usa posiciones y filas int. */
+    static final int MAX_TEXT_LENGTH = Integer.MAX_VALUE - 2 * BLOCK_BYTES;
+
+    private final long genomeId;
+    private final List<IndexedChromosome> chromosomes;
+    private final Partition[] partitions;
+
+    /**
+     * Ubicación de una coincidencia.
+     * @param chromosomeId ID del Chromosome.
+     * @param start Posición inicial (inclusive, base 0).
+     */
+    public record Location(Long chromosomeId, int start) {
+    }
+
+    private GenomeFmIndex(long genomeId, List<IndexedChromosome> chromosomes, Partition[] partitions) {
+        this.genomeId = genomeId;
+        this.chromosomes = chromosomes;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public long getGenomeId() {
+        return genomeId;
+    }
+
+    /**
+     * @return Chromosomes indexados, en el orden en que se concatenaron.
+     */
+    @Override
+    public List<IndexedChromosome> getChromosomes() {
+        return chromosomes;
+    }
+
+    /**
+     * Número de apariciones exactas de un patrón.
+     * @param pattern Patrón de A, C, G y T (sin distinguir mayúsculas/minúsculas).
+     * @throws IllegalArgumentException si el patrón está vacío o tiene otros caracteres.
+     */
+    public long count(String pattern) {
+        byte[] codes = encode(pattern);
+        long count = 0;
+        for (Partition partition : partitions) {
+            int[] range = partition.search(codes);
+            count += range[1] - range[0];
+        }
+        return count;
+    }
+
+    /**
+     * Ubicaciones de las apariciones exactas de un patrón, como mucho limit, ordenadas por
+     * Chromosome (en el orden del índice) y posición. Si hay más de limit, no se garantiza cuáles
+     * se devuelven.
+     * @param pattern Patrón de A, C, G y T (sin distinguir mayúsculas/minúsculas).
+     * @param limit Máximo de ubicaciones.
+     * @throws IllegalArgumentException si el patrón está vacío o tiene otros caracteres.
+     */
+    public List<Location> locate(String pattern, int limit) {
+        byte[] codes = encode(pattern);
+        List<Location> locations = new ArrayList<>();
+        for (Partition partition : partitions) {
+            int[] range = partition.search(codes);
+            for (int row = range[0]; row < range[1] && locations.size() < limit; row++) {
+                locations.add(partition.location(partition.position(row)));
+            }
+        }
+        Map<Long, Integer> order = new HashMap<>();
+        for (int i = 0; i < chromosomes.size(); i++) {
+            order.put(chromosomes.get(i).chromosomeId(), i);
+        }
+        locations.sort(Comparator.comparing((Location location) -> order.get(location.chromosomeId()))
+                .thenComparingInt(Location::start));
+        return locations;
+    }
+
+    private static byte[] encode(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Query must not be empty");
+        }
+        byte[] codes = new byte[pattern.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = code(pattern.charAt(i));
+            if (codes[i] == OTHER) {
+                throw new IllegalArgumentException("Query can only contain A, C, G and T: " + pattern);
+            }
+        }
+        return codes;
+    }
+
+    private static byte code(int base) {
+        return switch (base) {
+            case 'A', 'a' -> 1;
+            case 'C', 'c' -> 2;
+            case 'G', 'g' -> 3;
+            case 'T', 't' -> 4;
+            default -> OTHER;
+        };
+    }
+
+    /**
+     * Abrir un índice guardado.
+     * @param file Archivo del índice.
+     * @throws IOException si no se puede leer o no es un índice válido.
+     */
+    public static GenomeFmIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer fixed = read(channel, 0, 32);
+            if (fixed.getLong() != MAGIC || fixed.getInt() != VERSION || fixed.getInt() != SAMPLE_RATE) {
+                throw new IOException("Not a genome FM-index: " + file);
+            }
+            long genomeId = fixed.getLong();
+            int chromosomeCount = fixed.getInt();
+            int partitionCount = fixed.getInt();
+            ByteBuffer header = read(channel, 32, chromosomeCount * 20L + partitionCount * 40L);
+
+            List<IndexedChromosome> chromosomes = new ArrayList<>();
+            int[] chromosomePartition = new int[chromosomeCount];
+            int[] chromosomeOffset = new int[chromosomeCount];
+            for (int i = 0; i < chromosomeCount; i++) {
+                chromosomes.add(new IndexedChromosome(header.getLong(), header.getInt()));
+                chromosomePartition[i] = header.getInt();
+                chromosomeOffset[i] = header.getInt();
+            }
+            Partition[] partitions = new Partition[partitionCount];
+            for (int p = 0; p < partitionCount; p++) {
+                int textLength = header.getInt();
+                int sampleCount = header.getInt();
+                int[] smaller = new int[5];
+                for (int c = 1; c <= 4; c++) {
+                    smaller[c] = header.getInt();
+                }
+                long blocksOffset = header.getLong();
+                long samplesOffset = header.getLong();
+                List<Long> ids = new ArrayList<>();
+                List<Integer> offsets = new ArrayList<>();
+                for (int i = 0; i < chromosomeCount; i++) {
+                    if (chromosomePartition[i] == p) {
+                        ids.add(chromosomes.get(i).chromosomeId());
+                        offsets.add(chromosomeOffset[i]);
+                    }
+                }
+                MappedByteBuffer blocks = channel.map(FileChannel.MapMode.READ_ONLY, blocksOffset,
+                        blockCount(textLength) * (long) BLOCK_BYTES);
+                blocks.order(ByteOrder.LITTLE_ENDIAN);
+                IntBuffer samples = channel.map(FileChannel.MapMode.READ_ONLY, samplesOffset, sampleCount * 4L)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                partitions[p] = new Partition(textLength, smaller, blocks, samples,
+                        ids.toArray(new Long[0]), offsets.stream().mapToInt(Integer::intValue).toArray());
+            }
+            return new GenomeFmIndex(genomeId, Collections.unmodifiableList(chromosomes), partitions);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated genome FM-index");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int blockCount(int textLength) {
+        // Una fila más que el texto para poder contar hasta la posición textLength
+        return textLength / 64 + 1;
+    }
+
+    /**
+     * Construir y escribir el índice de un Genome. Las particiones se construyen una a una, así
+     * que la memoria necesaria depende de la partición más grande y no del Genome.
+     * @param file Archivo de destino.
+     * @param genomeId ID del Genome.
+     * @param chromosomes Chromosomes con secuencia, en el orden en que se concatenan.
+     * @param partitionLength Longitud máxima del texto de una partición; un Chromosome más largo
+     *                        ocupa una partición él solo.
+     * @param sequenceBackend Origen de las bases.
+     * @throws IllegalArgumentException si un Chromosome es demasiado largo para indexarse.
+     */
+    public static void write(Path file, long genomeId, List<IndexedChromosome> chromosomes, int partitionLength,
+                             SequenceBackend sequenceBackend) throws IOException {
+        List<List<IndexedChromosome>> groups = new ArrayList<>();
+        long used = 0;
+        for (IndexedChromosome chromosome : chromosomes) {
+            if ((long) chromosome.length() + 1 > MAX_TEXT_LENGTH) {
+                throw new IllegalArgumentException("Chromosome " + chromosome.chromosomeId()
+                        + " is too long to be indexed");
+            }
+            if (groups.isEmpty() || used + chromosome.length() + 1 > partitionLength) {
+                groups.add(new ArrayList<>());
+                used = 0;
+            }
+            groups.get(groups.size() - 1).add(chromosome);
+            used += chromosome.length() + 1;
+        }
+
+        long headerLength = 32 + chromosomes.size() * 20L + groups.size() * 40L;
+        ByteBuffer header = ByteBuffer.allocate((int) headerLength).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC).putInt(VERSION).putInt(SAMPLE_RATE).putLong(genomeId)
+                .putInt(chromosomes.size()).putInt(groups.size());
+        for (int p = 0; p < groups.size(); p++) {
+            int offset = 0;
+            for (IndexedChromosome chromosome : groups.get(p)) {
+                header.putLong(chromosome.chromosomeId()).putInt(chromosome.length()).putInt(p).putInt(offset);
+                offset += chromosome.length() + 1;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(headerLength);
+            for (List<IndexedChromosome> group : groups) {
+                writePartition(channel, header, group, sequenceBackend);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void writePartition(FileChannel channel, ByteBuffer header, List<IndexedChromosome> group,
+                                       SequenceBackend sequenceBackend) throws IOException {
+        int textLength = 0;
+        for (IndexedChromosome chromosome : group) {
+            textLength += chromosome.length() + 1;
+        }
+        byte[] text = new byte[textLength];
+        int[] position = {0};
+        for (IndexedChromosome chromosome : group) {
+            sequenceBackend.stream(chromosome.chromosomeId(), 0, chromosome.length(), chunk -> {
+                for (int i = chunk.position(), limit = chunk.limit(); i < limit; i++) {
+                    text[position[0]++] = code(chunk.get(i));
+                }
+                chunk.position(chunk.limit());
+            });
+            text[position[0]++] = SEPARATOR;
+        }
+        int[] symbolCounts = new int[6];
+        for (byte symbol : text) {
+            symbolCounts[symbol]++;
+        }
+        int[] sa = SuffixArrays.build(text, OTHER);
+
+        // Bloques de la BWT, escritos a medida que se recorre el arreglo de sufijos
+        long blocksOffset = channel.position();
+        ByteBuffer out = ByteBuffer.allocate(1024 * BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int[] occ = new int[5];
+        long[] bits = new long[5];
+        long sampledBits = 0;
+        int sampled = 0;
+        int blockSampledRank = 0;
+        int[] samples = new int[textLength / SAMPLE_RATE + 16];
+        for (int row = 0; row <= textLength; row++) {
+            if ((row & 63) == 0 && row > 0) {
+                writeBlock(channel, out, occ, bits, sampledBits, blockSampledRank);
+                for (int c = 1; c <= 4; c++) {
+                    occ[c] += Long.bitCount(bits[c]);
+                    bits[c] = 0;
+                }
+                sampledBits = 0;
+                blockSampledRank = sampled;
+            }
+            if (row == textLength) {
+                break;
+            }
+            int suffix = sa[row];
+            int previous = suffix > 0 ? text[suffix - 1] : SEPARATOR;
+            if (previous >= 1 && previous <= 4) {
+                bits[previous] |= 1L << row;
+            }
+            boolean base = text[suffix] >= 1 && text[suffix] <= 4;
+            if (base && (suffix % SAMPLE_RATE == 0 || previous < 1 || previous > 4)) {
+                sampledBits |= 1L << row;
+                if (sampled == samples.length) {
+                    samples = Arrays.copyOf(samples, samples.length + (samples.length >> 1) + 16);
+                }
+                samples[sampled++] = suffix;
+            }
+        }
+        writeBlock(channel, out, occ, bits, sampledBits, blockSampledRank);
+        flush(channel, out);
+        sa = null;
+
+        long samplesOffset = channel.position();
+        for (int i = 0; i < sampled; i++) {
+            if (!out.hasRemaining()) {
+                flush(channel, out);
+            }
+            out.putInt(samples[i]);
+        }
+        flush(channel, out);
+
+        header.putInt(textLength).putInt(sampled);
+        int smaller = symbolCounts[SEPARATOR];
+        for (int c = 1; c <= 4; c++) {
+            header.putInt(smaller);
+            smaller += symbolCounts[c];
+        }
+        header.putLong(blocksOffset).putLong(samplesOffset);
+    }
+
+    private static void writeBlock(FileChannel channel, ByteBuffer out, int[] occ, long[] bits, long sampledBits,
+                                   int sampledRank) throws IOException {
+        if (out.remaining() < BLOCK_BYTES) {
+            flush(channel, out);
+        }
+        for (int c = 1; c <= 4; c++) {
+            out.putInt(occ[c]);
+        }
+        out.putInt(sampledRank).putInt(0);
+        for (int c = 1; c <= 4; c++) {
+            out.putLong(bits[c]);
+        }
+        out.putLong(sampledBits);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Índice FM de una partición, sobre los bloques y las muestras mapeados en memoria.
+     */
+    private static final class Partition {
+        private final int textLength;
+        // Número de símbolos del texto menores que cada base (C en la notación habitual)
+        private final int[] smaller;
+        private final MappedByteBuffer blocks;
+        private final IntBuffer samples;
+        private final Long[] chromosomeIds;
+        private final int[] chromosomeOffsets;
+
+        Partition(int textLength, int[] smaller, MappedByteBuffer blocks, IntBuffer samples,
+                  Long[] chromosomeIds, int[] chromosomeOffsets) {
+            this.textLength = textLength;
+            this.smaller = smaller;
+            this.blocks = blocks;
+            this.samples = samples;
+            this.chromosomeIds = chromosomeIds;
+            this.chromosomeOffsets = chromosomeOffsets;
+        }
+
+        /**
+         * Búsqueda hacia atrás: filas [desde, hasta) cuyos sufijos empiezan por el patrón.
+         */
+        int[] search(byte[] codes) {
+            int low = 0;
+            int high = textLength;
+            for (int i = codes.length - 1; i >= 0 && low < high; i--) {
+                int c = codes[i];
+                low = smaller[c] + occ(c, low);
+                high = smaller[c] + occ(c, high);
+            }
+            return low < high ? new int[]{low, high} : new int[]{0, 0};
+        }
+
+        /**
+         * Apariciones de la base c en las filas [0, row) de la BWT.
+         */
+        private int occ(int c, int row) {
+            int block = (row >>> 6) * BLOCK_BYTES;
+            long mask = (1L << row) - 1;
+            return blocks.getInt(block + 4 * (c - 1))
+                    + Long.bitCount(blocks.getLong(block + BITS + 8 * (c - 1)) & mask);
+        }
+
+        /**
+         * Posición en el texto del sufijo de una fila, retrocediendo por la BWT hasta una fila muestreada.
+         */
+        int position(int row) {
+            int steps = 0;
+            while (true) {
+                int block = (row >>> 6) * BLOCK_BYTES;
+                long bit = 1L << row;
+                long sampledBits = blocks.getLong(block + SAMPLED_BITS);
+                if ((sampledBits & bit) != 0) {
+                    int rank = blocks.getInt(block + SAMPLED_RANK) + Long.bitCount(sampledBits & (bit - 1));
+                    return samples.get(rank) + steps;
+                }
+                int c = 1;
+                while ((blocks.getLong(block + BITS + 8 * (c - 1)) & bit) == 0) {
+                    c++;
+                }
+                row = smaller[c] + occ(c, row);
+                steps++;
+            }
+        }
+
+        Location location(int position) {
+            int index = Arrays.binarySearch(chromosomeOffsets, position);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return new Location(chromosomeIds[index], position - chromosomeOffsets[index]);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.entities.Chromosome;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.GenomeRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Índices por Genome guardados en archivos genome-{id}.{extensión} de un directorio, como
+ * {@link FmIndexStore} y {@link MinimizerIndexStore}.
+ * Los índices se construyen siempre en segundo plano, en el pool de indexación: al pedirlo
+ * explícitamente, al consultar un Genome sin índice válido o cuando cambia la secuencia de uno de
+ * sus Chromosomes. Mientras se reconstruye se sigue usando el índice anterior, marcado como
+ * desactualizado con un archivo genome-{id}.{extensión}.stale que sobrevive a un reinicio. Cada
+ * archivo se escribe aparte y se reemplaza de forma atómica; las consultas que ya lo tenían
+ * abierto siguen leyendo la versión previa.
+ * @param <I> Tipo de índice.
+ */
+@Slf4j
+public abstract class GenomeIndexStore<I extends GenomeIndexStore.GenomeIndex> {
+
+    private final ChromosomeRepository chromosomeRepository;
+    private final GenomeRepository genomeRepository;
+    protected final SequenceBackend sequenceBackend;
+    private final ExecutorService indexingExecutor;
+    protected final Path directory;
+    private final String extension;
+    private final Map<Long, I> open = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Set<Long> building = ConcurrentHashMap.newKeySet();
+    // Chromosomes con los que falló la última construcción, para no reintentarla en cada consulta
+    private final Map<Long, List<IndexedChromosome>> failed = new ConcurrentHashMap<>();
+    private final Map<Long, Object> locks = new ConcurrentHashMap<>();
+
+    protected GenomeIndexStore(ChromosomeRepository chromosomeRepository,
+                               GenomeRepository genomeRepository,
+                               SequenceBackend sequenceBackend,
+                               ExecutorService indexingExecutor,
+                               String directory,
+                               String extension) throws IOException {
+        this.chromosomeRepository = chromosomeRepository;
+        this.genomeRepository = genomeRepository;
+        this.sequenceBackend = sequenceBackend;
+        this.indexingExecutor = indexingExecutor;
+        this.directory = Path.of(directory);
+        this.extension = extension;
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * Índice de las secuencias de un Genome.
+     */
+    public interface GenomeIndex {
+        long getGenomeId();
+
+        /**
+         * @return Chromosomes indexados.
+         */
+        List<IndexedChromosome> getChromosomes();
+    }
+
+    /**
+     * Estado del índice de un Genome.
+     */
+    public enum State {
+        /** No hay índice y no se está construyendo. */
+        MISSING,
+        /** No hay índice utilizable; se está construyendo. */
+        BUILDING,
+        /** Hay un índice, pero cambió alguna secuencia y se está reconstruyendo. */
+        STALE,
+        /** El índice corresponde a las secuencias actuales. */
+        READY
+    }
+
+    /**
+     * Abrir un índice guardado.
+     */
+    protected abstract I read(Path file) throws IOException;
+
+    /**
+     * Construir el índice de un Genome y escribirlo en un archivo.
+     */
+    protected abstract void write(Path file, long genomeId, List<IndexedChromosome> chromosomes) throws IOException;
+
+    /**
+     * Obtener el índice de un Genome si corresponde a sus Chromosomes actuales (mismos IDs y
+     * longitudes). Si no existe o no corresponde, o si alguna secuencia cambió desde que se
+     * construyó, se programa una reconstrucción, salvo que ya haya fallado con los mismos Chromosomes.
+     * @param genomeId ID del Genome.
+     * @param chromosomes Chromosomes con secuencia del Genome.
+     * @return Índice, o null si todavía no hay uno utilizable.
+     */
+    public I index(Long genomeId, List<IndexedChromosome> chromosomes) {
+        I index = load(genomeId);
+        boolean usable = index != null && index.getChromosomes().equals(chromosomes);
+        if ((!usable || isStale(genomeId)) && !chromosomes.equals(failed.get(genomeId))) {
+            schedule(genomeId);
+        }
+        return usable ? index : null;
+    }
+
+    /**
+     * Estado del índice de un Genome respecto de sus Chromosomes actuales.
+     */
+    public State state(Long genomeId, List<IndexedChromosome> chromosomes) {
+        I index = load(genomeId);
+        boolean inProgress = pending.contains(genomeId) || building.contains(genomeId);
+        if (index == null || !index.getChromosomes().equals(chromosomes)) {
+            return inProgress ? State.BUILDING : State.MISSING;
+        }
+        return isStale(genomeId) ? State.STALE : State.READY;
+    }
+
+    /**
+     * @return true si alguna secuencia del Genome cambió desde que se construyó su índice.
+     */
+    public boolean isStale(Long genomeId) {
+        return Files.exists(stalePath(genomeId));
+    }
+
+    /**
+     * @return Tamaño en bytes del archivo del índice, o 0 si no existe.
+     */
+    public long size(Long genomeId) {
+        try {
+            return Files.exists(indexPath(genomeId)) ? Files.size(indexPath(genomeId)) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Programar la construcción del índice de un Genome. Varias peticiones seguidas se agrupan
+     * en una sola construcción.
+     */
+    public void schedule(Long genomeId) {
+        if (pending.add(genomeId)) {
+            indexingExecutor.execute(() -> buildPending(genomeId));
+        }
+    }
+
+    /**
+     * Marcar como desactualizado el índice del Genome del Chromosome y reconstruirlo. Si el
+     * Chromosome se eliminó, se busca entre los índices abiertos el que lo incluía.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChromosomeChanged(ChromosomeChangedEvent event) {
+        indexingExecutor.execute(() -> {
+            Long genomeId = chromosomeRepository.findById(event.chromosomeId())
+                    .map(chromosome -> chromosome.getGenome().getId())
+                    .orElseGet(() -> open.values().stream()
+                            .filter(index -> index.getChromosomes().stream()
+                                    .anyMatch(chromosome -> chromosome.chromosomeId().equals(event.chromosomeId())))
+                            .map(GenomeIndex::getGenomeId)
+                            .findFirst().orElse(null));
+            // Sin índice ni construcción en curso no hay nada que marcar
+            if (genomeId == null || !Files.exists(indexPath(genomeId)) && !building.contains(genomeId)) {
+                return;
+            }
+            try {
+                Files.write(stalePath(genomeId), new byte[0]);
+            } catch (IOException e) {
+                log.warn("Could not mark the {} index of genome {} as stale", extension, genomeId, e);
+            }
+            schedule(genomeId);
+        });
+    }
+
+    /**
+     * Chromosomes con secuencia de un Genome, en el orden en que se indexan.
+     */
+    public List<IndexedChromosome> indexable(List<Chromosome> chromosomes) {
+        return chromosomes.stream()
+                .filter(chromosome -> chromosome.getLength() > 0 && sequenceBackend.hasSequence(chromosome.getId()))
+                .sorted(Comparator.comparing(Chromosome::getId))
+                .map(chromosome -> new IndexedChromosome(chromosome.getId(), chromosome.getLength()))
+                .toList();
+    }
+
+    private void buildPending(Long genomeId) {
+        pending.remove(genomeId);
+        building.add(genomeId);
+        try {
+            build(genomeId);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not build the {} index of genome {}", extension, genomeId, e);
+        } finally {
+            building.remove(genomeId);
+        }
+    }
+
+    /**
+     * Construir y guardar el índice de un Genome. Las construcciones de un mismo Genome se
+     * serializan; la marca de desactualizado se quita antes de leer las secuencias, así que un
+     * cambio durante la construcción vuelve a marcarlo.
+     */
+    private void build(Long genomeId) throws IOException {
+        synchronized (locks.computeIfAbsent(genomeId, id -> new Object())) {
+            Path file = indexPath(genomeId);
+            if (!genomeRepository.existsById(genomeId)) {
+                open.remove(genomeId);
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(stalePath(genomeId));
+                return;
+            }
+            boolean wasStale = isStale(genomeId);
+            Files.deleteIfExists(stalePath(genomeId));
+            List<IndexedChromosome> chromosomes = indexable(chromosomeRepository.findByGenomeId(genomeId));
+            if (chromosomes.isEmpty()) {
+                open.remove(genomeId);
+                Files.deleteIfExists(file);
+                return;
+            }
+
+            long startTime = System.nanoTime();
+            Path temp = Files.createTempFile(directory, "genome-" + genomeId + "-", ".tmp");
+            try {
+                write(temp, genomeId, chromosomes);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                open.put(genomeId, read(file));
+                failed.remove(genomeId);
+            } catch (IOException | RuntimeException e) {
+                failed.put(genomeId, chromosomes);
+                Files.deleteIfExists(temp);
+                if (wasStale) {
+                    Files.write(stalePath(genomeId), new byte[0]);
+                }
+                throw e;
+            }
+            log.info("Built {} index of genome {} ({} chromosomes) in {} ms", extension, genomeId,
+                    chromosomes.size(), (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
+    private I load(Long genomeId) {
+        I index = open.get(genomeId);
+        if (index != null) {
+            return index;
+        }
+        Path file = indexPath(genomeId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return open.computeIfAbsent(genomeId, id -> {
+                try {
+                    return read(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Could not open the {} index of genome {}", extension, genomeId, e);
+            return null;
+        }
+    }
+
+    private Path indexPath(Long genomeId) {
+        return directory.resolve("genome-" + genomeId + "." + extension);
+    }
+
+    private Path stalePath(Long genomeId) {
+        return directory.resolve("genome-" + genomeId + "." + extension + ".stale");
+    }
+}
@@ -0,0 +1,344 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Índice de minimizadores ({@link Minimizers}) de las secuencias de un Genome, guardado en un
+ * archivo y leído mediante memory-mapping, para encontrar semillas de alineamientos aproximados.
+ * Los Chromosomes se concatenan en un espacio de posiciones globales. Cada aparición de un
+ * minimizador es una entrada de 8 bytes (bits altos del hash, posición global y hebra); las
+ * entradas se agrupan en buckets por los bits bajos del hash y se ordenan dentro de cada uno, así
+ * que una tabla con el inicio de cada bucket permite llegar a las de un hash con una búsqueda
+ * binaria dentro de un único bucket.
+ * <p>
+ * La construcción hace una pasada sobre las secuencias para contar las entradas de cada bucket y
+ * después una pasada por cada grupo de buckets que cabe en la memoria indicada, así que la memoria
+ * necesaria no depende del tamaño del Genome.
+ */
+public final class GenomeMinimizerIndex implements GenomeIndexStore.GenomeIndex {
+
+    public static final int MIN_K = 10;
+    public static final int MAX_K = 22;
+
+    private static final long MAGIC = 0x31494d4d424e4547L; // "GENBMMI1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+    private static final int CHROMOSOME_BYTES = 16;
+    private static final int MAX_BUCKET_BITS = 24;
+    private static final int POSITION_SHIFT = 40;
+    private static final long POSITION_MASK = (1L << POSITION_SHIFT) - 1;
+    /** Mayor posición global: las entradas guardan la posición en 39 bits. */
+    static final long MAX_TOTAL_LENGTH = 1L << (POSITION_SHIFT - 1);
+    // Cada buffer mapeado cubre 2^27 entradas (1 GiB)
+    private static final int SEGMENT_SHIFT = 27;
+
+    private final long genomeId;
+    private final int k;
+    private final int w;
+    private final int bucketBits;
+    private final List<IndexedChromosome> chromosomes;
+    private final long[] offsets;
+    private final LongBuffer buckets;
+    private final LongBuffer[] entries;
+
+    private GenomeMinimizerIndex(long genomeId, int k, int w, int bucketBits, List<IndexedChromosome> chromosomes,
+                                 LongBuffer buckets, LongBuffer[] entries) {
+        this.genomeId = genomeId;
+        this.k = k;
+        this.w = w;
+        this.bucketBits = bucketBits;
+        this.chromosomes = chromosomes;
+        this.offsets = new long[chromosomes.size() + 1];
+        for (int i = 0; i < chromosomes.size(); i++) {
+            offsets[i + 1] = offsets[i] + chromosomes.get(i).length();
+        }
+        this.buckets = buckets;
+        this.entries = entries;
+    }
+
+    @Override
+    public long getGenomeId() {
+        return genomeId;
+    }
+
+    /**
+     * @return Chromosomes indexados, en el orden de sus posiciones globales.
+     */
+    @Override
+    public List<IndexedChromosome> getChromosomes() {
+        return chromosomes;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int getW() {
+        return w;
+    }
+
+    /**
+     * Apariciones de un minimizador.
+     * @param hash Hash del minimizador.
+     * @param maxOccurrences Máximo de apariciones; los minimizadores más repetidos no sirven como semilla.
+     * @return Posiciones globales codificadas como posición * 2 + hebra (1 si el k-mer canónico es
+     * el reverso complementario), en orden creciente; vacío si no aparece o si aparece más de
+     * maxOccurrences veces.
+     */
+    public long[] occurrences(long hash, int maxOccurrences) {
+        int residualBits = 2 * k - bucketBits;
+        int bucket = (int) (hash & ((1L << bucketBits) - 1));
+        long residual = hash >>> bucketBits;
+        long from = buckets.get(bucket);
+        long to = buckets.get(bucket + 1);
+        long low = lowerBound(from, to, residual << POSITION_SHIFT);
+        long high = residual + 1 < 1L << residualBits
+                ? lowerBound(low, to, (residual + 1) << POSITION_SHIFT) : to;
+        if (high - low > maxOccurrences) {
+            return new long[0];
+        }
+        long[] result = new long[(int) (high - low)];
+        for (long i = low; i < high; i++) {
+            result[(int) (i - low)] = entry(i) & POSITION_MASK;
+        }
+        return result;
+    }
+
+    /**
+     * @return Índice en {@link #getChromosomes()} del Chromosome que contiene una posición global.
+     */
+    public int chromosomeIndex(long position) {
+        int index = Arrays.binarySearch(offsets, position);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        // Una posición igual al final de un Chromosome es el inicio del siguiente no vacío
+        while (index < chromosomes.size() - 1 && offsets[index + 1] == position) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return Posición global de la primera base de un Chromosome.
+     */
+    public long offset(int chromosomeIndex) {
+        return offsets[chromosomeIndex];
+    }
+
+    private long lowerBound(long from, long to, long value) {
+        while (from < to) {
+            long middle = (from + to) >>> 1;
+            if (entry(middle) < value) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private long entry(long index) {
+        return entries[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & ((1 << SEGMENT_SHIFT) - 1)));
+    }
+
+    /**
+     * Abrir un índice guardado.
+     * @param file Archivo del índice.
+     * @throws IOException si no se puede leer o no es un índice válido.
+     */
+    public static GenomeMinimizerIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer fixed = read(channel, 0, HEADER_BYTES);
+            if (fixed.getLong() != MAGIC || fixed.getInt() != VERSION) {
+                throw new IOException("Not a genome minimizer index: " + file);
+            }
+            int k = fixed.getInt();
+            int w = fixed.getInt();
+            int bucketBits = fixed.getInt();
+            long genomeId = fixed.getLong();
+            int chromosomeCount = fixed.getInt();
+            fixed.getInt();
+            long entryCount = fixed.getLong();
+
+            ByteBuffer table = read(channel, HEADER_BYTES, (long) chromosomeCount * CHROMOSOME_BYTES);
+            List<IndexedChromosome> chromosomes = new ArrayList<>();
+            for (int i = 0; i < chromosomeCount; i++) {
+                chromosomes.add(new IndexedChromosome(table.getLong(), table.getInt()));
+                table.getInt();
+            }
+            long bucketsOffset = HEADER_BYTES + (long) chromosomeCount * CHROMOSOME_BYTES;
+            long bucketsLength = ((1L << bucketBits) + 1) * 8;
+            LongBuffer buckets = channel.map(FileChannel.MapMode.READ_ONLY, bucketsOffset, bucketsLength)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            long entriesOffset = bucketsOffset + bucketsLength;
+            LongBuffer[] entries = new LongBuffer[(int) ((entryCount >>> SEGMENT_SHIFT) + 1)];
+            for (int s = 0; s < entries.length; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long count = Math.min(1L << SEGMENT_SHIFT, entryCount - first);
+                entries[s] = channel.map(FileChannel.MapMode.READ_ONLY, entriesOffset + first * 8, count * 8)
+                        .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            }
+            return new GenomeMinimizerIndex(genomeId, k, w, bucketBits, Collections.unmodifiableList(chromosomes),
+                    buckets, entries);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated genome minimizer index");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Construir y escribir el índice de un Genome.
+     * @param file Archivo de destino.
+     * @param genomeId ID del Genome.
+     * @param chromosomes Chromosomes con secuencia, en el orden de sus posiciones globales.
+     * @param k Longitud de los k-mers ({@link #MIN_K} a {@link #MAX_K}).
+     * @param w Número de k-mers por ventana (al menos 1).
+     * @param maxEntriesPerPass Máximo de entradas en memoria por pasada (8 bytes cada una).
+     * @param sequenceBackend Origen de las bases.
+     * @throws IllegalArgumentException si los parámetros no son válidos o el Genome es demasiado grande.
+     */
+    public static void write(Path file, long genomeId, List<IndexedChromosome> chromosomes, int k, int w,
+                             int maxEntriesPerPass, SequenceBackend sequenceBackend) throws IOException {
+        if (k < MIN_K || k > MAX_K || w < 1 || maxEntriesPerPass < 1) {
+            throw new IllegalArgumentException("Invalid minimizer index parameters: k=" + k + ", w=" + w);
+        }
+        long totalLength = chromosomes.stream().mapToLong(IndexedChromosome::length).sum();
+        if (totalLength >= MAX_TOTAL_LENGTH) {
+            throw new IllegalArgumentException("Genome " + genomeId + " is too large to be indexed");
+        }
+        // Un bucket por entrada esperada, sin pasar de 2^24 y dejando como mucho 23 bits de hash en la entrada
+        long expected = 2 * totalLength / (w + 1) + 1;
+        int bucketBits = Math.min(2 * k, Math.max(2 * k - (63 - POSITION_SHIFT),
+                Math.min(MAX_BUCKET_BITS, 64 - Long.numberOfLeadingZeros(expected))));
+        int bucketCount = 1 << bucketBits;
+        long bucketMask = bucketCount - 1;
+
+        // Primera pasada: entradas por bucket
+        int[] counts = new int[bucketCount];
+        sketch(chromosomes, k, w, sequenceBackend, (hash, position, reverse) -> counts[(int) (hash & bucketMask)]++);
+        long[] starts = new long[bucketCount + 1];
+        for (int b = 0; b < bucketCount; b++) {
+            starts[b + 1] = starts[b] + counts[b];
+        }
+        long entryCount = starts[bucketCount];
+
+        long bucketsOffset = HEADER_BYTES + (long) chromosomes.size() * CHROMOSOME_BYTES;
+        long entriesOffset = bucketsOffset + (bucketCount + 1L) * 8;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate((int) bucketsOffset).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(k).putInt(w).putInt(bucketBits).putLong(genomeId)
+                    .putInt(chromosomes.size()).putInt(0).putLong(entryCount);
+            for (IndexedChromosome chromosome : chromosomes) {
+                header.putLong(chromosome.chromosomeId()).putInt(chromosome.length()).putInt(0);
+            }
+            write(channel, header.flip(), 0);
+            ByteBuffer out = ByteBuffer.allocate(1024 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            long position = bucketsOffset;
+            for (long start : starts) {
+                if (!out.hasRemaining()) {
+                    position += write(channel, out.flip(), position);
+                    out.clear();
+                }
+                out.putLong(start);
+            }
+            write(channel, out.flip(), position);
+            out.clear();
+
+            // Una pasada por cada grupo de buckets consecutivos que cabe en memoria
+            int passLimit = (int) Math.min(maxEntriesPerPass, Integer.MAX_VALUE - 8L);
+            int firstBucket = 0;
+            while (firstBucket < bucketCount) {
+                int lastBucket = firstBucket + 1;
+                while (lastBucket < bucketCount && starts[lastBucket + 1] - starts[firstBucket] <= passLimit) {
+                    lastBucket++;
+                }
+                writePass(channel, entriesOffset, chromosomes, k, w, sequenceBackend, starts, firstBucket, lastBucket,
+                        bucketBits);
+                firstBucket = lastBucket;
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void writePass(FileChannel channel, long entriesOffset, List<IndexedChromosome> chromosomes,
+                                  int k, int w, SequenceBackend sequenceBackend, long[] starts,
+                                  int firstBucket, int lastBucket, int bucketBits) throws IOException {
+        long base = starts[firstBucket];
+        long[] entries = new long[(int) (starts[lastBucket] - base)];
+        if (entries.length == 0) {
+            return;
+        }
+        int[] cursors = new int[lastBucket - firstBucket];
+        for (int b = firstBucket; b < lastBucket; b++) {
+            cursors[b - firstBucket] = (int) (starts[b] - base);
+        }
+        long bucketMask = (1L << bucketBits) - 1;
+        sketch(chromosomes, k, w, sequenceBackend, (hash, position, reverse) -> {
+            int bucket = (int) (hash & bucketMask);
+            if (bucket >= firstBucket && bucket < lastBucket) {
+                entries[cursors[bucket - firstBucket]++] = (hash >>> bucketBits) << POSITION_SHIFT
+                        | position << 1 | (reverse ? 1 : 0);
+            }
+        });
+        for (int b = firstBucket; b < lastBucket; b++) {
+            Arrays.sort(entries, (int) (starts[b] - base), (int) (starts[b + 1] - base));
+        }
+        ByteBuffer out = ByteBuffer.allocate(1024 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        long position = entriesOffset + base * 8;
+        for (long entry : entries) {
+            if (!out.hasRemaining()) {
+                position += write(channel, out.flip(), position);
+                out.clear();
+            }
+            out.putLong(entry);
+        }
+        write(channel, out.flip(), position);
+    }
+
+    /**
+     * Recorrer los minimizadores de todos los Chromosomes, con posiciones globales.
+     */
+    private static void sketch(List<IndexedChromosome> chromosomes, int k, int w, SequenceBackend sequenceBackend,
+                               Minimizers.Sink sink) throws IOException {
+        long offset = 0;
+        for (IndexedChromosome chromosome : chromosomes) {
+            Minimizers.Sketcher sketcher = new Minimizers.Sketcher(k, w, offset, sink);
+            sequenceBackend.stream(chromosome.chromosomeId(), 0, chromosome.length(), chunk -> {
+                for (int i = chunk.position(), limit = chunk.limit(); i < limit; i++) {
+                    sketcher.accept(chunk.get(i));
+                }
+                chunk.position(chunk.limit());
+            });
+            offset += chromosome.length();
+        }
+    }
+
+    private static long write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,15 @@
+package com.backEnd.genomebank.analysis;
+
+/**
+ * Región de una consulta por lotes, ya validada y con su Chromosome resuelto.
+ * @param index Posición de la región en la petición.
+ * @param name Nombre que le dio el cliente, o null.
+ * @param chromosomeId ID del Chromosome.
+ * @param chromosomeName Nombre del Chromosome.
+ * @param start Inicio (inclusive, base 0).
+ * @param end Fin (exclusivo).
+ * @param strand Hebra '+' o '-', o null si no se indicó.
+ */
+public record GenomicRegion(int index, String name, Long chromosomeId, String chromosomeName, int start, int end,
+                            Character strand) {
+}
@@ -0,0 +1,9 @@
+package com.backEnd.genomebank.analysis;
+
+/**
+ * Chromosome incluido en un índice de Genome ({@link GenomeFmIndex}, {@link GenomeMinimizerIndex}).
+ * @param chromosomeId ID del Chromosome.
+ * @param length Longitud de su secuencia al construir el índice.
+ */
+public record IndexedChromosome(Long chromosomeId, int length) {
+}
@@ -0,0 +1,296 @@
+package com.backEnd.genomebank.analysis;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de conjuntos de intervalos al estilo de bedtools (intersect, subtract, merge,
+ * complement y closest) entre dos conjuntos A y B, Chromosome por Chromosome.
+ * <p>
+ * Los intervalos de cada Chromosome están en arreglos ordenados por inicio ({@link GeneIntervals}).
+ * Intersect y subtract recorren A en orden con un puntero sobre B y una lista de intervalos de B
+ * activos (los que empezaron y aún no terminaron); merge y complement recorren A una vez; closest
+ * usa las búsquedas binarias de {@link GeneIntervals}. Los resultados se entregan a medida que se
+ * calculan, ordenados por Chromosome y por inicio del intervalo de A.
+ */
+@Component
+public class IntervalAlgebra {
+
+    private final GeneIntervalIndex geneIntervalIndex;
+
+    public IntervalAlgebra(GeneIntervalIndex geneIntervalIndex) {
+        this.geneIntervalIndex = geneIntervalIndex;
+    }
+
+    public enum Operation {
+        INTERSECT, SUBTRACT, MERGE, COMPLEMENT, CLOSEST;
+
+        /**
+         * Si la operación necesita el conjunto B.
+         */
+        public boolean usesB() {
+            return this == INTERSECT || this == SUBTRACT || this == CLOSEST;
+        }
+    }
+
+    /**
+     * Conjunto de intervalos.
+     * @param intervals Intervalos por ID de Chromosome. Un valor null indica que son los Genes del
+     *                  Chromosome y se toman de {@link GeneIntervalIndex} al procesarlo.
+     * @param genes true si los intervalos son Genes (sus IDs son IDs de Gene); false si son regiones
+     *              enviadas por el cliente (sus IDs son posiciones en la petición).
+     */
+    public record Source(Map<Long, GeneIntervals> intervals, boolean genes) {
+    }
+
+    /**
+     * Chromosome en el que se aplica la operación.
+     * @param length Longitud del Chromosome para complement, o 0 si no se conoce.
+     */
+    public record Target(Long chromosomeId, String name, int length) {
+    }
+
+    /**
+     * Operación validada y lista para ejecutarse.
+     * @param targets Chromosomes del conjunto A, en orden de ID.
+     * @param b Conjunto B, o null si la operación no lo usa.
+     */
+    public record Search(Operation operation, List<Target> targets, Source a, Source b) {
+    }
+
+    /**
+     * Receptor de los resultados.
+     */
+    @FunctionalInterface
+    public interface ResultHandler {
+        /**
+         * @param target Chromosome.
+         * @param a Intervalos de A en el Chromosome.
+         * @param b Intervalos de B en el Chromosome (vacío si la operación no usa B).
+         * @param start Inicio del resultado.
+         * @param end Fin del resultado (exclusivo).
+         * @param ai Posición en a del intervalo que origina el resultado, o -1 (merge, complement).
+         * @param bi Posición en b del intervalo relacionado, o -1.
+         * @param value Distancia en closest (-1 si B no tiene intervalos en el Chromosome) o número
+         *              de intervalos unidos en merge; 0 en el resto.
+         */
+        void handle(Target target, GeneIntervals a, GeneIntervals b, int start, int end, int ai, int bi, int value)
+                throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Sink {
+        void accept(int start, int end, int ai, int bi, int value) throws IOException;
+    }
+
+    /**
+     * Ejecutar una operación.
+     */
+    public void run(Search search, ResultHandler handler) throws IOException {
+        for (Target target : search.targets()) {
+            GeneIntervals a = intervals(search.a(), target);
+            GeneIntervals b = search.b() != null ? intervals(search.b(), target) : GeneIntervals.empty(target.name());
+            Sink sink = (start, end, ai, bi, value) -> handler.handle(target, a, b, start, end, ai, bi, value);
+            switch (search.operation()) {
+                case INTERSECT -> intersect(a, b, sink);
+                case SUBTRACT -> subtract(a, b, sink);
+                case MERGE -> merge(a, sink);
+                case COMPLEMENT -> complement(a, target.length(), sink);
+                case CLOSEST -> closest(a, b, sink);
+            }
+        }
+    }
+
+    private GeneIntervals intervals(Source source, Target target) {
+        if (!source.intervals().containsKey(target.chromosomeId())) {
+            return GeneIntervals.empty(target.name());
+        }
+        GeneIntervals intervals = source.intervals().get(target.chromosomeId());
+        if (intervals != null) {
+            return intervals;
+        }
+        // Vacío si el Chromosome se eliminó después de preparar la operación
+        return geneIntervalIndex.find(target.chromosomeId()).orElseGet(() -> GeneIntervals.empty(target.name()));
+    }
+
+    /**
+     * Partes de cada intervalo de A cubiertas por cada intervalo de B que se solapa con él.
+     */
+    private static void intersect(GeneIntervals a, GeneIntervals b, Sink sink) throws IOException {
+        Sweep sweep = new Sweep(b);
+        for (int i = 0; i < a.size(); i++) {
+            int start = a.start(i);
+            int end = a.end(i);
+            sweep.advance(start, end);
+            for (int k = 0; k < sweep.count; k++) {
+                int j = sweep.active[k];
+                if (b.start(j) < end) {
+                    sink.accept(Math.max(start, b.start(j)), Math.min(end, b.end(j)), i, j, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Partes de cada intervalo de A que no cubre ningún intervalo de B.
+     */
+    private static void subtract(GeneIntervals a, GeneIntervals b, Sink sink) throws IOException {
+        Sweep sweep = new Sweep(b);
+        for (int i = 0; i < a.size(); i++) {
+            int start = a.start(i);
+            int end = a.end(i);
+            sweep.advance(start, end);
+            int cursor = start;
+            for (int k = 0; k < sweep.count && cursor < end; k++) {
+                int j = sweep.active[k];
+                if (b.start(j) >= end) {
+                    continue;
+                }
+                if (b.start(j) > cursor) {
+                    sink.accept(cursor, b.start(j), i, -1, 0);
+                }
+                cursor = Math.max(cursor, b.end(j));
+            }
+            if (cursor < end) {
+                sink.accept(cursor, end, i, -1, 0);
+            }
+        }
+    }
+
+    /**
+     * Unir los intervalos de A que se solapan o son contiguos.
+     */
+    private static void merge(GeneIntervals a, Sink sink) throws IOException {
+        if (a.size() == 0) {
+            return;
+        }
+        int start = a.start(0);
+        int end = a.end(0);
+        int count = 1;
+        for (int i = 1; i < a.size(); i++) {
+            if (a.start(i) <= end) {
+                end = Math.max(end, a.end(i));
+                count++;
+            } else {
+                sink.accept(start, end, -1, -1, count);
+                start = a.start(i);
+                end = a.end(i);
+                count = 1;
+            }
+        }
+        sink.accept(start, end, -1, -1, count);
+    }
+
+    /**
+     * Huecos entre los intervalos de A, desde 0 hasta la longitud del Chromosome (o hasta el
+     * último intervalo si no se conoce).
+     */
+    private static void complement(GeneIntervals a, int length, Sink sink) throws IOException {
+        int limit = length > 0 ? length : Integer.MAX_VALUE;
+        int cursor = 0;
+        for (int i = 0; i < a.size() && cursor < limit; i++) {
+            int gapEnd = Math.min(a.start(i), limit);
+            if (gapEnd > cursor) {
+                sink.accept(cursor, gapEnd, -1, -1, 0);
+            }
+            cursor = Math.max(cursor, a.end(i));
+        }
+        if (length > 0 && cursor < length) {
+            sink.accept(cursor, length, -1, -1, 0);
+        }
+    }
+
+    /**
+     * Intervalos de B más cercanos a cada intervalo de A: todos los que se solapan con él o, si no
+     * hay, todos los que están a la menor distancia, a uno u otro lado. Como en bedtools closest -d,
+     * la distancia de un intervalo que no se solapa es el hueco más uno, así que dos intervalos
+     * contiguos están a distancia 1 y solo los solapados a distancia 0.
+     */
+    private static void closest(GeneIntervals a, GeneIntervals b, Sink sink) throws IOException {
+        for (int i = 0; i < a.size(); i++) {
+            int start = a.start(i);
+            int end = a.end(i);
+            if (b.size() == 0) {
+                sink.accept(start, end, i, -1, -1);
+                continue;
+            }
+            int[] overlapping = b.overlapping(start, end);
+            if (overlapping.length > 0) {
+                for (int j : overlapping) {
+                    sink.accept(start, end, i, j, 0);
+                }
+                continue;
+            }
+            // Se piden el doble de vecinos mientras el último siga empatado con el primero
+            int[] before;
+            int k = 1;
+            do {
+                k *= 2;
+                before = b.nearestBefore(start, k);
+            } while (before.length == k && b.end(before[k - 1]) == b.end(before[0]));
+            int[] after;
+            k = 1;
+            do {
+                k *= 2;
+                after = b.nearestAfter(end, k);
+            } while (after.length == k && b.start(after[k - 1]) == b.start(after[0]));
+            long beforeDistance = before.length > 0 ? start - b.end(before[0]) + 1 : Long.MAX_VALUE;
+            long afterDistance = after.length > 0 ? b.start(after[0]) - end + 1 : Long.MAX_VALUE;
+            if (beforeDistance <= afterDistance) {
+                for (int j = 0; j < before.length && b.end(before[j]) == b.end(before[0]); j++) {
+                    sink.accept(start, end, i, before[j], (int) beforeDistance);
+                }
+            }
+            if (afterDistance <= beforeDistance) {
+                for (int j = 0; j < after.length && b.start(after[j]) == b.start(after[0]); j++) {
+                    sink.accept(start, end, i, after[j], (int) afterDistance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Intervalos de B activos durante el recorrido de A: los que empiezan antes del fin del
+     * intervalo actual de A y terminan después de su inicio, en orden de inicio. Como A se recorre
+     * por inicio creciente, un intervalo de B que termina antes del inicio actual ya no vuelve a
+     * solaparse con ninguno y se descarta.
+     */
+    private static final class Sweep {
+
+        private final GeneIntervals b;
+        private int next;
+        private int[] active = new int[16];
+        private int count;
+
+        private Sweep(GeneIntervals b) {
+            this.b = b;
+        }
+
+        /**
+         * Actualizar los activos para el intervalo [start, end) de A. Pueden quedar activos que
+         * empiezan en end o después, agregados por un intervalo anterior de A más largo.
+         */
+        private void advance(int start, int end) {
+            int kept = 0;
+            for (int k = 0; k < count; k++) {
+                if (b.end(active[k]) > start) {
+                    active[kept++] = active[k];
+                }
+            }
+            count = kept;
+            while (next < b.size() && b.start(next) < end) {
+                if (b.end(next) > start) {
+                    if (count == active.length) {
+                        active = Arrays.copyOf(active, count * 2);
+                    }
+                    active[count++] = next;
+                }
+                next++;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.backEnd.genomebank.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de direccionamiento abierto (sondeo lineal) de k-mers codificados a 2 bits por base a su
+ * número de apariciones, sobre arreglos de long sin objetos por entrada.
+ * Un k-mer de hasta 31 bases ocupa como mucho 62 bits, así que -1 nunca es una clave válida y se
+ * usa para marcar las posiciones vacías.
+ */
+final class KmerCountMap {
+
+    static final long EMPTY = -1L;
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private long[] keys;
+    private long[] counts;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    KmerCountMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Sumar count a las apariciones de un k-mer.
+     * @return true si el k-mer no estaba en el mapa.
+     */
+    boolean add(long key, long count) {
+        int slot = (int) mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                counts[slot] += count;
+                return false;
+            }
+            if (current == EMPTY) {
+                keys[slot] = key;
+                counts[slot] = count;
+                if (++size > resizeAt) {
+                    resize(keys.length * 2);
+                }
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    long get(long key) {
+        int slot = (int) mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return counts[slot];
+            }
+            if (current == EMPTY) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Sumar a este mapa todas las entradas de otro.
+     */
+    void addAll(KmerCountMap other) {
+        long[] otherKeys = other.keys;
+        for (int slot = 0; slot < otherKeys.length; slot++) {
+            if (otherKeys[slot] != EMPTY) {
+                add(otherKeys[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Arreglo interno de claves, con {@link #EMPTY} en las posiciones libres; para recorrer el
+     * mapa sin copiarlo, junto con {@link #countAt(int)}.
+     */
+    long[] slots() {
+        return keys;
+    }
+
+    long countAt(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Mezcla de bits (finalizador de MurmurHash3) para repartir k-mers parecidos por toda la tabla.
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 0.7);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            long key = oldKeys[slot];
+            if (key != EMPTY) {
+                int target = (int) mix(key) & mask;
+                while (keys[target] != EMPTY) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = key;
+                counts[target] = oldCounts[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Conteo en paralelo de k-mers (k de 1 a 31) de uno o varios Chromosomes.
+ * Las secuencias se dividen en segmentos que los hilos del pool de análisis toman por turnos;
+ * cada hilo cuenta en su propio shard, sin sincronización, y al final los shards se combinan.
+ * Los k-mers se codifican a 2 bits por base en un long y se cuentan sin objetos por entrada: en
+ * un arreglo denso para k &lt;= {@link #DENSE_MAX_K} y en mapas primitivos de direccionamiento
+ * abierto para k mayor. Los mapas de cada shard están repartidos en particiones por hash, de modo
+ * que la combinación también se hace en paralelo, una partición por tarea.
+ * Los k-mers no cruzan bases distintas de A, C, G y T ni el límite entre Chromosomes.
+ */
+@Component
+public class KmerCounter {
+
+    /** Mayor k que se cuenta en un arreglo denso de 4^k contadores por shard. */
+    static final int DENSE_MAX_K = 10;
+
+    /** Tamaño de los segmentos que los hilos toman por turnos. */
+    static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final int PARTITIONS = 64;
+
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+    private final long maxDistinct;
+
+    public KmerCounter(SequenceBackend sequenceBackend,
+                       @Qualifier("analysisPool") ForkJoinPool analysisPool,
+                       @Value("${genomebank.analysis.kmer.max-distinct:50000000}") long maxDistinct) {
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+        this.maxDistinct = maxDistinct;
+    }
+
+    /**
+     * Secuencia a contar.
+     * @param chromosomeId ID del Chromosome.
+     * @param length Longitud de su secuencia.
+     */
+    public record Target(Long chromosomeId, int length) {
+    }
+
+    /**
+     * Conteo validado y listo para ejecutarse.
+     * @param chromosomeId ID del Chromosome pedido, o null si se pidió un Genome.
+     * @param genomeId ID del Genome pedido, o null si se pidió un Chromosome.
+     * @param targets Chromosomes con secuencia a contar.
+     * @param k Longitud de los k-mers.
+     * @param canonical Si es true, cada k-mer se cuenta junto con su complemento inverso.
+     * @param top Número de k-mers más frecuentes a devolver.
+     * @param kmers k-mers cuyo conteo se quiere consultar.
+     */
+    public record Request(Long chromosomeId, Long genomeId, List<Target> targets, int k, boolean canonical,
+                          int top, List<String> kmers) {
+    }
+
+    private record Segment(Long chromosomeId, int start, int end, int length) {
+    }
+
+    /**
+     * Contar los k-mers de las secuencias dadas.
+     * @param targets Chromosomes a contar.
+     * @param k Longitud de los k-mers (1 a {@link KmerCounts#MAX_K}).
+     * @param canonical Si es true, cada k-mer se cuenta junto con su complemento inverso.
+     * @return Conteos.
+     * @throws IllegalArgumentException si las entradas en memoria superan el máximo configurado.
+     */
+    public KmerCounts count(List<Target> targets, int k, boolean canonical) {
+        return count(targets, k, canonical, progress -> { });
+    }
+
+    /**
+     * Contar los k-mers como {@link #count(List, int, boolean)}, informando el avance.
+     * @param progress Receptor de la fracción de segmentos contados (0 a 1), llamado desde los
+     *                 hilos del pool después de cada segmento, con valores crecientes.
+     */
+    public KmerCounts count(List<Target> targets, int k, boolean canonical, DoubleConsumer progress) {
+        List<Segment> segments = new ArrayList<>();
+        for (Target target : targets) {
+            for (int start = 0; start < target.length(); start += SEGMENT_SIZE) {
+                segments.add(new Segment(target.chromosomeId(), start,
+                        (int) Math.min(target.length(), (long) start + SEGMENT_SIZE), target.length()));
+            }
+        }
+
+        AtomicInteger nextSegment = new AtomicInteger();
+        AtomicInteger counted = new AtomicInteger();
+        // Entradas guardadas entre todos los shards: un k-mer visto por varios hilos cuenta una vez por
+        // shard, así que es un límite de memoria durante el conteo y no de k-mers distintos del resultado
+        AtomicLong entries = new AtomicLong();
+        List<Callable<Shard>> workers = new ArrayList<>();
+        int shards = Math.max(1, Math.min(analysisPool.getParallelism(), segments.size()));
+        for (int i = 0; i < shards; i++) {
+            workers.add(() -> {
+                Shard shard = new Shard(k, canonical);
+                int index;
+                // Si otro hilo ya superó el máximo de entradas se deja de contar
+                while (entries.get() <= maxDistinct && (index = nextSegment.getAndIncrement()) < segments.size()) {
+                    Segment segment = segments.get(index);
+                    // Se leen k - 1 bases más para contar los k-mers que empiezan al final del segmento
+                    int end = (int) Math.min(segment.length(), (long) segment.end() + k - 1);
+                    int before = shard.size();
+                    shard.reset();
+                    try {
+                        sequenceBackend.stream(segment.chromosomeId(), segment.start(), end, shard);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (entries.addAndGet(shard.size() - before) > maxDistinct) {
+                        throw new IllegalArgumentException("More than " + maxDistinct + " " + k
+                                + "-mer entries held while counting; use a smaller k or a single chromosome");
+                    }
+                    // Se incrementa y se informa bajo el mismo lock para que el avance nunca retroceda
+                    synchronized (counted) {
+                        progress.accept((double) counted.incrementAndGet() / segments.size());
+                    }
+                }
+                return shard;
+            });
+        }
+        List<Shard> results = invokeAll(workers);
+        return merge(results, k, canonical);
+    }
+
+    private KmerCounts merge(List<Shard> shards, int k, boolean canonical) {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.total;
+        }
+        if (k <= DENSE_MAX_K) {
+            long[] dense = shards.get(0).dense;
+            for (int i = 1; i < shards.size(); i++) {
+                long[] other = shards.get(i).dense;
+                for (int key = 0; key < dense.length; key++) {
+                    dense[key] += other[key];
+                }
+            }
+            return new KmerCounts(k, canonical, total, dense, null);
+        }
+        List<Callable<KmerCountMap>> tasks = new ArrayList<>();
+        for (int p = 0; p < PARTITIONS; p++) {
+            int partition = p;
+            tasks.add(() -> {
+                // Se suma sobre el mapa más grande para copiar lo menos posible
+                KmerCountMap merged = null;
+                for (Shard shard : shards) {
+                    KmerCountMap map = shard.partitions[partition];
+                    if (merged == null || map.size() > merged.size()) {
+                        merged = map;
+                    }
+                }
+                for (Shard shard : shards) {
+                    if (shard.partitions[partition] != merged) {
+                        merged.addAll(shard.partitions[partition]);
+                        shard.partitions[partition] = null;
+                    }
+                }
+                return merged;
+            });
+        }
+        return new KmerCounts(k, canonical, total, null, invokeAll(tasks).toArray(new KmerCountMap[0]));
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : analysisPool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while counting k-mers", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Failed to count k-mers", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Conteos de un hilo. Recorre un segmento manteniendo el k-mer de las últimas k bases (y su
+     * complemento inverso) con desplazamientos de bits.
+     */
+    private static final class Shard implements SequenceChunkConsumer {
+        private final int k;
+        private final boolean canonical;
+        private final long mask;
+        private final int shift;
+        private final long[] dense;
+        private final KmerCountMap[] partitions;
+        private long total;
+        private long forward;
+        private long reverse;
+        private int valid;
+        private int distinct;
+
+        Shard(int k, boolean canonical) {
+            this.k = k;
+            this.canonical = canonical;
+            this.mask = (1L << (2 * k)) - 1;
+            this.shift = 2 * (k - 1);
+            if (k <= DENSE_MAX_K) {
+                dense = new long[1 << (2 * k)];
+                partitions = null;
+            } else {
+                dense = null;
+                partitions = new KmerCountMap[PARTITIONS];
+                for (int p = 0; p < PARTITIONS; p++) {
+                    partitions[p] = new KmerCountMap();
+                }
+            }
+        }
+
+        void reset() {
+            valid = 0;
+        }
+
+        int size() {
+            return distinct;
+        }
+
+        @Override
+        public void accept(ByteBuffer chunk) {
+            for (int i = chunk.position(), end = chunk.limit(); i < end; i++) {
+                int code = KmerCounts.baseCode(chunk.get(i));
+                if (code < 0) {
+                    valid = 0;
+                    continue;
+                }
+                forward = ((forward << 2) | code) & mask;
+                reverse = (reverse >>> 2) | ((long) (3 - code) << shift);
+                if (++valid >= k) {
+                    add(canonical ? Math.min(forward, reverse) : forward);
+                }
+            }
+            chunk.position(chunk.limit());
+        }
+
+        private void add(long key) {
+            total++;
+            if (dense != null) {
+                if (dense[(int) key]++ == 0) {
+                    distinct++;
+                }
+            } else if (partitions[KmerCounts.partition(key, PARTITIONS)].add(key, 1)) {
+                distinct++;
+            }
+        }
+    }
+}
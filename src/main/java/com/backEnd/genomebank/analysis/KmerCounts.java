@@ -0,0 +1,243 @@
+package com.backEnd.genomebank.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de un conteo de k-mers. Los k-mers se codifican a 2 bits por base (A=0, C=1, G=2,
+ * T=3, la primera base en los bits más altos), así que un k-mer de hasta 31 bases cabe en un long.
+ * Para k pequeño los conteos se guardan en un arreglo denso indexado por el k-mer; para k mayor,
+ * en {@link KmerCountMap}s repartidos en particiones según el hash del k-mer.
+ */
+public final class KmerCounts {
+
+    public static final int MAX_K = 31;
+
+    private final int k;
+    private final boolean canonical;
+    private final long total;
+    private final long[] dense;
+    private final KmerCountMap[] partitions;
+
+    KmerCounts(int k, boolean canonical, long total, long[] dense, KmerCountMap[] partitions) {
+        this.k = k;
+        this.canonical = canonical;
+        this.total = total;
+        this.dense = dense;
+        this.partitions = partitions;
+    }
+
+    /**
+     * k-mer y número de apariciones.
+     */
+    public record Entry(String kmer, long count) {
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @return true si cada k-mer se contó junto con su complemento inverso, bajo el menor de los dos.
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /**
+     * @return Número total de k-mers contados (posiciones con k bases A, C, G o T consecutivas).
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Número de k-mers distintos.
+     */
+    public long getDistinct() {
+        long distinct = 0;
+        if (dense != null) {
+            for (long count : dense) {
+                if (count > 0) {
+                    distinct++;
+                }
+            }
+        } else {
+            for (KmerCountMap partition : partitions) {
+                distinct += partition.size();
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Apariciones de un k-mer concreto (en su forma canónica si el conteo es canónico).
+     * @param kmer k-mer de longitud k, solo con A, C, G y T.
+     * @return Número de apariciones.
+     * @throws IllegalArgumentException si el k-mer no es válido.
+     */
+    public long count(String kmer) {
+        long key = encode(kmer);
+        if (key < 0 || kmer.length() != k) {
+            throw new IllegalArgumentException("Invalid " + k + "-mer: " + kmer);
+        }
+        if (canonical) {
+            key = Math.min(key, reverseComplement(key, k));
+        }
+        return dense != null ? dense[(int) key] : partitions[partition(key, partitions.length)].get(key);
+    }
+
+    /**
+     * Los n k-mers más frecuentes, de mayor a menor número de apariciones.
+     */
+    public List<Entry> top(int n) {
+        TopHeap heap = new TopHeap(n);
+        if (dense != null) {
+            for (int key = 0; key < dense.length; key++) {
+                if (dense[key] > 0) {
+                    heap.offer(key, dense[key]);
+                }
+            }
+        } else {
+            for (KmerCountMap partition : partitions) {
+                long[] slots = partition.slots();
+                for (int slot = 0; slot < slots.length; slot++) {
+                    if (slots[slot] != KmerCountMap.EMPTY) {
+                        heap.offer(slots[slot], partition.countAt(slot));
+                    }
+                }
+            }
+        }
+        return heap.drain(k);
+    }
+
+    /**
+     * Codificar un k-mer de hasta 31 bases.
+     * @return Código del k-mer, o -1 si contiene algo distinto de A, C, G y T.
+     */
+    public static long encode(CharSequence kmer) {
+        if (kmer.isEmpty() || kmer.length() > MAX_K) {
+            return -1;
+        }
+        long key = 0;
+        for (int i = 0; i < kmer.length(); i++) {
+            int code = baseCode(kmer.charAt(i));
+            if (code < 0) {
+                return -1;
+            }
+            key = (key << 2) | code;
+        }
+        return key;
+    }
+
+    public static String decode(long key, int k) {
+        char[] bases = new char[k];
+        for (int i = k - 1; i >= 0; i--) {
+            bases[i] = "ACGT".charAt((int) (key & 3));
+            key >>>= 2;
+        }
+        return new String(bases);
+    }
+
+    static int baseCode(int base) {
+        return switch (base) {
+            case 'A', 'a' -> 0;
+            case 'C', 'c' -> 1;
+            case 'G', 'g' -> 2;
+            case 'T', 't' -> 3;
+            default -> -1;
+        };
+    }
+
+    static long reverseComplement(long key, int k) {
+        long reverse = 0;
+        for (int i = 0; i < k; i++) {
+            reverse = (reverse << 2) | (3 - (key & 3));
+            key >>>= 2;
+        }
+        return reverse;
+    }
+
+    static int partition(long key, int partitions) {
+        return (int) (KmerCountMap.mix(key) >>> (64 - Integer.numberOfTrailingZeros(partitions)));
+    }
+
+    /**
+     * Montículo de mínimos de tamaño fijo sobre arreglos primitivos.
+     */
+    private static final class TopHeap {
+        private final long[] keys;
+        private final long[] counts;
+        private int size;
+
+        TopHeap(int capacity) {
+            keys = new long[capacity];
+            counts = new long[capacity];
+        }
+
+        void offer(long key, long count) {
+            if (size < keys.length) {
+                keys[size] = key;
+                counts[size] = count;
+                siftUp(size++);
+            } else if (size > 0 && count > counts[0]) {
+                keys[0] = key;
+                counts[0] = count;
+                siftDown(0);
+            }
+        }
+
+        List<Entry> drain(int k) {
+            List<Entry> entries = new ArrayList<>(size);
+            while (size > 0) {
+                entries.add(new Entry(decode(keys[0], k), counts[0]));
+                size--;
+                keys[0] = keys[size];
+                counts[0] = counts[size];
+                siftDown(0);
+            }
+            Collections.reverse(entries);
+            return entries;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (counts[parent] <= counts[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && counts[left] < counts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && counts[right] < counts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long count = counts[i];
+            counts[i] = counts[j];
+            counts[j] = count;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.backEnd.genomebank.analysis;
+
+/**
+ * Búsqueda del mejor alineamiento local (Smith-Waterman con penalización afín de gaps) de una
+ * consulta ya preparada contra distintas secuencias, sin reconstruir el alineamiento.
+ * Las secuencias vienen codificadas con {@link SmithWaterman#encode(CharSequence)}.
+ */
+interface LocalAligner {
+
+    /**
+     * @param target Secuencia codificada.
+     * @param deadline Instante límite (System.nanoTime()) para terminar.
+     * @return {puntaje, posición final en la consulta, posición final en la secuencia} (finales
+     * inclusive, -1 si el puntaje es 0), o null si se alcanzó el instante límite.
+     */
+    int[] align(byte[] target, long deadline);
+
+    /**
+     * Preparación de consultas para una implementación concreta.
+     */
+    interface Factory {
+        LocalAligner forQuery(byte[] query, SmithWaterman.Scoring scoring);
+    }
+}
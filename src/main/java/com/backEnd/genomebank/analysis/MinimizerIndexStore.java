@@ -0,0 +1,55 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.GenomeRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Índices de minimizadores ({@link GenomeMinimizerIndex}) de los Genomes, uno por archivo
+ * genome-{id}.mmi en el directorio configurado. La construcción, la invalidación y la
+ * reconstrucción en segundo plano son las de {@link GenomeIndexStore}.
+ */
+@Component
+public class MinimizerIndexStore extends GenomeIndexStore<GenomeMinimizerIndex> {
+
+    private final int k;
+    private final int w;
+    private final int maxEntriesPerPass;
+
+    public MinimizerIndexStore(ChromosomeRepository chromosomeRepository,
+                               GenomeRepository genomeRepository,
+                               SequenceBackend sequenceBackend,
+                               @Qualifier("indexingExecutor") ExecutorService indexingExecutor,
+                               @Value("${genomebank.analysis.minimizer-index.directory:minimizer-index}") String directory,
+                               @Value("${genomebank.analysis.minimizer-index.k:15}") int k,
+                               @Value("${genomebank.analysis.minimizer-index.w:10}") int w,
+                               @Value("${genomebank.analysis.minimizer-index.build-memory:1073741824}") long buildMemory)
+            throws IOException {
+        super(chromosomeRepository, genomeRepository, sequenceBackend, indexingExecutor, directory, "mmi");
+        if (k < GenomeMinimizerIndex.MIN_K || k > GenomeMinimizerIndex.MAX_K || w < 1) {
+            throw new IllegalArgumentException("genomebank.analysis.minimizer-index.k must be between "
+                    + GenomeMinimizerIndex.MIN_K + " and " + GenomeMinimizerIndex.MAX_K + " and w at least 1");
+        }
+        this.k = k;
+        this.w = w;
+        this.maxEntriesPerPass = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8L, buildMemory / 8));
+    }
+
+    @Override
+    protected GenomeMinimizerIndex read(Path file) throws IOException {
+        return GenomeMinimizerIndex.open(file);
+    }
+
+    @Override
+    protected void write(Path file, long genomeId, List<IndexedChromosome> chromosomes) throws IOException {
+        GenomeMinimizerIndex.write(file, genomeId, chromosomes, k, w, maxEntriesPerPass, sequenceBackend);
+    }
+}
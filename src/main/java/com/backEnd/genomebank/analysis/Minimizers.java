@@ -0,0 +1,163 @@
+package com.backEnd.genomebank.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Minimizadores (k, w) canónicos, como en minimap2: de cada ventana de w k-mers consecutivos se
+ * elige el de menor hash, sin importar la hebra (cada k-mer se representa por el menor entre él y
+ * su reverso complementario). Dos secuencias que comparten un tramo de al menos w + k - 1 bases
+ * comparten al menos un minimizador, así que sirven de semillas con muchas menos entradas que
+ * todos los k-mers (en promedio 2 / (w + 1) por base). Los k-mers con algo distinto de A, C, G o
+ * T se omiten, y también los palíndromos, cuya hebra no se puede determinar.
+ */
+final class Minimizers {
+
+    /** Mayor k admitido: el hash de un k-mer ocupa 2k bits. */
+    static final int MAX_K = 28;
+    private static final byte[] CODES = new byte[256];
+
+    static {
+        Arrays.fill(CODES, (byte) 4);
+        CODES['A'] = CODES['a'] = 0;
+        CODES['C'] = CODES['c'] = 1;
+        CODES['G'] = CODES['g'] = 2;
+        CODES['T'] = CODES['t'] = 3;
+    }
+
+    private Minimizers() {
+    }
+
+    /**
+     * Receptor de los minimizadores, en orden de posición y sin repetidos.
+     */
+    @FunctionalInterface
+    interface Sink {
+        /**
+         * @param hash Hash del k-mer canónico (2k bits).
+         * @param position Posición inicial del k-mer.
+         * @param reverse true si el k-mer canónico es el reverso complementario.
+         */
+        void accept(long hash, long position, boolean reverse);
+    }
+
+    /**
+     * Hash invertible de un valor de 2k bits (el de minimap2), para que los minimizadores no se
+     * concentren en k-mers pobres en GC.
+     */
+    static long hash(long key, long mask) {
+        key = (~key + (key << 21)) & mask;
+        key = key ^ key >>> 24;
+        key = (key + (key << 3) + (key << 8)) & mask;
+        key = key ^ key >>> 14;
+        key = (key + (key << 2) + (key << 4)) & mask;
+        key = key ^ key >>> 28;
+        key = (key + (key << 31)) & mask;
+        return key;
+    }
+
+    /**
+     * Cálculo incremental de los minimizadores de una secuencia que llega base a base.
+     */
+    static final class Sketcher {
+        private final int k;
+        private final int w;
+        private final long mask;
+        private final int shift;
+        private final Sink sink;
+        // Ventana de candidatos con hash creciente (cola monótona circular)
+        private final long[] hashes;
+        private final long[] positions;
+        private final boolean[] strands;
+        private int head;
+        private int size;
+        private long forward;
+        private long reverse;
+        private int valid;
+        private long position;
+        private long lastEmitted = -1;
+
+        /**
+         * @param k Longitud de los k-mers (1 a {@link #MAX_K}).
+         * @param w Número de k-mers por ventana (al menos 1).
+         * @param position Posición de la primera base.
+         * @param sink Receptor de los minimizadores.
+         */
+        Sketcher(int k, int w, long position, Sink sink) {
+            this.k = k;
+            this.w = w;
+            this.mask = (1L << (2 * k)) - 1;
+            this.shift = 2 * (k - 1);
+            this.sink = sink;
+            this.hashes = new long[w];
+            this.positions = new long[w];
+            this.strands = new boolean[w];
+            this.position = position;
+        }
+
+        /**
+         * Agregar la siguiente base (byte ASCII).
+         */
+        void accept(byte base) {
+            int code = CODES[base & 0xff];
+            long current = position++;
+            if (code > 3) {
+                valid = 0;
+                size = 0;
+                return;
+            }
+            forward = (forward << 2 | code) & mask;
+            reverse = reverse >>> 2 | (long) (3 - code) << shift;
+            if (++valid < k) {
+                return;
+            }
+            long start = current - k + 1;
+            // La ventana del k-mer actual empieza w - 1 k-mers antes
+            while (size > 0 && positions[head] <= start - w) {
+                head = (head + 1) % w;
+                size--;
+            }
+            if (forward != reverse) {
+                long hash = hash(Math.min(forward, reverse), mask);
+                while (size > 0 && hashes[(head + size - 1) % w] > hash) {
+                    size--;
+                }
+                int tail = (head + size) % w;
+                hashes[tail] = hash;
+                positions[tail] = start;
+                strands[tail] = reverse < forward;
+                size++;
+            }
+            if (valid >= k + w - 1 && size > 0 && positions[head] != lastEmitted) {
+                lastEmitted = positions[head];
+                sink.accept(hashes[head], positions[head], strands[head]);
+            }
+        }
+    }
+
+    /**
+     * Minimizadores de una secuencia completa.
+     * @return {hash, posición, hebra (1 si es el reverso complementario)} por minimizador.
+     */
+    static long[][] sketch(CharSequence sequence, int k, int w) {
+        long[][] result = new long[3][Math.max(16, 2 * sequence.length() / (w + 1) + 16)];
+        int[] count = {0};
+        Sketcher sketcher = new Sketcher(k, w, 0, (hash, start, reverse) -> {
+            if (count[0] == result[0].length) {
+                for (int i = 0; i < 3; i++) {
+                    result[i] = Arrays.copyOf(result[i], result[i].length * 2);
+                }
+            }
+            result[0][count[0]] = hash;
+            result[1][count[0]] = start;
+            result[2][count[0]] = reverse ? 1 : 0;
+            count[0]++;
+        });
+        for (int i = 0; i < sequence.length(); i++) {
+            sketcher.accept((byte) sequence.charAt(i));
+        }
+        for (int i = 0; i < 3; i++) {
+            result[i] = Arrays.copyOf(result[i], count[0]);
+        }
+        return result;
+    }
+}
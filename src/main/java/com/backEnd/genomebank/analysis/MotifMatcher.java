@@ -0,0 +1,184 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.Nucleotides;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Buscador de varios motivos a la vez con el algoritmo Shift-And (bit-paralelo).
+ * Cada motivo ocupa tantos bits consecutivos como bases tiene, y los motivos se empaquetan en
+ * palabras de 64 bits; cada base de la secuencia actualiza todas las palabras con un
+ * desplazamiento, un OR y un AND, sin importar cuántos motivos haya en cada palabra.
+ * Los códigos IUPAC se resuelven al compilar las máscaras, así que un motivo degenerado cuesta lo
+ * mismo que uno exacto. Una posición de la secuencia que no es A, C, G ni T solo coincide con N.
+ * Para buscar en las dos hebras se compila también el reverso complementario de cada motivo.
+ */
+public final class MotifMatcher {
+
+    public static final int MAX_MOTIF_LENGTH = Long.SIZE;
+
+    /** Índice de máscara para una base de la secuencia distinta de A, C, G y T. */
+    private static final int OTHER = 4;
+    private static final byte[] CODES = new byte[256];
+
+    static {
+        Arrays.fill(CODES, (byte) OTHER);
+        String bases = "ACGT";
+        for (int i = 0; i < bases.length(); i++) {
+            CODES[bases.charAt(i)] = (byte) i;
+            CODES[Character.toLowerCase(bases.charAt(i))] = (byte) i;
+        }
+    }
+
+    private final List<String> motifs;
+    private final int maxLength;
+    // Por palabra: máscara de cada código de base, bits de inicio y bits de fin de los patrones
+    private final long[][] masks;
+    private final long[] starts;
+    private final long[] ends;
+    // Por palabra y bit de fin: motivo y hebra del patrón que termina en ese bit
+    private final int[][] motifAt;
+    private final boolean[][] reverseAt;
+    private final int[][] lengthAt;
+
+    private record Pattern(int motif, boolean reverse, String bases) {
+    }
+
+    /**
+     * Compilar un conjunto de motivos.
+     * @param motifs Motivos con códigos IUPAC, de 1 a {@link #MAX_MOTIF_LENGTH} bases.
+     * @param bothStrands Si es true, también se buscan los reversos complementarios.
+     * @throws IllegalArgumentException si un motivo está vacío, es demasiado largo o tiene códigos no válidos.
+     */
+    public MotifMatcher(List<String> motifs, boolean bothStrands) {
+        List<Pattern> patterns = new ArrayList<>();
+        List<String> normalized = new ArrayList<>();
+        int longest = 0;
+        for (int i = 0; i < motifs.size(); i++) {
+            String motif = motifs.get(i) == null ? "" : motifs.get(i).toUpperCase(Locale.ROOT).replace('U', 'T');
+            if (motif.isEmpty() || motif.length() > MAX_MOTIF_LENGTH) {
+                throw new IllegalArgumentException(
+                        "Motifs must have between 1 and " + MAX_MOTIF_LENGTH + " bases: " + motifs.get(i));
+            }
+            for (int j = 0; j < motif.length(); j++) {
+                if (Nucleotides.baseSet(motif.charAt(j)) == 0) {
+                    throw new IllegalArgumentException("Invalid IUPAC code in motif: " + motifs.get(i));
+                }
+            }
+            normalized.add(motif);
+            longest = Math.max(longest, motif.length());
+            patterns.add(new Pattern(i, false, motif));
+            String reverse = Nucleotides.reverseComplement(motif);
+            // Un motivo palindrómico daría cada coincidencia dos veces
+            if (bothStrands && !reverse.equals(motif)) {
+                patterns.add(new Pattern(i, true, reverse));
+            }
+        }
+        this.motifs = List.copyOf(normalized);
+        this.maxLength = longest;
+
+        // Empaquetar los patrones en palabras sin partir ninguno entre dos palabras
+        List<List<Pattern>> words = new ArrayList<>();
+        int used = Long.SIZE;
+        for (Pattern pattern : patterns) {
+            if (used + pattern.bases().length() > Long.SIZE) {
+                words.add(new ArrayList<>());
+                used = 0;
+            }
+            words.get(words.size() - 1).add(pattern);
+            used += pattern.bases().length();
+        }
+        masks = new long[words.size()][5];
+        starts = new long[words.size()];
+        ends = new long[words.size()];
+        motifAt = new int[words.size()][Long.SIZE];
+        reverseAt = new boolean[words.size()][Long.SIZE];
+        lengthAt = new int[words.size()][Long.SIZE];
+        for (int w = 0; w < words.size(); w++) {
+            int bit = 0;
+            for (Pattern pattern : words.get(w)) {
+                String bases = pattern.bases();
+                starts[w] |= 1L << bit;
+                for (int j = 0; j < bases.length(); j++, bit++) {
+                    int set = Nucleotides.baseSet(bases.charAt(j));
+                    for (int code = 0; code < 4; code++) {
+                        if ((set & (1 << code)) != 0) {
+                            masks[w][code] |= 1L << bit;
+                        }
+                    }
+                    if (bases.charAt(j) == 'N') {
+                        masks[w][OTHER] |= 1L << bit;
+                    }
+                }
+                int end = bit - 1;
+                ends[w] |= 1L << end;
+                motifAt[w][end] = pattern.motif();
+                reverseAt[w][end] = pattern.reverse();
+                lengthAt[w][end] = bases.length();
+            }
+        }
+    }
+
+    /**
+     * @return Motivos normalizados (en mayúsculas y con U convertida en T), en el orden recibido.
+     */
+    public List<String> getMotifs() {
+        return motifs;
+    }
+
+    /**
+     * @return Longitud del motivo más largo.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Receptor de coincidencias.
+     */
+    @FunctionalInterface
+    public interface HitListener {
+        /**
+         * @param start Posición inicial de la coincidencia (inclusive).
+         * @param motif Índice del motivo.
+         * @param reverse true si coincide el reverso complementario del motivo (hebra -).
+         */
+        void hit(long start, int motif, boolean reverse);
+    }
+
+    /**
+     * Estado de una búsqueda sobre un tramo contiguo de secuencia.
+     */
+    public final class Scanner {
+        private final long[] state = new long[starts.length];
+        private final HitListener listener;
+        private long position;
+
+        /**
+         * @param position Posición de la primera base que se va a recibir.
+         * @param listener Receptor de las coincidencias.
+         */
+        public Scanner(long position, HitListener listener) {
+            this.position = position;
+            this.listener = listener;
+        }
+
+        public void accept(byte base) {
+            int code = CODES[base & 0xFF];
+            position++;
+            for (int w = 0; w < state.length; w++) {
+                long d = ((state[w] << 1) | starts[w]) & masks[w][code];
+                state[w] = d;
+                long matches = d & ends[w];
+                while (matches != 0) {
+                    int bit = Long.numberOfTrailingZeros(matches);
+                    listener.hit(position - lengthAt[w][bit], motifAt[w][bit], reverseAt[w][bit]);
+                    matches &= matches - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Búsqueda de motivos ({@link MotifMatcher}) en uno o varios Chromosomes en una sola pasada.
+ * Las secuencias se dividen en segmentos que se recorren en paralelo en el pool de análisis; los
+ * resultados de cada segmento se entregan en orden, en el hilo que llama, con como mucho dos
+ * segmentos por hilo pendientes de entregar. Cada segmento lee además las bases necesarias para
+ * encontrar las coincidencias que empiezan en él y terminan en el siguiente.
+ */
+@Component
+public class MotifSearchEngine {
+
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+
+    public MotifSearchEngine(SequenceBackend sequenceBackend,
+                             @Qualifier("analysisPool") ForkJoinPool analysisPool) {
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+    }
+
+    /**
+     * Secuencia en la que buscar.
+     * @param chromosomeId ID del Chromosome.
+     * @param name Nombre del Chromosome.
+     * @param length Longitud de su secuencia.
+     */
+    public record Target(Long chromosomeId, String name, int length) {
+    }
+
+    /**
+     * Búsqueda validada y lista para ejecutarse.
+     * @param matcher Motivos compilados.
+     * @param targets Chromosomes donde buscar.
+     * @param limit Máximo de coincidencias a entregar.
+     */
+    public record Search(MotifMatcher matcher, List<Target> targets, long limit) {
+    }
+
+    /**
+     * Receptor de las coincidencias de cada segmento, llamado en orden de posición.
+     */
+    @FunctionalInterface
+    public interface SegmentHandler {
+        void handle(Target target, int start, int end, Hits hits) throws IOException;
+    }
+
+    /**
+     * Ejecutar una búsqueda. Los Chromosomes se recorren en el orden dado y la búsqueda se
+     * detiene al alcanzar el límite de coincidencias.
+     * @param search Búsqueda.
+     * @param handler Receptor de las coincidencias.
+     */
+    public void search(Search search, SegmentHandler handler) throws IOException {
+        MotifMatcher matcher = search.matcher();
+        long limit = search.limit();
+        int maxInFlight = analysisPool.getParallelism() * 2;
+        int segmentLimit = (int) Math.min(limit, Integer.MAX_VALUE - 8);
+        Deque<Future<Hits>> pending = new ArrayDeque<>();
+        Deque<int[]> bounds = new ArrayDeque<>();
+        Deque<Target> owners = new ArrayDeque<>();
+        long remaining = limit;
+        try {
+            for (Target target : search.targets()) {
+                for (int start = 0; start < target.length() && remaining > 0; start += SEGMENT_SIZE) {
+                    int segmentStart = start;
+                    int segmentEnd = (int) Math.min(target.length(), (long) start + SEGMENT_SIZE);
+                    pending.addLast(analysisPool.submit(() ->
+                            scan(target, segmentStart, segmentEnd, matcher, segmentLimit)));
+                    bounds.addLast(new int[]{segmentStart, segmentEnd});
+                    owners.addLast(target);
+                    while (pending.size() >= maxInFlight && remaining > 0) {
+                        remaining = deliver(pending, bounds, owners, remaining, handler);
+                    }
+                }
+            }
+            while (!pending.isEmpty() && remaining > 0) {
+                remaining = deliver(pending, bounds, owners, remaining, handler);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private long deliver(Deque<Future<Hits>> pending, Deque<int[]> bounds, Deque<Target> owners,
+                         long remaining, SegmentHandler handler) throws IOException {
+        Hits hits;
+        try {
+            hits = pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while searching motifs", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Failed to search motifs", e.getCause());
+        }
+        int[] segment = bounds.removeFirst();
+        Target target = owners.removeFirst();
+        hits.truncate((int) Math.min(hits.size(), remaining));
+        handler.handle(target, segment[0], segment[1], hits);
+        return remaining - hits.size();
+    }
+
+    private Hits scan(Target target, int start, int end, MotifMatcher matcher, int limit) {
+        Hits hits = new Hits();
+        MotifMatcher.Scanner scanner = matcher.new Scanner(start, (hitStart, motif, reverse) -> {
+            // Solo las coincidencias que empiezan en el segmento; las demás son del siguiente
+            if (hitStart < end && hits.size() < limit) {
+                hits.add((int) hitStart, motif, reverse);
+            }
+        });
+        int readEnd = (int) Math.min(target.length(), (long) end + matcher.getMaxLength() - 1);
+        try {
+            sequenceBackend.stream(target.chromosomeId(), start, readEnd, chunk -> {
+                for (int i = chunk.position(), limitIndex = chunk.limit(); i < limitIndex; i++) {
+                    scanner.accept(chunk.get(i));
+                }
+                chunk.position(chunk.limit());
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hits;
+    }
+
+    /**
+     * Coincidencias de un segmento en arreglos primitivos, ordenadas por su posición final.
+     */
+    public static final class Hits {
+        private int[] starts = new int[16];
+        // Índice del motivo; negativo (~índice) si coincide en la hebra -
+        private int[] motifs = new int[16];
+        private int size;
+
+        void add(int start, int motif, boolean reverse) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                motifs = Arrays.copyOf(motifs, size * 2);
+            }
+            starts[size] = start;
+            motifs[size] = reverse ? ~motif : motif;
+            size++;
+        }
+
+        void truncate(int size) {
+            this.size = Math.min(this.size, size);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int start(int index) {
+            return starts[index];
+        }
+
+        public int motif(int index) {
+            return motifs[index] < 0 ? ~motifs[index] : motifs[index];
+        }
+
+        public boolean reverse(int index) {
+            return motifs[index] < 0;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Búsqueda de marcos abiertos de lectura (ORFs) en los seis marcos de un rango de un Chromosome:
+ * desde el primer codón de inicio después de un codón de terminación hasta el siguiente codón de
+ * terminación del mismo marco, incluido. El rango se trata como una secuencia completa: los
+ * marcos +1, +2 y +3 empiezan en su primera base y los marcos -1, -2 y -3 terminan en su última,
+ * y un ORF sin codón de terminación dentro del rango no se informa.
+ * <p>
+ * El rango se divide en segmentos que se recorren en paralelo en el pool de análisis. Cada
+ * segmento se lee una sola vez del {@link SequenceBackend} y se evalúan los seis marcos en la
+ * misma pasada: la hebra - se lee sobre la hebra + con los reversos complementarios de los
+ * codones, sin construir su secuencia. Cada segmento resuelve los ORFs que empiezan y terminan en
+ * él y devuelve el estado de cada marco en sus bordes; los ORFs que cruzan segmentos se completan
+ * en el hilo que llama al entregar los segmentos en orden.
+ */
+@Component
+public class OrfFinder {
+
+    /** Tamaño de los segmentos que se recorren en paralelo. */
+    static final int SEGMENT_SIZE = 1024 * 1024;
+    private static final byte[] CODES = new byte[256];
+    // Marcas de cada codón de la hebra +: inicio/terminación en la hebra + o, leído como reverso
+    // complementario, en la hebra -
+    private static final int START = 1;
+    private static final int STOP = 2;
+    private static final int REVERSE_START = 4;
+    private static final int REVERSE_STOP = 8;
+
+    static {
+        Arrays.fill(CODES, (byte) 4);
+        CODES['A'] = CODES['a'] = 0;
+        CODES['C'] = CODES['c'] = 1;
+        CODES['G'] = CODES['g'] = 2;
+        CODES['T'] = CODES['t'] = 3;
+    }
+
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+
+    public OrfFinder(SequenceBackend sequenceBackend,
+                     @Qualifier("analysisPool") ForkJoinPool analysisPool) {
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+    }
+
+    /**
+     * Codones de inicio y de terminación. Los codones con algo distinto de A, C, G o T no son de
+     * inicio ni de terminación.
+     */
+    public static final class CodonTable {
+        private final byte[] flags = new byte[64];
+        private final List<String> starts;
+        private final List<String> stops;
+
+        /**
+         * @param starts Codones de inicio (A, C, G y T).
+         * @param stops Codones de terminación, distintos de los de inicio.
+         * @throws IllegalArgumentException si algún codón no es válido o está en ambas listas.
+         */
+        public CodonTable(List<String> starts, List<String> stops) {
+            if (starts.isEmpty() || stops.isEmpty()) {
+                throw new IllegalArgumentException("At least one start and one stop codon are required");
+            }
+            this.starts = starts.stream().map(codon -> codon.toUpperCase(Locale.ROOT)).distinct().toList();
+            this.stops = stops.stream().map(codon -> codon.toUpperCase(Locale.ROOT)).distinct().toList();
+            for (String codon : this.starts) {
+                mark(codon, START, REVERSE_START);
+            }
+            for (String codon : this.stops) {
+                if (this.starts.contains(codon)) {
+                    throw new IllegalArgumentException("Codon " + codon + " cannot be both a start and a stop codon");
+                }
+                mark(codon, STOP, REVERSE_STOP);
+            }
+        }
+
+        private void mark(String codon, int forward, int reverse) {
+            if (codon.length() != 3) {
+                throw new IllegalArgumentException("Invalid codon '" + codon + "': three bases are required");
+            }
+            int code = 0;
+            int reverseCode = 0;
+            for (int i = 0; i < 3; i++) {
+                int base = codon.charAt(i) < 256 ? CODES[codon.charAt(i)] : 4;
+                if (base > 3) {
+                    throw new IllegalArgumentException("Invalid codon '" + codon + "': only A, C, G and T are allowed");
+                }
+                code = code << 2 | base;
+                // El complemento de una base codificada es 3 - código
+                reverseCode = reverseCode | (3 - base) << 2 * i;
+            }
+            flags[code] |= (byte) forward;
+            flags[reverseCode] |= (byte) reverse;
+        }
+
+        public List<String> getStarts() {
+            return starts;
+        }
+
+        public List<String> getStops() {
+            return stops;
+        }
+    }
+
+    /**
+     * Rango en el que buscar.
+     * @param chromosomeId ID del Chromosome.
+     * @param name Nombre del Chromosome.
+     * @param start Posición inicial (inclusive, base 0).
+     * @param end Posición final (exclusive).
+     */
+    public record Target(Long chromosomeId, String name, int start, int end) {
+    }
+
+    /**
+     * Búsqueda validada y lista para ejecutarse.
+     * @param target Rango.
+     * @param codons Codones de inicio y de terminación.
+     * @param minLength Longitud mínima de los ORFs en bases, incluido el codón de terminación.
+     * @param limit Máximo de ORFs a entregar.
+     */
+    public record Search(Target target, CodonTable codons, int minLength, long limit) {
+    }
+
+    /**
+     * Receptor de los ORFs que se completan en cada segmento, llamado en orden de segmento, con
+     * la posición final del segmento.
+     */
+    @FunctionalInterface
+    public interface SegmentHandler {
+        void handle(Target target, int end, Orfs orfs) throws IOException;
+    }
+
+    /**
+     * Ejecutar una búsqueda. Se detiene al alcanzar el límite de ORFs.
+     * @param search Búsqueda.
+     * @param handler Receptor de los ORFs.
+     */
+    public void search(Search search, SegmentHandler handler) throws IOException {
+        Target target = search.target();
+        int maxInFlight = analysisPool.getParallelism() * 2;
+        Deque<Future<Segment>> pending = new ArrayDeque<>();
+        Frames frames = new Frames(search.minLength());
+        long remaining = search.limit();
+        try {
+            for (int start = target.start(); start < target.end() && remaining > 0; start += SEGMENT_SIZE) {
+                int segmentStart = start;
+                int segmentEnd = (int) Math.min(target.end(), (long) start + SEGMENT_SIZE);
+                pending.addLast(analysisPool.submit(() -> scan(search, segmentStart, segmentEnd)));
+                while (pending.size() >= maxInFlight && remaining > 0) {
+                    remaining = deliver(pending, frames, target, remaining, handler);
+                }
+            }
+            while (!pending.isEmpty() && remaining > 0) {
+                remaining = deliver(pending, frames, target, remaining, handler);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private long deliver(Deque<Future<Segment>> pending, Frames frames, Target target, long remaining,
+                         SegmentHandler handler) throws IOException {
+        Segment segment;
+        try {
+            segment = pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while searching ORFs", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Failed to search ORFs", e.getCause());
+        }
+        frames.join(segment, segment.end == target.end());
+        Orfs orfs = segment.orfs;
+        orfs.sort();
+        orfs.truncate((int) Math.min(orfs.size(), remaining));
+        handler.handle(target, segment.end, orfs);
+        return remaining - orfs.size();
+    }
+
+    private Segment scan(Search search, int start, int end) {
+        Target target = search.target();
+        byte[] flags = search.codons().flags;
+        Segment segment = new Segment(end, search.minLength());
+        // Las bases siguientes completan los codones que empiezan al final del segmento
+        int readEnd = (int) Math.min(target.end(), (long) end + 2);
+        int[] state = {start, 0, 0};
+        try {
+            sequenceBackend.stream(target.chromosomeId(), start, readEnd, chunk -> {
+                int position = state[0];
+                int codon = state[1];
+                int valid = state[2];
+                for (int i = chunk.position(), limit = chunk.limit(); i < limit; i++, position++) {
+                    int code = CODES[chunk.get(i) & 0xff];
+                    if (code > 3) {
+                        valid = 0;
+                        continue;
+                    }
+                    codon = (codon << 2 | code) & 63;
+                    if (++valid >= 3 && flags[codon] != 0) {
+                        int codonStart = position - 2;
+                        if (codonStart < end) {
+                            segment.codon(codonStart, flags[codon], (codonStart - target.start()) % 3,
+                                    (target.end() - 3 - codonStart) % 3);
+                        }
+                    }
+                }
+                chunk.position(chunk.limit());
+                state[0] = position;
+                state[1] = codon;
+                state[2] = valid;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segment;
+    }
+
+    /**
+     * Codones de un segmento en los seis marcos (0 a 2 en la hebra +, 3 a 5 en la hebra -), con
+     * los ORFs que empiezan y terminan en él.
+     * <p>
+     * En la hebra +, head es el primer codón de inicio antes del primer codón de terminación y
+     * open el primero después del último. En la hebra -, que se lee de derecha a izquierda, el ORF
+     * va del codón de terminación de la izquierda al último codón de inicio antes del siguiente
+     * codón de terminación: head es el último codón de inicio antes del primer codón de terminación
+     * y open el último después del último.
+     */
+    private static final class Segment {
+        private final int end;
+        private final int minLength;
+        private final int[] firstStop = new int[6];
+        private final int[] lastStop = new int[6];
+        private final int[] head = new int[6];
+        private final int[] open = new int[6];
+        private final Orfs orfs = new Orfs();
+
+        Segment(int end, int minLength) {
+            this.end = end;
+            this.minLength = minLength;
+            Arrays.fill(firstStop, -1);
+            Arrays.fill(lastStop, -1);
+            Arrays.fill(head, -1);
+            Arrays.fill(open, -1);
+        }
+
+        void codon(int position, int flags, int forwardFrame, int reverseFrame) {
+            if ((flags & START) != 0) {
+                if (lastStop[forwardFrame] < 0) {
+                    if (head[forwardFrame] < 0) {
+                        head[forwardFrame] = position;
+                    }
+                } else if (open[forwardFrame] < 0) {
+                    open[forwardFrame] = position;
+                }
+            } else if ((flags & STOP) != 0) {
+                if (lastStop[forwardFrame] >= 0 && open[forwardFrame] >= 0) {
+                    add(open[forwardFrame], position + 3, forwardFrame);
+                }
+                stop(forwardFrame, position);
+            }
+            int frame = 3 + reverseFrame;
+            if ((flags & REVERSE_START) != 0) {
+                if (lastStop[frame] < 0) {
+                    head[frame] = position;
+                } else {
+                    open[frame] = position;
+                }
+            } else if ((flags & REVERSE_STOP) != 0) {
+                if (lastStop[frame] >= 0 && open[frame] >= 0) {
+                    add(lastStop[frame], open[frame] + 3, frame);
+                }
+                stop(frame, position);
+            }
+        }
+
+        private void stop(int frame, int position) {
+            if (firstStop[frame] < 0) {
+                firstStop[frame] = position;
+            }
+            lastStop[frame] = position;
+            open[frame] = -1;
+        }
+
+        void add(int start, int end, int frame) {
+            if (end - start >= minLength) {
+                orfs.add(start, end, frame);
+            }
+        }
+    }
+
+    /**
+     * Estado de cada marco entre segmentos, en el hilo que entrega los resultados.
+     */
+    private static final class Frames {
+        private final int minLength;
+        // Último codón de terminación de cada marco de la hebra - (la hebra + no lo necesita: el
+        // inicio del rango cuenta como uno)
+        private final int[] stop = new int[6];
+        // Codón de inicio del ORF en curso (el primero en la hebra +, el último en la hebra -)
+        private final int[] start = new int[6];
+
+        Frames(int minLength) {
+            this.minLength = minLength;
+            Arrays.fill(stop, -1);
+            Arrays.fill(start, -1);
+        }
+
+        /**
+         * Completar con el estado acumulado los ORFs que terminan en el segmento y actualizarlo.
+         * @param last Si es el último segmento del rango.
+         */
+        void join(Segment segment, boolean last) {
+            for (int frame = 0; frame < 3; frame++) {
+                if (segment.firstStop[frame] >= 0) {
+                    int orfStart = start[frame] >= 0 ? start[frame] : segment.head[frame];
+                    if (orfStart >= 0) {
+                        add(segment, orfStart, segment.firstStop[frame] + 3, frame);
+                    }
+                    start[frame] = segment.open[frame];
+                } else if (start[frame] < 0) {
+                    start[frame] = segment.head[frame];
+                }
+            }
+            for (int frame = 3; frame < 6; frame++) {
+                if (segment.firstStop[frame] >= 0) {
+                    int orfStart = segment.head[frame] >= 0 ? segment.head[frame] : start[frame];
+                    if (stop[frame] >= 0 && orfStart >= 0) {
+                        add(segment, stop[frame], orfStart + 3, frame);
+                    }
+                    stop[frame] = segment.lastStop[frame];
+                    start[frame] = segment.open[frame];
+                } else if (segment.head[frame] >= 0) {
+                    start[frame] = segment.head[frame];
+                }
+                // Al final del rango, el último codón de inicio es el primero que se lee en la hebra -
+                if (last && stop[frame] >= 0 && start[frame] >= 0) {
+                    add(segment, stop[frame], start[frame] + 3, frame);
+                }
+            }
+        }
+
+        private void add(Segment segment, int start, int end, int frame) {
+            if (end - start >= minLength) {
+                segment.orfs.add(start, end, frame);
+            }
+        }
+    }
+
+    /**
+     * ORFs de un segmento en arreglos primitivos, ordenados por posición inicial al entregarse.
+     */
+    public static final class Orfs {
+        private long[] orfs = new long[16];
+        private int size;
+
+        void add(int start, int end, int frame) {
+            if (size == orfs.length) {
+                orfs = Arrays.copyOf(orfs, size * 2);
+            }
+            // Inicio en los bits altos para ordenar por posición; longitud (menos de 2^29) y marco en los bajos
+            orfs[size++] = (long) start << 32 | (long) (end - start) << 3 | frame;
+        }
+
+        void sort() {
+            Arrays.sort(orfs, 0, size);
+        }
+
+        void truncate(int size) {
+            this.size = Math.min(this.size, size);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return Posición inicial en el Chromosome (inclusive, base 0).
+         */
+        public int start(int index) {
+            return (int) (orfs[index] >>> 32);
+        }
+
+        /**
+         * @return Posición final en el Chromosome (exclusive), incluido el codón de terminación.
+         */
+        public int end(int index) {
+            return start(index) + (int) ((orfs[index] & 0xffffffffL) >>> 3);
+        }
+
+        /**
+         * @return Marco de lectura: 1, 2 o 3 en la hebra +, -1, -2 o -3 en la hebra -.
+         */
+        public int frame(int index) {
+            int frame = (int) (orfs[index] & 7);
+            return frame < 3 ? frame + 1 : 2 - frame;
+        }
+
+        public boolean reverse(int index) {
+            return (orfs[index] & 7) >= 3;
+        }
+    }
+}
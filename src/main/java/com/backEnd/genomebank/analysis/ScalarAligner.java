@@ -0,0 +1,47 @@
+package com.backEnd.genomebank.analysis;
+
+/**
+ * Smith-Waterman escalar (Gotoh) en memoria lineal, columna a columna de la secuencia.
+ * Se usa cuando la Vector API no está disponible o cuando el puntaje máximo posible no cabe en
+ * las celdas de 16 bits de {@link StripedAligner}.
+ */
+final class ScalarAligner implements LocalAligner.Factory {
+
+    @Override
+    public LocalAligner forQuery(byte[] query, SmithWaterman.Scoring scoring) {
+        return (target, deadline) -> align(query, scoring, target, deadline);
+    }
+
+    private static int[] align(byte[] query, SmithWaterman.Scoring scoring, byte[] target, long deadline) {
+        int m = query.length;
+        int[] h = new int[m];
+        int[] e = new int[m];
+        int best = 0;
+        int bestQuery = -1;
+        int bestTarget = -1;
+        for (int t = 0; t < target.length; t++) {
+            if ((t & 1023) == 0 && System.nanoTime() - deadline > 0) {
+                return null;
+            }
+            int base = target[t];
+            int diagonal = 0;
+            int f = 0;
+            for (int q = 0; q < m; q++) {
+                int score = diagonal + scoring.score(query[q], base);
+                int gapE = e[q];
+                score = Math.max(Math.max(score, gapE), Math.max(f, 0));
+                diagonal = h[q];
+                h[q] = score;
+                if (score > best) {
+                    best = score;
+                    bestQuery = q;
+                    bestTarget = t;
+                }
+                int open = score - scoring.gapOpen();
+                e[q] = Math.max(Math.max(gapE - scoring.gapExtend(), open), 0);
+                f = Math.max(Math.max(f - scoring.gapExtend(), open), 0);
+            }
+        }
+        return new int[]{best, bestQuery, bestTarget};
+    }
+}
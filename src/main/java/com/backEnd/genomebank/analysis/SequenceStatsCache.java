@@ -0,0 +1,84 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.events.GenesChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de las estadísticas de secuencia por Chromosome.
+ * La composición de bases (un recorrido completo de la secuencia) y el número de Genes se
+ * guardan por separado, para que crear o eliminar un Gene no obligue a recorrer la secuencia.
+ * Las entradas se invalidan con los eventos publicados al confirmar cada transacción; un
+ * contador de versión por Chromosome impide guardar un valor calculado antes de la invalidación.
+ */
+@Component
+public class SequenceStatsCache {
+
+    private final Map<Long, BaseComposition> compositions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> geneCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> compositionVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> geneCountVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Obtener la composición de bases de un Chromosome, calculándola si no está en caché.
+     * @param chromosomeId ID del Chromosome.
+     * @param loader Cálculo de la composición cuando no está en caché.
+     * @return Composición de bases.
+     */
+    public BaseComposition composition(Long chromosomeId, Supplier<BaseComposition> loader) {
+        BaseComposition cached = compositions.get(chromosomeId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = compositionVersions.getOrDefault(chromosomeId, 0L);
+        BaseComposition computed = loader.get();
+        storeIfCurrent(compositions, compositionVersions, chromosomeId, version, computed);
+        return computed;
+    }
+
+    /**
+     * Obtener el número de Genes de un Chromosome, contándolos si no está en caché.
+     * @param chromosomeId ID del Chromosome.
+     * @param loader Conteo de Genes cuando no está en caché.
+     * @return Número de Genes.
+     */
+    public long geneCount(Long chromosomeId, LongSupplier loader) {
+        Long cached = geneCounts.get(chromosomeId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = geneCountVersions.getOrDefault(chromosomeId, 0L);
+        long computed = loader.getAsLong();
+        storeIfCurrent(geneCounts, geneCountVersions, chromosomeId, version, computed);
+        return computed;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChromosomeChanged(ChromosomeChangedEvent event) {
+        invalidate(compositions, compositionVersions, event.chromosomeId());
+        invalidate(geneCounts, geneCountVersions, event.chromosomeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenesChanged(GenesChangedEvent event) {
+        invalidate(geneCounts, geneCountVersions, event.chromosomeId());
+    }
+
+    private static <V> void storeIfCurrent(Map<Long, V> cache, Map<Long, Long> versions,
+                                           Long chromosomeId, long version, V value) {
+        // La comprobación se hace bajo el bloqueo de la entrada, el mismo que toma invalidate()
+        cache.compute(chromosomeId, (id, previous) ->
+                versions.getOrDefault(id, 0L) == version ? value : previous);
+    }
+
+    private static <V> void invalidate(Map<Long, V> cache, Map<Long, Long> versions, Long chromosomeId) {
+        versions.merge(chromosomeId, 1L, Long::sum);
+        cache.remove(chromosomeId);
+    }
+}
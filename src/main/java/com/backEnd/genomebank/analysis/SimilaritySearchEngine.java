@@ -0,0 +1,212 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.Nucleotides;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Búsqueda de similitud tipo BLAST en un Genome: semillas con su índice de minimizadores
+ * ({@link GenomeMinimizerIndex}) y extensión con un alineamiento local en banda
+ * ({@link BandedAligner}) solo alrededor de ellas.
+ * <p>
+ * Cada aparición de un minimizador de la consulta da una semilla en una diagonal (posición en el
+ * Chromosome menos posición en la consulta) de una hebra. Las semillas de diagonales cercanas del
+ * mismo Chromosome y hebra se agrupan en candidatos; los candidatos con más semillas se extienden
+ * en paralelo en el pool de análisis, leyendo solo la ventana del Chromosome que cubre su banda.
+ * Los minimizadores demasiado repetidos (repeticiones del Genome) no generan semillas.
+ */
+@Component
+public class SimilaritySearchEngine {
+
+    /** Diagonales que se agregan a cada lado de las semillas de un candidato. */
+    private static final int BAND = 48;
+    /** Mayor distancia entre diagonales de un mismo candidato. */
+    private static final int MAX_DIAGONAL_SPREAD = 2_000;
+    private static final int MAX_CANDIDATES = 500;
+    private static final int DIAGONAL_BITS = 33;
+
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+
+    public SimilaritySearchEngine(SequenceBackend sequenceBackend,
+                                  @Qualifier("analysisPool") ForkJoinPool analysisPool) {
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+    }
+
+    /**
+     * Búsqueda validada y lista para ejecutarse.
+     * @param index Índice del Genome.
+     * @param query Consulta.
+     * @param scoring Puntajes de la extensión.
+     * @param bothStrands Si es true, también se busca el reverso complementario.
+     * @param minScore Puntaje mínimo de los resultados.
+     * @param minIdentity Identidad mínima de los resultados (0 a 1).
+     * @param limit Máximo de resultados.
+     * @param maxOccurrences Apariciones a partir de las cuales un minimizador no se usa como semilla.
+     */
+    public record Search(GenomeMinimizerIndex index, String query, SmithWaterman.Scoring scoring,
+                         boolean bothStrands, int minScore, double minIdentity, int limit, int maxOccurrences) {
+    }
+
+    /**
+     * Resultado de una extensión.
+     * @param chromosomeId ID del Chromosome.
+     * @param reverse true si se alineó el reverso complementario de la consulta.
+     * @param seeds Semillas del candidato.
+     * @param alignment Alineamiento, con coordenadas del Chromosome y de la consulta original.
+     */
+    public record Hit(Long chromosomeId, boolean reverse, int seeds, SmithWaterman.Alignment alignment) {
+    }
+
+    /**
+     * @param hits Resultados ordenados por puntaje descendente, sin solapamientos en la misma hebra.
+     * @param minimizers Minimizadores de la consulta.
+     * @param seeds Semillas encontradas.
+     * @param candidates Candidatos extendidos.
+     */
+    public record Result(List<Hit> hits, int minimizers, int seeds, int candidates) {
+    }
+
+    private record Candidate(int chromosome, boolean reverse, int diagonalLow, int diagonalHigh, int seeds) {
+    }
+
+    /**
+     * Ejecutar una búsqueda.
+     */
+    public Result search(Search search) {
+        GenomeMinimizerIndex index = search.index();
+        String query = search.query();
+        int length = query.length();
+        int k = index.getK();
+        long[][] minimizers = Minimizers.sketch(query, k, index.getW());
+
+        // Semilla: hebra (bit 62), Chromosome (bits 33-61) y diagonal + longitud de la consulta
+        long[] anchors = new long[64];
+        int anchorCount = 0;
+        for (int m = 0; m < minimizers[0].length; m++) {
+            for (long occurrence : index.occurrences(minimizers[0][m], search.maxOccurrences())) {
+                boolean reverse = (occurrence & 1) != minimizers[2][m];
+                if (reverse && !search.bothStrands()) {
+                    continue;
+                }
+                long position = occurrence >>> 1;
+                int queryPosition = (int) (reverse ? length - minimizers[1][m] - k : minimizers[1][m]);
+                int chromosome = index.chromosomeIndex(position);
+                long diagonal = position - index.offset(chromosome) - queryPosition;
+                if (anchorCount == anchors.length) {
+                    anchors = Arrays.copyOf(anchors, anchors.length * 2);
+                }
+                anchors[anchorCount++] = (reverse ? 1L << 62 : 0) | (long) chromosome << DIAGONAL_BITS
+                        | (diagonal + length);
+            }
+        }
+        Arrays.sort(anchors, 0, anchorCount);
+
+        List<Candidate> candidates = new ArrayList<>();
+        int minSeeds = minimizers[0].length >= 4 ? 2 : 1;
+        for (int first = 0; first < anchorCount; ) {
+            long group = anchors[first] >>> DIAGONAL_BITS;
+            int low = diagonal(anchors[first], length);
+            int high = low;
+            int last = first + 1;
+            while (last < anchorCount && anchors[last] >>> DIAGONAL_BITS == group) {
+                int diagonal = diagonal(anchors[last], length);
+                if (diagonal - high > BAND || diagonal - low > MAX_DIAGONAL_SPREAD) {
+                    break;
+                }
+                high = diagonal;
+                last++;
+            }
+            if (last - first >= minSeeds) {
+                candidates.add(new Candidate((int) (group & ((1L << 29) - 1)), (group >>> 29) != 0,
+                        low, high, last - first));
+            }
+            first = last;
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::seeds).reversed());
+        if (candidates.size() > MAX_CANDIDATES) {
+            candidates = candidates.subList(0, MAX_CANDIDATES);
+        }
+
+        byte[] forward = SmithWaterman.encode(query);
+        byte[] reverse = SmithWaterman.encode(Nucleotides.reverseComplement(query));
+        List<Future<Hit>> futures = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            futures.add(analysisPool.submit(() -> extend(search, candidate, candidate.reverse() ? reverse : forward)));
+        }
+        List<Hit> hits = new ArrayList<>();
+        try {
+            for (Future<Hit> future : futures) {
+                Hit hit = future.get();
+                if (hit != null) {
+                    hits.add(hit);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while extending seeds", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to extend seeds", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        // Candidatos vecinos pueden extenderse al mismo alineamiento: se queda el de mayor puntaje
+        hits.sort(Comparator.comparingInt((Hit hit) -> hit.alignment().score()).reversed());
+        List<Hit> distinct = new ArrayList<>();
+        for (Hit hit : hits) {
+            if (distinct.size() == search.limit()) {
+                break;
+            }
+            boolean overlaps = distinct.stream().anyMatch(other -> other.chromosomeId().equals(hit.chromosomeId())
+                    && other.reverse() == hit.reverse()
+                    && other.alignment().targetStart() < hit.alignment().targetEnd()
+                    && hit.alignment().targetStart() < other.alignment().targetEnd());
+            if (!overlaps) {
+                distinct.add(hit);
+            }
+        }
+        return new Result(distinct, minimizers[0].length, anchorCount, candidates.size());
+    }
+
+    private static int diagonal(long anchor, int queryLength) {
+        return (int) ((anchor & ((1L << DIAGONAL_BITS) - 1)) - queryLength);
+    }
+
+    /**
+     * Alinear la consulta en la banda de un candidato.
+     * @return Resultado, o null si no alcanza el puntaje o la identidad mínimos.
+     */
+    private Hit extend(Search search, Candidate candidate, byte[] query) {
+        IndexedChromosome chromosome = search.index().getChromosomes().get(candidate.chromosome());
+        int windowStart = Math.max(0, candidate.diagonalLow() - BAND);
+        int windowEnd = (int) Math.min(chromosome.length(), (long) candidate.diagonalHigh() + query.length + BAND);
+        if (windowStart >= windowEnd) {
+            return null;
+        }
+        byte[] target = SmithWaterman.encode(sequenceBackend.read(chromosome.chromosomeId(), windowStart, windowEnd));
+        SmithWaterman.Alignment alignment = BandedAligner.align(query, target,
+                candidate.diagonalLow() - BAND - windowStart, candidate.diagonalHigh() + BAND - windowStart,
+                search.scoring());
+        if (alignment.score() < search.minScore() || alignment.columns() <= 0
+                || (double) alignment.matches() / alignment.columns() < search.minIdentity()) {
+            return null;
+        }
+        int queryStart = candidate.reverse() ? query.length - alignment.queryEnd() : alignment.queryStart();
+        int queryEnd = candidate.reverse() ? query.length - alignment.queryStart() : alignment.queryEnd();
+        return new Hit(chromosome.chromosomeId(), candidate.reverse(), candidate.seeds(),
+                new SmithWaterman.Alignment(alignment.score(), queryStart, queryEnd,
+                        windowStart + alignment.targetStart(), windowStart + alignment.targetEnd(),
+                        alignment.cigar(), alignment.matches(), alignment.columns()));
+    }
+}
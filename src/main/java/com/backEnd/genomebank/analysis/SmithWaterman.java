@@ -0,0 +1,299 @@
+package com.backEnd.genomebank.analysis;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Alineamiento local (Smith-Waterman con gaps afines) de una consulta contra secuencias de ADN.
+ * Se hace en tres pasos, como en SSW: una pasada vectorizada ({@link StripedAligner}, o
+ * {@link ScalarAligner} si la Vector API no está disponible) encuentra el mejor puntaje y dónde
+ * termina; una segunda pasada sobre la consulta y la secuencia invertidas, acotada a la ventana
+ * que puede cubrir ese puntaje, encuentra dónde empieza; y un alineamiento con matriz de
+ * direcciones sobre ese rectángulo da el CIGAR. Las bases que no son A, C, G ni T no coinciden con
+ * nada, ni siquiera con otra N.
+ * <p>
+ * Una instancia prepara la consulta una sola vez y se puede usar desde varios hilos a la vez.
+ */
+@Slf4j
+public final class SmithWaterman {
+
+    /** Códigos de base: A, C, G, T y cualquier otra. */
+    static final int CODES = 5;
+    static final int OTHER = 4;
+    /** Mayor rectángulo (consulta x secuencia) para el que se reconstruye el CIGAR. */
+    private static final long MAX_TRACEBACK_CELLS = 1L << 25;
+
+    private static final LocalAligner.Factory VECTOR = loadVectorAligner();
+    private static final LocalAligner.Factory SCALAR = new ScalarAligner();
+
+    private final byte[] query;
+    private final Scoring scoring;
+    private final LocalAligner.Factory factory;
+    private final LocalAligner forward;
+
+    /**
+     * Puntajes del alineamiento.
+     * @param match Puntaje de una coincidencia (positivo).
+     * @param mismatch Penalización de una diferencia (positiva o cero).
+     * @param gapOpen Penalización de la primera base de un gap.
+     * @param gapExtend Penalización de cada base adicional de un gap (al menos 1).
+     */
+    public record Scoring(int match, int mismatch, int gapOpen, int gapExtend) {
+
+        int score(int queryCode, int targetCode) {
+            return queryCode == targetCode && queryCode != OTHER ? match : -mismatch;
+        }
+    }
+
+    /**
+     * Mejor alineamiento local.
+     * @param score Puntaje (0 si no hay ningún alineamiento con puntaje positivo).
+     * @param queryStart Posición inicial en la consulta (inclusive).
+     * @param queryEnd Posición final en la consulta (exclusive).
+     * @param targetStart Posición inicial en la secuencia (inclusive).
+     * @param targetEnd Posición final en la secuencia (exclusive).
+     * @param cigar CIGAR (M, I, D y S para las bases de la consulta fuera del alineamiento), o
+     *              null si el alineamiento es demasiado grande para reconstruirlo.
+     * @param matches Columnas con bases iguales, o -1 sin CIGAR.
+     * @param columns Columnas del alineamiento (M, I y D), o -1 sin CIGAR.
+     */
+    public record Alignment(int score, int queryStart, int queryEnd, int targetStart, int targetEnd,
+                            String cigar, int matches, int columns) {
+    }
+
+    /**
+     * Preparar una consulta.
+     * @param query Consulta (sin distinguir mayúsculas/minúsculas).
+     * @param scoring Puntajes.
+     */
+    public SmithWaterman(CharSequence query, Scoring scoring) {
+        this.query = encode(query);
+        this.scoring = scoring;
+        this.factory = VECTOR != null && (long) scoring.match() * this.query.length <= Short.MAX_VALUE / 2
+                ? VECTOR : SCALAR;
+        this.forward = factory.forQuery(this.query, scoring);
+    }
+
+    /**
+     * @return true si las consultas pueden usar la implementación vectorizada.
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR != null;
+    }
+
+    /**
+     * @return true si esta consulta usa la implementación vectorizada.
+     */
+    public boolean isVectorized() {
+        return factory == VECTOR;
+    }
+
+    /**
+     * Alinear la consulta contra una secuencia.
+     * @param target Secuencia codificada con {@link #encode(CharSequence)}.
+     * @param deadline Instante límite (System.nanoTime()).
+     * @return Mejor alineamiento, o null si se alcanzó el instante límite.
+     */
+    public Alignment align(byte[] target, long deadline) {
+        int[] end = forward.align(target, deadline);
+        if (end == null) {
+            return null;
+        }
+        int score = end[0];
+        if (score == 0) {
+            return new Alignment(0, 0, 0, 0, 0, null, -1, -1);
+        }
+        int queryEnd = end[1] + 1;
+        int targetEnd = end[2] + 1;
+
+        // Un alineamiento con ese puntaje no puede abarcar más bases de la secuencia que estas
+        long span = queryEnd + ((long) scoring.match() * queryEnd) / scoring.gapExtend() + 1;
+        int windowStart = (int) Math.max(0, targetEnd - span);
+        byte[] reversedQuery = reverse(query, 0, queryEnd);
+        byte[] reversedTarget = reverse(target, windowStart, targetEnd);
+        int[] start = factory.forQuery(reversedQuery, scoring).align(reversedTarget, deadline);
+        if (start == null) {
+            return null;
+        }
+        int queryStart = queryEnd - 1 - start[1];
+        int targetStart = targetEnd - 1 - start[2];
+
+        long cells = (long) (queryEnd - queryStart) * (targetEnd - targetStart);
+        if (cells > MAX_TRACEBACK_CELLS) {
+            return new Alignment(score, queryStart, queryEnd, targetStart, targetEnd, null, -1, -1);
+        }
+        return traceback(target, queryStart, queryEnd, targetStart, targetEnd, score);
+    }
+
+    /**
+     * Codificar una secuencia: A=0, C=1, G=2, T=3 (sin distinguir mayúsculas/minúsculas) y 4 para
+     * cualquier otro carácter.
+     */
+    public static byte[] encode(CharSequence sequence) {
+        byte[] codes = new byte[sequence.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = switch (sequence.charAt(i)) {
+                case 'A', 'a' -> 0;
+                case 'C', 'c' -> 1;
+                case 'G', 'g' -> 2;
+                case 'T', 't' -> 3;
+                default -> OTHER;
+            };
+        }
+        return codes;
+    }
+
+    private static byte[] reverse(byte[] codes, int from, int to) {
+        byte[] reversed = new byte[to - from];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = codes[to - 1 - i];
+        }
+        return reversed;
+    }
+
+    /**
+     * Alineamiento local con matriz de direcciones sobre el rectángulo que contiene el mejor
+     * alineamiento, reconstruido desde la celda de mayor puntaje.
+     */
+    private Alignment traceback(byte[] target, int queryStart, int queryEnd, int targetStart, int targetEnd,
+                                int expectedScore) {
+        int rows = queryEnd - queryStart;
+        int columns = targetEnd - targetStart;
+        // Por celda: bits 0-1 origen de H (0 nada, 1 diagonal, 2 E, 3 F), bit 2 E extendido, bit 3 F extendido
+        byte[] directions = new byte[(rows + 1) * (columns + 1)];
+        int[] h = new int[columns + 1];
+        int[] f = new int[columns + 1];
+        int best = 0;
+        int bestRow = 0;
+        int bestColumn = 0;
+        for (int i = 1; i <= rows; i++) {
+            int diagonal = 0;
+            int left = 0;
+            int e = 0;
+            int queryCode = query[queryStart + i - 1];
+            for (int j = 1; j <= columns; j++) {
+                byte direction = 0;
+                int extendE = e - scoring.gapExtend();
+                int openE = left - scoring.gapOpen();
+                if (extendE > openE) {
+                    e = extendE;
+                    direction |= 4;
+                } else {
+                    e = openE;
+                }
+                int extendF = f[j] - scoring.gapExtend();
+                int openF = h[j] - scoring.gapOpen();
+                if (extendF > openF) {
+                    f[j] = extendF;
+                    direction |= 8;
+                } else {
+                    f[j] = openF;
+                }
+                int score = diagonal + scoring.score(queryCode, target[targetStart + j - 1]);
+                int source = 1;
+                if (e > score) {
+                    score = e;
+                    source = 2;
+                }
+                if (f[j] > score) {
+                    score = f[j];
+                    source = 3;
+                }
+                if (score <= 0) {
+                    score = 0;
+                    source = 0;
+                }
+                diagonal = h[j];
+                h[j] = score;
+                left = score;
+                directions[i * (columns + 1) + j] = (byte) (direction | source);
+                if (score > best) {
+                    best = score;
+                    bestRow = i;
+                    bestColumn = j;
+                }
+            }
+        }
+        if (best != expectedScore) {
+            log.warn("Smith-Waterman traceback score {} differs from {}", best, expectedScore);
+        }
+
+        StringBuilder operations = new StringBuilder();
+        int i = bestRow;
+        int j = bestColumn;
+        int state = 0;
+        int matches = 0;
+        while (i > 0 && j > 0) {
+            int direction = directions[i * (columns + 1) + j];
+            if (state == 0) {
+                int source = direction & 3;
+                if (source == 0) {
+                    break;
+                }
+                if (source == 1) {
+                    if (query[queryStart + i - 1] == target[targetStart + j - 1]
+                            && query[queryStart + i - 1] != OTHER) {
+                        matches++;
+                    }
+                    operations.append('M');
+                    i--;
+                    j--;
+                } else {
+                    state = source;
+                }
+            } else if (state == 2) {
+                operations.append('D');
+                state = (direction & 4) != 0 ? 2 : 0;
+                j--;
+            } else {
+                operations.append('I');
+                state = (direction & 8) != 0 ? 3 : 0;
+                i--;
+            }
+        }
+        int alignedQueryStart = queryStart + i;
+        int alignedTargetStart = targetStart + j;
+        int alignedQueryEnd = queryStart + bestRow;
+        return new Alignment(best, alignedQueryStart, alignedQueryEnd, alignedTargetStart,
+                targetStart + bestColumn, cigar(operations.reverse(), alignedQueryStart, query.length - alignedQueryEnd),
+                matches, operations.length());
+    }
+
+    /**
+     * Construir un CIGAR a partir de las operaciones del alineamiento, una por columna.
+     * @param operations Operaciones M, I y D en orden.
+     * @param leadingClip Bases de la consulta antes del alineamiento.
+     * @param trailingClip Bases de la consulta después del alineamiento.
+     */
+    static String cigar(CharSequence operations, int leadingClip, int trailingClip) {
+        StringBuilder cigar = new StringBuilder();
+        if (leadingClip > 0) {
+            cigar.append(leadingClip).append('S');
+        }
+        for (int k = 0; k < operations.length(); ) {
+            int run = k;
+            while (run < operations.length() && operations.charAt(run) == operations.charAt(k)) {
+                run++;
+            }
+            cigar.append(run - k).append(operations.charAt(k));
+            k = run;
+        }
+        if (trailingClip > 0) {
+            cigar.append(trailingClip).append('S');
+        }
+        return cigar.toString();
+    }
+
+    private static LocalAligner.Factory loadVectorAligner() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("jdk.incubator.vector is not available; Smith-Waterman uses the scalar implementation");
+            return null;
+        }
+        try {
+            return (LocalAligner.Factory) Class.forName(SmithWaterman.class.getPackageName() + ".StripedAligner")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Could not load the vectorized Smith-Waterman; using the scalar implementation", e);
+            return null;
+        }
+    }
+}
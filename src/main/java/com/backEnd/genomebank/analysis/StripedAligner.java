@@ -0,0 +1,136 @@
+package com.backEnd.genomebank.analysis;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Smith-Waterman vectorizado con el esquema "striped" de Farrar sobre la Vector API, con celdas
+ * de 16 bits (16 carriles con AVX2, 32 con AVX-512).
+ * La consulta se reparte en carriles de forma intercalada: el carril k del segmento j contiene
+ * la posición k * segLen + j, así que las dependencias verticales entre segmentos consecutivos no
+ * cruzan carriles y solo la corrección perezosa de F los desplaza. El perfil de la consulta
+ * (puntaje de cada posición contra cada base) se calcula una vez y se reutiliza para todas las
+ * secuencias. Los valores de H, E y F nunca son negativos, así que no hace falta aritmética
+ * saturada; {@link SmithWaterman} solo usa esta clase si el puntaje máximo cabe en un short.
+ * <p>
+ * Solo se carga si el módulo jdk.incubator.vector está presente (--add-modules jdk.incubator.vector).
+ */
+final class StripedAligner implements LocalAligner.Factory {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public LocalAligner forQuery(byte[] query, SmithWaterman.Scoring scoring) {
+        return new Striped(query, scoring);
+    }
+
+    private static final class Striped implements LocalAligner {
+        private final int length;
+        private final int lanes;
+        private final int segments;
+        // Perfil por código de base: puntaje de cada posición de la consulta en el orden intercalado
+        private final short[][] profile;
+        private final short gapOpen;
+        private final short gapExtend;
+
+        Striped(byte[] query, SmithWaterman.Scoring scoring) {
+            this.length = query.length;
+            this.lanes = SPECIES.length();
+            this.segments = (length + lanes - 1) / lanes;
+            this.gapOpen = (short) scoring.gapOpen();
+            this.gapExtend = (short) scoring.gapExtend();
+            this.profile = new short[SmithWaterman.CODES][segments * lanes];
+            for (int code = 0; code < SmithWaterman.CODES; code++) {
+                for (int j = 0; j < segments; j++) {
+                    for (int k = 0; k < lanes; k++) {
+                        int q = k * segments + j;
+                        // Las posiciones de relleno nunca suman puntaje
+                        profile[code][j * lanes + k] = q < length
+                                ? (short) scoring.score(query[q], code) : Short.MIN_VALUE / 2;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int[] align(byte[] target, long deadline) {
+            int size = segments * lanes;
+            short[] hStore = new short[size];
+            short[] hLoad = new short[size];
+            short[] e = new short[size];
+            ShortVector zero = ShortVector.zero(SPECIES);
+            ShortVector vGapOpen = ShortVector.broadcast(SPECIES, gapOpen);
+            ShortVector vGapExtend = ShortVector.broadcast(SPECIES, gapExtend);
+            int best = 0;
+            int bestQuery = -1;
+            int bestTarget = -1;
+
+            for (int t = 0; t < target.length; t++) {
+                if ((t & 1023) == 0 && System.nanoTime() - deadline > 0) {
+                    return null;
+                }
+                short[] scores = profile[target[t]];
+                ShortVector vF = zero;
+                ShortVector vMax = zero;
+                // H de la columna anterior, desplazado un carril: diagonal del segmento 0
+                ShortVector vH = zero.slice(lanes - 1, ShortVector.fromArray(SPECIES, hStore, (segments - 1) * lanes));
+                short[] swap = hLoad;
+                hLoad = hStore;
+                hStore = swap;
+
+                for (int j = 0; j < segments; j++) {
+                    int offset = j * lanes;
+                    vH = vH.add(ShortVector.fromArray(SPECIES, scores, offset));
+                    ShortVector vE = ShortVector.fromArray(SPECIES, e, offset);
+                    vH = vH.max(vE).max(vF);
+                    vMax = vMax.max(vH);
+                    vH.intoArray(hStore, offset);
+                    ShortVector vOpen = vH.sub(vGapOpen).max(zero);
+                    vE.sub(vGapExtend).max(vOpen).intoArray(e, offset);
+                    vF = vF.sub(vGapExtend).max(vOpen);
+                    vH = ShortVector.fromArray(SPECIES, hLoad, offset);
+                }
+
+                // Corrección perezosa de F: propagar los gaps verticales que cruzan segmentos. Si F no
+                // supera H - gapOpen en ningún carril, el F ya calculado para el segmento siguiente
+                // lo cubre y no queda nada por propagar.
+                lazyF:
+                for (int k = 0; k < lanes; k++) {
+                    vF = zero.slice(lanes - 1, vF);
+                    for (int j = 0; j < segments; j++) {
+                        int offset = j * lanes;
+                        vH = ShortVector.fromArray(SPECIES, hStore, offset);
+                        if (!vF.compare(VectorOperators.GT, vH.sub(vGapOpen)).anyTrue()) {
+                            break lazyF;
+                        }
+                        vH = vH.max(vF);
+                        vMax = vMax.max(vH);
+                        vH.intoArray(hStore, offset);
+                        ShortVector vOpen = vH.sub(vGapOpen).max(zero);
+                        ShortVector.fromArray(SPECIES, e, offset).max(vOpen).intoArray(e, offset);
+                        // Con gapOpen < gapExtend abrir un gap desde el H corregido supera a extender F
+                        vF = vF.sub(vGapExtend).max(vOpen);
+                    }
+                }
+
+                int columnMax = vMax.reduceLanes(VectorOperators.MAX);
+                if (columnMax > best) {
+                    best = columnMax;
+                    bestTarget = t;
+                    bestQuery = firstPosition(hStore, columnMax);
+                }
+            }
+            return new int[]{best, bestQuery, bestTarget};
+        }
+
+        private int firstPosition(short[] h, int value) {
+            for (int q = 0; q < length; q++) {
+                if (h[(q % segments) * lanes + q / segments] == value) {
+                    return q;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.backEnd.genomebank.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Construcción de arreglos de sufijos en tiempo lineal con SA-IS (Nong, Zhang y Chan).
+ * Un sufijo que es prefijo de otro se ordena antes. Para limitar la memoria, el nivel superior
+ * trabaja directamente sobre el texto en bytes, los tipos L/S se guardan como bits y el arreglo
+ * de sufijos se libera mientras se resuelve el problema reducido, de modo que el pico queda en
+ * unos 9 bytes por símbolo además del texto.
+ */
+final class SuffixArrays {
+
+    private SuffixArrays() {
+    }
+
+    /**
+     * @param text Texto con símbolos de 0 a upper.
+     * @param upper Mayor símbolo posible.
+     * @return Posiciones iniciales de los sufijos en orden lexicográfico.
+     */
+    static int[] build(byte[] text, int upper) {
+        return sais(new ByteSymbols(text), upper);
+    }
+
+    private interface Symbols {
+        int length();
+
+        int at(int index);
+    }
+
+    private record ByteSymbols(byte[] text) implements Symbols {
+        @Override
+        public int length() {
+            return text.length;
+        }
+
+        @Override
+        public int at(int index) {
+            return text[index];
+        }
+    }
+
+    private record IntSymbols(int[] text) implements Symbols {
+        @Override
+        public int length() {
+            return text.length;
+        }
+
+        @Override
+        public int at(int index) {
+            return text[index];
+        }
+    }
+
+    private static int[] sais(Symbols s, int upper) {
+        int n = s.length();
+        if (n == 0) {
+            return new int[0];
+        }
+        if (n == 1) {
+            return new int[]{0};
+        }
+        if (n == 2) {
+            return s.at(0) < s.at(1) ? new int[]{0, 1} : new int[]{1, 0};
+        }
+
+        // Bit i a 1 si el sufijo i es de tipo S (menor que el sufijo i + 1)
+        long[] types = new long[(n + 63) >>> 6];
+        boolean next = false;
+        for (int i = n - 2; i >= 0; i--) {
+            int a = s.at(i);
+            int b = s.at(i + 1);
+            next = a == b ? next : a < b;
+            if (next) {
+                types[i >>> 6] |= 1L << i;
+            }
+        }
+        int[] sumL = new int[upper + 2];
+        int[] sumS = new int[upper + 2];
+        for (int i = 0; i < n; i++) {
+            if (!isS(types, i)) {
+                sumS[s.at(i)]++;
+            } else {
+                sumL[s.at(i) + 1]++;
+            }
+        }
+        for (int i = 0; i <= upper; i++) {
+            sumS[i] += sumL[i];
+            sumL[i + 1] += sumS[i];
+        }
+
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            if (isLms(types, i)) {
+                m++;
+            }
+        }
+        int[] sa = new int[n];
+        induce(s, types, sumL, sumS, lmsPositions(types, n, m), m, sa);
+        if (m == 0) {
+            return sa;
+        }
+
+        // Las subcadenas LMS ya quedan ordenadas; se compactan al inicio del arreglo
+        int sorted = 0;
+        for (int i = 0; i < n; i++) {
+            if (sa[i] > 0 && isLms(types, sa[i])) {
+                sa[sorted++] = sa[i];
+            }
+        }
+        // Nombre de cada subcadena, guardado en sa[m + posición / 2] (dos LMS nunca son vecinas)
+        for (int i = m; i < n; i++) {
+            sa[i] = -1;
+        }
+        int name = 0;
+        sa[m + sa[0] / 2] = 0;
+        for (int i = 1; i < m; i++) {
+            if (!sameLmsSubstring(s, types, sa[i - 1], sa[i])) {
+                name++;
+            }
+            sa[m + sa[i] / 2] = name;
+        }
+        int[] reduced = new int[m];
+        for (int i = m, j = 0; i < n; i++) {
+            if (sa[i] >= 0) {
+                reduced[j++] = sa[i];
+            }
+        }
+        sa = null;
+
+        int[] order = sais(new IntSymbols(reduced), name);
+        reduced = null;
+        int[] lms = lmsPositions(types, n, m);
+        for (int i = 0; i < m; i++) {
+            order[i] = lms[order[i]];
+        }
+        lms = null;
+        sa = new int[n];
+        induce(s, types, sumL, sumS, order, m, sa);
+        return sa;
+    }
+
+    private static boolean isS(long[] types, int index) {
+        return (types[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static boolean isLms(long[] types, int index) {
+        return index > 0 && isS(types, index) && !isS(types, index - 1);
+    }
+
+    private static int[] lmsPositions(long[] types, int n, int m) {
+        int[] lms = new int[m];
+        for (int i = 1, j = 0; i < n; i++) {
+            if (isLms(types, i)) {
+                lms[j++] = i;
+            }
+        }
+        return lms;
+    }
+
+    /**
+     * Comparar dos subcadenas LMS, incluida la posición LMS siguiente de cada una.
+     */
+    private static boolean sameLmsSubstring(Symbols s, long[] types, int left, int right) {
+        int n = s.length();
+        int endLeft = nextLms(types, n, left);
+        int endRight = nextLms(types, n, right);
+        if (endLeft - left != endRight - right) {
+            return false;
+        }
+        while (left < endLeft) {
+            if (s.at(left) != s.at(right)) {
+                return false;
+            }
+            left++;
+            right++;
+        }
+        return left < n && right < n && s.at(left) == s.at(right);
+    }
+
+    private static int nextLms(long[] types, int n, int position) {
+        int next = position + 1;
+        while (next < n && !isLms(types, next)) {
+            next++;
+        }
+        return next;
+    }
+
+    /**
+     * Ordenar por inducción todos los sufijos a partir de las posiciones LMS en el orden dado.
+     */
+    private static void induce(Symbols s, long[] types, int[] sumL, int[] sumS, int[] lms, int m, int[] sa) {
+        int n = sa.length;
+        Arrays.fill(sa, -1);
+        int[] buckets = sumS.clone();
+        for (int i = 0; i < m; i++) {
+            sa[buckets[s.at(lms[i])]++] = lms[i];
+        }
+        buckets = sumL.clone();
+        sa[buckets[s.at(n - 1)]++] = n - 1;
+        for (int i = 0; i < n; i++) {
+            int v = sa[i];
+            if (v >= 1 && !isS(types, v - 1)) {
+                sa[buckets[s.at(v - 1)]++] = v - 1;
+            }
+        }
+        buckets = sumL.clone();
+        for (int i = n - 1; i >= 0; i--) {
+            int v = sa[i];
+            if (v >= 1 && isS(types, v - 1)) {
+                sa[--buckets[s.at(v - 1) + 1]] = v - 1;
+            }
+        }
+    }
+}
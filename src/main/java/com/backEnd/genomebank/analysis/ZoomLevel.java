@@ -0,0 +1,211 @@
+package com.backEnd.genomebank.analysis;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Nivel de resumen de un Chromosome, al estilo de los niveles de zoom de bigWig: para cada bin de
+ * {@link #getBinSize()} bases guarda mínimo, máximo, suma y número de valores de cada métrica.
+ * Los valores de base son los de bins de {@link #BASE_BIN_SIZE} bases: porcentaje GC (sobre
+ * A, C, G y T), fracción de N y número de Genes que empiezan en el bin. Los niveles más gruesos
+ * resumen esos valores, así que la media de un bin es la media de sus bins de 1 kb.
+ * Un valor indefinido (por ejemplo, el GC de un bin solo con N) no se cuenta.
+ */
+public final class ZoomLevel {
+
+    public static final int BASE_BIN_SIZE = 1_000;
+
+    public static final int GC_PERCENTAGE = 0;
+    public static final int N_FRACTION = 1;
+    public static final int GENE_DENSITY = 2;
+    public static final int METRICS = 3;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int binSize;
+    private final int length;
+    private final float[][] min;
+    private final float[][] max;
+    private final float[][] sum;
+    private final int[][] count;
+
+    private ZoomLevel(int binSize, int length, int bins) {
+        this.binSize = binSize;
+        this.length = length;
+        this.min = new float[METRICS][bins];
+        this.max = new float[METRICS][bins];
+        this.sum = new float[METRICS][bins];
+        this.count = new int[METRICS][bins];
+    }
+
+    /**
+     * Construir el nivel de 1 kb a partir de los valores de cada bin.
+     * @param length Longitud del Chromosome.
+     * @param values Valores por métrica y bin ([METRICS][número de bins]); NaN si no están definidos.
+     * @return Nivel base.
+     */
+    public static ZoomLevel base(int length, float[][] values) {
+        int bins = binCount(length, BASE_BIN_SIZE);
+        ZoomLevel level = new ZoomLevel(BASE_BIN_SIZE, length, bins);
+        for (int metric = 0; metric < METRICS; metric++) {
+            for (int bin = 0; bin < bins; bin++) {
+                float value = values[metric][bin];
+                if (!Float.isNaN(value)) {
+                    level.min[metric][bin] = value;
+                    level.max[metric][bin] = value;
+                    level.sum[metric][bin] = value;
+                    level.count[metric][bin] = 1;
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Resumir este nivel en bins más grandes.
+     * @param binSize Tamaño de bin del nuevo nivel; múltiplo del de este nivel.
+     * @return Nivel más grueso.
+     */
+    public ZoomLevel coarsen(int binSize) {
+        int factor = binSize / this.binSize;
+        int bins = binCount(length, binSize);
+        ZoomLevel level = new ZoomLevel(binSize, length, bins);
+        for (int metric = 0; metric < METRICS; metric++) {
+            for (int bin = 0; bin < bins; bin++) {
+                level.merge(metric, bin, this, bin * factor, Math.min(bins(), (bin + 1) * factor));
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Copia de este nivel base con nuevos valores para una métrica.
+     * @param metric Métrica a reemplazar.
+     * @param values Valores por bin; NaN si no están definidos.
+     * @return Nivel base actualizado.
+     */
+    public ZoomLevel withBaseValues(int metric, float[] values) {
+        float[][] current = new float[METRICS][];
+        for (int m = 0; m < METRICS; m++) {
+            current[m] = new float[bins()];
+            for (int bin = 0; bin < bins(); bin++) {
+                current[m][bin] = count[m][bin] > 0 ? sum[m][bin] / count[m][bin] : Float.NaN;
+            }
+        }
+        current[metric] = values;
+        return base(length, current);
+    }
+
+    /**
+     * Resumir una métrica sobre los bins [firstBin, lastBin).
+     * @return {mínimo, máximo, suma, número de valores}; mínimo y máximo son NaN si no hay valores.
+     */
+    public double[] summarize(int metric, int firstBin, int lastBin) {
+        ZoomLevel single = new ZoomLevel(binSize, length, 1);
+        single.merge(metric, 0, this, firstBin, lastBin);
+        int values = single.count[metric][0];
+        return new double[]{
+                values > 0 ? single.min[metric][0] : Double.NaN,
+                values > 0 ? single.max[metric][0] : Double.NaN,
+                single.sum[metric][0],
+                values
+        };
+    }
+
+    private void merge(int metric, int bin, ZoomLevel source, int firstBin, int lastBin) {
+        float binMin = Float.POSITIVE_INFINITY;
+        float binMax = Float.NEGATIVE_INFINITY;
+        double binSum = 0;
+        int binCount = 0;
+        for (int i = firstBin; i < lastBin; i++) {
+            if (source.count[metric][i] == 0) {
+                continue;
+            }
+            binMin = Math.min(binMin, source.min[metric][i]);
+            binMax = Math.max(binMax, source.max[metric][i]);
+            binSum += source.sum[metric][i];
+            binCount += source.count[metric][i];
+        }
+        if (binCount > 0) {
+            min[metric][bin] = binMin;
+            max[metric][bin] = binMax;
+            sum[metric][bin] = (float) binSum;
+            count[metric][bin] = binCount;
+        }
+    }
+
+    /**
+     * Reconstruir un nivel serializado con {@link #toBytes()}.
+     * @param bytes Bytes del nivel.
+     * @return Nivel.
+     */
+    public static ZoomLevel fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported zoom level format " + version);
+        }
+        int binSize = buffer.getInt();
+        int length = buffer.getInt();
+        int bins = binCount(length, binSize);
+        ZoomLevel level = new ZoomLevel(binSize, length, bins);
+        for (int metric = 0; metric < METRICS; metric++) {
+            for (int bin = 0; bin < bins; bin++) {
+                level.count[metric][bin] = buffer.getInt();
+                if (level.count[metric][bin] > 0) {
+                    level.min[metric][bin] = buffer.getFloat();
+                    level.max[metric][bin] = buffer.getFloat();
+                    level.sum[metric][bin] = buffer.getFloat();
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Serializar el nivel para guardarlo en una columna BLOB.
+     * @return Bytes con versión, tamaño de bin, longitud y, por métrica y bin, el número de valores
+     * seguido de mínimo, máximo y suma cuando hay alguno.
+     */
+    public byte[] toBytes() {
+        int size = 1 + 4 + 4;
+        for (int metric = 0; metric < METRICS; metric++) {
+            for (int bin = 0; bin < bins(); bin++) {
+                size += count[metric][bin] > 0 ? 16 : 4;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(binSize);
+        buffer.putInt(length);
+        for (int metric = 0; metric < METRICS; metric++) {
+            for (int bin = 0; bin < bins(); bin++) {
+                buffer.putInt(count[metric][bin]);
+                if (count[metric][bin] > 0) {
+                    buffer.putFloat(min[metric][bin]);
+                    buffer.putFloat(max[metric][bin]);
+                    buffer.putFloat(sum[metric][bin]);
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    public int getBinSize() {
+        return binSize;
+    }
+
+    /**
+     * @return Longitud del Chromosome resumido.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int bins() {
+        return count[0].length;
+    }
+
+    static int binCount(int length, int binSize) {
+        return (int) (((long) length + binSize - 1) / binSize);
+    }
+}
@@ -0,0 +1,280 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.entities.Chromosome;
+import com.backEnd.genomebank.entities.ChromosomeZoomLevel;
+import com.backEnd.genomebank.entities.ChromosomeZoomLevelId;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.events.GenesChangedEvent;
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.ChromosomeZoomLevelRepository;
+import com.backEnd.genomebank.repositories.GeneRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Niveles de zoom precalculados ({@link ZoomLevel}) de los Chromosomes, con bins de 1 kb, 10 kb,
+ * 100 kb y 1 Mb.
+ * Se reconstruyen en segundo plano, en el pool de indexación, cuando cambia la secuencia de un
+ * Chromosome o sus Genes; si cambian solo los Genes se reutilizan los valores de secuencia del
+ * nivel de 1 kb en lugar de recorrer las bases otra vez. Varios cambios seguidos de un mismo
+ * Chromosome se agrupan en una sola reconstrucción. Un Chromosome sin niveles guardados los
+ * construye la primera vez que se consultan.
+ */
+@Slf4j
+@Component
+public class ZoomSummaryStore {
+
+    public static final int[] BIN_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+
+    /** Número de bins de 1 kb que cuenta una sola tarea al recorrer la secuencia. */
+    private static final int BINS_PER_TASK = 4096;
+
+    private final ChromosomeZoomLevelRepository zoomLevelRepository;
+    private final ChromosomeRepository chromosomeRepository;
+    private final GeneRepository geneRepository;
+    private final SequenceBackend sequenceBackend;
+    private final ForkJoinPool analysisPool;
+    private final ExecutorService indexingExecutor;
+    // Reconstrucciones pendientes: true si cambió la secuencia, false si solo cambiaron los Genes
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Object> locks = new ConcurrentHashMap<>();
+
+    public ZoomSummaryStore(ChromosomeZoomLevelRepository zoomLevelRepository,
+                            ChromosomeRepository chromosomeRepository,
+                            GeneRepository geneRepository,
+                            SequenceBackend sequenceBackend,
+                            @Qualifier("analysisPool") ForkJoinPool analysisPool,
+                            @Qualifier("indexingExecutor") ExecutorService indexingExecutor) {
+        this.zoomLevelRepository = zoomLevelRepository;
+        this.chromosomeRepository = chromosomeRepository;
+        this.geneRepository = geneRepository;
+        this.sequenceBackend = sequenceBackend;
+        this.analysisPool = analysisPool;
+        this.indexingExecutor = indexingExecutor;
+    }
+
+    /**
+     * Obtener el nivel más cercano a una resolución: el de bins más grandes que no superen
+     * basesPerBin, o el de 1 kb si la resolución pedida es más fina.
+     * @param chromosomeId ID del Chromosome.
+     * @param length Longitud actual del Chromosome.
+     * @param basesPerBin Bases que debe cubrir cada bin de la respuesta.
+     * @return Nivel de zoom.
+     */
+    public ZoomLevel level(Long chromosomeId, int length, int basesPerBin) {
+        int index = 0;
+        while (index + 1 < BIN_SIZES.length && BIN_SIZES[index + 1] <= basesPerBin) {
+            index++;
+        }
+        ZoomLevel level = load(chromosomeId, BIN_SIZES[index], length);
+        if (level != null) {
+            return level;
+        }
+        ZoomLevel[] levels = rebuild(chromosomeId, false);
+        if (levels == null || levels[index].getLength() != length) {
+            throw new IllegalStateException("Chromosome " + chromosomeId + " changed while building zoom levels");
+        }
+        return levels[index];
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChromosomeChanged(ChromosomeChangedEvent event) {
+        schedule(event.chromosomeId(), true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenesChanged(GenesChangedEvent event) {
+        schedule(event.chromosomeId(), false);
+    }
+
+    private void schedule(Long chromosomeId, boolean sequenceChanged) {
+        boolean[] submit = new boolean[1];
+        pending.compute(chromosomeId, (id, current) -> {
+            submit[0] = current == null;
+            return current == null ? sequenceChanged : current || sequenceChanged;
+        });
+        if (submit[0]) {
+            indexingExecutor.execute(() -> rebuildPending(chromosomeId));
+        }
+    }
+
+    private void rebuildPending(Long chromosomeId) {
+        Boolean sequenceChanged = pending.remove(chromosomeId);
+        if (sequenceChanged == null) {
+            return;
+        }
+        try {
+            rebuild(chromosomeId, sequenceChanged);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild zoom levels of chromosome {}", chromosomeId, e);
+        }
+    }
+
+    /**
+     * Reconstruir y guardar todos los niveles de un Chromosome. Las reconstrucciones de un mismo
+     * Chromosome se serializan, así que la última siempre parte de los datos más recientes.
+     * @return Niveles de menor a mayor tamaño de bin, o null si el Chromosome ya no existe o está vacío.
+     */
+    private ZoomLevel[] rebuild(Long chromosomeId, boolean sequenceChanged) {
+        synchronized (locks.computeIfAbsent(chromosomeId, id -> new Object())) {
+            Chromosome chromosome = chromosomeRepository.findById(chromosomeId).orElse(null);
+            if (chromosome == null || chromosome.getLength() == 0) {
+                return null;
+            }
+            int length = chromosome.getLength();
+            float[] geneDensity = geneDensity(chromosomeId, length);
+            ZoomLevel base = sequenceChanged ? null : load(chromosomeId, ZoomLevel.BASE_BIN_SIZE, length);
+            if (base != null) {
+                base = base.withBaseValues(ZoomLevel.GENE_DENSITY, geneDensity);
+            } else {
+                float[][] values = scan(chromosomeId, length);
+                values[ZoomLevel.GENE_DENSITY] = geneDensity;
+                base = ZoomLevel.base(length, values);
+            }
+
+            ZoomLevel[] levels = new ZoomLevel[BIN_SIZES.length];
+            levels[0] = base;
+            for (int i = 1; i < BIN_SIZES.length; i++) {
+                levels[i] = levels[i - 1].coarsen(BIN_SIZES[i]);
+            }
+            List<ChromosomeZoomLevel> entities = new ArrayList<>();
+            for (ZoomLevel level : levels) {
+                ChromosomeZoomLevel entity = new ChromosomeZoomLevel();
+                entity.setId(new ChromosomeZoomLevelId(chromosomeId, level.getBinSize()));
+                entity.setData(level.toBytes());
+                entities.add(entity);
+            }
+            zoomLevelRepository.saveAll(entities);
+            return levels;
+        }
+    }
+
+    private ZoomLevel load(Long chromosomeId, int binSize, int length) {
+        return zoomLevelRepository.findById(new ChromosomeZoomLevelId(chromosomeId, binSize))
+                .map(entity -> ZoomLevel.fromBytes(entity.getData()))
+                .filter(level -> level.getLength() == length)
+                .orElse(null);
+    }
+
+    /**
+     * Número de Genes que empiezan en cada bin de 1 kb.
+     */
+    private float[] geneDensity(Long chromosomeId, int length) {
+        float[] counts = new float[ZoomLevel.binCount(length, ZoomLevel.BASE_BIN_SIZE)];
+        for (Integer start : geneRepository.findStartPositionsByChromosomeId(chromosomeId)) {
+            if (start != null && start >= 0 && start < length) {
+                counts[start / ZoomLevel.BASE_BIN_SIZE]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Porcentaje GC y fracción de N de cada bin de 1 kb, recorriendo la secuencia en paralelo.
+     * Sin secuencia, ambos valores quedan indefinidos.
+     */
+    private float[][] scan(Long chromosomeId, int length) {
+        int bins = ZoomLevel.binCount(length, ZoomLevel.BASE_BIN_SIZE);
+        float[][] values = new float[ZoomLevel.METRICS][bins];
+        if (!sequenceBackend.hasSequence(chromosomeId)) {
+            Arrays.fill(values[ZoomLevel.GC_PERCENTAGE], Float.NaN);
+            Arrays.fill(values[ZoomLevel.N_FRACTION], Float.NaN);
+            return values;
+        }
+        analysisPool.invoke(new ScanTask(chromosomeId, length, values, 0, bins));
+        return values;
+    }
+
+    /**
+     * Tarea fork-join que recorre un tramo de bins; cada hoja escribe solo en sus propios bins.
+     */
+    private final class ScanTask extends RecursiveAction {
+        private final Long chromosomeId;
+        private final int length;
+        private final float[][] values;
+        private final int firstBin;
+        private final int lastBin;
+
+        ScanTask(Long chromosomeId, int length, float[][] values, int firstBin, int lastBin) {
+            this.chromosomeId = chromosomeId;
+            this.length = length;
+            this.values = values;
+            this.firstBin = firstBin;
+            this.lastBin = lastBin;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastBin - firstBin > BINS_PER_TASK) {
+                int middle = firstBin + (lastBin - firstBin) / 2;
+                invokeAll(new ScanTask(chromosomeId, length, values, firstBin, middle),
+                        new ScanTask(chromosomeId, length, values, middle, lastBin));
+                return;
+            }
+            int start = firstBin * ZoomLevel.BASE_BIN_SIZE;
+            int end = (int) Math.min(length, (long) lastBin * ZoomLevel.BASE_BIN_SIZE);
+            BinCounter counter = new BinCounter(values, start, end);
+            try {
+                sequenceBackend.stream(chromosomeId, start, end, counter::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Cuenta las bases de bins consecutivos y guarda sus valores al completar cada bin.
+     */
+    private static final class BinCounter {
+        private final float[][] values;
+        private final int end;
+        private int position;
+        private int gc;
+        private int at;
+        private int n;
+
+        BinCounter(float[][] values, int start, int end) {
+            this.values = values;
+            this.position = start;
+            this.end = end;
+        }
+
+        void add(ByteBuffer chunk) {
+            for (int i = chunk.position(), limit = chunk.limit(); i < limit; i++) {
+                switch (chunk.get(i)) {
+                    case 'G', 'C', 'g', 'c' -> gc++;
+                    case 'A', 'T', 'a', 't' -> at++;
+                    case 'N', 'n' -> n++;
+                    default -> {
+                    }
+                }
+                position++;
+                if (position % ZoomLevel.BASE_BIN_SIZE == 0 || position == end) {
+                    int bin = (position - 1) / ZoomLevel.BASE_BIN_SIZE;
+                    int binLength = position - bin * ZoomLevel.BASE_BIN_SIZE;
+                    values[ZoomLevel.GC_PERCENTAGE][bin] = gc + at > 0 ? 100f * gc / (gc + at) : Float.NaN;
+                    values[ZoomLevel.N_FRACTION][bin] = (float) n / binLength;
+                    gc = 0;
+                    at = 0;
+                    n = 0;
+                }
+            }
+            chunk.position(chunk.limit());
+        }
+    }
+}
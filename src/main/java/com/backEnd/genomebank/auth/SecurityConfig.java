@@ -2,6 +2,7 @@ package com.backEnd.genomebank.auth;
 
 // Importaciones necesarias para la configuración de seguridad
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -56,6 +57,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Permite el acceso sin autenticación a los endpoints de login y registro
                         .requestMatchers("/auth/login", "/auth/register").permitAll()
+                        // Las respuestas transmitidas (secuencias) terminan con un despacho ASYNC de una petición ya autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // El resto de endpoints requieren autenticación
                         .anyRequest().authenticated()
                 )
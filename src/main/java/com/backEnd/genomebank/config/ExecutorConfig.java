@@ -0,0 +1,84 @@
+package com.backEnd.genomebank.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de hilos usados por las operaciones de cómputo intensivo (compresión, análisis, trabajos).
+ * Cada pool tiene un tamaño fijo para que varias peticiones concurrentes no saturen la CPU.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Pool para comprimir bloques BGZF en paralelo durante las exportaciones.
+     * @param threads Número de hilos (por defecto, uno por núcleo).
+     * @return Pool de compresión.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService compressionExecutor(
+            @Value("${genomebank.export.compression-threads:0}") int threads) {
+        return Executors.newFixedThreadPool(poolSize(threads), namedThreads("bgzf-"));
+    }
+
+    /**
+     * Pool fork-join para los cálculos de análisis de secuencias que se dividen en segmentos.
+     * @param threads Número de hilos (por defecto, uno por núcleo).
+     * @return Pool de análisis.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool analysisPool(
+            @Value("${genomebank.analysis.threads:0}") int threads) {
+        return new ForkJoinPool(poolSize(threads));
+    }
+
+    /**
+     * Pool para reconstruir en segundo plano los resúmenes e índices derivados de las secuencias.
+     * @param threads Número de hilos (por defecto, uno).
+     * @return Pool de indexación.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService indexingExecutor(
+            @Value("${genomebank.analysis.indexing-threads:1}") int threads) {
+        return Executors.newFixedThreadPool(poolSize(threads), namedThreads("indexing-"));
+    }
+
+    /**
+     * Pool para los análisis en segundo plano (trabajos), con una cola acotada: cuando está
+     * llena, los trabajos nuevos se rechazan en lugar de acumularse.
+     * @param threads Número de hilos (por defecto, dos).
+     * @param queueCapacity Trabajos que pueden esperar a un hilo libre.
+     * @return Pool de trabajos.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService analysisJobExecutor(
+            @Value("${genomebank.analysis.jobs.threads:2}") int threads,
+            @Value("${genomebank.analysis.jobs.queue-capacity:100}") int queueCapacity) {
+        int size = poolSize(threads);
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("analysis-job-"));
+    }
+
+    private static int poolSize(int configured) {
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,11 +1,27 @@
 package com.backEnd.genomebank.controllers;
 
+import com.backEnd.genomebank.analysis.AlignmentEngine;
+import com.backEnd.genomebank.analysis.GcTrackEngine;
+import com.backEnd.genomebank.analysis.GeneIntervalIndex;
+import com.backEnd.genomebank.analysis.GenomicRegion;
+import com.backEnd.genomebank.analysis.IntervalAlgebra;
+import com.backEnd.genomebank.analysis.KmerCounter;
+import com.backEnd.genomebank.analysis.MotifSearchEngine;
+import com.backEnd.genomebank.analysis.OrfFinder;
 import com.backEnd.genomebank.dto.analysis.*;
 import com.backEnd.genomebank.services.IAnalysisService;
+import com.backEnd.genomebank.services.IChromosomeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -14,6 +30,7 @@ import java.util.List;
 public class AnalysisController {
 
     private final IAnalysisService analysisService;
+    private final IChromosomeService chromosomeService;
     /**
      * Obtener genes dentro de un rango específico en un cromosoma.
      *
@@ -29,6 +46,113 @@ public class AnalysisController {
             @RequestParam Integer end) {
         return ResponseEntity.ok(analysisService.obtenerGenesPorRango(chromosomeId, start, end));
     }
+    /**
+     * Obtener los genes de muchas regiones en una sola petición. Cada región se transmite como una
+     * línea NDJSON con sus genes, agrupadas por cromosoma y ordenadas por inicio.
+     *
+     * @param consulta Regiones (chromosomeId, start, end y name opcional), hasta 100000.
+     * @return Genes de cada región en NDJSON; index indica la posición de la región en la petición.
+     */
+    @PostMapping("/genes/batch")
+    public ResponseEntity<StreamingResponseBody> obtenerGenesPorRegiones(@RequestBody GeneBatchInDTO consulta) {
+        // Se valida antes de empezar a transmitir, cuando aún se puede responder 400 o 404
+        List<GenomicRegion> regions = analysisService.prepararConsultaRegiones(consulta);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> analysisService.transmitirGenesPorRegiones(regions, out));
+    }
+    /**
+     * Obtener los genes de las regiones de un archivo BED (plano o gzip) enviado como cuerpo de
+     * la petición. Los nombres de cromosoma se buscan en el genoma indicado.
+     *
+     * @param genomeId ID del genoma.
+     * @param bed      Contenido del archivo BED, hasta 100000 regiones.
+     * @return Genes de cada región en NDJSON; index indica la posición de la región en el archivo.
+     */
+    @PostMapping("/genes/batch/bed")
+    public ResponseEntity<StreamingResponseBody> obtenerGenesPorRegionesBed(
+            @RequestParam Long genomeId,
+            InputStream bed) throws IOException {
+        List<GenomicRegion> regions = analysisService.prepararConsultaRegionesBed(genomeId, bed);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> analysisService.transmitirGenesPorRegiones(regions, out));
+    }
+    /**
+     * Obtener los genes que se solapan con una posición o un intervalo y los k más cercanos antes y
+     * después de él, con su distancia y la posición de la consulta respecto de cada gen.
+     *
+     * @param chromosomeId ID del cromosoma.
+     * @param start        Posición inicial (inclusive, base 0).
+     * @param end          (opcional) Posición final (exclusiva); por defecto start + 1.
+     * @param k            (opcional) Genes a cada lado, de 1 a 100; por defecto 1.
+     * @param strand       (opcional) Hebra de la consulta, que orienta upstream y downstream; por defecto '+'.
+     * @return NearestGenesDTO con los genes solapados, upstream y downstream.
+     */
+    @GetMapping("/genes/nearest")
+    public ResponseEntity<NearestGenesDTO> obtenerGenesCercanos(
+            @RequestParam Long chromosomeId,
+            @RequestParam Integer start,
+            @RequestParam(required = false) Integer end,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) Character strand) {
+        return ResponseEntity.ok(analysisService.obtenerGenesCercanos(chromosomeId, start, end, k, strand));
+    }
+    /**
+     * Obtener los genes más cercanos de muchas posiciones o regiones en una sola petición. Cada
+     * región se transmite como una línea NDJSON, agrupadas por cromosoma y ordenadas por inicio.
+     *
+     * @param k        (opcional) Genes a cada lado, de 1 a 100; por defecto 1.
+     * @param consulta Regiones (chromosomeId, start, end, name y strand opcionales), hasta 100000.
+     * @return Genes cercanos de cada región en NDJSON; index indica la posición de la región en la petición.
+     */
+    @PostMapping("/genes/nearest/batch")
+    public ResponseEntity<StreamingResponseBody> obtenerGenesCercanosPorRegiones(
+            @RequestParam(required = false) Integer k,
+            @RequestBody GeneBatchInDTO consulta) {
+        int neighbours = neighbours(k);
+        List<GenomicRegion> regions = analysisService.prepararConsultaRegiones(consulta);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> analysisService.transmitirGenesCercanos(regions, neighbours, out));
+    }
+    /**
+     * Obtener los genes más cercanos de las regiones de un archivo BED (plano o gzip) enviado como
+     * cuerpo de la petición. La sexta columna, si está, es la hebra de cada región.
+     *
+     * @param genomeId ID del genoma.
+     * @param k        (opcional) Genes a cada lado, de 1 a 100; por defecto 1.
+     * @param bed      Contenido del archivo BED, hasta 100000 regiones.
+     * @return Genes cercanos de cada región en NDJSON; index indica la posición de la región en el archivo.
+     */
+    @PostMapping("/genes/nearest/batch/bed")
+    public ResponseEntity<StreamingResponseBody> obtenerGenesCercanosPorRegionesBed(
+            @RequestParam Long genomeId,
+            @RequestParam(required = false) Integer k,
+            InputStream bed) throws IOException {
+        int neighbours = neighbours(k);
+        List<GenomicRegion> regions = analysisService.prepararConsultaRegionesBed(genomeId, bed);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> analysisService.transmitirGenesCercanos(regions, neighbours, out));
+    }
+    /**
+     * Aplicar una operación entre conjuntos de intervalos, al estilo de bedtools. Cada conjunto son
+     * los genes de un cromosoma, de un genoma o de una función, o una lista de intervalos.
+     *
+     * @param operation Operación: intersect, subtract, merge, complement o closest.
+     * @param consulta  Conjuntos a y b (b solo en intersect, subtract y closest).
+     * @return Intervalos resultantes en NDJSON, por cromosoma y por inicio.
+     */
+    @PostMapping("/intervals/{operation}")
+    public ResponseEntity<StreamingResponseBody> operarIntervalos(
+            @PathVariable String operation,
+            @RequestBody IntervalOperationInDTO consulta) {
+        IntervalAlgebra.Search search = analysisService.prepararOperacionIntervalos(operation, consulta);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> analysisService.transmitirOperacionIntervalos(search, out));
+    }
     /**
      * Obtener estadísticas de la secuencia de un cromosoma.
      *
@@ -42,4 +166,230 @@ public class AnalysisController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+    /**
+     * Obtener la composición y el porcentaje GC de un rango de la secuencia de un cromosoma.
+     *
+     * @param chromosomeId ID del cromosoma.
+     * @param start        Posición inicial del rango (inclusive, base 0).
+     * @param end          Posición final del rango (exclusive).
+     * @return RangeStatsDTO con las estadísticas del rango, o 404 si no se encuentra.
+     */
+    @GetMapping("/sequence/range-stats")
+    public ResponseEntity<RangeStatsDTO> obtenerEstadisticasRango(
+            @RequestParam Long chromosomeId,
+            @RequestParam Integer start,
+            @RequestParam Integer end) {
+        return analysisService.obtenerEstadisticasRango(chromosomeId, start, end)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    /**
+     * Obtener un resumen multiresolución de un rango de un cromosoma (mínimo, máximo, media y
+     * suma de porcentaje GC, fracción de N y densidad de genes por bin), calculado a partir del
+     * nivel de zoom precalculado más cercano.
+     *
+     * @param chromosomeId ID del cromosoma.
+     * @param start        (opcional) Posición inicial del rango (inclusive); por defecto 0.
+     * @param end          (opcional) Posición final del rango (exclusive); por defecto el final del cromosoma.
+     * @param bins         (opcional) Número aproximado de bins de la respuesta; por defecto 1000.
+     * @return ZoomSummaryDTO con los bins del rango, o 404 si no se encuentra el cromosoma.
+     */
+    @GetMapping("/sequence/zoom")
+    public ResponseEntity<ZoomSummaryDTO> obtenerResumenZoom(
+            @RequestParam Long chromosomeId,
+            @RequestParam(required = false) Integer start,
+            @RequestParam(required = false) Integer end,
+            @RequestParam(defaultValue = "1000") Integer bins) {
+        return analysisService.obtenerResumenZoom(chromosomeId, start, end, bins)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    /**
+     * Contar los k-mers de un cromosoma o de un genoma completo y devolver los más frecuentes y
+     * los conteos de los k-mers consultados.
+     *
+     * @param chromosomeId (opcional) ID del cromosoma.
+     * @param genomeId     (opcional) ID del genoma; se indica uno de los dos.
+     * @param k            Longitud de los k-mers (1 a 31).
+     * @param canonical    (opcional) Contar cada k-mer junto con su complemento inverso; por defecto false.
+     * @param top          (opcional) Número de k-mers más frecuentes; por defecto 20.
+     * @param kmer         (opcional) k-mers a consultar; se puede repetir.
+     * @return KmerCountsDTO con el resultado del conteo.
+     */
+    @GetMapping("/kmers")
+    public ResponseEntity<KmerCountsDTO> contarKmers(
+            @RequestParam(required = false) Long chromosomeId,
+            @RequestParam(required = false) Long genomeId,
+            @RequestParam Integer k,
+            @RequestParam(defaultValue = "false") boolean canonical,
+            @RequestParam(defaultValue = "20") Integer top,
+            @RequestParam(required = false) List<String> kmer) {
+        KmerCounter.Request request = analysisService.prepararConteoKmers(chromosomeId, genomeId, k, canonical,
+                top, kmer);
+        return ResponseEntity.ok(analysisService.contarKmers(request));
+    }
+    /**
+     * Obtener la pista de ventanas deslizantes de un cromosoma: porcentaje GC, fracción de N y
+     * sesgos GC y AT de cada ventana, transmitidos como NDJSON (un objeto por línea).
+     *
+     * @param chromosomeId ID del cromosoma.
+     * @param window       Tamaño de ventana en bases.
+     * @param step         (opcional) Distancia entre ventanas; por defecto igual a window.
+     * @return Pista en NDJSON, o 404 si el cromosoma no existe o no tiene secuencia.
+     */
+    @GetMapping("/sequence/gc-track")
+    public ResponseEntity<StreamingResponseBody> obtenerPistaGc(
+            @RequestParam Long chromosomeId,
+            @RequestParam Integer window,
+            @RequestParam(required = false) Integer step) {
+        int windowStep = step != null ? step : window;
+        // Se valida antes de empezar a transmitir, cuando aún se puede responder 400
+        if (window < 1 || window > GcTrackEngine.MAX_WINDOW || windowStep < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Window must be between 1 and " + GcTrackEngine.MAX_WINDOW + " and step must be positive");
+        }
+        return chromosomeService.obtenerChromosomePorId(chromosomeId)
+                .filter(chromosome -> chromosomeService.tieneSecuencia(chromosomeId))
+                .map(chromosome -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body((StreamingResponseBody) out ->
+                                analysisService.transmitirPistaGc(chromosome, window, windowStep, out)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    /**
+     * Buscar varios motivos (con códigos IUPAC) en uno o varios cromosomas o en un genoma
+     * completo en una sola pasada, en una o ambas hebras. Cada coincidencia se transmite como una
+     * línea NDJSON junto con los genes que se solapan con ella.
+     *
+     * @param busqueda Motivos, chromosomeIds o genomeId, bothStrands y limit.
+     * @return Coincidencias en NDJSON, en orden de cromosoma y posición.
+     */
+    @PostMapping("/motifs/search")
+    public ResponseEntity<StreamingResponseBody> buscarMotivos(@RequestBody MotifSearchInDTO busqueda) {
+        // Se valida antes de empezar a transmitir, cuando aún se puede responder 400 o 404
+        MotifSearchEngine.Search search = analysisService.prepararBusquedaMotivos(busqueda);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> analysisService.transmitirBusquedaMotivos(search, out));
+    }
+    /**
+     * Buscar marcos abiertos de lectura (ORFs) en los seis marcos de un cromosoma o de un rango.
+     * Cada ORF se transmite como una línea NDJSON, indicando si se solapa con genes anotados.
+     *
+     * @param busqueda chromosomeId, start/end opcionales, codones de inicio y de terminación, minLength y limit.
+     * @return ORFs en NDJSON.
+     */
+    @PostMapping("/orfs")
+    public ResponseEntity<StreamingResponseBody> buscarOrfs(@RequestBody OrfSearchInDTO busqueda) {
+        OrfFinder.Search search = analysisService.prepararBusquedaOrfs(busqueda);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> analysisService.transmitirOrfs(search, out));
+    }
+    /**
+     * Buscar las apariciones exactas de una secuencia en un genoma mediante su índice FM.
+     * La consulta va en la URL, así que solo sirve para secuencias cortas; las largas se envían
+     * con POST /search.
+     *
+     * @param genomeId ID del genoma.
+     * @param query    Secuencia a buscar (A, C, G y T).
+     * @param limit    (opcional) Máximo de ubicaciones a devolver; por defecto 100.
+     * @return SequenceSearchDTO con el número de apariciones y sus ubicaciones, o 409 si el índice se está construyendo.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SequenceSearchDTO> buscarSecuencia(
+            @RequestParam Long genomeId,
+            @RequestParam String query,
+            @RequestParam(defaultValue = "100") Integer limit) {
+        return ResponseEntity.ok(analysisService.buscarSecuencia(genomeId, query, limit));
+    }
+    /**
+     * Buscar las apariciones exactas de una secuencia en un genoma mediante su índice FM, con la
+     * consulta en el cuerpo (hasta 10000 bases, más de lo que admite una URL).
+     *
+     * @param busqueda genomeId, consulta y limit (por defecto 100).
+     * @return SequenceSearchDTO con el número de apariciones y sus ubicaciones, o 409 si el índice se está construyendo.
+     */
+    @PostMapping("/search")
+    public ResponseEntity<SequenceSearchDTO> buscarSecuencia(@RequestBody SequenceSearchInDTO busqueda) {
+        return ResponseEntity.ok(analysisService.buscarSecuencia(busqueda.getGenomeId(), busqueda.getQuery(),
+                busqueda.getLimit() != null ? busqueda.getLimit() : 100));
+    }
+    /**
+     * Obtener el estado del índice FM de un genoma.
+     *
+     * @param genomeId ID del genoma.
+     * @return FmIndexStatusDTO con el estado del índice.
+     */
+    @GetMapping("/search/index")
+    public ResponseEntity<FmIndexStatusDTO> obtenerEstadoIndice(@RequestParam Long genomeId) {
+        return ResponseEntity.ok(analysisService.obtenerEstadoIndice(genomeId));
+    }
+    /**
+     * Construir (o reconstruir) en segundo plano el índice FM de un genoma.
+     *
+     * @param genomeId ID del genoma.
+     * @return 202 con el estado del índice tras programar la construcción.
+     */
+    @PostMapping("/search/index")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FmIndexStatusDTO> construirIndice(@RequestParam Long genomeId) {
+        return ResponseEntity.accepted().body(analysisService.construirIndice(genomeId));
+    }
+    /**
+     * Alinear una secuencia (Smith-Waterman local) contra un gen, los genes de una función o un
+     * rango de un cromosoma, dentro de un tiempo límite.
+     *
+     * @param alineamiento Consulta, geneId, functionId o chromosomeId con start y end, puntajes y límites.
+     * @return AlignmentResultDTO con los mejores alineamientos y las secuencias que no se alcanzaron a alinear.
+     */
+    @PostMapping("/align")
+    public ResponseEntity<AlignmentResultDTO> alinearSecuencia(@RequestBody AlignmentInDTO alineamiento) {
+        AlignmentEngine.Request request = analysisService.prepararAlineamiento(alineamiento);
+        return ResponseEntity.ok(analysisService.alinearSecuencia(request));
+    }
+    /**
+     * Buscar regiones similares a una secuencia en un genoma (semillas de minimizadores y
+     * extensión en banda), con los genes que se solapan con cada resultado.
+     *
+     * @param busqueda genomeId, consulta, puntajes, minScore, minIdentity y limit.
+     * @return SimilaritySearchDTO con los resultados, o 409 si el índice se está construyendo.
+     */
+    @PostMapping("/similar")
+    public ResponseEntity<SimilaritySearchDTO> buscarSimilares(@RequestBody SimilaritySearchInDTO busqueda) {
+        return ResponseEntity.ok(analysisService.buscarSimilares(busqueda));
+    }
+    /**
+     * Obtener el estado del índice de minimizadores de un genoma.
+     *
+     * @param genomeId ID del genoma.
+     * @return MinimizerIndexStatusDTO con el estado (MISSING, BUILDING, STALE o READY) y el tamaño.
+     */
+    @GetMapping("/similar/index")
+    public ResponseEntity<MinimizerIndexStatusDTO> obtenerEstadoIndiceMinimizadores(@RequestParam Long genomeId) {
+        return ResponseEntity.ok(analysisService.obtenerEstadoIndiceMinimizadores(genomeId));
+    }
+    /**
+     * Construir o reconstruir en segundo plano el índice de minimizadores de un genoma.
+     *
+     * @param genomeId ID del genoma.
+     * @return MinimizerIndexStatusDTO con el estado después de programar la construcción.
+     */
+    @PostMapping("/similar/index")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MinimizerIndexStatusDTO> construirIndiceMinimizadores(@RequestParam Long genomeId) {
+        return ResponseEntity.accepted().body(analysisService.construirIndiceMinimizadores(genomeId));
+    }
+
+    /**
+     * Validar el número de genes cercanos antes de empezar a transmitir, cuando aún se puede responder 400.
+     */
+    private static int neighbours(Integer k) {
+        int neighbours = k != null ? k : 1;
+        if (neighbours < 1 || neighbours > GeneIntervalIndex.MAX_NEAREST) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "k must be between 1 and " + GeneIntervalIndex.MAX_NEAREST);
+        }
+        return neighbours;
+    }
 }
\ No newline at end of file
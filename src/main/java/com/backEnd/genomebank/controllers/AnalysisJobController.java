@@ -0,0 +1,93 @@
+package com.backEnd.genomebank.controllers;
+
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobInDTO;
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobOutDTO;
+import com.backEnd.genomebank.services.IAnalysisJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/analysis/jobs")
+@RequiredArgsConstructor
+public class AnalysisJobController {
+
+    private final IAnalysisJobService analysisJobService;
+    /**
+     * Crear un trabajo de análisis en segundo plano. Los parámetros se validan en el momento, igual
+     * que en el endpoint síncrono del análisis.
+     *
+     * @param trabajo Tipo (KMER_COUNT, MOTIF_SEARCH, ORF_SEARCH, ALIGNMENT o COMPOSITION) y parámetros.
+     * @return 202 con el trabajo creado, o con el trabajo idéntico que el usuario ya tenía en curso.
+     */
+    @PostMapping
+    public ResponseEntity<AnalysisJobOutDTO> crearTrabajo(@RequestBody AnalysisJobInDTO trabajo,
+                                                          Authentication authentication) {
+        return ResponseEntity.accepted().body(analysisJobService.crearTrabajo(trabajo, authentication.getName()));
+    }
+    /**
+     * Listar los trabajos más recientes del usuario.
+     *
+     * @return Hasta 100 trabajos, del más reciente al más antiguo.
+     */
+    @GetMapping
+    public ResponseEntity<List<AnalysisJobOutDTO>> listarTrabajos(Authentication authentication) {
+        return ResponseEntity.ok(analysisJobService.listarTrabajos(authentication.getName()));
+    }
+    /**
+     * Obtener el estado y el avance de un trabajo.
+     *
+     * @param id ID del trabajo.
+     * @return AnalysisJobOutDTO, o 404 si no existe o es de otro usuario.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<AnalysisJobOutDTO> obtenerTrabajo(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(analysisJobService.obtenerTrabajo(id, authentication.getName(), isAdmin(authentication)));
+    }
+    /**
+     * Descargar el resultado de un trabajo terminado.
+     *
+     * @param id ID del trabajo.
+     * @return Resultado (JSON o NDJSON según el análisis), o 409 si el trabajo no terminó con éxito.
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<StreamingResponseBody> obtenerResultado(@PathVariable Long id,
+                                                                  Authentication authentication) {
+        // Se valida antes de empezar a transmitir, cuando aún se puede responder 404 o 409
+        AnalysisJobOutDTO job = analysisJobService.prepararResultado(id, authentication.getName(), isAdmin(authentication));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getResultType()))
+                .body(out -> analysisJobService.transmitirResultado(id, out));
+    }
+    /**
+     * Cancelar un trabajo en cola o en ejecución.
+     *
+     * @param id ID del trabajo.
+     * @return AnalysisJobOutDTO con el estado después de cancelarlo.
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<AnalysisJobOutDTO> cancelarTrabajo(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(analysisJobService.cancelarTrabajo(id, authentication.getName(), isAdmin(authentication)));
+    }
+    /**
+     * Eliminar un trabajo terminado y su resultado.
+     *
+     * @param id ID del trabajo.
+     * @return 204, o 409 si el trabajo no terminó.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminarTrabajo(@PathVariable Long id, Authentication authentication) {
+        analysisJobService.eliminarTrabajo(id, authentication.getName(), isAdmin(authentication));
+        return ResponseEntity.noContent().build();
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
@@ -1,13 +1,17 @@
 package com.backEnd.genomebank.controllers;
 
 import com.backEnd.genomebank.dto.chromosome.*;
+import com.backEnd.genomebank.sequence.SequenceFormat;
+import com.backEnd.genomebank.sequence.SequenceStreamWriter;
 import com.backEnd.genomebank.services.IChromosomeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -87,13 +91,29 @@ public class ChromosomeController {
     }
     /**
      * Obtener la secuencia completa de un Chromosome por su ID.
+     * La secuencia se transmite por bloques, sin cargarla completa en memoria, como JSON
+     * ({"sequence": "..."}), text/plain o text/x-fasta según el parámetro format o la cabecera Accept.
      * @param id ID del Chromosome.
-     * @return Mapa con la secuencia completa, o 404 si no se encuentra el Chromosome.
+     * @param format (opcional) Formato de salida: json, text o fasta.
+     * @param accept Cabecera Accept de la petición.
+     * @return Secuencia completa en el formato solicitado, o 404 si no se encuentra el Chromosome.
      */
     @GetMapping("/{id}/sequence")
-    public ResponseEntity<Map<String, String>> obtenerSecuenciaCompleta(@PathVariable Long id) {
-        return chromosomeService.obtenerSecuenciaCompleta(id)
-                .map(sequence -> ResponseEntity.ok(Map.of(SEQUENCE, sequence)))
+    public ResponseEntity<StreamingResponseBody> obtenerSecuenciaCompleta(
+            @PathVariable Long id,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        SequenceFormat sequenceFormat = SequenceFormat.resolve(format, accept);
+        return chromosomeService.obtenerChromosomePorId(id)
+                .filter(chromosome -> chromosomeService.tieneSecuencia(id))
+                .map(chromosome -> ResponseEntity.ok()
+                        .contentType(sequenceFormat.getMediaType())
+                        .body((StreamingResponseBody) out -> {
+                            SequenceStreamWriter writer = new SequenceStreamWriter(out, sequenceFormat);
+                            writer.begin(chromosome.getName());
+                            chromosomeService.transmitirSecuencia(id, 0, chromosome.getLength(), writer);
+                            writer.finish();
+                        }))
                 .orElse(ResponseEntity.notFound().build());
     }
     /**
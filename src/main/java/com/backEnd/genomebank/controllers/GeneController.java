@@ -1,13 +1,17 @@
 package com.backEnd.genomebank.controllers;
 
 import com.backEnd.genomebank.dto.gene.*;
+import com.backEnd.genomebank.sequence.SequenceFormat;
+import com.backEnd.genomebank.sequence.SequenceStreamWriter;
 import com.backEnd.genomebank.services.IGeneService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -99,13 +103,31 @@ public class GeneController {
     }
     /**
      * Obtener la secuencia de un Gene por su ID.
+     * La secuencia se transmite por fragmentos como JSON ({"sequence": "..."}), text/plain o
+     * text/x-fasta según el parámetro format o la cabecera Accept.
      * @param id ID del Gene.
-     * @return Mapa con la secuencia del gen, o 404 si no se encuentra.
+     * @param format (opcional) Formato de salida: json, text o fasta.
+     * @param accept Cabecera Accept de la petición.
+     * @return Secuencia del gen en el formato solicitado, o 404 si no se encuentra.
      */
     @GetMapping("/{id}/sequence")
-    public ResponseEntity<Map<String, String>> obtenerSecuenciaGene(@PathVariable Long id) {
-        return geneService.obtenerSecuenciaGene(id)
-                .map(sequence -> ResponseEntity.ok(Map.of("sequence", sequence)))
+    public ResponseEntity<StreamingResponseBody> obtenerSecuenciaGene(
+            @PathVariable Long id,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        SequenceFormat sequenceFormat = SequenceFormat.resolve(format, accept);
+        return geneService.obtenerGenePorId(id)
+                .filter(gene -> geneService.tieneSecuenciaGene(id))
+                .map(gene -> ResponseEntity.ok()
+                        .contentType(sequenceFormat.getMediaType())
+                        .body((StreamingResponseBody) out -> {
+                            SequenceStreamWriter writer = new SequenceStreamWriter(out, sequenceFormat);
+                            writer.begin(gene.getSymbol() + " " + gene.getChromosomeName() + ":"
+                                    + gene.getStartPosition() + "-" + gene.getEndPosition()
+                                    + "(" + gene.getStrand() + ")");
+                            geneService.transmitirSecuenciaGene(id, writer);
+                            writer.finish();
+                        }))
                 .orElse(ResponseEntity.notFound().build());
     }
     /**
@@ -128,4 +150,18 @@ public class GeneController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+    /**
+     * Eliminar la secuencia propia de un Gene, de modo que vuelva a derivarse de su Chromosome.
+     * Solo los usuarios con rol ADMIN pueden realizar esta operación.
+     * @param id ID del Gene.
+     * @return Respuesta con estado 204, o 404 si no se encuentra el Gene.
+     */
+    @DeleteMapping("/{id}/sequence")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> eliminarSecuenciaGene(@PathVariable Long id) {
+        if (geneService.eliminarSecuenciaGene(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
 }
\ No newline at end of file
@@ -1,14 +1,23 @@
 package com.backEnd.genomebank.controllers;
 
 import com.backEnd.genomebank.dto.genome.*;
+import com.backEnd.genomebank.services.IFastaImportService;
+import com.backEnd.genomebank.services.IGenomeExportService;
 import com.backEnd.genomebank.services.IGenomeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,6 +26,8 @@ import java.util.List;
 public class GenomeController {
 
     private final IGenomeService genomeService;
+    private final IFastaImportService fastaImportService;
+    private final IGenomeExportService genomeExportService;
     /**
      * Obtener todos los Genomes, opcionalmente filtrados por speciesId.
      * @param speciesId (opcional) ID de la especie para filtrar.
@@ -41,6 +52,69 @@ public class GenomeController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+    /**
+     * Exportar un Genome completo como multi-FASTA (líneas de 60 bases, un registro por Chromosome).
+     * La respuesta se transmite por fragmentos, sin cargar el Genome en memoria.
+     * @param id ID del Genome.
+     * @param format (opcional) fasta (por defecto) o bgzip para FASTA comprimido en BGZF.
+     * @return Archivo FASTA como descarga, o 404 si no se encuentra el Genome.
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportarGenome(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "fasta") String format) {
+        boolean bgzip = switch (format.toLowerCase()) {
+            case "fasta", "fa" -> false;
+            case "bgzip", "bgzf", "gz" -> true;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported format: " + format);
+        };
+        return genomeService.obtenerGenomePorId(id)
+                .map(genome -> ResponseEntity.ok()
+                        .contentType(bgzip ? MediaType.parseMediaType("application/gzip")
+                                : MediaType.parseMediaType("text/x-fasta"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, attachment(genome, bgzip ? ".fa.gz" : ".fa"))
+                        .body((StreamingResponseBody) out -> {
+                            if (bgzip) {
+                                genomeExportService.exportarBgzip(id, out);
+                            } else {
+                                genomeExportService.exportarFasta(id, out);
+                            }
+                        }))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    /**
+     * Obtener el índice .fai (samtools faidx) de la exportación FASTA de un Genome.
+     * Sirve tanto para la versión plana como para la comprimida en BGZF.
+     * @param id ID del Genome.
+     * @return Índice .fai, o 404 si no se encuentra el Genome.
+     */
+    @GetMapping("/{id}/export.fai")
+    public ResponseEntity<String> obtenerIndiceFai(@PathVariable Long id) {
+        return genomeService.obtenerGenomePorId(id)
+                .map(genome -> ResponseEntity.ok()
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, attachment(genome, ".fa.gz.fai"))
+                        .body(genomeExportService.generarIndiceFai(id)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    /**
+     * Obtener el índice .gzi (bgzip) de la exportación BGZF de un Genome.
+     * Se sirve el índice guardado por la última exportación BGZF del Genome; si no hay uno vigente
+     * (el Genome cambió o aún no se exportó) se comprime todo el Genome para calcularlo, así que
+     * conviene pedirlo después de la exportación.
+     * @param id ID del Genome.
+     * @return Índice .gzi, o 404 si no se encuentra el Genome.
+     */
+    @GetMapping("/{id}/export.gzi")
+    public ResponseEntity<StreamingResponseBody> obtenerIndiceGzi(@PathVariable Long id) {
+        return genomeService.obtenerGenomePorId(id)
+                .map(genome -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, attachment(genome, ".fa.gz.gzi"))
+                        .body((StreamingResponseBody) out -> genomeExportService.exportarIndiceGzi(id, out)))
+                .orElse(ResponseEntity.notFound().build());
+    }
     /**
      * Crear un nuevo Genome.
      * Solo los usuarios con rol ADMIN pueden realizar esta operación.
@@ -53,6 +127,26 @@ public class GenomeController {
         GenomeOutDTO created = genomeService.crearGenome(genomeInDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
+    /**
+     * Importar un Genome completo desde un archivo multi-FASTA (plano o gzip/bgzip) enviado
+     * como cuerpo de la petición. Cada registro del archivo crea un Chromosome.
+     * Solo los usuarios con rol ADMIN pueden realizar esta operación.
+     * @param speciesId ID de la Species del Genome.
+     * @param version Versión del Genome.
+     * @param description (opcional) Descripción del Genome.
+     * @param fasta Contenido del archivo FASTA.
+     * @return GenomeImportOutDTO con los Chromosomes creados y métricas, con estado 201.
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GenomeImportOutDTO> importarGenome(
+            @RequestParam Long speciesId,
+            @RequestParam String version,
+            @RequestParam(required = false) String description,
+            InputStream fasta) throws IOException {
+        GenomeImportOutDTO imported = fastaImportService.importarGenoma(speciesId, version, description, fasta);
+        return ResponseEntity.status(HttpStatus.CREATED).body(imported);
+    }
     /**
      * Actualizar un Genome existente.
      * Solo los usuarios con rol ADMIN pueden realizar esta operación.
@@ -83,4 +177,13 @@ public class GenomeController {
         }
         return ResponseEntity.notFound().build();
     }
+    /**
+     * Cabecera Content-Disposition para descargar un archivo nombrado según la versión del Genome.
+     */
+    private static String attachment(GenomeOutDTO genome, String extension) {
+        return ContentDisposition.attachment()
+                .filename(genome.getVersion() + extension)
+                .build()
+                .toString();
+    }
 }
\ No newline at end of file
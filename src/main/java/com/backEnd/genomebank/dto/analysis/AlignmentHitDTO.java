@@ -0,0 +1,19 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class AlignmentHitDTO {
+    private Long geneId; // null si se alineó contra un rango
+    private String geneSymbol;
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // en el cromosoma, inclusive, base 0
+    private Integer end; // exclusive
+    private Integer queryStart; // en la consulta, inclusive
+    private Integer queryEnd; // exclusive
+    private Character strand; // '+' o '-' (se alineó el reverso complementario)
+    private Integer score;
+    private String cigar; // en la orientación del cromosoma; null si el alineamiento es demasiado grande
+    private Double identity; // porcentaje (0 a 100) de columnas del alineamiento con bases iguales; null sin CIGAR
+}
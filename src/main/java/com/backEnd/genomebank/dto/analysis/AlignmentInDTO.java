@@ -0,0 +1,21 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class AlignmentInDTO {
+    private String query; // secuencia a alinear, hasta 10000 bases
+    private Long geneId; // alinear contra un gen
+    private Long functionId; // o contra todos los genes anotados con una función
+    private Long chromosomeId; // o contra un rango de un cromosoma (con start y end)
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive
+    private Boolean bothStrands; // alinear también el reverso complementario; por defecto true
+    private Integer match; // puntaje de una coincidencia; por defecto 2
+    private Integer mismatch; // penalización de una diferencia; por defecto 3
+    private Integer gapOpen; // penalización de la primera base de un gap; por defecto 5
+    private Integer gapExtend; // penalización de cada base adicional de un gap; por defecto 2
+    private Integer minScore; // puntaje mínimo de los resultados; por defecto 1
+    private Integer limit; // máximo de resultados; por defecto 100
+    private Integer timeoutMillis; // tiempo límite; por defecto 10000
+}
@@ -0,0 +1,15 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class AlignmentResultDTO {
+    private Integer queryLength;
+    private Integer targetsTotal; // secuencias contra las que se pidió alinear
+    private Integer targetsAligned; // secuencias alineadas dentro del tiempo límite
+    private Integer targetsTimedOut; // secuencias que quedaron sin alinear
+    private Boolean vectorized; // si se usó la implementación vectorizada
+    private Long elapsedMillis;
+    private List<AlignmentHitDTO> hits; // ordenados por puntaje descendente
+}
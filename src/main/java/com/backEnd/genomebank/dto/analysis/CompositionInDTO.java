@@ -0,0 +1,9 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class CompositionInDTO {
+    private Long chromosomeId; // un cromosoma, o null si se indica genomeId
+    private Long genomeId; // todos los cromosomas con secuencia del genoma
+}
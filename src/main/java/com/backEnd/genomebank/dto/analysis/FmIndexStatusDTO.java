@@ -0,0 +1,12 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class FmIndexStatusDTO {
+    private Long genomeId;
+    private String state; // MISSING, BUILDING, STALE o READY
+    private Integer chromosomes; // cromosomas con secuencia del genoma
+    private Long indexedBases;
+    private Long sizeBytes; // tamaño del archivo del índice
+}
@@ -0,0 +1,23 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+
+@Data
+@JsonPropertyOrder({"chromosome", "start", "end", "gcPercentage", "nFraction", "gcSkew", "atSkew"})
+public class GcWindowDTO {
+    private String chromosome;
+    private Integer start; // inclusive
+    private Integer end; // exclusive
+    private Double gcPercentage; // % de G y C sobre las bases A, C, G y T de la ventana (2 decimales), null si no hay
+    private Double nFraction; // fracción de N sobre la ventana (4 decimales)
+    private Double gcSkew; // (G-C)/(G+C) (4 decimales), null si no hay G ni C
+    private Double atSkew; // (A-T)/(A+T) (4 decimales), null si no hay A ni T
+
+    // Jackson deriva "nfraction" de getNFraction
+    @JsonProperty("nFraction")
+    public Double getNFraction() {
+        return nFraction;
+    }
+}
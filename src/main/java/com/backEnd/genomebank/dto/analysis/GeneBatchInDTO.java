@@ -0,0 +1,9 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class GeneBatchInDTO {
+    private List<GeneRegionInDTO> regions; // hasta 100000 regiones
+}
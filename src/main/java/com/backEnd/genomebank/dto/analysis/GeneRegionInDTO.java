@@ -0,0 +1,12 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class GeneRegionInDTO {
+    private Long chromosomeId;
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive
+    private String name; // (opcional) se devuelve con los resultados de la región
+    private Character strand; // (opcional) '+' o '-'; orienta upstream/downstream en los genes cercanos
+}
@@ -0,0 +1,9 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class IntervalOperationInDTO {
+    private IntervalSetInDTO a; // conjunto sobre el que se aplica la operación
+    private IntervalSetInDTO b; // conjunto con el que se compara; requerido en intersect, subtract y closest
+}
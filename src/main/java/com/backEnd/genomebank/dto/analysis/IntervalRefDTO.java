@@ -0,0 +1,13 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class IntervalRefDTO {
+    private Long geneId; // si el conjunto es de genes
+    private Integer index; // si el conjunto es una lista de intervalos: su posición en la petición
+    private String name; // símbolo del gen o nombre dado al intervalo
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive
+    private Character strand;
+}
@@ -0,0 +1,15 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class IntervalResultDTO {
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // inclusive, base 0; en closest, el intervalo de a
+    private Integer end; // exclusive
+    private IntervalRefDTO a; // intervalo de A que origina el resultado (intersect, subtract, closest)
+    private IntervalRefDTO b; // intervalo de B que se solapa (intersect) o el más cercano (closest)
+    private Integer distance; // closest: bases entre a y b más uno (1 si son contiguos), 0 si se solapan, -1 si no hay intervalos de B en el cromosoma
+    private Integer count; // merge: número de intervalos unidos
+}
@@ -0,0 +1,12 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class IntervalSetInDTO {
+    private Long chromosomeId; // los genes de un cromosoma
+    private Long genomeId; // o los genes de todos los cromosomas de un genoma
+    private Long functionId; // o los genes anotados con una función
+    private List<GeneRegionInDTO> regions; // o una lista de intervalos enviada en la petición
+}
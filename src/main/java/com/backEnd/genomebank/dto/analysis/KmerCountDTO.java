@@ -0,0 +1,13 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KmerCountDTO {
+    private String kmer;
+    private Long count;
+}
@@ -0,0 +1,14 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class KmerCountInDTO {
+    private Long chromosomeId; // un cromosoma, o null si se indica genomeId
+    private Long genomeId; // todos los cromosomas con secuencia del genoma
+    private Integer k;
+    private Boolean canonical; // contar cada k-mer junto con su reverso complementario; por defecto false
+    private Integer top; // k-mers más frecuentes a devolver; por defecto 20
+    private List<String> kmers; // k-mers a consultar
+}
@@ -0,0 +1,17 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class KmerCountsDTO {
+    private Long chromosomeId; // null si se contó un genoma completo
+    private Long genomeId; // null si se contó un solo cromosoma
+    private Integer k;
+    private Boolean canonical; // cada k-mer contado junto con su complemento inverso
+    private Long totalKmers;
+    private Long distinctKmers;
+    private List<KmerCountDTO> top; // k-mers más frecuentes, de mayor a menor
+    private List<KmerCountDTO> lookups; // conteos de los k-mers pedidos
+    private Long elapsedMillis;
+}
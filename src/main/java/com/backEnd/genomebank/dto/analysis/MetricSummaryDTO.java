@@ -0,0 +1,15 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricSummaryDTO {
+    private Double min;
+    private Double max;
+    private Double mean; // media de los bins de 1 kb con valor definido
+    private Double sum;
+}
@@ -0,0 +1,16 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class MotifHitDTO {
+    private Long chromosomeId;
+    private String chromosomeName;
+    private String motif;
+    private Integer motifIndex; // posición del motivo en la petición
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive
+    private Character strand; // '+' o '-' (coincide el reverso complementario)
+    private List<GeneRangeDTO> genes; // genes que se solapan con la coincidencia
+}
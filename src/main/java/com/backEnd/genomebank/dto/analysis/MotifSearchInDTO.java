@@ -0,0 +1,13 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class MotifSearchInDTO {
+    private List<String> motifs; // códigos IUPAC, hasta 64 bases cada uno
+    private List<Long> chromosomeIds; // cromosomas donde buscar, o null si se indica genomeId
+    private Long genomeId; // todos los cromosomas con secuencia del genoma
+    private Boolean bothStrands; // buscar también en la hebra -; por defecto true
+    private Integer limit; // máximo de coincidencias; por defecto 100000
+}
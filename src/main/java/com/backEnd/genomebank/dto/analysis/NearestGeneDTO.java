@@ -0,0 +1,14 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class NearestGeneDTO {
+    private Long geneId;
+    private String symbol;
+    private Integer startPosition;
+    private Integer endPosition;
+    private Character strand;
+    private Integer distance; // bases entre el gen y la consulta; 0 si se solapan o son contiguos
+    private String queryPosition; // "upstream", "downstream" u "overlap": la consulta respecto del gen, según su hebra
+}
@@ -0,0 +1,18 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class NearestGenesDTO {
+    private Integer index; // posición de la consulta en la petición (solo en las consultas por lotes)
+    private String name; // nombre dado a la consulta en la petición, si lo tiene
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive
+    private Character strand; // hebra de la consulta; sin hebra se toma '+'
+    private List<NearestGeneDTO> overlapping; // genes que se solapan con la consulta
+    private List<NearestGeneDTO> upstream; // k genes más cercanos antes de la consulta, según su hebra
+    private List<NearestGeneDTO> downstream; // k genes más cercanos después de la consulta, según su hebra
+}
@@ -0,0 +1,19 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class OrfDTO {
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive, incluido el codón de terminación
+    private Character strand; // '+' o '-'
+    private Integer frame; // 1, 2 o 3 en la hebra +, -1, -2 o -3 en la hebra -, relativo al rango
+    private Integer length; // bases
+    private Integer aminoAcids; // longitud de la proteína, sin el codón de terminación
+    private Boolean overlapsGene; // se solapa con algún gen anotado
+    private Boolean overlapsGeneSameStrand; // se solapa con algún gen anotado en la misma hebra
+    private List<GeneRangeDTO> genes; // genes que se solapan con el ORF
+}
@@ -0,0 +1,15 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class OrfSearchInDTO {
+    private Long chromosomeId;
+    private Integer start; // inclusive, base 0; por defecto el inicio del cromosoma
+    private Integer end; // exclusive; por defecto el final del cromosoma
+    private List<String> startCodons; // por defecto ATG
+    private List<String> stopCodons; // por defecto TAA, TAG y TGA
+    private Integer minLength; // bases, incluido el codón de terminación; por defecto 75
+    private Integer limit; // máximo de ORFs; por defecto 100000
+}
@@ -0,0 +1,19 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class RangeStatsDTO {
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // inclusive
+    private Integer end; // exclusive
+    private Integer length;
+    private Double gcPercentage; // % de G y C sobre las bases A, C, G y T del rango
+    private Long aCount;
+    private Long cCount;
+    private Long gCount;
+    private Long tCount;
+    private Long nCount;
+    private Long softMaskedCount;
+}
@@ -0,0 +1,15 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class RegionGenesDTO {
+    private Integer index; // posición de la región en la petición (o entre las líneas de datos del BED)
+    private String name; // nombre dado a la región en la petición, si lo tiene
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive
+    private List<GeneRangeDTO> genes; // genes que se solapan con la región
+}
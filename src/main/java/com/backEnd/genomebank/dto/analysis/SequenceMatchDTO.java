@@ -0,0 +1,11 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class SequenceMatchDTO {
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // inclusive, base 0
+    private Integer end; // exclusive
+}
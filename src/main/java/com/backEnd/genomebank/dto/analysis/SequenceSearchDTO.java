@@ -0,0 +1,14 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SequenceSearchDTO {
+    private Long genomeId;
+    private String query;
+    private Long count; // número total de apariciones exactas
+    private List<SequenceMatchDTO> locations; // como mucho limit, por cromosoma y posición
+    private Boolean stale; // el índice se está reconstruyendo tras un cambio de secuencia
+    private Long elapsedMicros;
+}
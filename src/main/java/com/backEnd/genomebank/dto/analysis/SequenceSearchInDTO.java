@@ -0,0 +1,10 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class SequenceSearchInDTO {
+    private Long genomeId;
+    private String query; // secuencia a buscar (A, C, G y T), de 1 a 10000 bases
+    private Integer limit; // máximo de ubicaciones a devolver (0 a 10000); por defecto 100
+}
@@ -1,6 +1,7 @@
 package com.backEnd.genomebank.dto.analysis;
 
 import lombok.Data;
+import java.util.Map;
 
 @Data
 public class SequenceStatsDTO {
@@ -14,4 +15,7 @@ public class SequenceStatsDTO {
     private Integer gCount;
     private Integer tCount;
     private Integer nCount; // bases desconocidas
+    private Long softMaskedCount; // bases en minúscula (regiones enmascaradas)
+    private Map<String, Long> iupacCounts; // códigos de ambigüedad R, Y, S, W, K, M, B, D, H, V
+    private Map<String, Double> dinucleotideFrequencies; // AA, AC, ... TT
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SimilarityHitDTO {
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start; // en el cromosoma, inclusive, base 0
+    private Integer end; // exclusive
+    private Character strand; // '+' o '-' (se alineó el reverso complementario)
+    private Integer queryStart; // en la consulta, inclusive
+    private Integer queryEnd; // exclusive
+    private Integer score;
+    private Double identity; // porcentaje (0 a 100) de columnas del alineamiento con bases iguales
+    private String cigar; // en la orientación del cromosoma
+    private Integer seeds; // semillas (minimizadores compartidos) que originaron el resultado
+    private List<String> genes; // símbolos de los genes que se solapan con el resultado
+}
@@ -0,0 +1,16 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SimilaritySearchDTO {
+    private Long genomeId;
+    private Integer queryLength;
+    private Integer minimizers; // minimizadores de la consulta
+    private Integer seeds; // apariciones de esos minimizadores en el genoma
+    private Integer candidates; // regiones extendidas
+    private Boolean stale; // true si alguna secuencia cambió desde que se construyó el índice
+    private Long elapsedMillis;
+    private List<SimilarityHitDTO> hits; // ordenados por puntaje descendente
+}
@@ -0,0 +1,17 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+
+@Data
+public class SimilaritySearchInDTO {
+    private Long genomeId;
+    private String query; // secuencia a buscar, de 25 a 10000 bases
+    private Boolean bothStrands; // buscar también el reverso complementario; por defecto true
+    private Integer match; // puntaje de una coincidencia; por defecto 2
+    private Integer mismatch; // penalización de una diferencia; por defecto 3
+    private Integer gapOpen; // penalización de la primera base de un gap; por defecto 5
+    private Integer gapExtend; // penalización de cada base adicional de un gap; por defecto 2
+    private Integer minScore; // puntaje mínimo de los resultados; por defecto 30
+    private Double minIdentity; // porcentaje mínimo de identidad (0 a 100); por defecto 0
+    private Integer limit; // máximo de resultados; por defecto 50
+}
@@ -0,0 +1,21 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+
+@Data
+@JsonPropertyOrder({"start", "end", "gcPercentage", "nFraction", "geneDensity"})
+public class ZoomBinDTO {
+    private Integer start; // inclusive
+    private Integer end; // exclusive
+    private MetricSummaryDTO gcPercentage;
+    private MetricSummaryDTO nFraction;
+    private MetricSummaryDTO geneDensity; // genes que empiezan en cada bin de 1 kb
+
+    // Mismo nombre JSON que en GcWindowDTO
+    @JsonProperty("nFraction")
+    public MetricSummaryDTO getNFraction() {
+        return nFraction;
+    }
+}
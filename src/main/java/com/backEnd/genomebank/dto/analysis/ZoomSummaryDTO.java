@@ -0,0 +1,14 @@
+package com.backEnd.genomebank.dto.analysis;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ZoomSummaryDTO {
+    private Long chromosomeId;
+    private String chromosomeName;
+    private Integer start;
+    private Integer end;
+    private Integer levelBinSize; // tamaño de bin del nivel de zoom usado
+    private List<ZoomBinDTO> bins;
+}
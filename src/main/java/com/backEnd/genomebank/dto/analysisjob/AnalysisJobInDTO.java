@@ -0,0 +1,10 @@
+package com.backEnd.genomebank.dto.analysisjob;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+@Data
+public class AnalysisJobInDTO {
+    private String type; // KMER_COUNT, MOTIF_SEARCH, ORF_SEARCH, ALIGNMENT o COMPOSITION
+    private JsonNode parameters; // mismo cuerpo que el endpoint síncrono del análisis
+}
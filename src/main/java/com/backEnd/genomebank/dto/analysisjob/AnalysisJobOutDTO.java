@@ -0,0 +1,21 @@
+package com.backEnd.genomebank.dto.analysisjob;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class AnalysisJobOutDTO {
+    private Long id;
+    private String type;
+    private String status; // QUEUED, RUNNING, SUCCEEDED, FAILED o CANCELLED
+    private String username;
+    private JsonNode parameters;
+    private Double progress; // porcentaje
+    private String resultType; // tipo de contenido de GET /analysis/jobs/{id}/result
+    private Long resultSize; // bytes
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
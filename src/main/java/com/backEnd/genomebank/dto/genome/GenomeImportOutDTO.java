@@ -0,0 +1,13 @@
+package com.backEnd.genomebank.dto.genome;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class GenomeImportOutDTO {
+    private GenomeOutDTO genome;
+    private List<ImportedChromosomeDTO> chromosomes;
+    private Long totalBases;
+    private Long elapsedMillis;
+    private Long basesPerSecond; // throughput de la importación
+}
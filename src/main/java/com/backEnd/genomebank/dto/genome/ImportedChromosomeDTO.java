@@ -0,0 +1,14 @@
+package com.backEnd.genomebank.dto.genome;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportedChromosomeDTO {
+    private Long id;
+    private String name;
+    private Integer length;
+}
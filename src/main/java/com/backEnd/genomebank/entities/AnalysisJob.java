@@ -0,0 +1,61 @@
+package com.backEnd.genomebank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Análisis ejecutado en segundo plano (ver IAnalysisJobService). El resultado se guarda en un
+ * archivo aparte; aquí solo quedan los parámetros, el estado y los metadatos del resultado.
+ */
+@Data
+@Entity
+@Table(name = "analysis_jobs")
+public class AnalysisJob {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "job_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    @Column(nullable = false, length = 100)
+    private String username; // usuario que lo pidió
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String parameters; // petición del análisis en JSON
+
+    @Column(nullable = false)
+    private Double progress = 0.0; // 0 a 1
+
+    @Column(name = "result_type", length = 50)
+    private String resultType; // tipo de contenido del resultado
+
+    @Column(name = "result_size")
+    private Long resultSize; // bytes del resultado sin comprimir
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Type {
+        KMER_COUNT, MOTIF_SEARCH, ORF_SEARCH, ALIGNMENT, COMPOSITION
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+}
@@ -24,9 +24,6 @@ public class Chromosome {
     @Column(nullable = false)
     private Integer length;
 
-    @Column(columnDefinition = "TEXT")
-    private String sequence;
-
     @Column(name = "created_at", updatable = false, insertable = false)
     private LocalDateTime createdAt;
 
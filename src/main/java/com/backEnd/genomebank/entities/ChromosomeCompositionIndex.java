@@ -0,0 +1,21 @@
+package com.backEnd.genomebank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Índice de composición por bins de un Chromosome (ver CompositionIndex), guardado para no
+ * recorrer la secuencia de nuevo al reiniciar la aplicación.
+ */
+@Data
+@Entity
+@Table(name = "chromosome_composition_index")
+public class ChromosomeCompositionIndex {
+    @Id
+    @Column(name = "chromosome_id")
+    private Long chromosomeId;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+}
@@ -0,0 +1,21 @@
+package com.backEnd.genomebank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Bloque de tamaño fijo de la secuencia de un Chromosome.
+ * Cada bloque guarda hasta {@code BlockSequenceBackend.BLOCK_SIZE} bases empaquetadas con
+ * PackedSequence, de modo que una lectura por rango solo necesita los bloques que la solapan.
+ */
+@Data
+@Entity
+@Table(name = "chromosome_sequence_blocks")
+public class ChromosomeSequenceBlock {
+    @EmbeddedId
+    private ChromosomeSequenceBlockId id = new ChromosomeSequenceBlockId();
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+}
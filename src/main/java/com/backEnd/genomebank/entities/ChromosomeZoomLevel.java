@@ -0,0 +1,20 @@
+package com.backEnd.genomebank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Nivel de resumen precalculado de un Chromosome (ver ZoomLevel) para un tamaño de bin.
+ * Cada nivel se guarda por separado para que una consulta solo cargue el que necesita.
+ */
+@Data
+@Entity
+@Table(name = "chromosome_zoom_levels")
+public class ChromosomeZoomLevel {
+    @EmbeddedId
+    private ChromosomeZoomLevelId id = new ChromosomeZoomLevelId();
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+}
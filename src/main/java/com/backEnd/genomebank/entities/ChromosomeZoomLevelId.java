@@ -0,0 +1,20 @@
+package com.backEnd.genomebank.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChromosomeZoomLevelId implements Serializable {
+    @Column(name = "chromosome_id")
+    private Long chromosomeId;
+
+    @Column(name = "bin_size")
+    private Integer binSize;
+}
@@ -1,5 +1,6 @@
 package com.backEnd.genomebank.entities;
 
+import com.backEnd.genomebank.sequence.GenomicBins;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -30,12 +31,19 @@ public class Gene {
     @Column(nullable = false, length = 1)
     private Character strand;
 
-    @Column(columnDefinition = "TEXT")
-    private String sequence;
+    // Bin jerárquico de [startPosition, endPosition), para las consultas por rango
+    @Column(nullable = false)
+    private Integer bin;
 
     @Column(name = "created_at", updatable = false, insertable = false)
     private LocalDateTime createdAt;
 
     @OneToMany(mappedBy = "gene", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<GeneFunction> geneFunctions = new HashSet<>();
+
+    @PrePersist
+    @PreUpdate
+    void updateBin() {
+        bin = GenomicBins.bin(startPosition, endPosition);
+    }
 }
\ No newline at end of file
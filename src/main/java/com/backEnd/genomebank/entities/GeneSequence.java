@@ -0,0 +1,22 @@
+package com.backEnd.genomebank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Secuencia propia de un Gene, guardada en una tabla aparte para que las consultas de
+ * metadatos de Gene (listados, búsquedas, actualizaciones) nunca lean las bases.
+ * Solo se carga cuando se pide explícitamente la secuencia del Gene.
+ */
+@Data
+@Entity
+@Table(name = "gene_sequences")
+public class GeneSequence {
+    @Id
+    @Column(name = "gene_id")
+    private Long geneId;
+
+    @Lob
+    @Column(name = "packed_sequence", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] packedSequence; // Secuencia empaquetada a 2 bits por base (ver PackedSequence)
+}
@@ -0,0 +1,9 @@
+package com.backEnd.genomebank.events;
+
+/**
+ * Evento publicado cuando cambia la secuencia o la longitud de un Chromosome, o cuando se elimina.
+ * Los datos derivados de la secuencia (estadísticas, índices) deben descartarse o recalcularse.
+ * @param chromosomeId ID del Chromosome afectado.
+ */
+public record ChromosomeChangedEvent(Long chromosomeId) {
+}
@@ -0,0 +1,8 @@
+package com.backEnd.genomebank.events;
+
+/**
+ * Evento publicado cuando se crea, modifica o elimina un Gene de un Chromosome.
+ * @param chromosomeId ID del Chromosome cuyos Genes cambiaron.
+ */
+public record GenesChangedEvent(Long chromosomeId) {
+}
@@ -0,0 +1,15 @@
+package com.backEnd.genomebank.repositories;
+
+import com.backEnd.genomebank.entities.AnalysisJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
+    List<AnalysisJob> findTop100ByUsernameOrderByIdDesc(String username);
+
+    List<AnalysisJob> findByStatusIn(Collection<AnalysisJob.Status> statuses);
+}
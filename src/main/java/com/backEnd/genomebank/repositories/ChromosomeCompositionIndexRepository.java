@@ -0,0 +1,26 @@
+package com.backEnd.genomebank.repositories;
+
+import com.backEnd.genomebank.entities.ChromosomeCompositionIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ChromosomeCompositionIndexRepository extends JpaRepository<ChromosomeCompositionIndex, Long> {
+
+    /**
+     * Guardar un índice solo si el Chromosome aún no tiene uno, para que un índice construido
+     * a partir de una lectura antigua nunca reemplace al guardado junto con la secuencia nueva.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO chromosome_composition_index (chromosome_id, data) " +
+            "VALUES (:chromosomeId, :data)", nativeQuery = true)
+    void insertIfAbsent(
+            @Param("chromosomeId") Long chromosomeId,
+            @Param("data") byte[] data
+    );
+}
@@ -0,0 +1,46 @@
+package com.backEnd.genomebank.repositories;
+
+import com.backEnd.genomebank.entities.ChromosomeSequenceBlock;
+import com.backEnd.genomebank.entities.ChromosomeSequenceBlockId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ChromosomeSequenceBlockRepository
+        extends JpaRepository<ChromosomeSequenceBlock, ChromosomeSequenceBlockId> {
+
+    boolean existsByIdChromosomeId(Long chromosomeId);
+
+    /**
+     * Obtiene solo el contenido de los bloques [firstBlock, lastBlock] de un cromosoma, en orden.
+     * Se devuelven los bytes y no las entidades para no retenerlos en el contexto de persistencia.
+     */
+    @Query("SELECT b.data FROM ChromosomeSequenceBlock b WHERE b.id.chromosomeId = :chromosomeId " +
+            "AND b.id.blockNo BETWEEN :firstBlock AND :lastBlock ORDER BY b.id.blockNo")
+    List<byte[]> findBlockData(
+            @Param("chromosomeId") Long chromosomeId,
+            @Param("firstBlock") Integer firstBlock,
+            @Param("lastBlock") Integer lastBlock
+    );
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO chromosome_sequence_blocks (chromosome_id, block_no, data) " +
+            "VALUES (:chromosomeId, :blockNo, :data)", nativeQuery = true)
+    void insertBlock(
+            @Param("chromosomeId") Long chromosomeId,
+            @Param("blockNo") Integer blockNo,
+            @Param("data") byte[] data
+    );
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChromosomeSequenceBlock b WHERE b.id.chromosomeId = :chromosomeId")
+    void deleteByChromosomeId(@Param("chromosomeId") Long chromosomeId);
+}
@@ -0,0 +1,10 @@
+package com.backEnd.genomebank.repositories;
+
+import com.backEnd.genomebank.entities.ChromosomeZoomLevel;
+import com.backEnd.genomebank.entities.ChromosomeZoomLevelId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChromosomeZoomLevelRepository extends JpaRepository<ChromosomeZoomLevel, ChromosomeZoomLevelId> {
+}
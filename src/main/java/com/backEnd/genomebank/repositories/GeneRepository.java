@@ -1,6 +1,8 @@
 package com.backEnd.genomebank.repositories;
 
 import com.backEnd.genomebank.entities.Gene;
+import com.backEnd.genomebank.sequence.GenomicBins;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,16 +15,69 @@ public interface GeneRepository extends JpaRepository<Gene, Long> {
 
     List<Gene> findByChromosomeId(Long chromosomeId);
 
+    long countByChromosomeId(Long chromosomeId);
+
+    /**
+     * Posiciones iniciales de los genes de un cromosoma, sin cargar las entidades.
+     */
+    @Query("SELECT g.startPosition FROM Gene g WHERE g.chromosome.id = :chromosomeId")
+    List<Integer> findStartPositionsByChromosomeId(@Param("chromosomeId") Long chromosomeId);
+
+    /**
+     * ID, símbolo, inicio, fin y hebra de los genes de un cromosoma, sin cargar las entidades.
+     */
+    @Query("SELECT g.id, g.symbol, g.startPosition, g.endPosition, g.strand FROM Gene g " +
+            "WHERE g.chromosome.id = :chromosomeId")
+    List<Object[]> findIntervalsByChromosomeId(@Param("chromosomeId") Long chromosomeId);
+
+    /**
+     * Genes de un cromosoma que terminan en position o antes, del fin más cercano al más lejano.
+     * Con un Pageable de tamaño k solo se leen k filas del índice (chromosome_id, end_position).
+     */
+    @Query("SELECT g.id, g.symbol, g.startPosition, g.endPosition, g.strand FROM Gene g " +
+            "WHERE g.chromosome.id = :chromosomeId AND g.endPosition <= :position " +
+            "ORDER BY g.endPosition DESC, g.id")
+    List<Object[]> findIntervalsEndingBefore(@Param("chromosomeId") Long chromosomeId,
+                                             @Param("position") Integer position, Pageable pageable);
+
+    /**
+     * Genes de un cromosoma que empiezan en position o después, del inicio más cercano al más
+     * lejano. Con un Pageable de tamaño k solo se leen k filas del índice (chromosome_id, start_position).
+     */
+    @Query("SELECT g.id, g.symbol, g.startPosition, g.endPosition, g.strand FROM Gene g " +
+            "WHERE g.chromosome.id = :chromosomeId AND g.startPosition >= :position " +
+            "ORDER BY g.startPosition, g.id")
+    List<Object[]> findIntervalsStartingAfter(@Param("chromosomeId") Long chromosomeId,
+                                              @Param("position") Integer position, Pageable pageable);
+
     List<Gene> findBySymbolContainingIgnoreCase(String symbol);
 
     /**
      * Encuentra genes que se solapan con un rango específico en un cromosoma.
      * Un gen se solapa si su rango [startPosition, endPosition] tiene intersección
-     * con el rango [start, end].
+     * con el rango [start, end]. Solo se leen los bins que pueden contener esos genes
+     * ({@link GenomicBins}), salvo en rangos con tantos bins que no compensa listarlos.
      */
+    default List<Gene> findGenesInRange(Long chromosomeId, Integer start, Integer end) {
+        List<Integer> bins = GenomicBins.overlapping(start, end);
+        if (bins.size() > GenomicBins.MAX_QUERY_BINS) {
+            return findGenesInRangeAllBins(chromosomeId, start, end);
+        }
+        return findGenesInRangeAndBins(chromosomeId, start, end, bins);
+    }
+
+    @Query("SELECT g FROM Gene g WHERE g.chromosome.id = :chromosomeId AND g.bin IN :bins " +
+            "AND g.startPosition < :end AND g.endPosition > :start")
+    List<Gene> findGenesInRangeAndBins(
+            @Param("chromosomeId") Long chromosomeId,
+            @Param("start") Integer start,
+            @Param("end") Integer end,
+            @Param("bins") List<Integer> bins
+    );
+
     @Query("SELECT g FROM Gene g WHERE g.chromosome.id = :chromosomeId " +
             "AND g.startPosition < :end AND g.endPosition > :start")
-    List<Gene> findGenesInRange(
+    List<Gene> findGenesInRangeAllBins(
             @Param("chromosomeId") Long chromosomeId,
             @Param("start") Integer start,
             @Param("end") Integer end
@@ -0,0 +1,9 @@
+package com.backEnd.genomebank.repositories;
+
+import com.backEnd.genomebank.entities.GeneSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GeneSequenceRepository extends JpaRepository<GeneSequence, Long> {
+}
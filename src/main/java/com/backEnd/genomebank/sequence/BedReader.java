@@ -0,0 +1,60 @@
+package com.backEnd.genomebank.sequence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lector incremental de archivos BED, en texto plano o comprimidos con gzip/bgzip (se detecta por
+ * los bytes mágicos). Omite las líneas vacías, los comentarios y las líneas {@code track} y
+ * {@code browser}.
+ */
+public class BedReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    public BedReader(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        InputStream in = first == 0x1f && second == 0x8b
+                ? new GZIPInputStream(buffered, BUFFER_SIZE)
+                : buffered;
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Leer el siguiente intervalo.
+     * @return Intervalo, o null si no hay más.
+     * @throws IllegalArgumentException si la línea no es válida, indicando su número.
+     */
+    public BedRecord next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String first = trimmed.split("\\s", 2)[0];
+            if (first.equals("track") || first.equals("browser")) {
+                continue;
+            }
+            try {
+                return BedRecord.parse(trimmed);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+}
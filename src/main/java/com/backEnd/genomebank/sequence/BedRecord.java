@@ -0,0 +1,43 @@
+package com.backEnd.genomebank.sequence;
+
+/**
+ * Intervalo de un archivo BED (coordenadas base 0, fin exclusivo).
+ * @param chromosome Nombre del cromosoma (columna 1).
+ * @param start Inicio (columna 2).
+ * @param end Fin (columna 3).
+ * @param name Nombre (columna 4), o null si no está.
+ * @param strand Hebra '+' o '-' (columna 6), o null si no está o es '.'.
+ */
+public record BedRecord(String chromosome, int start, int end, String name, Character strand) {
+
+    /**
+     * Interpretar una línea de datos BED (columnas separadas por tabuladores o espacios).
+     * @param line Línea del archivo.
+     * @return Intervalo de la línea.
+     * @throws IllegalArgumentException si tiene menos de tres columnas o posiciones inválidas.
+     */
+    public static BedRecord parse(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("Invalid BED line: " + line);
+        }
+        int start;
+        int end;
+        try {
+            start = Integer.parseInt(fields[1]);
+            end = Integer.parseInt(fields[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid BED positions: " + line);
+        }
+        String name = fields.length > 3 ? fields[3] : null;
+        Character strand = null;
+        if (fields.length > 5) {
+            if (fields[5].equals("+") || fields[5].equals("-")) {
+                strand = fields[5].charAt(0);
+            } else if (!fields[5].equals(".")) {
+                throw new IllegalArgumentException("Invalid BED strand: " + line);
+            }
+        }
+        return new BedRecord(fields[0], start, end, name, strand);
+    }
+}
@@ -0,0 +1,219 @@
+package com.backEnd.genomebank.sequence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * OutputStream que escribe en formato BGZF (gzip por bloques, compatible con bgzip/samtools).
+ * Los datos se cortan en bloques de hasta {@link #BLOCK_DATA_SIZE} bytes que se comprimen en
+ * paralelo en un pool de hilos; los bloques comprimidos se escriben en el orden original.
+ * Como mucho hay maxInFlight bloques pendientes, así que la memoria usada está acotada
+ * independientemente del tamaño de la salida.
+ * También registra el índice .gzi (desplazamiento comprimido y sin comprimir de cada bloque).
+ */
+public class BgzfOutputStream extends OutputStream {
+
+    /** Máximo de bytes sin comprimir por bloque (el mismo valor que usa htslib). */
+    public static final int BLOCK_DATA_SIZE = 0xff00;
+
+    private static final int HEADER_SIZE = 18;
+    private static final int FOOTER_SIZE = 8;
+    private static final byte[] EOF_BLOCK = {
+            0x1f, (byte) 0x8b, 0x08, 0x04, 0, 0, 0, 0, 0, (byte) 0xff, 0x06, 0, 0x42, 0x43, 0x02, 0,
+            0x1b, 0, 0x03, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int level;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] buffer = new byte[BLOCK_DATA_SIZE];
+    private int filled;
+    private long compressedOffset;
+    private long uncompressedOffset;
+    private long[] index = new long[64];
+    private int indexSize;
+    private boolean closed;
+
+    /**
+     * @param out Destino de los bloques comprimidos.
+     * @param executor Pool donde se comprimen los bloques.
+     * @param maxInFlight Número máximo de bloques enviados al pool y aún no escritos.
+     * @param level Nivel de compresión de Deflater.
+     */
+    public BgzfOutputStream(OutputStream out, ExecutorService executor, int maxInFlight, int level) {
+        this.out = out;
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.level = level;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer[filled++] = (byte) b;
+        if (filled == BLOCK_DATA_SIZE) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, BLOCK_DATA_SIZE - filled);
+            System.arraycopy(data, offset, buffer, filled, count);
+            filled += count;
+            offset += count;
+            length -= count;
+            if (filled == BLOCK_DATA_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Comprimir el bloque en curso (aunque no esté lleno) y escribir todos los bloques pendientes.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (filled > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        out.flush();
+    }
+
+    /**
+     * Escribir los bloques pendientes y el bloque vacío que marca el fin de archivo BGZF.
+     * No cierra el OutputStream de destino.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            out.write(EOF_BLOCK);
+            out.flush();
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            pending.clear();
+        }
+    }
+
+    /**
+     * Escribir el índice .gzi: número de entradas y, por cada bloque salvo el primero,
+     * su desplazamiento comprimido y sin comprimir (enteros de 64 bits little-endian).
+     * Solo es completo después de {@link #close()}.
+     * @param target Destino del índice.
+     */
+    public void writeIndex(OutputStream target) throws IOException {
+        int entries = Math.max(0, indexSize / 2 - 1);
+        ByteBuffer bytes = ByteBuffer.allocate(8 + entries * 16).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putLong(entries);
+        for (int i = 2; i < indexSize; i++) {
+            bytes.putLong(index[i]);
+        }
+        target.write(bytes.array());
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = buffer;
+        int length = filled;
+        buffer = new byte[BLOCK_DATA_SIZE];
+        filled = 0;
+        pending.addLast(executor.submit(() -> compress(data, length, level)));
+        addIndexEntry(length);
+        while (pending.size() >= maxInFlight) {
+            writeNext();
+        }
+    }
+
+    private void addIndexEntry(int blockLength) {
+        if (indexSize + 2 > index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        // El desplazamiento comprimido se completa cuando el bloque se escribe
+        index[indexSize++] = -1;
+        index[indexSize++] = uncompressedOffset;
+        uncompressedOffset += blockLength;
+    }
+
+    private void writeNext() throws IOException {
+        byte[] block;
+        try {
+            block = pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing BGZF block", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress BGZF block", e.getCause());
+        }
+        int entry = indexSize - 2 * (pending.size() + 1);
+        index[entry] = compressedOffset;
+        out.write(block);
+        compressedOffset += block.length;
+    }
+
+    /**
+     * Comprimir un bloque BGZF completo: cabecera gzip con el subcampo BC, datos deflate,
+     * CRC32 y longitud sin comprimir.
+     */
+    private static byte[] compress(byte[] data, int length, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            byte[] compressed = deflate(deflater, data, length);
+            if (HEADER_SIZE + compressed.length + FOOTER_SIZE > 65536) {
+                // Datos incompresibles: se guardan sin comprimir para respetar el tamaño máximo
+                deflater.reset();
+                deflater.setLevel(Deflater.NO_COMPRESSION);
+                compressed = deflate(deflater, data, length);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+
+            int blockSize = HEADER_SIZE + compressed.length + FOOTER_SIZE;
+            ByteBuffer block = ByteBuffer.allocate(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+            block.put(new byte[]{0x1f, (byte) 0x8b, 0x08, 0x04, 0, 0, 0, 0, 0, (byte) 0xff});
+            block.putShort((short) 6);
+            block.put((byte) 'B').put((byte) 'C');
+            block.putShort((short) 2);
+            block.putShort((short) (blockSize - 1));
+            block.put(compressed);
+            block.putInt((int) crc.getValue());
+            block.putInt(length);
+            return block.array();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] data, int length) {
+        deflater.setInput(data, 0, length);
+        deflater.finish();
+        byte[] output = new byte[length + length / 1000 + 64];
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            size += deflater.deflate(output, size, output.length - size);
+        }
+        return Arrays.copyOf(output, size);
+    }
+}
@@ -0,0 +1,197 @@
+package com.backEnd.genomebank.sequence;
+
+import com.backEnd.genomebank.repositories.ChromosomeSequenceBlockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Backend de secuencias por defecto: la secuencia se divide en bloques de tamaño fijo.
+ * Cada bloque de {@link #BLOCK_SIZE} bases se guarda empaquetado en la tabla
+ * chromosome_sequence_blocks con clave (chromosome_id, block_no), por lo que leer un rango
+ * solo trae de la base de datos los bloques que lo solapan.
+ */
+@Component
+@ConditionalOnProperty(name = "genomebank.sequence.backend", havingValue = "blocks", matchIfMissing = true)
+@RequiredArgsConstructor
+public class BlockSequenceBackend implements SequenceBackend {
+
+    public static final int BLOCK_SIZE = 65_536;
+    private static final int STREAM_BATCH_BLOCKS = 16;
+
+    private final ChromosomeSequenceBlockRepository blockRepository;
+
+    /**
+     * Abrir una escritura por bloques. Los bloques anteriores se eliminan y cada bloque nuevo se
+     * inserta en cuanto se completa; fuera de una transacción, cada inserción se confirma por
+     * separado, de modo que una carga masiva no acumula toda la secuencia en una sola transacción.
+     * @param chromosomeId ID del cromosoma.
+     * @param name Nombre del cromosoma (no se usa en este backend).
+     * @return Escritor por bloques.
+     */
+    @Override
+    public SequenceWriter openWriter(Long chromosomeId, String name) {
+        blockRepository.deleteByChromosomeId(chromosomeId);
+        return new BlockWriter(chromosomeId);
+    }
+
+    /**
+     * Reemplazar la secuencia de un cromosoma en una única transacción.
+     * @param chromosomeId ID del cromosoma.
+     * @param name Nombre del cromosoma (no se usa en este backend).
+     * @param sequence Secuencia completa.
+     * @throws IllegalArgumentException si la secuencia contiene caracteres inválidos.
+     */
+    @Override
+    @Transactional
+    public void write(Long chromosomeId, String name, CharSequence sequence) {
+        SequenceBackend.super.write(chromosomeId, name, sequence);
+    }
+
+    /**
+     * Eliminar la secuencia de un cromosoma.
+     * @param chromosomeId ID del cromosoma.
+     */
+    @Override
+    @Transactional
+    public void delete(Long chromosomeId) {
+        blockRepository.deleteByChromosomeId(chromosomeId);
+    }
+
+    /**
+     * Indica si el cromosoma tiene una secuencia almacenada.
+     * @param chromosomeId ID del cromosoma.
+     * @return true si existe al menos un bloque.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasSequence(Long chromosomeId) {
+        return blockRepository.existsByIdChromosomeId(chromosomeId);
+    }
+
+    /**
+     * Leer un rango de la secuencia de un cromosoma trayendo solo los bloques que lo solapan.
+     * @param chromosomeId ID del cromosoma.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @return Subsecuencia en el rango indicado.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public String read(Long chromosomeId, int start, int end) {
+        byte[] bases = new byte[end - start];
+        if (end > start) {
+            int firstBlock = start / BLOCK_SIZE;
+            int lastBlock = (end - 1) / BLOCK_SIZE;
+            List<byte[]> blocks = blockRepository.findBlockData(chromosomeId, firstBlock, lastBlock);
+            if (blocks.size() != lastBlock - firstBlock + 1) {
+                throw new IllegalStateException("Missing sequence blocks for chromosome " + chromosomeId);
+            }
+            for (int i = 0; i < blocks.size(); i++) {
+                int blockStart = (firstBlock + i) * BLOCK_SIZE;
+                PackedSequence block = PackedSequence.fromBytes(blocks.get(i));
+                int from = Math.max(start, blockStart);
+                int to = Math.min(end, blockStart + block.length());
+                block.decodeTo(from - blockStart, to - blockStart, bases, from - start);
+            }
+        }
+        return new String(bases, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Recorrer un rango de la secuencia entregando un bloque decodificado a la vez.
+     * Los bloques se consultan en lotes de {@link #STREAM_BATCH_BLOCKS} y se decodifican sobre un
+     * único buffer reutilizado, por lo que la memoria usada no depende del tamaño del rango.
+     * No es transaccional a propósito: cada lote usa su propia conexión y no se retiene una
+     * conexión durante toda la transmisión.
+     * @param chromosomeId ID del cromosoma.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @param consumer Receptor de los fragmentos, en orden.
+     */
+    @Override
+    public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException {
+        if (end <= start) {
+            return;
+        }
+        byte[] buffer = new byte[BLOCK_SIZE];
+        int firstBlock = start / BLOCK_SIZE;
+        int lastBlock = (end - 1) / BLOCK_SIZE;
+        for (int batchStart = firstBlock; batchStart <= lastBlock; batchStart += STREAM_BATCH_BLOCKS) {
+            int batchEnd = Math.min(lastBlock, batchStart + STREAM_BATCH_BLOCKS - 1);
+            List<byte[]> blocks = blockRepository.findBlockData(chromosomeId, batchStart, batchEnd);
+            if (blocks.size() != batchEnd - batchStart + 1) {
+                throw new IllegalStateException("Missing sequence blocks for chromosome " + chromosomeId);
+            }
+            for (int i = 0; i < blocks.size(); i++) {
+                int blockStart = (batchStart + i) * BLOCK_SIZE;
+                PackedSequence block = PackedSequence.fromBytes(blocks.get(i));
+                int from = Math.max(start, blockStart) - blockStart;
+                int to = Math.min(end, blockStart + block.length()) - blockStart;
+                block.decodeTo(from, to, buffer, 0);
+                consumer.accept(ByteBuffer.wrap(buffer, 0, to - from));
+            }
+        }
+    }
+
+    /**
+     * Escritor que acumula hasta {@link #BLOCK_SIZE} bases y las guarda como un bloque empaquetado.
+     */
+    private final class BlockWriter implements SequenceWriter {
+        private final Long chromosomeId;
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private int filled;
+        private int blockNo;
+        private long length;
+
+        BlockWriter(Long chromosomeId) {
+            this.chromosomeId = chromosomeId;
+        }
+
+        @Override
+        public void append(byte[] bases, int offset, int count) {
+            while (count > 0) {
+                int n = Math.min(count, BLOCK_SIZE - filled);
+                System.arraycopy(bases, offset, block, filled, n);
+                filled += n;
+                offset += n;
+                count -= n;
+                if (filled == BLOCK_SIZE) {
+                    flushBlock();
+                }
+            }
+        }
+
+        @Override
+        public long finish() {
+            if (filled > 0) {
+                flushBlock();
+            }
+            return length;
+        }
+
+        @Override
+        public void abort() {
+            blockRepository.deleteByChromosomeId(chromosomeId);
+        }
+
+        private void flushBlock() {
+            byte[] data;
+            try {
+                data = PackedSequence.encode(block, 0, filled).toBytes();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(e.getMessage() + " of block " + blockNo, e);
+            }
+            blockRepository.insertBlock(chromosomeId, blockNo, data);
+            length += filled;
+            blockNo++;
+            filled = 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.backEnd.genomebank.sequence;
+
+/**
+ * Entrada de un índice .fai al estilo de samtools faidx.
+ * @param name Nombre de la secuencia.
+ * @param length Número de bases.
+ * @param offset Desplazamiento en bytes de la primera base dentro del archivo FASTA.
+ * @param lineBases Bases por línea.
+ * @param lineWidth Bytes por línea, incluyendo el salto de línea.
+ */
+public record FaiRecord(String name, long length, long offset, int lineBases, int lineWidth) {
+
+    /**
+     * Interpretar una línea de un archivo .fai (cinco columnas separadas por tabuladores).
+     * @param line Línea del índice.
+     * @return Entrada del índice.
+     */
+    public static FaiRecord parse(String line) {
+        String[] fields = line.split("\t");
+        if (fields.length < 5) {
+            throw new IllegalArgumentException("Invalid .fai line: " + line);
+        }
+        return new FaiRecord(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                Integer.parseInt(fields[3]), Integer.parseInt(fields[4]));
+    }
+
+    /**
+     * @return La entrada en formato .fai, terminada en salto de línea.
+     */
+    public String format() {
+        return name + '\t' + length + '\t' + offset + '\t' + lineBases + '\t' + lineWidth + '\n';
+    }
+
+    /**
+     * Desplazamiento en el archivo FASTA de la base en la posición indicada.
+     * @param position Posición de la base (desde 0).
+     * @return Desplazamiento en bytes dentro del archivo.
+     */
+    public long offsetOf(long position) {
+        if (lineBases == 0) {
+            return offset;
+        }
+        return offset + (position / lineBases) * lineWidth + position % lineBases;
+    }
+}
@@ -0,0 +1,132 @@
+package com.backEnd.genomebank.sequence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lector incremental de archivos multi-FASTA, en texto plano o comprimidos con gzip/bgzip
+ * (se detecta por los bytes mágicos). Entrega los encabezados y las bases de cada registro
+ * por fragmentos, sin cargar nunca un registro completo en memoria.
+ */
+public class FastaReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean lineStart = true;
+    private boolean inRecord;
+
+    public FastaReader(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        this.in = first == 0x1f && second == 0x8b
+                ? new GZIPInputStream(buffered, BUFFER_SIZE)
+                : buffered;
+    }
+
+    /**
+     * Avanzar al siguiente registro, descartando las bases no leídas del registro actual.
+     * @return Línea de descripción del registro (sin '>'), o null si no hay más registros.
+     * @throws IllegalArgumentException si hay bases antes del primer encabezado.
+     */
+    public String nextHeader() throws IOException {
+        while (inRecord) {
+            skipBases();
+        }
+        while (fill()) {
+            byte b = buffer[position];
+            if (lineStart && b == '>') {
+                position++;
+                inRecord = true;
+                return readHeaderLine();
+            }
+            position++;
+            if (b == '\n') {
+                lineStart = true;
+            } else if (b != '\r' && b != ' ' && b != '\t') {
+                throw new IllegalArgumentException("Invalid FASTA: sequence data before the first header");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Leer bases del registro actual, omitiendo saltos de línea y espacios.
+     * @param dest Arreglo destino.
+     * @param offset Posición del arreglo donde se escribe la primera base.
+     * @param length Número máximo de bases a leer.
+     * @return Número de bases leídas, o -1 si el registro terminó.
+     */
+    public int read(byte[] dest, int offset, int length) throws IOException {
+        if (!inRecord) {
+            return -1;
+        }
+        int count = 0;
+        while (count < length) {
+            if (!fill()) {
+                inRecord = false;
+                break;
+            }
+            byte b = buffer[position];
+            if (lineStart && b == '>') {
+                inRecord = false;
+                break;
+            }
+            position++;
+            if (b == '\n') {
+                lineStart = true;
+                continue;
+            }
+            lineStart = false;
+            if (b != '\r' && b != ' ' && b != '\t') {
+                dest[offset + count++] = b;
+            }
+        }
+        return count == 0 && !inRecord ? -1 : count;
+    }
+
+    private void skipBases() throws IOException {
+        byte[] discard = new byte[BUFFER_SIZE];
+        while (read(discard, 0, discard.length) >= 0) {
+            // Se descartan las bases restantes del registro
+        }
+    }
+
+    private String readHeaderLine() throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        while (fill()) {
+            byte b = buffer[position++];
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                if (header.size() >= MAX_HEADER_LENGTH) {
+                    throw new IllegalArgumentException("Invalid FASTA: header line too long");
+                }
+                header.write(b);
+            }
+        }
+        lineStart = true;
+        return header.toString(StandardCharsets.UTF_8).trim();
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        limit = in.read(buffer, 0, buffer.length);
+        position = 0;
+        return limit > 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.backEnd.genomebank.sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esquema de bins jerárquico de UCSC para buscar intervalos en la base de datos. Cada intervalo
+ * se guarda en el bin más pequeño que lo contiene por completo: niveles de 128 kb, 1 Mb, 8 Mb,
+ * 64 Mb y 512 Mb (esquema estándar, bins 0 a 4680) y, para intervalos que terminan después de
+ * 512 Mb, los mismos niveles más uno de 4 Gb desplazados en 4681 (esquema extendido). Los números
+ * coinciden con la columna {@code bin} de las tablas de UCSC.
+ * <p>
+ * Un intervalo solo puede solaparse con los que están en los bins que cubren alguna de sus
+ * posiciones en cada nivel ({@link #overlapping}), unas pocas decenas para rangos de megabases.
+ */
+public final class GenomicBins {
+
+    /**
+     * Bins a partir de los cuales una consulta deja de filtrar por bin: rangos de más de unos
+     * 450 Mb, que de todos modos leen casi todos los intervalos del Chromosome.
+     */
+    public static final int MAX_QUERY_BINS = 4096;
+
+    private static final int FIRST_SHIFT = 17;
+    private static final int NEXT_SHIFT = 3;
+    /** Fin máximo de un intervalo del esquema estándar (512 Mb). */
+    private static final int STANDARD_MAX_END = 1 << 29;
+    private static final int[] STANDARD_OFFSETS = {512 + 64 + 8 + 1, 64 + 8 + 1, 8 + 1, 1, 0};
+    private static final int[] EXTENDED_OFFSETS = {4096 + 512 + 64 + 8 + 1, 512 + 64 + 8 + 1, 64 + 8 + 1, 8 + 1, 1, 0};
+    private static final int EXTENDED_BASE = 4681;
+
+    private GenomicBins() {
+    }
+
+    /**
+     * Bin de un intervalo semiabierto [start, end). Las posiciones negativas se tratan como 0.
+     * @param start Inicio.
+     * @param end Fin (exclusivo, mayor que start).
+     * @return Bin más pequeño que contiene el intervalo.
+     */
+    public static int bin(int start, int end) {
+        long first = Math.max(0, start);
+        long last = Math.max(first, (long) end - 1);
+        if (last < STANDARD_MAX_END) {
+            return bin(first, last, STANDARD_OFFSETS);
+        }
+        return EXTENDED_BASE + bin(first, last, EXTENDED_OFFSETS);
+    }
+
+    private static int bin(long first, long last, int[] offsets) {
+        first >>= FIRST_SHIFT;
+        last >>= FIRST_SHIFT;
+        for (int offset : offsets) {
+            if (first == last) {
+                return offset + (int) first;
+            }
+            first >>= NEXT_SHIFT;
+            last >>= NEXT_SHIFT;
+        }
+        throw new IllegalStateException("Interval exceeds the binning range");
+    }
+
+    /**
+     * Bins donde pueden estar los intervalos que cumplen {@code s < end && e > start}, la condición
+     * de solapamiento de {@code GeneRepository.findGenesInRange}. Si start >= end son los que
+     * contienen la posición start.
+     * @param start Inicio del rango.
+     * @param end Fin del rango (exclusivo).
+     * @return Bins a consultar.
+     */
+    public static List<Integer> overlapping(int start, int end) {
+        long first = Math.max(0, start);
+        long last = Math.max(first, (long) end - 1);
+        List<Integer> bins = new ArrayList<>();
+        if (first < STANDARD_MAX_END) {
+            addBins(bins, first, Math.min(last, STANDARD_MAX_END - 1), STANDARD_OFFSETS, 0);
+        }
+        if (last < STANDARD_MAX_END) {
+            // Un intervalo extendido que se solapa con el rango cruza los 512 Mb: solo cabe en el bin de 4 Gb
+            bins.add(EXTENDED_BASE);
+        } else {
+            addBins(bins, first, last, EXTENDED_OFFSETS, EXTENDED_BASE);
+        }
+        return bins;
+    }
+
+    private static void addBins(List<Integer> bins, long first, long last, int[] offsets, int base) {
+        first >>= FIRST_SHIFT;
+        last >>= FIRST_SHIFT;
+        for (int offset : offsets) {
+            for (long bin = first; bin <= last; bin++) {
+                bins.add(base + offset + (int) bin);
+            }
+            first >>= NEXT_SHIFT;
+            last >>= NEXT_SHIFT;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.backEnd.genomebank.sequence;
+
+import com.backEnd.genomebank.entities.GeneSequence;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.repositories.GeneSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversión única de las columnas {@code sequence} (TEXT) que tenían las tablas chromosomes y
+ * genes antes de guardar las bases empaquetadas. Se activa con
+ * {@code genomebank.sequence.migrate-legacy=true} sobre una base de datos creada con el esquema
+ * anterior: la secuencia de cada Chromosome se escribe en el backend activo y la de cada Gene se
+ * guarda en gene_sequences solo si difiere de la que se deriva de su Chromosome. Cada fila
+ * convertida se deja en NULL en la misma transacción, de modo que una conversión interrumpida se
+ * puede reanudar. Después se eliminan las columnas como se indica en el README.
+ */
+@Slf4j
+@Component
+public class LegacySequenceMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SequenceBackend sequenceBackend;
+    private final GeneSequenceRepository geneSequenceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+
+    public LegacySequenceMigration(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   SequenceBackend sequenceBackend,
+                                   GeneSequenceRepository geneSequenceRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${genomebank.sequence.migrate-legacy:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sequenceBackend = sequenceBackend;
+        this.geneSequenceRepository = geneSequenceRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        // Los Genes se comparan con la secuencia de su Chromosome, que debe convertirse antes
+        if (hasLegacyColumn("chromosomes")) {
+            migrateChromosomes();
+        }
+        if (hasLegacyColumn("genes")) {
+            migrateGenes();
+        }
+    }
+
+    private boolean hasLegacyColumn(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns"
+                        + " WHERE table_schema = DATABASE() AND table_name = ? AND column_name = 'sequence'",
+                Integer.class, table);
+        if (count == null || count == 0) {
+            log.info("Table {} has no legacy sequence column, nothing to migrate", table);
+            return false;
+        }
+        return true;
+    }
+
+    private void migrateChromosomes() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT chromosome_id FROM chromosomes WHERE sequence IS NOT NULL ORDER BY chromosome_id", Long.class);
+        int migrated = 0;
+        for (Long id : ids) {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT name, sequence FROM chromosomes WHERE chromosome_id = ?", id);
+            String name = (String) row.get("name");
+            String sequence = (String) row.get("sequence");
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    sequenceBackend.write(id, name, sequence);
+                    jdbcTemplate.update("UPDATE chromosomes SET sequence = NULL WHERE chromosome_id = ?", id);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not migrate the sequence of chromosome {}", id, e);
+                continue;
+            }
+            eventPublisher.publishEvent(new ChromosomeChangedEvent(id));
+            migrated++;
+        }
+        log.info("Migrated {} of {} legacy chromosome sequences", migrated, ids.size());
+    }
+
+    private void migrateGenes() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT gene_id FROM genes WHERE sequence IS NOT NULL ORDER BY gene_id", Long.class);
+        int overrides = 0;
+        int failed = 0;
+        for (Long id : ids) {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT g.chromosome_id, g.start_position, g.end_position, g.strand, g.sequence, c.length"
+                            + " FROM genes g JOIN chromosomes c ON c.chromosome_id = g.chromosome_id"
+                            + " WHERE g.gene_id = ?", id);
+            String sequence = (String) row.get("sequence");
+            byte[] packed;
+            try {
+                packed = PackedSequence.encode(sequence).toBytes();
+            } catch (IllegalArgumentException e) {
+                log.warn("Could not migrate the sequence of gene {}: {}", id, e.getMessage());
+                failed++;
+                continue;
+            }
+            boolean override = !sequence.equals(derivedSequence(row));
+            transactionTemplate.executeWithoutResult(status -> {
+                if (override) {
+                    GeneSequence geneSequence = new GeneSequence();
+                    geneSequence.setGeneId(id);
+                    geneSequence.setPackedSequence(packed);
+                    geneSequenceRepository.save(geneSequence);
+                }
+                jdbcTemplate.update("UPDATE genes SET sequence = NULL WHERE gene_id = ?", id);
+            });
+            if (override) {
+                overrides++;
+            }
+        }
+        log.info("Migrated {} legacy gene sequences ({} kept as overrides, {} failed)",
+                ids.size() - failed, overrides, failed);
+    }
+
+    /**
+     * Secuencia que el Gene tendría sin secuencia propia, o null si no se puede derivar.
+     */
+    private String derivedSequence(Map<String, Object> gene) {
+        Long chromosomeId = ((Number) gene.get("chromosome_id")).longValue();
+        int start = ((Number) gene.get("start_position")).intValue();
+        int end = ((Number) gene.get("end_position")).intValue();
+        int length = ((Number) gene.get("length")).intValue();
+        if (start < 0 || start >= end || end > length || !sequenceBackend.hasSequence(chromosomeId)) {
+            return null;
+        }
+        String sequence = sequenceBackend.read(chromosomeId, start, end);
+        return "-".equals(String.valueOf(gene.get("strand"))) ? Nucleotides.reverseComplement(sequence) : sequence;
+    }
+}
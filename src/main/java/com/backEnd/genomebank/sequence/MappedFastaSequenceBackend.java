@@ -0,0 +1,216 @@
+package com.backEnd.genomebank.sequence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Backend de secuencias en archivos FASTA locales.
+ * Cada cromosoma se guarda en chromosome-{id}.fa junto a un índice chromosome-{id}.fa.fai
+ * compatible con samtools faidx. Las lecturas mapean en memoria (FileChannel.map) solo la región
+ * pedida y entregan slices del MappedByteBuffer, sin pasar por MySQL ni construir Strings.
+ * Se activa con genomebank.sequence.backend=mapped.
+ */
+@Component
+@ConditionalOnProperty(name = "genomebank.sequence.backend", havingValue = "mapped")
+public class MappedFastaSequenceBackend implements SequenceBackend {
+
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    private final Path directory;
+    private final Map<Long, FaiRecord> index = new ConcurrentHashMap<>();
+
+    public MappedFastaSequenceBackend(
+            @Value("${genomebank.sequence.mapped.directory:sequences}") String directory) throws IOException {
+        this.directory = Path.of(directory);
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * Abrir una escritura sobre un archivo temporal con una sola línea de bases. Al terminar se
+     * reemplazan de forma atómica el FASTA y su índice; los lectores que ya tenían mapeado el
+     * archivo anterior siguen viendo la versión previa.
+     */
+    @Override
+    public SequenceWriter openWriter(Long chromosomeId, String name) {
+        try {
+            return new MappedWriter(chromosomeId, name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delete(Long chromosomeId) {
+        index.remove(chromosomeId);
+        try {
+            Files.deleteIfExists(faiPath(chromosomeId));
+            Files.deleteIfExists(fastaPath(chromosomeId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean hasSequence(Long chromosomeId) {
+        return index.containsKey(chromosomeId) || Files.exists(faiPath(chromosomeId));
+    }
+
+    @Override
+    public String read(Long chromosomeId, int start, int end) {
+        byte[] bases = new byte[end - start];
+        ByteBuffer target = ByteBuffer.wrap(bases);
+        try {
+            stream(chromosomeId, start, end, target::put);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(bases, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Mapear la región del archivo que cubre [start, end) en ventanas de hasta {@link #MAP_WINDOW}
+     * bytes y entregar un slice por cada tramo de línea, omitiendo los saltos de línea.
+     */
+    @Override
+    public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException {
+        if (end <= start) {
+            return;
+        }
+        FaiRecord record = record(chromosomeId);
+        if (start < 0 || end > record.length()) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ")");
+        }
+        try (FileChannel channel = FileChannel.open(fastaPath(chromosomeId), StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                long fileStart = record.offsetOf(position);
+                long size = Math.min(MAP_WINDOW, record.offsetOf(end - 1) + 1 - fileStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, fileStart, size);
+                long cursor = 0;
+                while (position < end && cursor < size) {
+                    long inLine = position % record.lineBases();
+                    int segment = (int) Math.min(Math.min(end - position, record.lineBases() - inLine), size - cursor);
+                    consumer.accept(window.slice((int) cursor, segment));
+                    position += segment;
+                    cursor += segment;
+                    if (inLine + segment == record.lineBases()) {
+                        cursor += record.lineWidth() - record.lineBases();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtener la entrada .fai de un cromosoma, leyéndola del disco la primera vez.
+     */
+    private FaiRecord record(Long chromosomeId) throws IOException {
+        FaiRecord cached = index.get(chromosomeId);
+        if (cached != null) {
+            return cached;
+        }
+        String line = Files.readString(faiPath(chromosomeId), StandardCharsets.UTF_8).strip();
+        FaiRecord record = FaiRecord.parse(line);
+        index.put(chromosomeId, record);
+        return record;
+    }
+
+    private Path fastaPath(Long chromosomeId) {
+        return directory.resolve("chromosome-" + chromosomeId + ".fa");
+    }
+
+    private Path faiPath(Long chromosomeId) {
+        return directory.resolve("chromosome-" + chromosomeId + ".fa.fai");
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // El archivo temporal ya no es necesario
+        }
+    }
+
+    /**
+     * Escritor que vuelca las bases a un archivo temporal a medida que llegan.
+     */
+    private final class MappedWriter implements SequenceWriter {
+        private final Long chromosomeId;
+        private final String name;
+        private final Path tmpFasta;
+        private final OutputStream out;
+        private final long headerLength;
+        private long length;
+
+        MappedWriter(Long chromosomeId, String name) throws IOException {
+            this.chromosomeId = chromosomeId;
+            this.name = name;
+            Path fasta = fastaPath(chromosomeId);
+            this.tmpFasta = fasta.resolveSibling(fasta.getFileName() + ".tmp");
+            this.out = new BufferedOutputStream(Files.newOutputStream(tmpFasta), WRITE_BUFFER);
+            byte[] header = ('>' + name + '\n').getBytes(StandardCharsets.UTF_8);
+            out.write(header);
+            this.headerLength = header.length;
+        }
+
+        @Override
+        public void append(byte[] bases, int offset, int count) throws IOException {
+            for (int i = offset; i < offset + count; i++) {
+                byte c = bases[i];
+                if (c <= ' ' || c > '~') {
+                    throw new IllegalArgumentException("Invalid character '" + (char) (c & 0xFF)
+                            + "' at position " + (length + i - offset));
+                }
+            }
+            out.write(bases, offset, count);
+            length += count;
+        }
+
+        @Override
+        public long finish() throws IOException {
+            out.write('\n');
+            out.close();
+            Path fai = faiPath(chromosomeId);
+            Path tmpFai = fai.resolveSibling(fai.getFileName() + ".tmp");
+            FaiRecord record = new FaiRecord(name, length, headerLength, (int) length, (int) length + 1);
+            try {
+                Files.writeString(tmpFai, record.format(), StandardCharsets.UTF_8);
+                Files.move(tmpFasta, fastaPath(chromosomeId),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tmpFai, fai, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                index.put(chromosomeId, record);
+            } finally {
+                deleteQuietly(tmpFai);
+                deleteQuietly(tmpFasta);
+            }
+            return length;
+        }
+
+        @Override
+        public void abort() {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Se descarta el archivo temporal de todos modos
+            }
+            deleteQuietly(tmpFasta);
+        }
+    }
+}
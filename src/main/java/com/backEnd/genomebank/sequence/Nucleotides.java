@@ -0,0 +1,105 @@
+package com.backEnd.genomebank.sequence;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Operaciones sobre bases nucleotídicas representadas como bytes ASCII.
+ */
+public final class Nucleotides {
+
+    /** Bits de cada base en los conjuntos devueltos por {@link #baseSet(char)}. */
+    public static final int A = 1;
+    public static final int C = 2;
+    public static final int G = 4;
+    public static final int T = 8;
+
+    private static final byte[] COMPLEMENT = new byte[128];
+
+    static {
+        for (int i = 0; i < COMPLEMENT.length; i++) {
+            COMPLEMENT[i] = (byte) i;
+        }
+        complement('A', 'T');
+        complement('C', 'G');
+        // Códigos IUPAC ambiguos; S, W y N son su propio complemento
+        complement('R', 'Y');
+        complement('K', 'M');
+        complement('B', 'V');
+        complement('D', 'H');
+    }
+
+    private Nucleotides() {
+    }
+
+    /**
+     * Conjunto de bases que representa un código IUPAC (sin distinguir mayúsculas/minúsculas).
+     * @param code Código IUPAC (A, C, G, T, U, R, Y, S, W, K, M, B, D, H, V o N).
+     * @return Combinación de {@link #A}, {@link #C}, {@link #G} y {@link #T}, o 0 si no es un código IUPAC.
+     */
+    public static int baseSet(char code) {
+        return switch (Character.toUpperCase(code)) {
+            case 'A' -> A;
+            case 'C' -> C;
+            case 'G' -> G;
+            case 'T', 'U' -> T;
+            case 'R' -> A | G;
+            case 'Y' -> C | T;
+            case 'S' -> C | G;
+            case 'W' -> A | T;
+            case 'K' -> G | T;
+            case 'M' -> A | C;
+            case 'B' -> C | G | T;
+            case 'D' -> A | G | T;
+            case 'H' -> A | C | T;
+            case 'V' -> A | C | G;
+            case 'N' -> A | C | G | T;
+            default -> 0;
+        };
+    }
+
+    private static void complement(char a, char b) {
+        COMPLEMENT[a] = (byte) b;
+        COMPLEMENT[b] = (byte) a;
+        COMPLEMENT[Character.toLowerCase(a)] = (byte) Character.toLowerCase(b);
+        COMPLEMENT[Character.toLowerCase(b)] = (byte) Character.toLowerCase(a);
+    }
+
+    /**
+     * Complemento de una base, conservando mayúsculas/minúsculas (soft-masking).
+     * @param base Base como byte ASCII.
+     * @return Base complementaria.
+     */
+    public static byte complement(byte base) {
+        return base >= 0 ? COMPLEMENT[base] : base;
+    }
+
+    /**
+     * Calcular el reverso complementario de un tramo de bases, en el mismo arreglo.
+     * @param bases Arreglo con las bases.
+     * @param offset Posición de la primera base del tramo.
+     * @param length Número de bases del tramo.
+     */
+    public static void reverseComplement(byte[] bases, int offset, int length) {
+        int i = offset;
+        int j = offset + length - 1;
+        while (i < j) {
+            byte left = complement(bases[i]);
+            bases[i++] = complement(bases[j]);
+            bases[j--] = left;
+        }
+        if (i == j) {
+            bases[i] = complement(bases[i]);
+        }
+    }
+
+    /**
+     * Calcular el reverso complementario de una secuencia.
+     * @param sequence Secuencia de ADN.
+     * @return Reverso complementario.
+     */
+    public static String reverseComplement(String sequence) {
+        byte[] bases = sequence.getBytes(StandardCharsets.ISO_8859_1);
+        reverseComplement(bases, 0, bases.length);
+        return new String(bases, StandardCharsets.ISO_8859_1);
+    }
+}
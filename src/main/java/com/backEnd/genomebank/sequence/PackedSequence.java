@@ -0,0 +1,293 @@
+package com.backEnd.genomebank.sequence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Representación empaquetada de una secuencia de ADN.
+ * Las bases A, C, G y T se guardan con 2 bits cada una (4 bases por byte). Las bases N y los
+ * demás códigos IUPAC se guardan como una lista dispersa de tramos (inicio, longitud, código), y
+ * las bases en minúscula (soft-masking) como otra lista de tramos, de modo que la codificación
+ * no pierde información y la secuencia original se reconstruye exactamente.
+ */
+public final class PackedSequence {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 1 + 4 + 4 + 4;
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        CODES['A'] = 0;
+        CODES['C'] = 1;
+        CODES['G'] = 2;
+        CODES['T'] = 3;
+    }
+
+    private final int length;
+    private final byte[] packed;
+    private final int[] exceptionStarts;
+    private final int[] exceptionLengths;
+    private final byte[] exceptionCodes;
+    private final int[] maskStarts;
+    private final int[] maskLengths;
+
+    private PackedSequence(int length, byte[] packed,
+                           int[] exceptionStarts, int[] exceptionLengths, byte[] exceptionCodes,
+                           int[] maskStarts, int[] maskLengths) {
+        this.length = length;
+        this.packed = packed;
+        this.exceptionStarts = exceptionStarts;
+        this.exceptionLengths = exceptionLengths;
+        this.exceptionCodes = exceptionCodes;
+        this.maskStarts = maskStarts;
+        this.maskLengths = maskLengths;
+    }
+
+    /**
+     * Empaquetar una secuencia de texto.
+     * @param sequence Secuencia de ADN (ACGT, N u otros códigos IUPAC, mayúsculas o minúsculas).
+     * @return Secuencia empaquetada.
+     * @throws IllegalArgumentException si la secuencia contiene caracteres no imprimibles o no ASCII.
+     */
+    public static PackedSequence encode(CharSequence sequence) {
+        int length = sequence.length();
+        byte[] bases = new byte[length];
+        for (int i = 0; i < length; i++) {
+            char c = sequence.charAt(i);
+            if (c > '~') {
+                throw new IllegalArgumentException("Invalid character '" + c + "' at position " + i);
+            }
+            bases[i] = (byte) c;
+        }
+        return encode(bases, 0, length);
+    }
+
+    /**
+     * Empaquetar una secuencia dada como bytes ASCII (una base por byte).
+     * @param bases Arreglo con las bases.
+     * @param offset Posición de la primera base en el arreglo.
+     * @param length Número de bases a empaquetar.
+     * @return Secuencia empaquetada.
+     * @throws IllegalArgumentException si la secuencia contiene caracteres no imprimibles o no ASCII.
+     */
+    public static PackedSequence encode(byte[] bases, int offset, int length) {
+        byte[] packed = new byte[packedSize(length)];
+        RunList exceptions = new RunList(true);
+        RunList masks = new RunList(false);
+
+        for (int i = 0; i < length; i++) {
+            byte c = bases[offset + i];
+            if (c <= ' ' || c > '~') {
+                throw new IllegalArgumentException("Invalid character '" + (char) (c & 0xFF) + "' at position " + i);
+            }
+            boolean lower = c >= 'a' && c <= 'z';
+            byte upper = (byte) (lower ? c - 32 : c);
+            if (lower) {
+                masks.add(i, (byte) 0);
+            }
+            byte code = CODES[upper];
+            if (code < 0) {
+                exceptions.add(i, upper);
+            } else {
+                packed[i >>> 2] |= (byte) (code << shift(i));
+            }
+        }
+        return new PackedSequence(length, packed,
+                exceptions.starts(), exceptions.lengths(), exceptions.codes(),
+                masks.starts(), masks.lengths());
+    }
+
+    /**
+     * Reconstruir una secuencia empaquetada a partir de su forma serializada.
+     * @param bytes Bytes generados por {@link #toBytes()}.
+     * @return Secuencia empaquetada.
+     */
+    public static PackedSequence fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported packed sequence format " + version);
+        }
+        int length = buffer.getInt();
+        int exceptionCount = buffer.getInt();
+        int maskCount = buffer.getInt();
+
+        int[] exceptionStarts = new int[exceptionCount];
+        int[] exceptionLengths = new int[exceptionCount];
+        byte[] exceptionCodes = new byte[exceptionCount];
+        for (int i = 0; i < exceptionCount; i++) {
+            exceptionStarts[i] = buffer.getInt();
+            exceptionLengths[i] = buffer.getInt();
+            exceptionCodes[i] = buffer.get();
+        }
+        int[] maskStarts = new int[maskCount];
+        int[] maskLengths = new int[maskCount];
+        for (int i = 0; i < maskCount; i++) {
+            maskStarts[i] = buffer.getInt();
+            maskLengths[i] = buffer.getInt();
+        }
+        byte[] packed = new byte[packedSize(length)];
+        buffer.get(packed);
+        return new PackedSequence(length, packed,
+                exceptionStarts, exceptionLengths, exceptionCodes, maskStarts, maskLengths);
+    }
+
+    /**
+     * Serializar la secuencia empaquetada para guardarla en una columna BLOB.
+     * @return Bytes con cabecera, tramos de excepciones, tramos de máscara y bases empaquetadas.
+     */
+    public byte[] toBytes() {
+        int size = HEADER_BYTES
+                + exceptionStarts.length * 9
+                + maskStarts.length * 8
+                + packed.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(length);
+        buffer.putInt(exceptionStarts.length);
+        buffer.putInt(maskStarts.length);
+        for (int i = 0; i < exceptionStarts.length; i++) {
+            buffer.putInt(exceptionStarts[i]);
+            buffer.putInt(exceptionLengths[i]);
+            buffer.put(exceptionCodes[i]);
+        }
+        for (int i = 0; i < maskStarts.length; i++) {
+            buffer.putInt(maskStarts[i]);
+            buffer.putInt(maskLengths[i]);
+        }
+        buffer.put(packed);
+        return buffer.array();
+    }
+
+    /**
+     * @return Número de bases de la secuencia.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Reconstruir la secuencia completa.
+     * @return Secuencia como texto.
+     */
+    public String decode() {
+        return decode(0, length);
+    }
+
+    /**
+     * Reconstruir una subsecuencia sin decodificar el resto de la secuencia.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @return Subsecuencia como texto.
+     */
+    public String decode(int start, int end) {
+        byte[] bases = new byte[end - start];
+        decodeTo(start, end, bases, 0);
+        return new String(bases, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decodificar una subsecuencia como bytes ASCII en un arreglo existente.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @param dest Arreglo destino.
+     * @param offset Posición del arreglo destino donde se escribe la primera base.
+     */
+    public void decodeTo(int start, int end, byte[] dest, int offset) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ")");
+        }
+        for (int i = start; i < end; i++) {
+            dest[offset + i - start] = BASES[(packed[i >>> 2] >>> shift(i)) & 3];
+        }
+        for (int r = firstRunEndingAfter(exceptionStarts, exceptionLengths, start);
+             r < exceptionStarts.length && exceptionStarts[r] < end; r++) {
+            int from = Math.max(start, exceptionStarts[r]);
+            int to = Math.min(end, exceptionStarts[r] + exceptionLengths[r]);
+            Arrays.fill(dest, offset + from - start, offset + to - start, exceptionCodes[r]);
+        }
+        for (int r = firstRunEndingAfter(maskStarts, maskLengths, start);
+             r < maskStarts.length && maskStarts[r] < end; r++) {
+            int from = Math.max(start, maskStarts[r]);
+            int to = Math.min(end, maskStarts[r] + maskLengths[r]);
+            for (int i = from; i < to; i++) {
+                byte b = dest[offset + i - start];
+                if (b >= 'A' && b <= 'Z') {
+                    dest[offset + i - start] = (byte) (b + 32);
+                }
+            }
+        }
+    }
+
+    private static int packedSize(int length) {
+        return (length + 3) >>> 2;
+    }
+
+    private static int shift(int position) {
+        return 6 - ((position & 3) << 1);
+    }
+
+    /**
+     * Índice del primer tramo que termina después de la posición indicada (búsqueda binaria).
+     */
+    private static int firstRunEndingAfter(int[] starts, int[] lengths, int position) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] + lengths[mid] <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Acumulador de tramos contiguos usado durante la codificación.
+     */
+    private static final class RunList {
+        private final boolean keepCodes;
+        private int[] starts = new int[8];
+        private int[] lengths = new int[8];
+        private byte[] codes = new byte[8];
+        private int size;
+
+        RunList(boolean keepCodes) {
+            this.keepCodes = keepCodes;
+        }
+
+        void add(int position, byte code) {
+            if (size > 0 && starts[size - 1] + lengths[size - 1] == position
+                    && (!keepCodes || codes[size - 1] == code)) {
+                lengths[size - 1]++;
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            starts[size] = position;
+            lengths[size] = 1;
+            codes[size] = code;
+            size++;
+        }
+
+        int[] starts() {
+            return Arrays.copyOf(starts, size);
+        }
+
+        int[] lengths() {
+            return Arrays.copyOf(lengths, size);
+        }
+
+        byte[] codes() {
+            return Arrays.copyOf(codes, size);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.backEnd.genomebank.sequence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Almacenamiento de las bases de los cromosomas.
+ * MySQL guarda siempre los metadatos del Chromosome (nombre, longitud); las bases las guarda la
+ * implementación activa, elegida con la propiedad genomebank.sequence.backend:
+ * "blocks" (por defecto, bloques empaquetados en MySQL) o "mapped" (archivos FASTA locales
+ * con índice .fai, leídos mediante memory-mapping).
+ */
+public interface SequenceBackend {
+
+    /**
+     * Abrir una escritura incremental que reemplazará la secuencia de un cromosoma.
+     * @param chromosomeId ID del cromosoma.
+     * @param name Nombre del cromosoma, usado como identificador en los formatos que lo requieren.
+     * @return Escritor al que se agregan las bases por fragmentos.
+     */
+    SequenceWriter openWriter(Long chromosomeId, String name);
+
+    /**
+     * Reemplazar la secuencia de un cromosoma.
+     * @param chromosomeId ID del cromosoma.
+     * @param name Nombre del cromosoma, usado como identificador en los formatos que lo requieren.
+     * @param sequence Secuencia completa.
+     * @throws IllegalArgumentException si la secuencia contiene caracteres inválidos.
+     */
+    default void write(Long chromosomeId, String name, CharSequence sequence) {
+        SequenceWriter writer = openWriter(chromosomeId, name);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int length = sequence.length();
+            for (int from = 0; from < length; from += buffer.length) {
+                int count = Math.min(buffer.length, length - from);
+                for (int i = 0; i < count; i++) {
+                    char c = sequence.charAt(from + i);
+                    if (c > '~') {
+                        throw new IllegalArgumentException(
+                                "Invalid character '" + c + "' at position " + (from + i));
+                    }
+                    buffer[i] = (byte) c;
+                }
+                writer.append(buffer, 0, count);
+            }
+            writer.finish();
+        } catch (IOException e) {
+            writer.abort();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Eliminar la secuencia de un cromosoma, si existe.
+     * @param chromosomeId ID del cromosoma.
+     */
+    void delete(Long chromosomeId);
+
+    /**
+     * @param chromosomeId ID del cromosoma.
+     * @return true si el cromosoma tiene una secuencia almacenada.
+     */
+    boolean hasSequence(Long chromosomeId);
+
+    /**
+     * Leer un rango de la secuencia como texto.
+     * @param chromosomeId ID del cromosoma.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @return Subsecuencia en el rango indicado.
+     */
+    String read(Long chromosomeId, int start, int end);
+
+    /**
+     * Recorrer un rango de la secuencia por fragmentos, en orden y sin construir un String.
+     * @param chromosomeId ID del cromosoma.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @param consumer Receptor de los fragmentos.
+     */
+    void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException;
+}
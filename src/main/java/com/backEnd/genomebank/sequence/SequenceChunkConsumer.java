@@ -0,0 +1,13 @@
+package com.backEnd.genomebank.sequence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Receptor de fragmentos consecutivos de una secuencia (bytes ASCII, una base por byte).
+ * El buffer solo es válido durante la llamada; quien necesite conservarlo debe copiarlo.
+ */
+@FunctionalInterface
+public interface SequenceChunkConsumer {
+    void accept(ByteBuffer chunk) throws IOException;
+}
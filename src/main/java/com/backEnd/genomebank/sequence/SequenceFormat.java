@@ -0,0 +1,90 @@
+package com.backEnd.genomebank.sequence;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Formatos en los que se puede transmitir una secuencia por HTTP.
+ */
+public enum SequenceFormat {
+    JSON(MediaType.APPLICATION_JSON, "json"),
+    PLAIN(MediaType.TEXT_PLAIN, "text"),
+    FASTA(MediaType.parseMediaType("text/x-fasta"), "fasta");
+
+    private final MediaType mediaType;
+    private final String parameterValue;
+
+    SequenceFormat(MediaType mediaType, String parameterValue) {
+        this.mediaType = mediaType;
+        this.parameterValue = parameterValue;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Resolver el formato a partir del parámetro "format" o, si no se indica, de la cabecera Accept,
+     * respetando sus valores de calidad (q). Sin preferencia explícita se usa JSON, que es el
+     * contrato original de los endpoints.
+     * @param format Valor del parámetro "format" (json, text o fasta), opcional.
+     * @param accept Valor de la cabecera Accept, opcional.
+     * @return Formato a usar en la respuesta.
+     */
+    public static SequenceFormat resolve(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            for (SequenceFormat candidate : values()) {
+                if (candidate.parameterValue.equalsIgnoreCase(format.trim())) {
+                    return candidate;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported sequence format: " + format);
+        }
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        // Mayor calidad primero; a igual calidad, los tipos concretos antes que los comodines y,
+        // entre iguales, el orden de la cabecera (el ordenamiento es estable)
+        List<MediaType> sorted = new ArrayList<>(accepted);
+        sorted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+                .thenComparing(MediaType::isWildcardType)
+                .thenComparing(MediaType::isWildcardSubtype));
+        for (MediaType mediaType : sorted) {
+            if (mediaType.getQualityValue() == 0) {
+                // Los siguientes también tienen calidad 0
+                break;
+            }
+            for (SequenceFormat candidate : values()) {
+                if (mediaType.includes(candidate.mediaType) && !excluded(candidate, accepted)) {
+                    return candidate;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Si la cabecera rechaza el formato con q=0 (por ejemplo "text/*, text/plain;q=0").
+     */
+    private static boolean excluded(SequenceFormat candidate, List<MediaType> accepted) {
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0 && mediaType.includes(candidate.mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package com.backEnd.genomebank.sequence;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escribe una secuencia en un OutputStream a medida que llegan sus fragmentos, en formato
+ * JSON ({"sequence":"..."}), texto plano o FASTA, sin acumular la secuencia en memoria.
+ * La memoria usada es la del buffer de salida, independiente de la longitud de la secuencia.
+ */
+public class SequenceStreamWriter implements SequenceChunkConsumer {
+
+    public static final int FASTA_LINE_WIDTH = 60;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final SequenceFormat format;
+    private final byte[] scratch = new byte[8 * 1024];
+    private int column;
+
+    public SequenceStreamWriter(OutputStream out, SequenceFormat format) {
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+        this.format = format;
+    }
+
+    /**
+     * Escribir el encabezado del formato elegido.
+     * @param fastaHeader Línea de descripción FASTA (sin el carácter '>'), usada solo en formato FASTA.
+     */
+    public void begin(String fastaHeader) throws IOException {
+        switch (format) {
+            case JSON -> out.write("{\"sequence\":\"".getBytes(StandardCharsets.US_ASCII));
+            case FASTA -> out.write(('>' + fastaHeader + '\n').getBytes(StandardCharsets.UTF_8));
+            case PLAIN -> { }
+        }
+    }
+
+    @Override
+    public void accept(ByteBuffer chunk) throws IOException {
+        while (chunk.hasRemaining()) {
+            int length = Math.min(chunk.remaining(), scratch.length);
+            chunk.get(scratch, 0, length);
+            switch (format) {
+                case JSON -> writeJson(length);
+                case FASTA -> writeFasta(length);
+                case PLAIN -> out.write(scratch, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Cerrar el formato elegido y vaciar el buffer de salida.
+     */
+    public void finish() throws IOException {
+        switch (format) {
+            case JSON -> out.write("\"}".getBytes(StandardCharsets.US_ASCII));
+            case FASTA -> {
+                if (column > 0) {
+                    out.write('\n');
+                }
+            }
+            case PLAIN -> { }
+        }
+        out.flush();
+    }
+
+    private void writeJson(int length) throws IOException {
+        int from = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = scratch[i];
+            if (b == '"' || b == '\\') {
+                out.write(scratch, from, i - from);
+                out.write('\\');
+                from = i;
+            }
+        }
+        out.write(scratch, from, length - from);
+    }
+
+    private void writeFasta(int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int count = Math.min(length - offset, FASTA_LINE_WIDTH - column);
+            out.write(scratch, offset, count);
+            offset += count;
+            column += count;
+            if (column == FASTA_LINE_WIDTH) {
+                out.write('\n');
+                column = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.backEnd.genomebank.sequence;
+
+import java.io.IOException;
+
+/**
+ * Escritura incremental de la secuencia de un cromosoma en un {@link SequenceBackend}.
+ * Las bases se agregan por fragmentos; la secuencia solo queda visible al llamar a
+ * {@link #finish()}, y {@link #abort()} descarta lo escrito hasta el momento.
+ */
+public interface SequenceWriter {
+
+    /**
+     * Agregar bases al final de la secuencia.
+     * @param bases Arreglo con las bases (bytes ASCII).
+     * @param offset Posición de la primera base en el arreglo.
+     * @param length Número de bases a agregar.
+     * @throws IllegalArgumentException si hay caracteres inválidos.
+     */
+    void append(byte[] bases, int offset, int length) throws IOException;
+
+    /**
+     * Completar la escritura.
+     * @return Número total de bases escritas.
+     */
+    long finish() throws IOException;
+
+    /**
+     * Descartar la escritura en curso.
+     */
+    void abort();
+}
@@ -0,0 +1,18 @@
+package com.backEnd.genomebank.services;
+
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobInDTO;
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobOutDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface IAnalysisJobService {
+    AnalysisJobOutDTO crearTrabajo(AnalysisJobInDTO trabajo, String username);
+    List<AnalysisJobOutDTO> listarTrabajos(String username);
+    AnalysisJobOutDTO obtenerTrabajo(Long jobId, String username, boolean admin);
+    AnalysisJobOutDTO cancelarTrabajo(Long jobId, String username, boolean admin);
+    void eliminarTrabajo(Long jobId, String username, boolean admin);
+    AnalysisJobOutDTO prepararResultado(Long jobId, String username, boolean admin);
+    void transmitirResultado(Long jobId, OutputStream out) throws IOException;
+}
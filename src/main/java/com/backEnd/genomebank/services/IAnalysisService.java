@@ -1,10 +1,56 @@
 package com.backEnd.genomebank.services;
 
+import com.backEnd.genomebank.analysis.AlignmentEngine;
+import com.backEnd.genomebank.analysis.CompositionEngine;
+import com.backEnd.genomebank.analysis.GenomicRegion;
+import com.backEnd.genomebank.analysis.IntervalAlgebra;
+import com.backEnd.genomebank.analysis.KmerCounter;
+import com.backEnd.genomebank.analysis.MotifSearchEngine;
+import com.backEnd.genomebank.analysis.OrfFinder;
 import com.backEnd.genomebank.dto.analysis.*;
+import com.backEnd.genomebank.dto.chromosome.ChromosomeOutDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.DoubleConsumer;
 
 public interface IAnalysisService {
     List<GeneRangeDTO> obtenerGenesPorRango(Long chromosomeId, Integer start, Integer end);
+    List<GenomicRegion> prepararConsultaRegiones(GeneBatchInDTO consulta);
+    List<GenomicRegion> prepararConsultaRegionesBed(Long genomeId, InputStream bed) throws IOException;
+    void transmitirGenesPorRegiones(List<GenomicRegion> regions, OutputStream out) throws IOException;
+    NearestGenesDTO obtenerGenesCercanos(Long chromosomeId, Integer start, Integer end, Integer k, Character strand);
+    void transmitirGenesCercanos(List<GenomicRegion> regions, int k, OutputStream out) throws IOException;
+    IntervalAlgebra.Search prepararOperacionIntervalos(String operacion, IntervalOperationInDTO consulta);
+    void transmitirOperacionIntervalos(IntervalAlgebra.Search search, OutputStream out) throws IOException;
     Optional<SequenceStatsDTO> obtenerEstadisticasSecuencia(Long chromosomeId);
+    List<CompositionEngine.Target> prepararComposicion(CompositionInDTO consulta);
+    void transmitirComposicion(List<CompositionEngine.Target> targets, OutputStream out,
+                               DoubleConsumer progress) throws IOException;
+    Optional<RangeStatsDTO> obtenerEstadisticasRango(Long chromosomeId, Integer start, Integer end);
+    Optional<ZoomSummaryDTO> obtenerResumenZoom(Long chromosomeId, Integer start, Integer end, Integer bins);
+    KmerCounter.Request prepararConteoKmers(Long chromosomeId, Long genomeId, Integer k, boolean canonical,
+                                            Integer top, List<String> kmers);
+    KmerCountsDTO contarKmers(KmerCounter.Request request);
+    KmerCountsDTO contarKmers(KmerCounter.Request request, DoubleConsumer progress);
+    void transmitirPistaGc(ChromosomeOutDTO chromosome, int window, int step, OutputStream out) throws IOException;
+    MotifSearchEngine.Search prepararBusquedaMotivos(MotifSearchInDTO busqueda);
+    void transmitirBusquedaMotivos(MotifSearchEngine.Search search, OutputStream out) throws IOException;
+    void transmitirBusquedaMotivos(MotifSearchEngine.Search search, OutputStream out,
+                                   DoubleConsumer progress) throws IOException;
+    OrfFinder.Search prepararBusquedaOrfs(OrfSearchInDTO busqueda);
+    void transmitirOrfs(OrfFinder.Search search, OutputStream out) throws IOException;
+    void transmitirOrfs(OrfFinder.Search search, OutputStream out, DoubleConsumer progress) throws IOException;
+    SequenceSearchDTO buscarSecuencia(Long genomeId, String query, Integer limit);
+    FmIndexStatusDTO obtenerEstadoIndice(Long genomeId);
+    FmIndexStatusDTO construirIndice(Long genomeId);
+    AlignmentEngine.Request prepararAlineamiento(AlignmentInDTO alineamiento);
+    AlignmentResultDTO alinearSecuencia(AlignmentEngine.Request request);
+    AlignmentResultDTO alinearSecuencia(AlignmentEngine.Request request, DoubleConsumer progress);
+    SimilaritySearchDTO buscarSimilares(SimilaritySearchInDTO busqueda);
+    MinimizerIndexStatusDTO obtenerEstadoIndiceMinimizadores(Long genomeId);
+    MinimizerIndexStatusDTO construirIndiceMinimizadores(Long genomeId);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.backEnd.genomebank.services;
 
 import com.backEnd.genomebank.dto.chromosome.*;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +15,8 @@ public interface IChromosomeService {
     boolean eliminarChromosome(Long id);
 
     // Métodos para gestión de secuencias
-    Optional<String> obtenerSecuenciaCompleta(Long chromosomeId);
     Optional<String> obtenerSecuenciaPorRango(Long chromosomeId, Integer start, Integer end);
     Optional<ChromosomeOutDTO> actualizarSecuencia(Long chromosomeId, String sequence);
+    boolean tieneSecuencia(Long chromosomeId);
+    void transmitirSecuencia(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException;
 }
\ No newline at end of file
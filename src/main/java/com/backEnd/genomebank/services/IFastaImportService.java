@@ -0,0 +1,9 @@
+package com.backEnd.genomebank.services;
+
+import com.backEnd.genomebank.dto.genome.GenomeImportOutDTO;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IFastaImportService {
+    GenomeImportOutDTO importarGenoma(Long speciesId, String version, String description, InputStream fasta) throws IOException;
+}
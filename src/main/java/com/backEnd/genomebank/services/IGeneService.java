@@ -1,6 +1,8 @@
 package com.backEnd.genomebank.services;
 
 import com.backEnd.genomebank.dto.gene.*;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +17,8 @@ public interface IGeneService {
     boolean eliminarGene(Long id);
 
     // Métodos para gestión de secuencias
-    Optional<String> obtenerSecuenciaGene(Long geneId);
     Optional<GeneOutDTO> actualizarSecuenciaGene(Long geneId, String sequence);
+    boolean eliminarSecuenciaGene(Long geneId);
+    boolean tieneSecuenciaGene(Long geneId);
+    void transmitirSecuenciaGene(Long geneId, SequenceChunkConsumer consumer) throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.backEnd.genomebank.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IGenomeExportService {
+    void exportarFasta(Long genomeId, OutputStream out) throws IOException;
+    void exportarBgzip(Long genomeId, OutputStream out) throws IOException;
+    String generarIndiceFai(Long genomeId);
+    void exportarIndiceGzi(Long genomeId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,529 @@
+package com.backEnd.genomebank.services.impl;
+
+import com.backEnd.genomebank.analysis.AlignmentEngine;
+import com.backEnd.genomebank.analysis.CompositionEngine;
+import com.backEnd.genomebank.analysis.KmerCounter;
+import com.backEnd.genomebank.analysis.MotifSearchEngine;
+import com.backEnd.genomebank.analysis.OrfFinder;
+import com.backEnd.genomebank.dto.analysis.AlignmentInDTO;
+import com.backEnd.genomebank.dto.analysis.CompositionInDTO;
+import com.backEnd.genomebank.dto.analysis.KmerCountInDTO;
+import com.backEnd.genomebank.dto.analysis.MotifSearchInDTO;
+import com.backEnd.genomebank.dto.analysis.OrfSearchInDTO;
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobInDTO;
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobOutDTO;
+import com.backEnd.genomebank.entities.AnalysisJob;
+import com.backEnd.genomebank.repositories.AnalysisJobRepository;
+import com.backEnd.genomebank.services.IAnalysisJobService;
+import com.backEnd.genomebank.services.IAnalysisService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Análisis en segundo plano: cada trabajo se valida al pedirlo, igual que en el endpoint síncrono,
+ * y se ejecuta después en el pool de trabajos, sin retener un hilo de Tomcat ni una conexión a la
+ * base de datos mientras dura. El resultado se escribe comprimido en job-{id}.gz, en el directorio
+ * configurado, y el estado queda en la tabla analysis_jobs.
+ * <p>
+ * Cada usuario puede tener un número limitado de trabajos en cola o en ejecución, y pedir de nuevo
+ * un análisis idéntico a uno propio que todavía no terminó devuelve ese mismo trabajo. El avance de
+ * los trabajos en ejecución se lleva en memoria y solo se guarda al terminar. Los trabajos que un
+ * reinicio deja a medias se marcan como fallidos al arrancar.
+ */
+@Slf4j
+@Service
+public class AnalysisJobServiceImpl implements IAnalysisJobService {
+
+    private static final int MAX_ERROR_LENGTH = 1_000;
+    /** Tamaño máximo de la columna parameters (MEDIUMTEXT), en bytes. */
+    private static final int MAX_PARAMETERS_LENGTH = 16_777_215;
+
+    private final AnalysisJobRepository analysisJobRepository;
+    private final IAnalysisService analysisService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService analysisJobExecutor;
+    private final Path directory;
+    private final int maxPerUser;
+    // Trabajos en cola o en ejecución, por ID y por usuario y petición; se modifican bajo lock
+    private final Map<Long, RunningJob> active = new HashMap<>();
+    private final Map<String, Long> inFlight = new HashMap<>();
+    private final Object lock = new Object();
+
+    public AnalysisJobServiceImpl(AnalysisJobRepository analysisJobRepository,
+                                  IAnalysisService analysisService,
+                                  ObjectMapper objectMapper,
+                                  @Qualifier("analysisJobExecutor") ExecutorService analysisJobExecutor,
+                                  @Value("${genomebank.analysis.jobs.directory:analysis-jobs}") String directory,
+                                  @Value("${genomebank.analysis.jobs.max-per-user:2}") int maxPerUser)
+            throws IOException {
+        this.analysisJobRepository = analysisJobRepository;
+        this.analysisService = analysisService;
+        this.objectMapper = objectMapper;
+        this.analysisJobExecutor = analysisJobExecutor;
+        this.directory = Path.of(directory);
+        this.maxPerUser = maxPerUser;
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * Análisis listo para ejecutarse, con la salida y el receptor del avance.
+     */
+    @FunctionalInterface
+    private interface Task {
+        void run(OutputStream out, DoubleConsumer progress) throws IOException;
+    }
+
+    private static final class RunningJob {
+        private final String username;
+        private final String key;
+        private FutureTask<Void> future;
+        private boolean started;
+        private volatile boolean cancelled;
+        private volatile double progress;
+
+        RunningJob(String username, String key) {
+            this.username = username;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Validar un análisis y ponerlo en la cola de trabajos.
+     * @param trabajo Tipo de análisis y sus parámetros, los mismos del endpoint síncrono.
+     * @param username Usuario que lo pide.
+     * @return AnalysisJobOutDTO del trabajo creado, o del trabajo idéntico que el usuario ya tenía
+     * en curso.
+     */
+    @Override
+    public AnalysisJobOutDTO crearTrabajo(AnalysisJobInDTO trabajo, String username) {
+        AnalysisJob.Type type;
+        try {
+            type = AnalysisJob.Type.valueOf(String.valueOf(trabajo.getType()).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "type must be one of KMER_COUNT, MOTIF_SEARCH, ORF_SEARCH, ALIGNMENT or COMPOSITION");
+        }
+        if (trabajo.getParameters() == null || !trabajo.getParameters().isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "parameters must be a JSON object");
+        }
+        Object parameters;
+        Task task;
+        String resultType;
+        try {
+            switch (type) {
+                case KMER_COUNT -> {
+                    KmerCountInDTO conteo = objectMapper.treeToValue(trabajo.getParameters(), KmerCountInDTO.class);
+                    if (conteo.getK() == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "k is required");
+                    }
+                    KmerCounter.Request request = analysisService.prepararConteoKmers(conteo.getChromosomeId(),
+                            conteo.getGenomeId(), conteo.getK(), Boolean.TRUE.equals(conteo.getCanonical()),
+                            conteo.getTop() != null ? conteo.getTop() : 20, conteo.getKmers());
+                    parameters = conteo;
+                    task = (out, progress) -> objectMapper.writeValue(out,
+                            analysisService.contarKmers(request, progress));
+                    resultType = MediaType.APPLICATION_JSON_VALUE;
+                }
+                case MOTIF_SEARCH -> {
+                    MotifSearchInDTO busqueda = objectMapper.treeToValue(trabajo.getParameters(), MotifSearchInDTO.class);
+                    MotifSearchEngine.Search search = analysisService.prepararBusquedaMotivos(busqueda);
+                    parameters = busqueda;
+                    task = (out, progress) -> analysisService.transmitirBusquedaMotivos(search, out, progress);
+                    resultType = MediaType.APPLICATION_NDJSON_VALUE;
+                }
+                case ORF_SEARCH -> {
+                    OrfSearchInDTO busqueda = objectMapper.treeToValue(trabajo.getParameters(), OrfSearchInDTO.class);
+                    OrfFinder.Search search = analysisService.prepararBusquedaOrfs(busqueda);
+                    parameters = busqueda;
+                    task = (out, progress) -> analysisService.transmitirOrfs(search, out, progress);
+                    resultType = MediaType.APPLICATION_NDJSON_VALUE;
+                }
+                case COMPOSITION -> {
+                    CompositionInDTO consulta = objectMapper.treeToValue(trabajo.getParameters(), CompositionInDTO.class);
+                    List<CompositionEngine.Target> targets = analysisService.prepararComposicion(consulta);
+                    parameters = consulta;
+                    task = (out, progress) -> analysisService.transmitirComposicion(targets, out, progress);
+                    resultType = MediaType.APPLICATION_NDJSON_VALUE;
+                }
+                default -> {
+                    AlignmentInDTO alineamiento = objectMapper.treeToValue(trabajo.getParameters(), AlignmentInDTO.class);
+                    AlignmentEngine.Request request = analysisService.prepararAlineamiento(alineamiento);
+                    parameters = alineamiento;
+                    task = (out, progress) -> objectMapper.writeValue(out,
+                            analysisService.alinearSecuencia(request, progress));
+                    resultType = MediaType.APPLICATION_JSON_VALUE;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid parameters for " + type + ": " + e.getOriginalMessage());
+        }
+
+        String json;
+        try {
+            // Los DTOs se serializan siempre con el mismo orden de campos: peticiones iguales dan el mismo JSON
+            json = objectMapper.writeValueAsString(parameters);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize job parameters", e);
+        }
+        if (json.getBytes(StandardCharsets.UTF_8).length > MAX_PARAMETERS_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "parameters must be at most " + MAX_PARAMETERS_LENGTH + " bytes");
+        }
+        String key = username + '\n' + type + '\n' + json;
+        synchronized (lock) {
+            Long existing = inFlight.get(key);
+            if (existing != null) {
+                return analysisJobRepository.findById(existing).map(this::convertToDTO)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found"));
+            }
+            long running = active.values().stream().filter(job -> job.username.equals(username)).count();
+            if (running >= maxPerUser) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "At most " + maxPerUser + " queued or running jobs per user");
+            }
+            AnalysisJob job = new AnalysisJob();
+            job.setType(type);
+            job.setStatus(AnalysisJob.Status.QUEUED);
+            job.setUsername(username);
+            job.setParameters(json);
+            job.setResultType(resultType);
+            job.setCreatedAt(LocalDateTime.now());
+            AnalysisJob saved = analysisJobRepository.save(job);
+            Long jobId = saved.getId();
+
+            RunningJob runningJob = new RunningJob(username, key);
+            runningJob.future = new FutureTask<>(() -> {
+                run(jobId, runningJob, task);
+                return null;
+            });
+            try {
+                analysisJobExecutor.execute(runningJob.future);
+            } catch (RejectedExecutionException e) {
+                analysisJobRepository.deleteById(jobId);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "The job queue is full; retry later");
+            }
+            active.put(jobId, runningJob);
+            inFlight.put(key, jobId);
+            return convertToDTO(saved);
+        }
+    }
+
+    /**
+     * Listar los trabajos más recientes de un usuario.
+     * @param username Usuario.
+     * @return Hasta 100 trabajos, del más reciente al más antiguo.
+     */
+    @Override
+    public List<AnalysisJobOutDTO> listarTrabajos(String username) {
+        return analysisJobRepository.findTop100ByUsernameOrderByIdDesc(username).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtener el estado y el avance de un trabajo.
+     * @param jobId ID del trabajo.
+     * @param username Usuario que lo consulta.
+     * @param admin Si el usuario es administrador (puede ver los trabajos de todos).
+     * @return AnalysisJobOutDTO del trabajo.
+     */
+    @Override
+    public AnalysisJobOutDTO obtenerTrabajo(Long jobId, String username, boolean admin) {
+        return convertToDTO(find(jobId, username, admin));
+    }
+
+    /**
+     * Cancelar un trabajo en cola o en ejecución. Un trabajo en cola no llega a ejecutarse; uno en
+     * ejecución se interrumpe y su resultado parcial se descarta. Cancelar un trabajo terminado no
+     * tiene efecto.
+     * @param jobId ID del trabajo.
+     * @param username Usuario que lo cancela.
+     * @param admin Si el usuario es administrador.
+     * @return AnalysisJobOutDTO con el estado después de cancelarlo.
+     */
+    @Override
+    public AnalysisJobOutDTO cancelarTrabajo(Long jobId, String username, boolean admin) {
+        find(jobId, username, admin);
+        synchronized (lock) {
+            RunningJob runningJob = active.get(jobId);
+            if (runningJob != null) {
+                runningJob.cancelled = true;
+                runningJob.future.cancel(true);
+                // Si todavía no empezó, no va a empezar: se cierra aquí
+                if (!runningJob.started) {
+                    release(jobId, runningJob);
+                    update(jobId, job -> {
+                        job.setStatus(AnalysisJob.Status.CANCELLED);
+                        job.setFinishedAt(LocalDateTime.now());
+                    });
+                }
+            }
+        }
+        return convertToDTO(find(jobId, username, admin));
+    }
+
+    /**
+     * Eliminar un trabajo terminado y su resultado.
+     * @param jobId ID del trabajo.
+     * @param username Usuario que lo elimina.
+     * @param admin Si el usuario es administrador.
+     */
+    @Override
+    public void eliminarTrabajo(Long jobId, String username, boolean admin) {
+        find(jobId, username, admin);
+        synchronized (lock) {
+            if (active.containsKey(jobId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "The job has not finished; cancel it first");
+            }
+            analysisJobRepository.deleteById(jobId);
+        }
+        try {
+            Files.deleteIfExists(resultPath(jobId));
+        } catch (IOException e) {
+            log.warn("Could not delete the result of job {}", jobId, e);
+        }
+    }
+
+    /**
+     * Comprobar que el resultado de un trabajo se puede descargar, antes de empezar a transmitirlo.
+     * @param jobId ID del trabajo.
+     * @param username Usuario que lo pide.
+     * @param admin Si el usuario es administrador.
+     * @return AnalysisJobOutDTO del trabajo, con el tipo de contenido del resultado.
+     */
+    @Override
+    public AnalysisJobOutDTO prepararResultado(Long jobId, String username, boolean admin) {
+        AnalysisJob job = find(jobId, username, admin);
+        if (job.getStatus() != AnalysisJob.Status.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The job is " + job.getStatus());
+        }
+        if (!Files.exists(resultPath(jobId))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Result not available");
+        }
+        return convertToDTO(job);
+    }
+
+    /**
+     * Escribir el resultado de un trabajo, descomprimido.
+     * @param jobId ID del trabajo, comprobado con {@link #prepararResultado}.
+     * @param out Destino del resultado.
+     */
+    @Override
+    public void transmitirResultado(Long jobId, OutputStream out) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(resultPath(jobId)), 64 * 1024)) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * Marcar como fallidos los trabajos que quedaron en cola o en ejecución al detenerse la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        for (AnalysisJob job : analysisJobRepository.findByStatusIn(
+                List.of(AnalysisJob.Status.QUEUED, AnalysisJob.Status.RUNNING))) {
+            synchronized (lock) {
+                // El servidor ya acepta peticiones: los trabajos de este arranque no se tocan
+                if (active.containsKey(job.getId())) {
+                    continue;
+                }
+            }
+            job.setStatus(AnalysisJob.Status.FAILED);
+            job.setError("Interrupted by an application restart");
+            job.setFinishedAt(LocalDateTime.now());
+            analysisJobRepository.save(job);
+        }
+    }
+
+    private void run(Long jobId, RunningJob runningJob, Task task) {
+        synchronized (lock) {
+            if (runningJob.cancelled) {
+                return;
+            }
+            runningJob.started = true;
+        }
+        update(jobId, job -> {
+            job.setStatus(AnalysisJob.Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+        });
+        Path partial = directory.resolve("job-" + jobId + ".gz.part");
+        AnalysisJob.Status status;
+        String error = null;
+        long size = 0;
+        try {
+            CancellableOutputStream counting;
+            try (GZIPOutputStream gzip = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+                counting = new CancellableOutputStream(gzip, runningJob);
+                task.run(counting, progress -> runningJob.progress = Math.min(1, Math.max(0, progress)));
+                counting.flush();
+            }
+            if (runningJob.cancelled) {
+                throw new InterruptedIOException("Job cancelled");
+            }
+            Files.move(partial, resultPath(jobId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            size = counting.count;
+            status = AnalysisJob.Status.SUCCEEDED;
+        } catch (Exception e) {
+            if (runningJob.cancelled) {
+                status = AnalysisJob.Status.CANCELLED;
+            } else {
+                status = AnalysisJob.Status.FAILED;
+                error = e instanceof ResponseStatusException responseStatus && responseStatus.getReason() != null
+                        ? responseStatus.getReason() : String.valueOf(e.getMessage());
+                log.warn("Analysis job {} failed", jobId, e);
+            }
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException deleteError) {
+                log.warn("Could not delete the partial result of job {}", jobId, deleteError);
+            }
+        }
+        synchronized (lock) {
+            release(jobId, runningJob);
+        }
+        // Una cancelación interrumpe el hilo; fuera de active ya no puede llegar otra, así que la
+        // marca se limpia aquí, justo antes de guardar el estado
+        Thread.interrupted();
+        AnalysisJob.Status finalStatus = status;
+        String finalError = error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        long finalSize = size;
+        update(jobId, job -> {
+            job.setStatus(finalStatus);
+            job.setError(finalError);
+            job.setFinishedAt(LocalDateTime.now());
+            if (finalStatus == AnalysisJob.Status.SUCCEEDED) {
+                job.setProgress(1.0);
+                job.setResultSize(finalSize);
+            } else {
+                job.setProgress(runningJob.progress);
+            }
+        });
+    }
+
+    private void release(Long jobId, RunningJob runningJob) {
+        active.remove(jobId);
+        inFlight.remove(runningJob.key, jobId);
+    }
+
+    private void update(Long jobId, Consumer<AnalysisJob> change) {
+        analysisJobRepository.findById(jobId).ifPresent(job -> {
+            change.accept(job);
+            analysisJobRepository.save(job);
+        });
+    }
+
+    /**
+     * Obtener un trabajo visible para el usuario; los de otros usuarios se responden como inexistentes.
+     */
+    private AnalysisJob find(Long jobId, String username, boolean admin) {
+        return analysisJobRepository.findById(jobId)
+                .filter(job -> admin || job.getUsername().equals(username))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found"));
+    }
+
+    private Path resultPath(Long jobId) {
+        return directory.resolve("job-" + jobId + ".gz");
+    }
+
+    private AnalysisJobOutDTO convertToDTO(AnalysisJob job) {
+        AnalysisJobOutDTO dto = new AnalysisJobOutDTO();
+        dto.setId(job.getId());
+        dto.setType(job.getType().name());
+        dto.setStatus(job.getStatus().name());
+        dto.setUsername(job.getUsername());
+        try {
+            dto.setParameters(objectMapper.readTree(job.getParameters()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid parameters stored for job " + job.getId(), e);
+        }
+        double progress = job.getProgress() != null ? job.getProgress() : 0;
+        synchronized (lock) {
+            RunningJob runningJob = active.get(job.getId());
+            if (runningJob != null) {
+                progress = runningJob.progress;
+            }
+        }
+        dto.setProgress(Math.round(progress * 10_000) / 100.0);
+        dto.setResultType(job.getResultType());
+        dto.setResultSize(job.getResultSize());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    /**
+     * Salida de un trabajo que cuenta los bytes escritos y falla en cuanto el trabajo se cancela,
+     * para que los análisis que transmiten su resultado se detengan sin esperar a terminar.
+     */
+    private static final class CancellableOutputStream extends FilterOutputStream {
+        private final RunningJob runningJob;
+        private long count;
+
+        CancellableOutputStream(OutputStream out, RunningJob runningJob) {
+            super(out);
+            this.runningJob = runningJob;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            check();
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            check();
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private void check() throws IOException {
+            if (runningJob.cancelled) {
+                throw new InterruptedIOException("Job cancelled");
+            }
+        }
+
+        @Override
+        public void close() {
+            // El archivo lo cierra quien lo abrió
+        }
+    }
+}
@@ -1,52 +1,571 @@
 package com.backEnd.genomebank.services.impl;
 
+import com.backEnd.genomebank.analysis.AlignmentEngine;
+import com.backEnd.genomebank.analysis.BaseComposition;
+import com.backEnd.genomebank.analysis.CompositionEngine;
+import com.backEnd.genomebank.analysis.CompositionIndex;
+import com.backEnd.genomebank.analysis.CompositionIndexStore;
+import com.backEnd.genomebank.analysis.FmIndexStore;
+import com.backEnd.genomebank.analysis.GcTrackEngine;
+import com.backEnd.genomebank.analysis.GeneIntervalIndex;
+import com.backEnd.genomebank.analysis.GeneIntervals;
+import com.backEnd.genomebank.analysis.GenomicRegion;
+import com.backEnd.genomebank.analysis.GenomeFmIndex;
+import com.backEnd.genomebank.analysis.GenomeMinimizerIndex;
+import com.backEnd.genomebank.analysis.IndexedChromosome;
+import com.backEnd.genomebank.analysis.IntervalAlgebra;
+import com.backEnd.genomebank.analysis.KmerCounter;
+import com.backEnd.genomebank.analysis.KmerCounts;
+import com.backEnd.genomebank.analysis.MinimizerIndexStore;
+import com.backEnd.genomebank.analysis.MotifMatcher;
+import com.backEnd.genomebank.analysis.MotifSearchEngine;
+import com.backEnd.genomebank.analysis.OrfFinder;
+import com.backEnd.genomebank.analysis.SimilaritySearchEngine;
+import com.backEnd.genomebank.analysis.SmithWaterman;
+import com.backEnd.genomebank.analysis.ZoomLevel;
+import com.backEnd.genomebank.analysis.ZoomSummaryStore;
+import com.backEnd.genomebank.analysis.SequenceStatsCache;
 import com.backEnd.genomebank.dto.analysis.*;
+import com.backEnd.genomebank.dto.chromosome.ChromosomeOutDTO;
+import com.backEnd.genomebank.entities.Chromosome;
 import com.backEnd.genomebank.entities.Gene;
+import com.backEnd.genomebank.entities.GeneFunction;
 import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.FunctionRepository;
+import com.backEnd.genomebank.repositories.GeneFunctionRepository;
 import com.backEnd.genomebank.repositories.GeneRepository;
+import com.backEnd.genomebank.repositories.GenomeRepository;
+import com.backEnd.genomebank.sequence.BedReader;
+import com.backEnd.genomebank.sequence.BedRecord;
+import com.backEnd.genomebank.sequence.Nucleotides;
+import com.backEnd.genomebank.sequence.SequenceBackend;
 import com.backEnd.genomebank.services.IAnalysisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.DoubleConsumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AnalysisServiceImpl implements IAnalysisService {
 
+    private static final int MAX_ZOOM_BINS = 10_000;
+    private static final int MAX_TOP_KMERS = 1_000;
+    private static final int MAX_KMER_LOOKUPS = 100;
+    private static final int MAX_MOTIFS = 1_000;
+    private static final int DEFAULT_MOTIF_HIT_LIMIT = 100_000;
+    private static final int MAX_MOTIF_HIT_LIMIT = 10_000_000;
+    private static final int MAX_SEARCH_QUERY = 10_000;
+    private static final int MAX_SEARCH_LOCATIONS = 10_000;
+    private static final int MAX_ALIGNMENT_QUERY = 10_000;
+    private static final int MAX_ALIGNMENT_REGION = 10_000_000;
+    private static final int MAX_ALIGNMENT_TARGETS = 50_000;
+    private static final int MAX_ALIGNMENT_HITS = 10_000;
+    private static final int MAX_ALIGNMENT_PENALTY = 100;
+    private static final int MAX_ALIGNMENT_TIMEOUT_MILLIS = 60_000;
+    private static final int MAX_SIMILARITY_HITS = 1_000;
+    private static final int MAX_SEED_OCCURRENCES = 500;
+    private static final int DEFAULT_ORF_LIMIT = 100_000;
+    private static final int MAX_ORF_LIMIT = 10_000_000;
+    private static final int MIN_ORF_LENGTH = 6;
+    private static final int MAX_CODONS = 64;
+    private static final int MAX_BATCH_REGIONS = 100_000;
+    private static final Comparator<GenomicRegion> REGION_ORDER = Comparator.comparing(GenomicRegion::chromosomeId)
+            .thenComparingInt(GenomicRegion::start)
+            .thenComparingInt(GenomicRegion::index);
+
     private final GeneRepository geneRepository;
     private final ChromosomeRepository chromosomeRepository;
+    private final GenomeRepository genomeRepository;
+    private final FunctionRepository functionRepository;
+    private final GeneFunctionRepository geneFunctionRepository;
+    private final SequenceBackend sequenceBackend;
+    private final SequenceStatsCache statsCache;
+    private final GeneIntervalIndex geneIntervalIndex;
+    private final CompositionEngine compositionEngine;
+    private final CompositionIndexStore compositionIndexStore;
+    private final GcTrackEngine gcTrackEngine;
+    private final ZoomSummaryStore zoomSummaryStore;
+    private final KmerCounter kmerCounter;
+    private final MotifSearchEngine motifSearchEngine;
+    private final FmIndexStore fmIndexStore;
+    private final AlignmentEngine alignmentEngine;
+    private final MinimizerIndexStore minimizerIndexStore;
+    private final SimilaritySearchEngine similaritySearchEngine;
+    private final OrfFinder orfFinder;
+    private final IntervalAlgebra intervalAlgebra;
+    private final ObjectMapper objectMapper;
     /**
-     * Obtener genes que se encuentran dentro de un rango específico en un cromosoma.
+     * Obtener genes que se encuentran dentro de un rango específico en un cromosoma. Se responde
+     * con el índice de intervalos en memoria; la base de datos solo se consulta para comprobar que
+     * el cromosoma existe antes de validar el rango.
      * @param chromosomeId ID del cromosoma.
      * @param start Posición inicial del rango.
      * @param end Posición final del rango.
      * @return Lista de GeneRangeDTO que representan los genes en el rango especificado.
      */
     @Override
-    @Transactional(readOnly = true)
     public List<GeneRangeDTO> obtenerGenesPorRango(Long chromosomeId, Integer start, Integer end) {
         // Verificar que el cromosoma existe
-        chromosomeRepository.findById(chromosomeId)
+        if (!chromosomeRepository.existsById(chromosomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Chromosome not found");
+        }
+
+        if (start < 0 || start >= end) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid range: start must be less than end and non-negative");
+        }
+
+        // Vacío si el cromosoma se eliminó después de la verificación
+        GeneIntervals genes = geneIntervalIndex.find(chromosomeId, start, end)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Chromosome not found"));
+        return convertToRangeDTOs(genes, genes.overlapping(start, end));
+    }
+    /**
+     * Validar las regiones de una consulta de genes por lotes y resolver sus cromosomas con una
+     * sola consulta, antes de empezar a transmitir la respuesta.
+     * @param consulta Regiones (cromosoma, inicio, fin y nombre opcional).
+     * @return Regiones ordenadas por cromosoma e inicio, listas para {@link #transmitirGenesPorRegiones}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<GenomicRegion> prepararConsultaRegiones(GeneBatchInDTO consulta) {
+        List<GenomicRegion> resolved = resolverRegiones(consulta.getRegions());
+        resolved.sort(REGION_ORDER);
+        return resolved;
+    }
 
+    /**
+     * Validar una lista de regiones y resolver sus cromosomas con una sola consulta.
+     * @return Regiones en el orden recibido.
+     */
+    private List<GenomicRegion> resolverRegiones(List<GeneRegionInDTO> regions) {
+        if (regions == null || regions.isEmpty() || regions.size() > MAX_BATCH_REGIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BATCH_REGIONS + " regions are required");
+        }
+        for (GeneRegionInDTO region : regions) {
+            if (region.getChromosomeId() == null || region.getStart() == null || region.getEnd() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Each region requires chromosomeId, start and end");
+            }
+        }
+        Map<Long, String> names = new HashMap<>();
+        for (Chromosome chromosome : chromosomeRepository.findAllById(
+                regions.stream().map(GeneRegionInDTO::getChromosomeId).distinct().toList())) {
+            names.put(chromosome.getId(), chromosome.getName());
+        }
+        List<GenomicRegion> resolved = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) {
+            GeneRegionInDTO region = regions.get(i);
+            String chromosomeName = names.get(region.getChromosomeId());
+            if (chromosomeName == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Chromosome not found: " + region.getChromosomeId());
+            }
+            resolved.add(region(i, region.getName(), region.getChromosomeId(), chromosomeName,
+                    region.getStart(), region.getEnd(), region.getStrand()));
+        }
+        return resolved;
+    }
+    /**
+     * Leer las regiones de un archivo BED (plano o gzip) y resolver sus cromosomas por nombre en
+     * un genoma. Si un nombre no existe se prueba también con o sin el prefijo "chr".
+     * @param genomeId ID del genoma.
+     * @param bed Contenido del archivo BED.
+     * @return Regiones ordenadas por cromosoma e inicio, listas para {@link #transmitirGenesPorRegiones}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<GenomicRegion> prepararConsultaRegionesBed(Long genomeId, InputStream bed) throws IOException {
+        if (!genomeRepository.existsById(genomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+        }
+        Map<String, Chromosome> chromosomes = new HashMap<>();
+        for (Chromosome chromosome : chromosomeRepository.findByGenomeId(genomeId)) {
+            chromosomes.put(chromosome.getName(), chromosome);
+        }
+        List<GenomicRegion> resolved = new ArrayList<>();
+        try {
+            BedReader reader = new BedReader(bed);
+            BedRecord record;
+            while ((record = reader.next()) != null) {
+                if (resolved.size() == MAX_BATCH_REGIONS) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "At most " + MAX_BATCH_REGIONS + " regions are allowed");
+                }
+                Chromosome chromosome = chromosomes.get(record.chromosome());
+                if (chromosome == null) {
+                    chromosome = chromosomes.get(record.chromosome().startsWith("chr")
+                            ? record.chromosome().substring(3) : "chr" + record.chromosome());
+                }
+                if (chromosome == null) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                            "Chromosome not found in genome: " + record.chromosome());
+                }
+                resolved.add(region(resolved.size(), record.name(), chromosome.getId(), chromosome.getName(),
+                        record.start(), record.end(), record.strand()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (resolved.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "BED file contains no regions");
+        }
+        resolved.sort(REGION_ORDER);
+        return resolved;
+    }
+
+    private static GenomicRegion region(int index, String name, Long chromosomeId, String chromosomeName,
+                                        int start, int end, Character strand) {
         if (start < 0 || start >= end) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Invalid range: start must be less than end and non-negative");
+                    "Invalid region " + index + ": start must be less than end and non-negative");
+        }
+        if (strand != null && strand != '+' && strand != '-') {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid region " + index + ": strand must be '+' or '-'");
+        }
+        return new GenomicRegion(index, name, chromosomeId, chromosomeName, start, end, strand);
+    }
+    /**
+     * Escribir los genes de cada región como una línea NDJSON, en el orden de las regiones
+     * preparadas. Los genes de cada cromosoma se piden una sola vez al índice de intervalos y cada
+     * región se resuelve con una consulta de solapamiento sobre ellos. No es transaccional para no
+     * retener una conexión mientras se escribe la respuesta.
+     * @param regions Regiones preparadas con {@link #prepararConsultaRegiones} o {@link #prepararConsultaRegionesBed}.
+     * @param out Destino de las líneas NDJSON.
+     */
+    @Override
+    public void transmitirGenesPorRegiones(List<GenomicRegion> regions, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        for (int first = 0; first < regions.size(); ) {
+            Long chromosomeId = regions.get(first).chromosomeId();
+            int last = first;
+            int end = 0;
+            while (last < regions.size() && regions.get(last).chromosomeId().equals(chromosomeId)) {
+                end = Math.max(end, regions.get(last).end());
+                last++;
+            }
+            // Vacío si el cromosoma se eliminó después de preparar la consulta
+            Optional<GeneIntervals> genes = geneIntervalIndex.find(chromosomeId, regions.get(first).start(), end);
+            for (GenomicRegion region : regions.subList(first, last)) {
+                RegionGenesDTO dto = new RegionGenesDTO();
+                dto.setIndex(region.index());
+                dto.setName(region.name());
+                dto.setChromosomeId(region.chromosomeId());
+                dto.setChromosomeName(region.chromosomeName());
+                dto.setStart(region.start());
+                dto.setEnd(region.end());
+                dto.setGenes(genes.map(intervals -> convertToRangeDTOs(intervals,
+                        intervals.overlapping(region.start(), region.end()))).orElseGet(List::of));
+                buffered.write(objectMapper.writeValueAsBytes(dto));
+                buffered.write('\n');
+            }
+            first = last;
         }
+        buffered.flush();
+    }
+    /**
+     * Obtener los genes que se solapan con una posición o un intervalo y los k más cercanos antes y
+     * después de él. Cada lado se resuelve con una búsqueda binaria sobre los inicios o los fines
+     * ordenados del índice de intervalos, sin ampliar ventanas de búsqueda; con el índice
+     * desactivado, con consultas limitadas a k genes.
+     * @param chromosomeId ID del cromosoma.
+     * @param start Inicio de la consulta (inclusive, base 0).
+     * @param end (opcional) Fin de la consulta (exclusivo); por defecto start + 1, una sola posición.
+     * @param k (opcional) Genes a cada lado, de 1 a 100; por defecto 1.
+     * @param strand (opcional) Hebra de la consulta, que orienta upstream y downstream; por defecto '+'.
+     * @return NearestGenesDTO con los genes solapados y los más cercanos a cada lado.
+     */
+    @Override
+    public NearestGenesDTO obtenerGenesCercanos(Long chromosomeId, Integer start, Integer end, Integer k,
+                                                Character strand) {
+        int neighbours = k != null ? k : 1;
+        if (neighbours < 1 || neighbours > GeneIntervalIndex.MAX_NEAREST) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "k must be between 1 and " + GeneIntervalIndex.MAX_NEAREST);
+        }
+        // En long para que start = Integer.MAX_VALUE no desborde: queda start = end y se rechaza
+        int regionEnd = end != null ? end : (int) Math.min((long) start + 1, Integer.MAX_VALUE);
+        GenomicRegion query = region(0, null, chromosomeId, null, start, regionEnd, strand);
+        GeneIntervals genes = geneIntervalIndex.findNearest(chromosomeId, query.start(), query.end(), neighbours)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Chromosome not found"));
+        GenomicRegion region = new GenomicRegion(0, null, chromosomeId, genes.chromosomeName(), query.start(),
+                query.end(), query.strand());
+        NearestGenesDTO dto = convertToNearestDTO(genes, region, neighbours);
+        dto.setIndex(null);
+        return dto;
+    }
+    /**
+     * Escribir los genes cercanos de cada región como una línea NDJSON, en el orden de las
+     * regiones preparadas. Con el índice de intervalos activo los genes de cada cromosoma ya están en
+     * memoria; si no, cada región lee solo sus genes solapados y los k más cercanos a cada lado.
+     * @param regions Regiones preparadas con {@link #prepararConsultaRegiones} o {@link #prepararConsultaRegionesBed}.
+     * @param k Genes a cada lado de cada región.
+     * @param out Destino de las líneas NDJSON.
+     */
+    @Override
+    public void transmitirGenesCercanos(List<GenomicRegion> regions, int k, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        for (GenomicRegion region : regions) {
+            // Vacío si el cromosoma se eliminó después de preparar la consulta
+            Optional<GeneIntervals> genes = geneIntervalIndex.findNearest(region.chromosomeId(), region.start(),
+                    region.end(), k);
+            NearestGenesDTO dto = genes.map(intervals -> convertToNearestDTO(intervals, region, k))
+                    .orElseGet(() -> convertToNearestDTO(null, region, k));
+            buffered.write(objectMapper.writeValueAsBytes(dto));
+            buffered.write('\n');
+        }
+        buffered.flush();
+    }
 
-        return geneRepository.findGenesInRange(chromosomeId, start, end).stream()
-                .map(this::convertToRangeDTO)
-                .collect(Collectors.toList());
+    /**
+     * Resolver los genes cercanos de una región.
+     * @param genes Genes del cromosoma, o null si ya no existe.
+     */
+    private static NearestGenesDTO convertToNearestDTO(GeneIntervals genes, GenomicRegion region, int k) {
+        NearestGenesDTO dto = new NearestGenesDTO();
+        dto.setIndex(region.index());
+        dto.setName(region.name());
+        dto.setChromosomeId(region.chromosomeId());
+        dto.setChromosomeName(region.chromosomeName());
+        dto.setStart(region.start());
+        dto.setEnd(region.end());
+        dto.setStrand(region.strand() != null ? region.strand() : '+');
+        if (genes == null) {
+            dto.setOverlapping(List.of());
+            dto.setUpstream(List.of());
+            dto.setDownstream(List.of());
+            return dto;
+        }
+        List<NearestGeneDTO> before = convertToNearestDTOs(genes, genes.nearestBefore(region.start(), k), region);
+        List<NearestGeneDTO> after = convertToNearestDTOs(genes, genes.nearestAfter(region.end(), k), region);
+        boolean reverse = dto.getStrand() == '-';
+        dto.setOverlapping(convertToNearestDTOs(genes, genes.overlapping(region.start(), region.end()), region));
+        dto.setUpstream(reverse ? after : before);
+        dto.setDownstream(reverse ? before : after);
+        return dto;
+    }
+
+    private static List<NearestGeneDTO> convertToNearestDTOs(GeneIntervals genes, int[] found, GenomicRegion region) {
+        List<NearestGeneDTO> dtos = new ArrayList<>(found.length);
+        for (int gene : found) {
+            NearestGeneDTO dto = new NearestGeneDTO();
+            dto.setGeneId(genes.geneId(gene));
+            dto.setSymbol(genes.symbol(gene));
+            dto.setStartPosition(genes.start(gene));
+            dto.setEndPosition(genes.end(gene));
+            dto.setStrand(genes.strand(gene));
+            boolean reverse = genes.strand(gene) != null && genes.strand(gene) == '-';
+            if (genes.end(gene) <= region.start()) {
+                dto.setDistance(region.start() - genes.end(gene));
+                dto.setQueryPosition(reverse ? "upstream" : "downstream");
+            } else if (genes.start(gene) >= region.end()) {
+                dto.setDistance(genes.start(gene) - region.end());
+                dto.setQueryPosition(reverse ? "downstream" : "upstream");
+            } else {
+                dto.setDistance(0);
+                dto.setQueryPosition("overlap");
+            }
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+    /**
+     * Validar una operación entre conjuntos de intervalos (intersect, subtract, merge, complement o
+     * closest) y resolver sus conjuntos antes de empezar a transmitir la respuesta. Los conjuntos de
+     * genes de un cromosoma o un genoma no se leen aquí: se toman del índice de intervalos al
+     * procesar cada cromosoma.
+     * @param operacion Nombre de la operación.
+     * @param consulta Conjuntos A y B.
+     * @return Operación lista para {@link #transmitirOperacionIntervalos}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public IntervalAlgebra.Search prepararOperacionIntervalos(String operacion, IntervalOperationInDTO consulta) {
+        IntervalAlgebra.Operation operation;
+        try {
+            operation = IntervalAlgebra.Operation.valueOf(operacion.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Operation must be intersect, subtract, merge, complement or closest");
+        }
+        if (consulta.getA() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Set a is required");
+        }
+        if (operation.usesB() && consulta.getB() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Set b is required for " + operacion);
+        }
+        Map<Long, Chromosome> chromosomes = new TreeMap<>();
+        IntervalAlgebra.Source a = resolverConjunto("a", consulta.getA(), chromosomes);
+        IntervalAlgebra.Source b = operation.usesB() ? resolverConjunto("b", consulta.getB(), new HashMap<>()) : null;
+        List<IntervalAlgebra.Target> targets = new ArrayList<>(chromosomes.size());
+        for (Chromosome chromosome : chromosomes.values()) {
+            targets.add(new IntervalAlgebra.Target(chromosome.getId(), chromosome.getName(),
+                    chromosome.getLength() != null ? chromosome.getLength() : 0));
+        }
+        return new IntervalAlgebra.Search(operation, targets, a, b);
+    }
+
+    /**
+     * Resolver un conjunto de intervalos.
+     * @param label Nombre del conjunto en los mensajes de error.
+     * @param chromosomes Recibe los cromosomas del conjunto.
+     */
+    private IntervalAlgebra.Source resolverConjunto(String label, IntervalSetInDTO set,
+                                                    Map<Long, Chromosome> chromosomes) {
+        int kinds = (set.getChromosomeId() != null ? 1 : 0) + (set.getGenomeId() != null ? 1 : 0)
+                + (set.getFunctionId() != null ? 1 : 0) + (set.getRegions() != null ? 1 : 0);
+        if (kinds != 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Set " + label + " requires exactly one of chromosomeId, genomeId, functionId or regions");
+        }
+        Map<Long, GeneIntervals> intervals = new HashMap<>();
+        if (set.getChromosomeId() != null || set.getGenomeId() != null) {
+            if (set.getChromosomeId() != null) {
+                Chromosome chromosome = chromosomeRepository.findById(set.getChromosomeId())
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chromosome not found"));
+                chromosomes.put(chromosome.getId(), chromosome);
+            } else {
+                if (!genomeRepository.existsById(set.getGenomeId())) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+                }
+                for (Chromosome chromosome : chromosomeRepository.findByGenomeId(set.getGenomeId())) {
+                    chromosomes.put(chromosome.getId(), chromosome);
+                }
+            }
+            // Se cargan del índice al procesar cada cromosoma
+            for (Long chromosomeId : chromosomes.keySet()) {
+                intervals.put(chromosomeId, null);
+            }
+            return new IntervalAlgebra.Source(intervals, true);
+        }
+        if (set.getFunctionId() != null) {
+            if (!functionRepository.existsById(set.getFunctionId())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Function not found");
+            }
+            Map<Long, List<Gene>> genes = geneFunctionRepository.findByFunctionId(set.getFunctionId()).stream()
+                    .map(GeneFunction::getGene)
+                    .collect(Collectors.groupingBy(gene -> gene.getChromosome().getId()));
+            for (List<Gene> chromosomeGenes : genes.values()) {
+                Chromosome chromosome = chromosomeGenes.get(0).getChromosome();
+                chromosomes.put(chromosome.getId(), chromosome);
+                int n = chromosomeGenes.size();
+                long[] ids = new long[n];
+                String[] symbols = new String[n];
+                int[] starts = new int[n];
+                int[] ends = new int[n];
+                char[] strands = new char[n];
+                for (int i = 0; i < n; i++) {
+                    Gene gene = chromosomeGenes.get(i);
+                    ids[i] = gene.getId();
+                    symbols[i] = gene.getSymbol();
+                    starts[i] = gene.getStartPosition();
+                    ends[i] = gene.getEndPosition();
+                    strands[i] = gene.getStrand() != null ? gene.getStrand() : '\0';
+                }
+                intervals.put(chromosome.getId(),
+                        new GeneIntervals(chromosome.getName(), ids, symbols, starts, ends, strands));
+            }
+            return new IntervalAlgebra.Source(intervals, true);
+        }
+        Map<Long, List<GenomicRegion>> regions = resolverRegiones(set.getRegions()).stream()
+                .collect(Collectors.groupingBy(GenomicRegion::chromosomeId));
+        for (Chromosome chromosome : chromosomeRepository.findAllById(regions.keySet())) {
+            chromosomes.put(chromosome.getId(), chromosome);
+        }
+        for (Map.Entry<Long, List<GenomicRegion>> entry : regions.entrySet()) {
+            List<GenomicRegion> chromosomeRegions = entry.getValue();
+            int n = chromosomeRegions.size();
+            long[] ids = new long[n];
+            String[] names = new String[n];
+            int[] starts = new int[n];
+            int[] ends = new int[n];
+            char[] strands = new char[n];
+            for (int i = 0; i < n; i++) {
+                GenomicRegion region = chromosomeRegions.get(i);
+                ids[i] = region.index();
+                names[i] = region.name();
+                starts[i] = region.start();
+                ends[i] = region.end();
+                strands[i] = region.strand() != null ? region.strand() : '\0';
+            }
+            intervals.put(entry.getKey(), new GeneIntervals(chromosomeRegions.get(0).chromosomeName(),
+                    ids, names, starts, ends, strands));
+        }
+        return new IntervalAlgebra.Source(intervals, false);
+    }
+    /**
+     * Escribir los resultados de una operación entre conjuntos de intervalos como líneas NDJSON, a
+     * medida que el barrido de cada cromosoma los produce. No es transaccional para no retener una
+     * conexión mientras se escribe la respuesta.
+     * @param search Operación preparada con {@link #prepararOperacionIntervalos}.
+     * @param out Destino de las líneas NDJSON.
+     */
+    @Override
+    public void transmitirOperacionIntervalos(IntervalAlgebra.Search search, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        IntervalAlgebra.Operation operation = search.operation();
+        intervalAlgebra.run(search, (target, a, b, start, end, ai, bi, value) -> {
+            IntervalResultDTO dto = new IntervalResultDTO();
+            dto.setChromosomeId(target.chromosomeId());
+            dto.setChromosomeName(target.name());
+            dto.setStart(start);
+            dto.setEnd(end);
+            if (ai >= 0) {
+                dto.setA(convertToRefDTO(a, ai, search.a().genes()));
+            }
+            if (bi >= 0) {
+                dto.setB(convertToRefDTO(b, bi, search.b().genes()));
+            }
+            if (operation == IntervalAlgebra.Operation.CLOSEST) {
+                dto.setDistance(value);
+            } else if (operation == IntervalAlgebra.Operation.MERGE) {
+                dto.setCount(value);
+            }
+            buffered.write(objectMapper.writeValueAsBytes(dto));
+            buffered.write('\n');
+        });
+        buffered.flush();
+    }
+
+    private static IntervalRefDTO convertToRefDTO(GeneIntervals intervals, int i, boolean genes) {
+        IntervalRefDTO dto = new IntervalRefDTO();
+        if (genes) {
+            dto.setGeneId(intervals.geneId(i));
+        } else {
+            dto.setIndex((int) intervals.geneId(i));
+        }
+        dto.setName(intervals.symbol(i));
+        dto.setStart(intervals.start(i));
+        dto.setEnd(intervals.end(i));
+        dto.setStrand(intervals.strand(i));
+        return dto;
     }
     /**
      * Obtener estadísticas de la secuencia de un cromosoma.
+     * La composición de bases y el número de genes se toman de la caché; solo se recorre la
+     * secuencia la primera vez o después de que cambie.
      * @param chromosomeId ID del cromosoma.
      * @return Optional de SequenceStatsDTO con las estadísticas de la secuencia.
      */
@@ -54,65 +573,1002 @@ public class AnalysisServiceImpl implements IAnalysisService {
     @Transactional(readOnly = true)
     public Optional<SequenceStatsDTO> obtenerEstadisticasSecuencia(Long chromosomeId) {
         return chromosomeRepository.findById(chromosomeId).map(chromosome -> {
-            String sequence = chromosome.getSequence();
-            if (sequence == null || sequence.isEmpty()) {
+            if (!sequenceBackend.hasSequence(chromosomeId) || chromosome.getLength() == 0) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Sequence not available for this chromosome");
+            }
+            return estadisticasSecuencia(chromosomeId, chromosome.getName(), chromosome.getLength());
+        });
+    }
+    /**
+     * Validar un cálculo de composición y resolver los cromosomas con secuencia que incluye (uno o
+     * todos los de un genoma), antes de empezar a transmitir el resultado.
+     * @param consulta Cromosoma o genoma.
+     * @return Cromosomas listos para {@link #transmitirComposicion}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CompositionEngine.Target> prepararComposicion(CompositionInDTO consulta) {
+        Long chromosomeId = consulta.getChromosomeId();
+        Long genomeId = consulta.getGenomeId();
+        if ((chromosomeId == null) == (genomeId == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Exactly one of chromosomeId or genomeId is required");
+        }
+        List<Chromosome> chromosomes;
+        if (chromosomeId != null) {
+            chromosomes = List.of(chromosomeRepository.findById(chromosomeId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chromosome not found")));
+        } else {
+            if (!genomeRepository.existsById(genomeId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+            }
+            chromosomes = chromosomeRepository.findByGenomeId(genomeId);
+        }
+        List<CompositionEngine.Target> targets = chromosomes.stream()
+                .filter(chromosome -> chromosome.getLength() > 0 && sequenceBackend.hasSequence(chromosome.getId()))
+                .sorted(Comparator.comparing(Chromosome::getId))
+                .map(chromosome -> new CompositionEngine.Target(
+                        chromosome.getId(), chromosome.getName(), chromosome.getLength()))
+                .collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sequence not available");
+        }
+        return targets;
+    }
+    /**
+     * Escribir las estadísticas de secuencia de cada cromosoma como una línea NDJSON, con el mismo
+     * contenido que {@link #obtenerEstadisticasSecuencia}. No es transaccional para no retener una
+     * conexión mientras se recorren las secuencias.
+     * @param targets Cromosomas preparados con {@link #prepararComposicion}.
+     * @param out Destino de las líneas NDJSON.
+     * @param progress Receptor de la fracción de bases recorridas (0 a 1) después de cada cromosoma.
+     */
+    @Override
+    public void transmitirComposicion(List<CompositionEngine.Target> targets, OutputStream out,
+                                      DoubleConsumer progress) throws IOException {
+        long total = targets.stream().mapToLong(CompositionEngine.Target::length).sum();
+        long done = 0;
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        for (CompositionEngine.Target target : targets) {
+            // Se omiten los cromosomas eliminados o sin secuencia desde que se preparó el cálculo
+            if (sequenceBackend.hasSequence(target.chromosomeId())) {
+                SequenceStatsDTO stats = estadisticasSecuencia(target.chromosomeId(), target.name(), target.length());
+                buffered.write(objectMapper.writeValueAsBytes(stats));
+                buffered.write('\n');
+                buffered.flush();
+            }
+            done += target.length();
+            progress.accept((double) done / total);
+        }
+    }
+
+    /**
+     * Estadísticas de un cromosoma con secuencia, con la composición y el número de genes en caché.
+     */
+    private SequenceStatsDTO estadisticasSecuencia(Long chromosomeId, String name, int length) {
+        SequenceStatsDTO stats = new SequenceStatsDTO();
+        stats.setChromosomeId(chromosomeId);
+        stats.setChromosomeName(name);
+        stats.setSequenceLength(length);
+
+        // Contar genes asociados al cromosoma
+        long geneCount = statsCache.geneCount(chromosomeId,
+                () -> geneRepository.countByChromosomeId(chromosomeId));
+        stats.setGeneCount((int) geneCount);
+
+        BaseComposition composition = statsCache.composition(chromosomeId,
+                () -> compositionEngine.compute(chromosomeId, 0, length));
+        int aCount = (int) composition.a();
+        int cCount = (int) composition.c();
+        int gCount = (int) composition.g();
+        int tCount = (int) composition.t();
+        int nCount = (int) composition.n();
+
+        stats.setACount(aCount);
+        stats.setCCount(cCount);
+        stats.setGCount(gCount);
+        stats.setTCount(tCount);
+        stats.setNCount(nCount);
+        stats.setSoftMaskedCount(composition.softMasked());
+        stats.setIupacCounts(composition.iupacCounts());
+        stats.setDinucleotideFrequencies(composition.dinucleotideFrequencies());
+
+        // Calcular porcentaje GC
+        int totalValidBases = aCount + cCount + gCount + tCount;
+        if (totalValidBases > 0) {
+            double gcPercentage = ((double) (gCount + cCount) / totalValidBases) * 100;
+            stats.setGcPercentage(Math.round(gcPercentage * 100.0) / 100.0); // 2 decimales
+        } else {
+            stats.setGcPercentage(0.0);
+        }
+
+        return stats;
+    }
+    /**
+     * Obtener la composición de un rango de la secuencia de un cromosoma.
+     * Los bins completos del rango se resuelven con el índice de sumas prefijas, por lo que el
+     * costo no depende del tamaño del rango. No es de solo lectura: si el cromosoma aún no tiene
+     * índice, se construye y se guarda en la primera consulta.
+     * @param chromosomeId ID del cromosoma.
+     * @param start Posición inicial del rango (inclusive, base 0).
+     * @param end Posición final del rango (exclusive).
+     * @return Optional de RangeStatsDTO con las estadísticas del rango.
+     */
+    @Override
+    public Optional<RangeStatsDTO> obtenerEstadisticasRango(Long chromosomeId, Integer start, Integer end) {
+        return chromosomeRepository.findById(chromosomeId).map(chromosome -> {
+            if (!sequenceBackend.hasSequence(chromosomeId) || chromosome.getLength() == 0) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Sequence not available for this chromosome");
             }
+            if (start < 0 || start >= end || end > chromosome.getLength()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid range: start must be non-negative and less than end, and end must not exceed the chromosome length");
+            }
 
-            SequenceStatsDTO stats = new SequenceStatsDTO();
+            long[] counts = compositionIndexStore.count(chromosomeId, chromosome.getLength(), start, end);
+            RangeStatsDTO stats = new RangeStatsDTO();
             stats.setChromosomeId(chromosome.getId());
             stats.setChromosomeName(chromosome.getName());
-            stats.setSequenceLength(sequence.length());
-
-            // Contar genes asociados al cromosoma
-            int geneCount = geneRepository.findByChromosomeId(chromosomeId).size();
-            stats.setGeneCount(geneCount);
-
-            // Contar bases
-            int aCount = 0;
-            int cCount = 0;
-            int gCount = 0;
-            int tCount = 0;
-            int nCount = 0;
-
-            for (char base : sequence.toUpperCase().toCharArray()) {
-                switch (base) {
-                    case 'A': aCount++; break;
-                    case 'C': cCount++; break;
-                    case 'G': gCount++; break;
-                    case 'T': tCount++; break;
-                    case 'N': nCount++; break;
+            stats.setStart(start);
+            stats.setEnd(end);
+            stats.setLength(end - start);
+            stats.setACount(counts[CompositionIndex.A]);
+            stats.setCCount(counts[CompositionIndex.C]);
+            stats.setGCount(counts[CompositionIndex.G]);
+            stats.setTCount(counts[CompositionIndex.T]);
+            stats.setNCount(counts[CompositionIndex.N]);
+            stats.setSoftMaskedCount(counts[CompositionIndex.SOFT_MASKED]);
+
+            long gc = counts[CompositionIndex.G] + counts[CompositionIndex.C];
+            long totalValidBases = gc + counts[CompositionIndex.A] + counts[CompositionIndex.T];
+            double gcPercentage = totalValidBases > 0 ? (double) gc / totalValidBases * 100 : 0.0;
+            stats.setGcPercentage(Math.round(gcPercentage * 100.0) / 100.0); // 2 decimales
+            return stats;
+        });
+    }
+
+    /**
+     * Obtener un resumen de un rango de un cromosoma en aproximadamente el número de bins pedido,
+     * a partir del nivel de zoom precalculado más cercano, sin recorrer la secuencia.
+     * Cada bin de la respuesta agrupa bins completos del nivel, así que los del borde pueden
+     * cubrir bases fuera del rango. No es de solo lectura: si el cromosoma aún no tiene niveles,
+     * se construyen y se guardan en la primera consulta.
+     * @param chromosomeId ID del cromosoma.
+     * @param start (opcional) Posición inicial del rango (inclusive); por defecto 0.
+     * @param end (opcional) Posición final del rango (exclusive); por defecto la longitud del cromosoma.
+     * @param bins Número de bins deseado (1 a 10000).
+     * @return Optional de ZoomSummaryDTO con los bins del rango.
+     */
+    @Override
+    public Optional<ZoomSummaryDTO> obtenerResumenZoom(Long chromosomeId, Integer start, Integer end, Integer bins) {
+        return chromosomeRepository.findById(chromosomeId).map(chromosome -> {
+            int length = chromosome.getLength();
+            int from = start != null ? start : 0;
+            int to = end != null ? end : length;
+            if (from < 0 || from >= to || to > length) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid range: start must be non-negative and less than end, and end must not exceed the chromosome length");
+            }
+            if (bins < 1 || bins > MAX_ZOOM_BINS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Bins must be between 1 and " + MAX_ZOOM_BINS);
+            }
+
+            int basesPerBin = (int) (((long) to - from + bins - 1) / bins);
+            ZoomLevel level = zoomSummaryStore.level(chromosomeId, length, basesPerBin);
+            int binSize = level.getBinSize();
+            int factor = Math.max(1, basesPerBin / binSize);
+            int lastLevelBin = (int) (((long) to + binSize - 1) / binSize);
+            List<ZoomBinDTO> zoomBins = new ArrayList<>();
+            for (int first = from / binSize; first < lastLevelBin; first += factor) {
+                int last = Math.min(lastLevelBin, first + factor);
+                ZoomBinDTO bin = new ZoomBinDTO();
+                bin.setStart(Math.max(from, first * binSize));
+                bin.setEnd((int) Math.min(to, (long) last * binSize));
+                bin.setGcPercentage(convertToMetricDTO(level.summarize(ZoomLevel.GC_PERCENTAGE, first, last)));
+                bin.setNFraction(convertToMetricDTO(level.summarize(ZoomLevel.N_FRACTION, first, last)));
+                bin.setGeneDensity(convertToMetricDTO(level.summarize(ZoomLevel.GENE_DENSITY, first, last)));
+                zoomBins.add(bin);
+            }
+
+            ZoomSummaryDTO summary = new ZoomSummaryDTO();
+            summary.setChromosomeId(chromosome.getId());
+            summary.setChromosomeName(chromosome.getName());
+            summary.setStart(from);
+            summary.setEnd(to);
+            summary.setLevelBinSize(binSize);
+            summary.setBins(zoomBins);
+            return summary;
+        });
+    }
+    /**
+     * Validar un conteo de k-mers y resolver los cromosomas con secuencia que se cuentan (uno o
+     * todos los de un genoma), antes de empezar a contar.
+     * @param chromosomeId ID del cromosoma (o null si se indica genomeId).
+     * @param genomeId ID del genoma (o null si se indica chromosomeId).
+     * @param k Longitud de los k-mers (1 a 31).
+     * @param canonical Si es true, cada k-mer se cuenta junto con su complemento inverso.
+     * @param top Número de k-mers más frecuentes a devolver (0 a 1000).
+     * @param kmers (opcional) k-mers cuyo conteo se quiere consultar (hasta 100).
+     * @return Conteo listo para {@link #contarKmers}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public KmerCounter.Request prepararConteoKmers(Long chromosomeId, Long genomeId, Integer k, boolean canonical,
+                                                   Integer top, List<String> kmers) {
+        if ((chromosomeId == null) == (genomeId == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Exactly one of chromosomeId or genomeId is required");
+        }
+        if (k < 1 || k > KmerCounts.MAX_K) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "k must be between 1 and " + KmerCounts.MAX_K);
+        }
+        if (top < 0 || top > MAX_TOP_KMERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "top must be between 0 and " + MAX_TOP_KMERS);
+        }
+        List<String> lookups = kmers != null ? kmers : List.of();
+        if (lookups.size() > MAX_KMER_LOOKUPS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_KMER_LOOKUPS + " k-mers can be looked up");
+        }
+        for (String kmer : lookups) {
+            if (kmer.length() != k || KmerCounts.encode(kmer) < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid " + k + "-mer: " + kmer);
+            }
+        }
+
+        List<Chromosome> chromosomes;
+        if (chromosomeId != null) {
+            chromosomes = List.of(chromosomeRepository.findById(chromosomeId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chromosome not found")));
+        } else {
+            if (!genomeRepository.existsById(genomeId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+            }
+            chromosomes = chromosomeRepository.findByGenomeId(genomeId);
+        }
+        List<KmerCounter.Target> targets = chromosomes.stream()
+                .filter(chromosome -> chromosome.getLength() > 0 && sequenceBackend.hasSequence(chromosome.getId()))
+                .map(chromosome -> new KmerCounter.Target(chromosome.getId(), chromosome.getLength()))
+                .collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sequence not available");
+        }
+        return new KmerCounter.Request(chromosomeId, genomeId, targets, k, canonical, top, List.copyOf(lookups));
+    }
+    /**
+     * Contar los k-mers de un conteo preparado. No es transaccional para no retener una conexión
+     * durante el conteo.
+     * @param request Conteo preparado con {@link #prepararConteoKmers}.
+     * @return KmerCountsDTO con los totales, los k-mers más frecuentes y los consultados.
+     */
+    @Override
+    public KmerCountsDTO contarKmers(KmerCounter.Request request) {
+        return contarKmers(request, progress -> { });
+    }
+    /**
+     * Contar los k-mers como {@link #contarKmers(KmerCounter.Request)}, informando el avance.
+     * @param progress Receptor de la fracción de segmentos contados (0 a 1).
+     */
+    @Override
+    public KmerCountsDTO contarKmers(KmerCounter.Request request, DoubleConsumer progress) {
+        long startTime = System.nanoTime();
+        KmerCounts counts;
+        try {
+            counts = kmerCounter.count(request.targets(), request.k(), request.canonical(), progress);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        KmerCountsDTO dto = new KmerCountsDTO();
+        dto.setChromosomeId(request.chromosomeId());
+        dto.setGenomeId(request.genomeId());
+        dto.setK(request.k());
+        dto.setCanonical(request.canonical());
+        dto.setTotalKmers(counts.getTotal());
+        dto.setDistinctKmers(counts.getDistinct());
+        dto.setTop(counts.top(request.top()).stream()
+                .map(entry -> new KmerCountDTO(entry.kmer(), entry.count()))
+                .collect(Collectors.toList()));
+        dto.setLookups(request.kmers().stream()
+                .map(kmer -> new KmerCountDTO(kmer.toUpperCase(Locale.ROOT), counts.count(kmer)))
+                .collect(Collectors.toList()));
+        dto.setElapsedMillis((System.nanoTime() - startTime) / 1_000_000);
+        return dto;
+    }
+    /**
+     * Escribir la pista de ventanas deslizantes (GC%, fracción de N y sesgos) de un cromosoma
+     * como NDJSON. No es transaccional para no retener una conexión mientras se escribe la respuesta.
+     * @param chromosome Cromosoma con secuencia.
+     * @param window Tamaño de ventana (1 a {@link GcTrackEngine#MAX_WINDOW}).
+     * @param step Distancia entre ventanas consecutivas (al menos 1).
+     * @param out Destino de las líneas NDJSON.
+     */
+    @Override
+    public void transmitirPistaGc(ChromosomeOutDTO chromosome, int window, int step, OutputStream out)
+            throws IOException {
+        if (chromosome.getLength() == 0) {
+            return;
+        }
+        gcTrackEngine.write(chromosome.getId(), chromosome.getName(), chromosome.getLength(), window, step, out);
+    }
+
+    /**
+     * Validar una búsqueda de motivos y resolver los cromosomas donde se busca, antes de empezar
+     * a transmitir la respuesta.
+     * @param busqueda Motivos, cromosomas o genoma, hebras y límite de coincidencias.
+     * @return Búsqueda lista para {@link #transmitirBusquedaMotivos}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MotifSearchEngine.Search prepararBusquedaMotivos(MotifSearchInDTO busqueda) {
+        List<String> motifs = busqueda.getMotifs() != null ? busqueda.getMotifs() : List.of();
+        if (motifs.isEmpty() || motifs.size() > MAX_MOTIFS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_MOTIFS + " motifs are required");
+        }
+        boolean byChromosomes = busqueda.getChromosomeIds() != null && !busqueda.getChromosomeIds().isEmpty();
+        if (byChromosomes == (busqueda.getGenomeId() != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Exactly one of chromosomeIds or genomeId is required");
+        }
+        int limit = busqueda.getLimit() != null ? busqueda.getLimit() : DEFAULT_MOTIF_HIT_LIMIT;
+        if (limit < 1 || limit > MAX_MOTIF_HIT_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_MOTIF_HIT_LIMIT);
+        }
+        MotifMatcher matcher;
+        try {
+            matcher = new MotifMatcher(motifs, !Boolean.FALSE.equals(busqueda.getBothStrands()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        List<Chromosome> chromosomes = new ArrayList<>();
+        if (byChromosomes) {
+            for (Long chromosomeId : busqueda.getChromosomeIds().stream().distinct().toList()) {
+                chromosomes.add(chromosomeRepository.findById(chromosomeId)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                "Chromosome not found: " + chromosomeId)));
+            }
+        } else {
+            if (!genomeRepository.existsById(busqueda.getGenomeId())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+            }
+            chromosomes = chromosomeRepository.findByGenomeId(busqueda.getGenomeId());
+        }
+        List<MotifSearchEngine.Target> targets = chromosomes.stream()
+                .filter(chromosome -> chromosome.getLength() > 0 && sequenceBackend.hasSequence(chromosome.getId()))
+                .map(chromosome -> new MotifSearchEngine.Target(
+                        chromosome.getId(), chromosome.getName(), chromosome.getLength()))
+                .collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sequence not available");
+        }
+        return new MotifSearchEngine.Search(matcher, targets, limit);
+    }
+    /**
+     * Ejecutar una búsqueda de motivos y escribir cada coincidencia como una línea NDJSON, junto
+     * con los genes que se solapan con ella, tomados del índice de intervalos en memoria. No es
+     * transaccional para no retener una conexión mientras se escribe la respuesta.
+     * @param search Búsqueda preparada con {@link #prepararBusquedaMotivos}.
+     * @param out Destino de las líneas NDJSON.
+     */
+    @Override
+    public void transmitirBusquedaMotivos(MotifSearchEngine.Search search, OutputStream out) throws IOException {
+        transmitirBusquedaMotivos(search, out, progress -> { });
+    }
+    /**
+     * Ejecutar una búsqueda de motivos como {@link #transmitirBusquedaMotivos(MotifSearchEngine.Search, OutputStream)},
+     * informando el avance.
+     * @param progress Receptor de la fracción de bases recorridas (0 a 1) después de cada segmento.
+     */
+    @Override
+    public void transmitirBusquedaMotivos(MotifSearchEngine.Search search, OutputStream out,
+                                          DoubleConsumer progress) throws IOException {
+        List<String> motifs = search.matcher().getMotifs();
+        int maxLength = search.matcher().getMaxLength();
+        long total = search.targets().stream().mapToLong(MotifSearchEngine.Target::length).sum();
+        long[] scanned = {0};
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        motifSearchEngine.search(search, (target, start, end, hits) -> {
+            scanned[0] += end - start;
+            progress.accept((double) scanned[0] / total);
+            if (hits.size() == 0) {
+                return;
+            }
+            // Vacío si el cromosoma se eliminó durante la búsqueda
+            Optional<GeneIntervals> genes = geneIntervalIndex.find(target.chromosomeId(), start,
+                    (int) Math.min(target.length(), (long) end + maxLength));
+            for (int i = 0; i < hits.size(); i++) {
+                int motif = hits.motif(i);
+                int hitStart = hits.start(i);
+                int hitEnd = hitStart + motifs.get(motif).length();
+                MotifHitDTO hit = new MotifHitDTO();
+                hit.setChromosomeId(target.chromosomeId());
+                hit.setChromosomeName(target.name());
+                hit.setMotif(motifs.get(motif));
+                hit.setMotifIndex(motif);
+                hit.setStart(hitStart);
+                hit.setEnd(hitEnd);
+                hit.setStrand(hits.reverse(i) ? '-' : '+');
+                hit.setGenes(genes.map(intervals -> convertToRangeDTOs(intervals,
+                        intervals.overlapping(hitStart, hitEnd))).orElseGet(List::of));
+                buffered.write(objectMapper.writeValueAsBytes(hit));
+                buffered.write('\n');
+            }
+        });
+        buffered.flush();
+    }
+
+    /**
+     * Validar una búsqueda de ORFs y resolver el rango, antes de empezar a transmitir la
+     * respuesta.
+     * @param busqueda Cromosoma, rango, codones de inicio y de terminación, longitud mínima y límite.
+     * @return Búsqueda lista para {@link #transmitirOrfs}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrfFinder.Search prepararBusquedaOrfs(OrfSearchInDTO busqueda) {
+        if (busqueda.getChromosomeId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "chromosomeId is required");
+        }
+        int minLength = busqueda.getMinLength() != null ? busqueda.getMinLength() : 75;
+        if (minLength < MIN_ORF_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "minLength must be at least " + MIN_ORF_LENGTH);
+        }
+        int limit = busqueda.getLimit() != null ? busqueda.getLimit() : DEFAULT_ORF_LIMIT;
+        if (limit < 1 || limit > MAX_ORF_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_ORF_LIMIT);
+        }
+        List<String> startCodons = busqueda.getStartCodons() != null ? busqueda.getStartCodons() : List.of("ATG");
+        List<String> stopCodons = busqueda.getStopCodons() != null
+                ? busqueda.getStopCodons() : List.of("TAA", "TAG", "TGA");
+        if (startCodons.size() > MAX_CODONS || stopCodons.size() > MAX_CODONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_CODONS + " start and stop codons are allowed");
+        }
+        OrfFinder.CodonTable codons;
+        try {
+            codons = new OrfFinder.CodonTable(startCodons, stopCodons);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Chromosome chromosome = chromosomeRepository.findById(busqueda.getChromosomeId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chromosome not found"));
+        if (!sequenceBackend.hasSequence(chromosome.getId()) || chromosome.getLength() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sequence not available for this chromosome");
+        }
+        int start = busqueda.getStart() != null ? busqueda.getStart() : 0;
+        int end = busqueda.getEnd() != null ? busqueda.getEnd() : chromosome.getLength();
+        if (start < 0 || start >= end || end > chromosome.getLength()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid range: 0 <= start < end <= chromosome length is required");
+        }
+        return new OrfFinder.Search(new OrfFinder.Target(chromosome.getId(), chromosome.getName(), start, end),
+                codons, minLength, limit);
+    }
+    /**
+     * Ejecutar una búsqueda de ORFs y escribir cada uno como una línea NDJSON, junto con los genes
+     * anotados que se solapan con él, tomados del índice de intervalos en memoria. No es
+     * transaccional para no retener una conexión mientras se escribe la respuesta.
+     * @param search Búsqueda preparada con {@link #prepararBusquedaOrfs}.
+     * @param out Destino de las líneas NDJSON.
+     */
+    @Override
+    public void transmitirOrfs(OrfFinder.Search search, OutputStream out) throws IOException {
+        transmitirOrfs(search, out, progress -> { });
+    }
+    /**
+     * Ejecutar una búsqueda de ORFs como {@link #transmitirOrfs(OrfFinder.Search, OutputStream)},
+     * informando el avance.
+     * @param progress Receptor de la fracción del rango recorrida (0 a 1) después de cada segmento.
+     */
+    @Override
+    public void transmitirOrfs(OrfFinder.Search search, OutputStream out, DoubleConsumer progress)
+            throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        orfFinder.search(search, (target, end, orfs) -> {
+            progress.accept((double) (end - target.start()) / (target.end() - target.start()));
+            if (orfs.size() == 0) {
+                return;
+            }
+            int rangeEnd = 0;
+            for (int i = 0; i < orfs.size(); i++) {
+                rangeEnd = Math.max(rangeEnd, orfs.end(i));
+            }
+            // Vacío si el cromosoma se eliminó durante la búsqueda
+            Optional<GeneIntervals> genes = geneIntervalIndex.find(target.chromosomeId(), orfs.start(0), rangeEnd);
+            for (int i = 0; i < orfs.size(); i++) {
+                int orfStart = orfs.start(i);
+                int orfEnd = orfs.end(i);
+                char strand = orfs.reverse(i) ? '-' : '+';
+                OrfDTO orf = new OrfDTO();
+                orf.setChromosomeId(target.chromosomeId());
+                orf.setChromosomeName(target.name());
+                orf.setStart(orfStart);
+                orf.setEnd(orfEnd);
+                orf.setStrand(strand);
+                orf.setFrame(orfs.frame(i));
+                orf.setLength(orfEnd - orfStart);
+                orf.setAminoAcids((orfEnd - orfStart) / 3 - 1);
+                List<GeneRangeDTO> overlapping = new ArrayList<>();
+                boolean sameStrand = false;
+                if (genes.isPresent()) {
+                    GeneIntervals intervals = genes.get();
+                    for (int gene : intervals.overlapping(orfStart, orfEnd)) {
+                        overlapping.add(convertToRangeDTO(intervals, gene));
+                        sameStrand |= intervals.strand(gene) != null && intervals.strand(gene) == strand;
+                    }
                 }
+                orf.setOverlapsGene(!overlapping.isEmpty());
+                orf.setOverlapsGeneSameStrand(sameStrand);
+                orf.setGenes(overlapping);
+                buffered.write(objectMapper.writeValueAsBytes(orf));
+                buffered.write('\n');
             }
+        });
+        buffered.flush();
+    }
+
+    /**
+     * Buscar las apariciones exactas de una secuencia en un genoma con su índice FM. El costo
+     * depende de la longitud de la consulta, no del tamaño del genoma. Si el genoma no tiene un
+     * índice que corresponda a sus cromosomas actuales, se programa su construcción y se responde
+     * 409 hasta que esté listo.
+     * @param genomeId ID del genoma.
+     * @param query Secuencia a buscar (A, C, G y T, hasta 10000 bases).
+     * @param limit Máximo de ubicaciones a devolver (0 a 10000).
+     * @return SequenceSearchDTO con el número de apariciones y sus ubicaciones.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SequenceSearchDTO buscarSecuencia(Long genomeId, String query, Integer limit) {
+        if (genomeId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "genomeId is required");
+        }
+        if (query == null || query.isEmpty() || query.length() > MAX_SEARCH_QUERY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query must have between 1 and " + MAX_SEARCH_QUERY + " bases");
+        }
+        if (limit < 0 || limit > MAX_SEARCH_LOCATIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 0 and " + MAX_SEARCH_LOCATIONS);
+        }
+        if (!genomeRepository.existsById(genomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+        }
+        List<Chromosome> chromosomes = chromosomeRepository.findByGenomeId(genomeId);
+        List<IndexedChromosome> indexable = fmIndexStore.indexable(chromosomes);
+        if (indexable.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sequence not available");
+        }
+        GenomeFmIndex index = fmIndexStore.index(genomeId, indexable);
+        if (index == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "The search index of this genome is being built; retry later");
+        }
+
+        long startTime = System.nanoTime();
+        long count;
+        List<GenomeFmIndex.Location> locations;
+        try {
+            count = index.count(query);
+            locations = limit > 0 ? index.locate(query, limit) : List.of();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Map<Long, String> names = chromosomes.stream()
+                .collect(Collectors.toMap(Chromosome::getId, Chromosome::getName));
+
+        SequenceSearchDTO dto = new SequenceSearchDTO();
+        dto.setGenomeId(genomeId);
+        dto.setQuery(query.toUpperCase(Locale.ROOT));
+        dto.setCount(count);
+        dto.setLocations(locations.stream().map(location -> {
+            SequenceMatchDTO match = new SequenceMatchDTO();
+            match.setChromosomeId(location.chromosomeId());
+            match.setChromosomeName(names.get(location.chromosomeId()));
+            match.setStart(location.start());
+            match.setEnd(location.start() + query.length());
+            return match;
+        }).collect(Collectors.toList()));
+        dto.setStale(fmIndexStore.isStale(genomeId));
+        dto.setElapsedMicros((System.nanoTime() - startTime) / 1_000);
+        return dto;
+    }
+    /**
+     * Obtener el estado del índice FM de un genoma.
+     * @param genomeId ID del genoma.
+     * @return FmIndexStatusDTO con el estado y el tamaño del índice.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FmIndexStatusDTO obtenerEstadoIndice(Long genomeId) {
+        if (!genomeRepository.existsById(genomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+        }
+        List<IndexedChromosome> indexable =
+                fmIndexStore.indexable(chromosomeRepository.findByGenomeId(genomeId));
+        FmIndexStatusDTO dto = new FmIndexStatusDTO();
+        dto.setGenomeId(genomeId);
+        dto.setState(fmIndexStore.state(genomeId, indexable).name());
+        dto.setChromosomes(indexable.size());
+        dto.setIndexedBases(indexable.stream().mapToLong(IndexedChromosome::length).sum());
+        dto.setSizeBytes(fmIndexStore.size(genomeId));
+        return dto;
+    }
+    /**
+     * Programar la construcción del índice FM de un genoma en segundo plano.
+     * @param genomeId ID del genoma.
+     * @return FmIndexStatusDTO con el estado después de programar la construcción.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FmIndexStatusDTO construirIndice(Long genomeId) {
+        if (!genomeRepository.existsById(genomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+        }
+        fmIndexStore.schedule(genomeId);
+        return obtenerEstadoIndice(genomeId);
+    }
 
-            stats.setACount(aCount);
-            stats.setCCount(cCount);
-            stats.setGCount(gCount);
-            stats.setTCount(tCount);
-            stats.setNCount(nCount);
+    /**
+     * Validar un alineamiento y resolver las secuencias contra las que se alinea (un gen, los genes
+     * de una función o un rango de un cromosoma), antes de empezar a alinear.
+     * @param alineamiento Consulta, destino, puntajes, límites y tiempo límite.
+     * @return Alineamiento listo para {@link #alinearSecuencia}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public AlignmentEngine.Request prepararAlineamiento(AlignmentInDTO alineamiento) {
+        String query = alineamiento.getQuery() != null ? alineamiento.getQuery().trim() : "";
+        if (query.isEmpty() || query.length() > MAX_ALIGNMENT_QUERY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query must have between 1 and " + MAX_ALIGNMENT_QUERY + " bases");
+        }
+        for (int i = 0; i < query.length(); i++) {
+            if (Nucleotides.baseSet(query.charAt(i)) == 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid character '" + query.charAt(i) + "' at position " + i);
+            }
+        }
+        int targetKinds = (alineamiento.getGeneId() != null ? 1 : 0) + (alineamiento.getFunctionId() != null ? 1 : 0)
+                + (alineamiento.getChromosomeId() != null ? 1 : 0);
+        if (targetKinds != 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Exactly one of geneId, functionId or chromosomeId is required");
+        }
+        SmithWaterman.Scoring scoring = validarPuntajes(alineamiento.getMatch(), alineamiento.getMismatch(),
+                alineamiento.getGapOpen(), alineamiento.getGapExtend());
+        int minScore = alineamiento.getMinScore() != null ? alineamiento.getMinScore() : 1;
+        if (minScore < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minScore must be at least 1");
+        }
+        int limit = alineamiento.getLimit() != null ? alineamiento.getLimit() : 100;
+        if (limit < 1 || limit > MAX_ALIGNMENT_HITS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_ALIGNMENT_HITS);
+        }
+        int timeout = alineamiento.getTimeoutMillis() != null ? alineamiento.getTimeoutMillis() : 10_000;
+        if (timeout < 1 || timeout > MAX_ALIGNMENT_TIMEOUT_MILLIS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "timeoutMillis must be between 1 and " + MAX_ALIGNMENT_TIMEOUT_MILLIS);
+        }
 
-            // Calcular porcentaje GC
-            int totalValidBases = aCount + cCount + gCount + tCount;
-            if (totalValidBases > 0) {
-                double gcPercentage = ((double) (gCount + cCount) / totalValidBases) * 100;
-                stats.setGcPercentage(Math.round(gcPercentage * 100.0) / 100.0); // 2 decimales
+        List<AlignmentEngine.Target> targets = new ArrayList<>();
+        if (alineamiento.getChromosomeId() != null) {
+            Chromosome chromosome = chromosomeRepository.findById(alineamiento.getChromosomeId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chromosome not found"));
+            Integer start = alineamiento.getStart();
+            Integer end = alineamiento.getEnd();
+            if (start == null || end == null || start < 0 || start >= end || end > chromosome.getLength()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid range: 0 <= start < end <= chromosome length is required");
+            }
+            if (end - start > MAX_ALIGNMENT_REGION) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Range must be at most " + MAX_ALIGNMENT_REGION + " bases");
+            }
+            if (sequenceBackend.hasSequence(chromosome.getId())) {
+                targets.add(new AlignmentEngine.Target(null, null, chromosome.getId(), chromosome.getName(), start, end));
+            }
+        } else {
+            List<Gene> genes;
+            if (alineamiento.getGeneId() != null) {
+                genes = List.of(geneRepository.findById(alineamiento.getGeneId())
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Gene not found")));
             } else {
-                stats.setGcPercentage(0.0);
+                if (!functionRepository.existsById(alineamiento.getFunctionId())) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Function not found");
+                }
+                genes = geneFunctionRepository.findByFunctionId(alineamiento.getFunctionId()).stream()
+                        .map(GeneFunction::getGene)
+                        .toList();
+                if (genes.size() > MAX_ALIGNMENT_TARGETS) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "The function has more than " + MAX_ALIGNMENT_TARGETS + " genes");
+                }
             }
+            Map<Long, Boolean> withSequence = new HashMap<>();
+            for (Gene gene : genes) {
+                Chromosome chromosome = gene.getChromosome();
+                int start = Math.max(0, gene.getStartPosition());
+                int end = Math.min(chromosome.getLength(), gene.getEndPosition());
+                if (start < end && withSequence.computeIfAbsent(chromosome.getId(), sequenceBackend::hasSequence)) {
+                    targets.add(new AlignmentEngine.Target(gene.getId(), gene.getSymbol(),
+                            chromosome.getId(), chromosome.getName(), start, end));
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sequence not available");
+        }
+        return new AlignmentEngine.Request(query, scoring, !Boolean.FALSE.equals(alineamiento.getBothStrands()),
+                targets, minScore, limit, timeout);
+    }
+    /**
+     * Alinear la consulta contra las secuencias en paralelo. No es transaccional para no retener
+     * una conexión mientras se alinea; las secuencias que no se alcanzan a alinear dentro del
+     * tiempo límite se informan en targetsTimedOut.
+     * @param request Alineamiento preparado con {@link #prepararAlineamiento}.
+     * @return AlignmentResultDTO con los mejores alineamientos, ordenados por puntaje descendente.
+     */
+    @Override
+    public AlignmentResultDTO alinearSecuencia(AlignmentEngine.Request request) {
+        return alinearSecuencia(request, progress -> { });
+    }
+    /**
+     * Alinear la consulta como {@link #alinearSecuencia(AlignmentEngine.Request)}, informando el avance.
+     * @param progress Receptor de la fracción de secuencias alineadas (0 a 1).
+     */
+    @Override
+    public AlignmentResultDTO alinearSecuencia(AlignmentEngine.Request request, DoubleConsumer progress) {
+        long startTime = System.nanoTime();
+        AlignmentEngine.Result result = alignmentEngine.align(request, progress);
 
-            return stats;
-        });
+        AlignmentResultDTO dto = new AlignmentResultDTO();
+        dto.setQueryLength(request.query().length());
+        dto.setTargetsTotal(request.targets().size());
+        dto.setTargetsAligned(result.aligned());
+        dto.setTargetsTimedOut(result.timedOut());
+        dto.setVectorized(result.vectorized());
+        dto.setHits(result.hits().stream().map(hit -> {
+            AlignmentEngine.Target target = hit.target();
+            SmithWaterman.Alignment alignment = hit.alignment();
+            AlignmentHitDTO hitDTO = new AlignmentHitDTO();
+            hitDTO.setGeneId(target.geneId());
+            hitDTO.setGeneSymbol(target.geneSymbol());
+            hitDTO.setChromosomeId(target.chromosomeId());
+            hitDTO.setChromosomeName(target.chromosomeName());
+            hitDTO.setStart(target.start() + alignment.targetStart());
+            hitDTO.setEnd(target.start() + alignment.targetEnd());
+            hitDTO.setQueryStart(alignment.queryStart());
+            hitDTO.setQueryEnd(alignment.queryEnd());
+            hitDTO.setStrand(hit.reverse() ? '-' : '+');
+            hitDTO.setScore(alignment.score());
+            hitDTO.setCigar(alignment.cigar());
+            hitDTO.setIdentity(identityPercentage(alignment));
+            return hitDTO;
+        }).collect(Collectors.toList()));
+        dto.setElapsedMillis((System.nanoTime() - startTime) / 1_000_000);
+        return dto;
+    }
+
+    /**
+     * Buscar regiones similares a una secuencia en un genoma (semillas con el índice de
+     * minimizadores y extensión en banda alrededor de ellas), con los genes que se solapan con
+     * cada resultado. Si el genoma no tiene un índice que corresponda a sus cromosomas actuales, se
+     * programa su construcción y se responde 409 hasta que esté listo.
+     * @param busqueda Genoma, consulta, puntajes, umbrales y límite.
+     * @return SimilaritySearchDTO con los resultados ordenados por puntaje.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SimilaritySearchDTO buscarSimilares(SimilaritySearchInDTO busqueda) {
+        if (busqueda.getGenomeId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "genomeId is required");
+        }
+        String query = busqueda.getQuery() != null ? busqueda.getQuery().trim() : "";
+        if (query.length() > MAX_ALIGNMENT_QUERY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query must have at most " + MAX_ALIGNMENT_QUERY + " bases");
+        }
+        for (int i = 0; i < query.length(); i++) {
+            if (Nucleotides.baseSet(query.charAt(i)) == 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid character '" + query.charAt(i) + "' at position " + i);
+            }
+        }
+        SmithWaterman.Scoring scoring = validarPuntajes(busqueda.getMatch(), busqueda.getMismatch(),
+                busqueda.getGapOpen(), busqueda.getGapExtend());
+        int minScore = busqueda.getMinScore() != null ? busqueda.getMinScore() : 30;
+        if (minScore < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minScore must be at least 1");
+        }
+        double minIdentity = busqueda.getMinIdentity() != null ? busqueda.getMinIdentity() : 0;
+        if (minIdentity < 0 || minIdentity > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minIdentity must be between 0 and 100");
+        }
+        int limit = busqueda.getLimit() != null ? busqueda.getLimit() : 50;
+        if (limit < 1 || limit > MAX_SIMILARITY_HITS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_SIMILARITY_HITS);
+        }
+        Long genomeId = busqueda.getGenomeId();
+        if (!genomeRepository.existsById(genomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+        }
+        List<Chromosome> chromosomes = chromosomeRepository.findByGenomeId(genomeId);
+        List<IndexedChromosome> indexable = minimizerIndexStore.indexable(chromosomes);
+        if (indexable.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sequence not available");
+        }
+        GenomeMinimizerIndex index = minimizerIndexStore.index(genomeId, indexable);
+        if (index == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "The similarity index of this genome is being built; retry later");
+        }
+        // Un tramo compartido más corto que una ventana puede no tener ningún minimizador en común
+        int minLength = index.getK() + index.getW() - 1;
+        if (query.length() < minLength) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query must have at least " + minLength + " bases");
+        }
+
+        long startTime = System.nanoTime();
+        SimilaritySearchEngine.Result result = similaritySearchEngine.search(new SimilaritySearchEngine.Search(
+                index, query, scoring, !Boolean.FALSE.equals(busqueda.getBothStrands()), minScore,
+                minIdentity / 100, limit, MAX_SEED_OCCURRENCES));
+        Map<Long, String> names = chromosomes.stream()
+                .collect(Collectors.toMap(Chromosome::getId, Chromosome::getName));
+
+        SimilaritySearchDTO dto = new SimilaritySearchDTO();
+        dto.setGenomeId(genomeId);
+        dto.setQueryLength(query.length());
+        dto.setMinimizers(result.minimizers());
+        dto.setSeeds(result.seeds());
+        dto.setCandidates(result.candidates());
+        dto.setStale(minimizerIndexStore.isStale(genomeId));
+        dto.setHits(result.hits().stream().map(hit -> {
+            SmithWaterman.Alignment alignment = hit.alignment();
+            SimilarityHitDTO hitDTO = new SimilarityHitDTO();
+            hitDTO.setChromosomeId(hit.chromosomeId());
+            hitDTO.setChromosomeName(names.get(hit.chromosomeId()));
+            hitDTO.setStart(alignment.targetStart());
+            hitDTO.setEnd(alignment.targetEnd());
+            hitDTO.setStrand(hit.reverse() ? '-' : '+');
+            hitDTO.setQueryStart(alignment.queryStart());
+            hitDTO.setQueryEnd(alignment.queryEnd());
+            hitDTO.setScore(alignment.score());
+            hitDTO.setIdentity(identityPercentage(alignment));
+            hitDTO.setCigar(alignment.cigar());
+            hitDTO.setSeeds(hit.seeds());
+            List<String> symbols = new ArrayList<>();
+            geneIntervalIndex.find(hit.chromosomeId(), alignment.targetStart(), alignment.targetEnd())
+                    .ifPresent(genes -> {
+                        for (int gene : genes.overlapping(alignment.targetStart(), alignment.targetEnd())) {
+                            symbols.add(genes.symbol(gene));
+                        }
+                    });
+            hitDTO.setGenes(symbols);
+            return hitDTO;
+        }).collect(Collectors.toList()));
+        dto.setElapsedMillis((System.nanoTime() - startTime) / 1_000_000);
+        return dto;
+    }
+    /**
+     * Obtener el estado del índice de minimizadores de un genoma.
+     * @param genomeId ID del genoma.
+     * @return MinimizerIndexStatusDTO con el estado y el tamaño del índice.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MinimizerIndexStatusDTO obtenerEstadoIndiceMinimizadores(Long genomeId) {
+        if (!genomeRepository.existsById(genomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+        }
+        List<IndexedChromosome> indexable =
+                minimizerIndexStore.indexable(chromosomeRepository.findByGenomeId(genomeId));
+        MinimizerIndexStatusDTO dto = new MinimizerIndexStatusDTO();
+        dto.setGenomeId(genomeId);
+        dto.setState(minimizerIndexStore.state(genomeId, indexable).name());
+        dto.setChromosomes(indexable.size());
+        dto.setIndexedBases(indexable.stream().mapToLong(IndexedChromosome::length).sum());
+        dto.setSizeBytes(minimizerIndexStore.size(genomeId));
+        return dto;
+    }
+    /**
+     * Programar la construcción del índice de minimizadores de un genoma en segundo plano.
+     * @param genomeId ID del genoma.
+     * @return MinimizerIndexStatusDTO con el estado después de programar la construcción.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MinimizerIndexStatusDTO construirIndiceMinimizadores(Long genomeId) {
+        if (!genomeRepository.existsById(genomeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Genome not found");
+        }
+        minimizerIndexStore.schedule(genomeId);
+        return obtenerEstadoIndiceMinimizadores(genomeId);
+    }
+
+    /**
+     * Validar los puntajes de un alineamiento, con sus valores por defecto.
+     */
+    private static SmithWaterman.Scoring validarPuntajes(Integer match, Integer mismatch, Integer gapOpen,
+                                                         Integer gapExtend) {
+        SmithWaterman.Scoring scoring = new SmithWaterman.Scoring(
+                match != null ? match : 2,
+                mismatch != null ? mismatch : 3,
+                gapOpen != null ? gapOpen : 5,
+                gapExtend != null ? gapExtend : 2);
+        if (scoring.match() < 1 || scoring.mismatch() < 0 || scoring.gapExtend() < 1
+                || scoring.gapOpen() < scoring.gapExtend()
+                || Math.max(Math.max(scoring.match(), scoring.mismatch()), scoring.gapOpen()) > MAX_ALIGNMENT_PENALTY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Scores must satisfy 1 <= match, 0 <= mismatch, 1 <= gapExtend <= gapOpen, all up to "
+                            + MAX_ALIGNMENT_PENALTY);
+        }
+        return scoring;
+    }
+
+    /**
+     * Convertir un resumen {mínimo, máximo, suma, número de valores} de ZoomLevel en DTO,
+     * redondeado a 4 decimales. Sin valores, mínimo, máximo y media son null.
+     */
+    private MetricSummaryDTO convertToMetricDTO(double[] summary) {
+        double count = summary[3];
+        if (count == 0) {
+            return new MetricSummaryDTO(null, null, null, 0.0);
+        }
+        return new MetricSummaryDTO(round(summary[0]), round(summary[1]), round(summary[2] / count), round(summary[2]));
     }
 
-    private GeneRangeDTO convertToRangeDTO(Gene gene) {
+    /**
+     * Porcentaje de columnas del alineamiento con bases iguales (2 decimales), o null sin CIGAR.
+     * Es la misma unidad que minIdentity en /similar.
+     */
+    private static Double identityPercentage(SmithWaterman.Alignment alignment) {
+        if (alignment.columns() <= 0) {
+            return null;
+        }
+        return Math.round(10_000.0 * alignment.matches() / alignment.columns()) / 100.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10_000.0) / 10_000.0;
+    }
+
+    private static List<GeneRangeDTO> convertToRangeDTOs(GeneIntervals genes, int[] found) {
+        List<GeneRangeDTO> dtos = new ArrayList<>(found.length);
+        for (int gene : found) {
+            dtos.add(convertToRangeDTO(genes, gene));
+        }
+        return dtos;
+    }
+
+    /**
+     * Convertir un gen del índice de intervalos.
+     * @param genes Genes del cromosoma.
+     * @param gene Posición del gen en el índice.
+     */
+    private static GeneRangeDTO convertToRangeDTO(GeneIntervals genes, int gene) {
         GeneRangeDTO dto = new GeneRangeDTO();
-        dto.setGeneId(gene.getId());
-        dto.setSymbol(gene.getSymbol());
-        dto.setStartPosition(gene.getStartPosition());
-        dto.setEndPosition(gene.getEndPosition());
-        dto.setStrand(gene.getStrand());
-        dto.setChromosomeName(gene.getChromosome().getName());
+        dto.setGeneId(genes.geneId(gene));
+        dto.setSymbol(genes.symbol(gene));
+        dto.setStartPosition(genes.start(gene));
+        dto.setEndPosition(genes.end(gene));
+        dto.setStrand(genes.strand(gene));
+        dto.setChromosomeName(genes.chromosomeName());
         return dto;
     }
 }
\ No newline at end of file
@@ -1,19 +1,26 @@
 package com.backEnd.genomebank.services.impl;
 
+import com.backEnd.genomebank.analysis.CompositionIndex;
+import com.backEnd.genomebank.analysis.CompositionIndexStore;
 import com.backEnd.genomebank.dto.chromosome.*;
 import com.backEnd.genomebank.dto.genome.GenomeOutDTO;
 import com.backEnd.genomebank.dto.species.SpeciesOutDTO;
 import com.backEnd.genomebank.entities.Chromosome;
 import com.backEnd.genomebank.entities.Genome;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
 import com.backEnd.genomebank.repositories.ChromosomeRepository;
 import com.backEnd.genomebank.repositories.GenomeRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
 import com.backEnd.genomebank.services.IChromosomeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +30,9 @@ public class ChromosomeServiceImpl implements IChromosomeService {
 
     private final ChromosomeRepository chromosomeRepository;
     private final GenomeRepository genomeRepository;
+    private final SequenceBackend sequenceBackend;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CompositionIndexStore compositionIndexStore;
     /**
      * Crear un nuevo Chromosome asociado a un Genome existente.
      * @param chromosomeInDTO Datos de entrada para crear el Chromosome.
@@ -48,8 +58,11 @@ public class ChromosomeServiceImpl implements IChromosomeService {
         chromosome.setGenome(genome);
         chromosome.setName(chromosomeInDTO.getName());
         chromosome.setLength(chromosomeInDTO.getLength());
-        chromosome.setSequence(chromosomeInDTO.getSequence());
         Chromosome savedChromosome = chromosomeRepository.save(chromosome);
+        if (chromosomeInDTO.getSequence() != null) {
+            writeSequence(savedChromosome, chromosomeInDTO.getSequence());
+            eventPublisher.publishEvent(new ChromosomeChangedEvent(savedChromosome.getId()));
+        }
         return convertToOutDTO(savedChromosome);
     }
     /**
@@ -105,8 +118,15 @@ public class ChromosomeServiceImpl implements IChromosomeService {
             if (chromosomeUpdateDTO.getName() != null) {
                 chromosome.setName(chromosomeUpdateDTO.getName());
             }
-            if (chromosomeUpdateDTO.getLength() != null) {
+            if (chromosomeUpdateDTO.getLength() != null
+                    && !chromosomeUpdateDTO.getLength().equals(chromosome.getLength())) {
+                // Las lecturas se validan contra la longitud del Chromosome, que debe seguir siendo la de la secuencia
+                if (sequenceBackend.hasSequence(id)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Length must match sequence length");
+                }
                 chromosome.setLength(chromosomeUpdateDTO.getLength());
+                eventPublisher.publishEvent(new ChromosomeChangedEvent(id));
             }
             Chromosome updatedChromosome = chromosomeRepository.save(chromosome);
             return convertToOutDTO(updatedChromosome);
@@ -121,22 +141,13 @@ public class ChromosomeServiceImpl implements IChromosomeService {
     @Transactional
     public boolean eliminarChromosome(Long id) {
         if (chromosomeRepository.existsById(id)) {
+            sequenceBackend.delete(id);
             chromosomeRepository.deleteById(id);
+            eventPublisher.publishEvent(new ChromosomeChangedEvent(id));
             return true;
         }
         return false;
     }
-    /**
-     * Obtener la secuencia completa de un Chromosome.
-     * @param chromosomeId ID del Chromosome.
-     * @return Secuencia completa si el Chromosome existe.
-     */
-    @Override
-    @Transactional(readOnly = true)
-    public Optional<String> obtenerSecuenciaCompleta(Long chromosomeId) {
-        return chromosomeRepository.findById(chromosomeId)
-                .map(Chromosome::getSequence);
-    }
     /**
      * Obtener una subsequence de un Chromosome dado un rango.
      * @param chromosomeId ID del Chromosome.
@@ -148,16 +159,16 @@ public class ChromosomeServiceImpl implements IChromosomeService {
     @Transactional(readOnly = true)
     public Optional<String> obtenerSecuenciaPorRango(Long chromosomeId, Integer start, Integer end) {
         return chromosomeRepository.findById(chromosomeId).map(chromosome -> {
-            String sequence = chromosome.getSequence();
-            if (sequence == null) {
+            if (!sequenceBackend.hasSequence(chromosomeId)) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Sequence not available");
             }
-            if (start < 0 || end > sequence.length() || start >= end) {
+            if (start < 0 || end > chromosome.getLength() || start >= end) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                         "Invalid range");
             }
-            return sequence.substring(start, end);
+            // Solo se leen los bloques que solapan el rango solicitado
+            return sequenceBackend.read(chromosomeId, start, end);
         });
     }
     /**
@@ -174,11 +185,49 @@ public class ChromosomeServiceImpl implements IChromosomeService {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                         "Sequence length must match chromosome length");
             }
-            chromosome.setSequence(sequence);
-            Chromosome updatedChromosome = chromosomeRepository.save(chromosome);
-            return convertToOutDTO(updatedChromosome);
+            writeSequence(chromosome, sequence);
+            eventPublisher.publishEvent(new ChromosomeChangedEvent(chromosomeId));
+            return convertToOutDTO(chromosome);
         });
     }
+    /**
+     * Indicar si un Chromosome tiene secuencia almacenada.
+     * @param chromosomeId ID del Chromosome.
+     * @return true si el Chromosome tiene secuencia.
+     */
+    @Override
+    public boolean tieneSecuencia(Long chromosomeId) {
+        return sequenceBackend.hasSequence(chromosomeId);
+    }
+    /**
+     * Transmitir un rango de la secuencia de un Chromosome por fragmentos.
+     * No es transaccional para no retener una conexión mientras se escribe la respuesta.
+     * @param chromosomeId ID del Chromosome.
+     * @param start Posición inicial (inclusive).
+     * @param end Posición final (exclusive).
+     * @param consumer Receptor de los fragmentos de la secuencia.
+     */
+    @Override
+    public void transmitirSecuencia(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer)
+            throws IOException {
+        sequenceBackend.stream(chromosomeId, start, end, consumer);
+    }
+    /**
+     * Guardar la secuencia de un Chromosome en el backend de secuencias configurado.
+     * @param chromosome Chromosome al que pertenece la secuencia.
+     * @param sequence Secuencia de ADN recibida en la petición.
+     */
+    private void writeSequence(Chromosome chromosome, String sequence) {
+        try {
+            sequenceBackend.write(chromosome.getId(), chromosome.getName(), sequence);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        // El índice de composición se actualiza en la misma transacción que la secuencia
+        CompositionIndex.Builder index = new CompositionIndex.Builder(sequence.length());
+        index.append(sequence);
+        compositionIndexStore.save(chromosome.getId(), index.build());
+    }
     /**
      * Convertir una entidad Chromosome a ChromosomeOutDTO.
      * @param chromosome Entidad Chromosome.
@@ -0,0 +1,178 @@
+package com.backEnd.genomebank.services.impl;
+
+import com.backEnd.genomebank.analysis.CompositionIndex;
+import com.backEnd.genomebank.analysis.CompositionIndexStore;
+import com.backEnd.genomebank.dto.genome.GenomeImportOutDTO;
+import com.backEnd.genomebank.dto.genome.GenomeInDTO;
+import com.backEnd.genomebank.dto.genome.GenomeOutDTO;
+import com.backEnd.genomebank.dto.genome.ImportedChromosomeDTO;
+import com.backEnd.genomebank.entities.Chromosome;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.GenomeRepository;
+import com.backEnd.genomebank.sequence.FastaReader;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceWriter;
+import com.backEnd.genomebank.services.IFastaImportService;
+import com.backEnd.genomebank.services.IGenomeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importación masiva de genomas desde archivos multi-FASTA.
+ * El archivo se procesa en streaming: cada registro se convierte en un Chromosome y sus bases
+ * se escriben en el {@link SequenceBackend} por fragmentos, sin cargar el registro en memoria.
+ * No se ejecuta en una única transacción (un genoma completo no cabe en una); si la importación
+ * falla, se eliminan las secuencias y el Genome ya creados.
+ */
+@Service
+@RequiredArgsConstructor
+public class FastaImportServiceImpl implements IFastaImportService {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_NAME_LENGTH = 50;
+
+    private final IGenomeService genomeService;
+    private final GenomeRepository genomeRepository;
+    private final ChromosomeRepository chromosomeRepository;
+    private final SequenceBackend sequenceBackend;
+    private final CompositionIndexStore compositionIndexStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Crear un Genome y sus Chromosomes a partir de un archivo multi-FASTA (plano o gzip/bgzip).
+     * El nombre de cada Chromosome es la primera palabra del encabezado de su registro.
+     * @param speciesId ID de la Species del Genome.
+     * @param version Versión del Genome.
+     * @param description Descripción del Genome (opcional).
+     * @param fasta Contenido del archivo.
+     * @return Genome creado, Chromosomes importados y métricas de la importación.
+     */
+    @Override
+    public GenomeImportOutDTO importarGenoma(Long speciesId, String version, String description, InputStream fasta)
+            throws IOException {
+        if (version == null || version.isBlank() || version.length() > MAX_NAME_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Version is required and must not exceed 50 characters");
+        }
+        long startTime = System.nanoTime();
+
+        GenomeInDTO genomeInDTO = new GenomeInDTO();
+        genomeInDTO.setSpeciesId(speciesId);
+        genomeInDTO.setVersion(version);
+        genomeInDTO.setDescription(description);
+        GenomeOutDTO genome = genomeService.crearGenome(genomeInDTO);
+
+        List<ImportedChromosomeDTO> imported = new ArrayList<>();
+        long totalBases = 0;
+        try {
+            FastaReader reader = new FastaReader(fasta);
+            Set<String> names = new HashSet<>();
+            byte[] buffer = new byte[CHUNK_SIZE];
+            String header;
+            while ((header = reader.nextHeader()) != null) {
+                String name = chromosomeName(header);
+                if (!names.add(name)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Duplicate chromosome name: " + name);
+                }
+
+                Chromosome chromosome = new Chromosome();
+                chromosome.setGenome(genomeRepository.getReferenceById(genome.getId()));
+                chromosome.setName(name);
+                chromosome.setLength(0);
+                chromosome = chromosomeRepository.save(chromosome);
+                ImportedChromosomeDTO entry = new ImportedChromosomeDTO(chromosome.getId(), name, 0);
+                imported.add(entry);
+
+                long length = writeSequence(reader, chromosome, buffer);
+                chromosome.setLength((int) length);
+                chromosomeRepository.save(chromosome);
+                eventPublisher.publishEvent(new ChromosomeChangedEvent(chromosome.getId()));
+                entry.setLength((int) length);
+                totalBases += length;
+            }
+            if (imported.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "FASTA file contains no records");
+            }
+        } catch (IllegalArgumentException e) {
+            discard(genome.getId(), imported);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            discard(genome.getId(), imported);
+            throw e;
+        }
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        GenomeImportOutDTO result = new GenomeImportOutDTO();
+        result.setGenome(genome);
+        result.setChromosomes(imported);
+        result.setTotalBases(totalBases);
+        result.setElapsedMillis(elapsedMillis);
+        result.setBasesPerSecond(totalBases * 1000 / Math.max(1, elapsedMillis));
+        return result;
+    }
+
+    /**
+     * Copiar las bases del registro actual del lector al backend de secuencias, calculando a la
+     * vez su índice de composición.
+     * @return Longitud de la secuencia escrita.
+     */
+    private long writeSequence(FastaReader reader, Chromosome chromosome, byte[] buffer) throws IOException {
+        SequenceWriter writer = sequenceBackend.openWriter(chromosome.getId(), chromosome.getName());
+        CompositionIndex.Builder index = new CompositionIndex.Builder();
+        try {
+            long written = 0;
+            int count;
+            while ((count = reader.read(buffer, 0, buffer.length)) >= 0) {
+                written += count;
+                if (written > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException(
+                            "Chromosome " + chromosome.getName() + " exceeds the maximum supported length");
+                }
+                writer.append(buffer, 0, count);
+                index.append(buffer, 0, count);
+            }
+            long length = writer.finish();
+            compositionIndexStore.save(chromosome.getId(), index.build());
+            return length;
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Nombre del Chromosome: primera palabra del encabezado FASTA.
+     */
+    private String chromosomeName(String header) {
+        String name = header.split("\\s+", 2)[0];
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("FASTA record without a name");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Chromosome name exceeds 50 characters: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * Compensar una importación fallida eliminando las secuencias escritas y el Genome creado.
+     */
+    private void discard(Long genomeId, List<ImportedChromosomeDTO> imported) {
+        for (ImportedChromosomeDTO chromosome : imported) {
+            sequenceBackend.delete(chromosome.getId());
+        }
+        genomeService.eliminarGenome(genomeId);
+    }
+}
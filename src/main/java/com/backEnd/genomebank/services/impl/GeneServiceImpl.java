@@ -3,25 +3,41 @@ package com.backEnd.genomebank.services.impl;
 import com.backEnd.genomebank.dto.gene.*;
 import com.backEnd.genomebank.entities.Chromosome;
 import com.backEnd.genomebank.entities.Gene;
+import com.backEnd.genomebank.entities.GeneSequence;
+import com.backEnd.genomebank.events.GenesChangedEvent;
 import com.backEnd.genomebank.repositories.ChromosomeRepository;
 import com.backEnd.genomebank.repositories.GeneRepository;
+import com.backEnd.genomebank.repositories.GeneSequenceRepository;
+import com.backEnd.genomebank.sequence.Nucleotides;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.PackedSequence;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
 import com.backEnd.genomebank.services.IGeneService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class GeneServiceImpl implements IGeneService {
 
+    private static final int REVERSE_CHUNK_SIZE = 64 * 1024;
+
     private final GeneRepository geneRepository;
+    private final GeneSequenceRepository geneSequenceRepository;
     private final ChromosomeRepository chromosomeRepository;
+    private final SequenceBackend sequenceBackend;
+    private final ApplicationEventPublisher eventPublisher;
     /**
      * Crear un nuevo Gene asociado a un Chromosome existente.
      * @param geneInDTO Datos de entrada para crear el Gene.
@@ -50,10 +66,13 @@ public class GeneServiceImpl implements IGeneService {
         gene.setStartPosition(geneInDTO.getStartPosition());
         gene.setEndPosition(geneInDTO.getEndPosition());
         gene.setStrand(geneInDTO.getStrand().charAt(0));
-        gene.setSequence(geneInDTO.getSequence());
         gene.setCreatedAt(LocalDateTime.now());
 
         Gene savedGene = geneRepository.save(gene);
+        if (geneInDTO.getSequence() != null) {
+            saveSequence(savedGene, geneInDTO.getSequence());
+        }
+        eventPublisher.publishEvent(new GenesChangedEvent(chromosome.getId()));
         return convertToOutDTO(savedGene);
     }
     /**
@@ -118,6 +137,7 @@ public class GeneServiceImpl implements IGeneService {
     }
     /**
      * Actualizar un Gene existente.
+     * Las posiciones resultantes se validan igual que al crear el Gene (400 si no son válidas).
      * @param id ID del Gene a actualizar.
      * @param geneUpdateDTO Datos de actualización del Gene.
      * @return Datos de salida del Gene actualizado si se encuentra, opcionalmente.
@@ -126,11 +146,13 @@ public class GeneServiceImpl implements IGeneService {
     @Transactional
     public Optional<GeneOutDTO> actualizarGene(Long id, GeneUpdateDTO geneUpdateDTO) {
         return geneRepository.findById(id).map(gene -> {
+            eventPublisher.publishEvent(new GenesChangedEvent(gene.getChromosome().getId()));
             if (geneUpdateDTO.getChromosomeId() != null) {
                 Chromosome chromosome = chromosomeRepository.findById(geneUpdateDTO.getChromosomeId())
                         .orElseThrow(() -> new ResponseStatusException(
                                 HttpStatus.NOT_FOUND, "Chromosome not found"));
                 gene.setChromosome(chromosome);
+                eventPublisher.publishEvent(new GenesChangedEvent(chromosome.getId()));
             }
             if (geneUpdateDTO.getSymbol() != null) {
                 gene.setSymbol(geneUpdateDTO.getSymbol());
@@ -141,9 +163,29 @@ public class GeneServiceImpl implements IGeneService {
             if (geneUpdateDTO.getEndPosition() != null) {
                 gene.setEndPosition(geneUpdateDTO.getEndPosition());
             }
+            Character previousStrand = gene.getStrand();
             if (geneUpdateDTO.getStrand() != null) {
                 gene.setStrand(geneUpdateDTO.getStrand().charAt(0));
             }
+
+            // Validar las posiciones resultantes, como al crear el Gene
+            if (gene.getStartPosition() >= gene.getEndPosition()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Start position must be less than end position");
+            }
+            if (gene.getEndPosition() > gene.getChromosome().getLength()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Gene positions exceed chromosome length");
+            }
+
+            // Una secuencia propia deja de ser válida si cambia la hebra (estaba escrita en la
+            // hebra anterior) o si ya no coincide con la longitud del Gene
+            boolean strandChanged = !Objects.equals(previousStrand, gene.getStrand());
+            geneSequenceRepository.findById(id)
+                    .filter(stored -> strandChanged
+                            || PackedSequence.fromBytes(stored.getPackedSequence()).length()
+                            != gene.getEndPosition() - gene.getStartPosition())
+                    .ifPresent(geneSequenceRepository::delete);
             Gene updatedGene = geneRepository.save(gene);
             return convertToOutDTO(updatedGene);
         });
@@ -156,25 +198,16 @@ public class GeneServiceImpl implements IGeneService {
     @Override
     @Transactional
     public boolean eliminarGene(Long id) {
-        if (geneRepository.existsById(id)) {
-            geneRepository.deleteById(id);
+        return geneRepository.findById(id).map(gene -> {
+            geneRepository.delete(gene);
+            eventPublisher.publishEvent(new GenesChangedEvent(gene.getChromosome().getId()));
             return true;
-        }
-        return false;
-    }
-    /**
-     * Obtener la secuencia de un Gene por su ID.
-     * @param geneId ID del Gene.
-     * @return Secuencia del Gene si se encuentra, opcionalmente.
-     */
-    @Override
-    @Transactional(readOnly = true)
-    public Optional<String> obtenerSecuenciaGene(Long geneId) {
-        return geneRepository.findById(geneId)
-                .map(Gene::getSequence);
+        }).orElse(false);
     }
     /**
      * Actualizar la secuencia de un Gene.
+     * Si la secuencia coincide con la derivada del Chromosome no se guarda una copia, y el Gene
+     * sigue siendo virtual; si difiere, se guarda como secuencia propia.
      * @param geneId ID del Gene.
      * @param sequence Nueva secuencia para el Gene.
      * @return Datos de salida del Gene actualizado si se encuentra, opcionalmente.
@@ -188,11 +221,122 @@ public class GeneServiceImpl implements IGeneService {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                         "Sequence length must match gene length (end - start)");
             }
-            gene.setSequence(sequence);
-            Gene updatedGene = geneRepository.save(gene);
-            return convertToOutDTO(updatedGene);
+            saveSequence(gene, sequence);
+            return convertToOutDTO(gene);
         });
     }
+    /**
+     * Eliminar la secuencia propia de un Gene, de modo que vuelva a derivarse de su Chromosome.
+     * @param geneId ID del Gene.
+     * @return true si el Gene existe, false si no se encontró.
+     */
+    @Override
+    @Transactional
+    public boolean eliminarSecuenciaGene(Long geneId) {
+        if (!geneRepository.existsById(geneId)) {
+            return false;
+        }
+        if (geneSequenceRepository.existsById(geneId)) {
+            geneSequenceRepository.deleteById(geneId);
+        }
+        return true;
+    }
+    /**
+     * Indicar si un Gene tiene secuencia disponible, propia o a través de su Chromosome.
+     * @param geneId ID del Gene.
+     * @return true si se puede obtener la secuencia del Gene.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean tieneSecuenciaGene(Long geneId) {
+        return geneRepository.findById(geneId)
+                .map(gene -> geneSequenceRepository.existsById(geneId)
+                        || sequenceBackend.hasSequence(gene.getChromosome().getId()))
+                .orElse(false);
+    }
+    /**
+     * Transmitir la secuencia de un Gene por fragmentos.
+     * Si el Gene se recorta de su Chromosome, los bloques se leen y entregan de uno en uno; en la
+     * hebra '-' el rango se recorre desde el final y cada fragmento se entrega ya complementado.
+     * @param geneId ID del Gene.
+     * @param consumer Receptor de los fragmentos de la secuencia.
+     */
+    @Override
+    public void transmitirSecuenciaGene(Long geneId, SequenceChunkConsumer consumer) throws IOException {
+        Gene gene = geneRepository.findById(geneId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Gene not found"));
+        Optional<GeneSequence> stored = geneSequenceRepository.findById(geneId);
+        if (stored.isPresent()) {
+            PackedSequence sequence = PackedSequence.fromBytes(stored.get().getPackedSequence());
+            byte[] bases = new byte[sequence.length()];
+            sequence.decodeTo(0, sequence.length(), bases, 0);
+            consumer.accept(ByteBuffer.wrap(bases));
+            return;
+        }
+        Long chromosomeId = gene.getChromosome().getId();
+        if (gene.getStrand() == '-') {
+            streamReverseComplement(chromosomeId, gene.getStartPosition(), gene.getEndPosition(), consumer);
+        } else {
+            sequenceBackend.stream(chromosomeId, gene.getStartPosition(), gene.getEndPosition(), consumer);
+        }
+    }
+    /**
+     * Transmitir el reverso complementario de un rango de un Chromosome, en fragmentos de
+     * tamaño fijo leídos desde el final del rango hacia el inicio.
+     */
+    private void streamReverseComplement(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer)
+            throws IOException {
+        byte[] buffer = new byte[REVERSE_CHUNK_SIZE];
+        for (int to = end; to > start; to -= REVERSE_CHUNK_SIZE) {
+            int from = Math.max(start, to - REVERSE_CHUNK_SIZE);
+            int[] filled = {0};
+            sequenceBackend.stream(chromosomeId, from, to, chunk -> {
+                int length = chunk.remaining();
+                chunk.get(buffer, filled[0], length);
+                filled[0] += length;
+            });
+            Nucleotides.reverseComplement(buffer, 0, filled[0]);
+            consumer.accept(ByteBuffer.wrap(buffer, 0, filled[0]));
+        }
+    }
+    /**
+     * Secuencia virtual de un Gene: el rango [startPosition, endPosition) de su Chromosome,
+     * como reverso complementario en la hebra '-'.
+     * @return Secuencia derivada, o null si el Chromosome no tiene secuencia.
+     */
+    private String derivedSequence(Gene gene) {
+        Long chromosomeId = gene.getChromosome().getId();
+        if (!sequenceBackend.hasSequence(chromosomeId)) {
+            return null;
+        }
+        String sequence = sequenceBackend.read(chromosomeId, gene.getStartPosition(), gene.getEndPosition());
+        return gene.getStrand() == '-' ? Nucleotides.reverseComplement(sequence) : sequence;
+    }
+    /**
+     * Guardar una secuencia como secuencia propia del Gene, empaquetada a 2 bits por base,
+     * salvo que coincida con la secuencia derivada de su Chromosome.
+     * @param gene Gene al que pertenece la secuencia.
+     * @param sequence Secuencia de ADN recibida en la petición.
+     */
+    private void saveSequence(Gene gene, String sequence) {
+        byte[] packed;
+        try {
+            packed = PackedSequence.encode(sequence).toBytes();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (sequence.equals(derivedSequence(gene))) {
+            if (geneSequenceRepository.existsById(gene.getId())) {
+                geneSequenceRepository.deleteById(gene.getId());
+            }
+            return;
+        }
+        GeneSequence geneSequence = new GeneSequence();
+        geneSequence.setGeneId(gene.getId());
+        geneSequence.setPackedSequence(packed);
+        geneSequenceRepository.save(geneSequence);
+    }
     /**
      * Convertir una entidad Gene a GeneOutDTO.
      * @param gene Entidad Gene.
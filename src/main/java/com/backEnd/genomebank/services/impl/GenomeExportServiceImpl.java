@@ -0,0 +1,207 @@
+package com.backEnd.genomebank.services.impl;
+
+import com.backEnd.genomebank.entities.Chromosome;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.sequence.BgzfOutputStream;
+import com.backEnd.genomebank.sequence.FaiRecord;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceFormat;
+import com.backEnd.genomebank.sequence.SequenceStreamWriter;
+import com.backEnd.genomebank.services.IGenomeExportService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exportación de Genomes completos como multi-FASTA, plano o comprimido en BGZF, junto con
+ * sus índices .fai y .gzi.
+ * Los Chromosomes se recorren de uno en uno y sus bases se transmiten desde el
+ * {@link SequenceBackend} directamente a la salida, así que la memoria usada no depende del
+ * tamaño del Genome. No es transaccional para no retener una conexión durante la descarga.
+ * <p>
+ * El índice .gzi depende de dónde cae cada bloque comprimido, así que solo se conoce después de
+ * comprimir el Genome. Cada exportación BGZF guarda su índice en memoria (unos 16 bytes por cada
+ * 64 KB) y la descarga del .gzi lo reutiliza. Solo si no hay uno válido se vuelve a comprimir el
+ * Genome sin guardar la salida. Deflate da la misma salida para los mismos datos y nivel, así que
+ * el índice coincide con cualquier exportación del mismo contenido. Un índice deja de valer cuando
+ * cambia uno de sus Chromosomes o la lista de Chromosomes exportables.
+ */
+@Service
+public class GenomeExportServiceImpl implements IGenomeExportService {
+
+    private static final int LINE_WIDTH = SequenceStreamWriter.FASTA_LINE_WIDTH + 1;
+
+    private final ChromosomeRepository chromosomeRepository;
+    private final SequenceBackend sequenceBackend;
+    private final ExecutorService compressionExecutor;
+    private final int compressionLevel;
+    private final Map<Long, CachedIndex> gziIndexes = new ConcurrentHashMap<>();
+    /** Se incrementa con cada cambio de un Chromosome; un índice calculado durante un cambio no se guarda. */
+    private final AtomicLong generation = new AtomicLong();
+
+    public GenomeExportServiceImpl(ChromosomeRepository chromosomeRepository,
+                                   SequenceBackend sequenceBackend,
+                                   @Qualifier("compressionExecutor") ExecutorService compressionExecutor,
+                                   @Value("${genomebank.export.compression-level:6}") int compressionLevel) {
+        this.chromosomeRepository = chromosomeRepository;
+        this.sequenceBackend = sequenceBackend;
+        this.compressionExecutor = compressionExecutor;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Escribir el Genome como multi-FASTA, con líneas de 60 bases y un registro por Chromosome.
+     * @param genomeId ID del Genome.
+     * @param out Destino del archivo.
+     */
+    @Override
+    public void exportarFasta(Long genomeId, OutputStream out) throws IOException {
+        escribirFasta(exportableChromosomes(genomeId), out);
+    }
+
+    /**
+     * Escribir el Genome como multi-FASTA comprimido en BGZF (legible con bgzip -d y samtools faidx).
+     * Los bloques se comprimen en paralelo en el pool de compresión, y el índice .gzi resultante se
+     * guarda para {@link #exportarIndiceGzi}.
+     * @param genomeId ID del Genome.
+     * @param out Destino del archivo.
+     */
+    @Override
+    public void exportarBgzip(Long genomeId, OutputStream out) throws IOException {
+        long startGeneration = generation.get();
+        List<Chromosome> chromosomes = exportableChromosomes(genomeId);
+        BgzfOutputStream bgzf = openBgzf(out);
+        try (bgzf) {
+            escribirFasta(chromosomes, bgzf);
+        }
+        guardarIndice(genomeId, chromosomes, startGeneration, bgzf);
+    }
+
+    /**
+     * Calcular el índice .fai del multi-FASTA exportado a partir de los metadatos, sin leer bases.
+     * El mismo índice sirve para la versión BGZF, ya que usa desplazamientos sin comprimir.
+     * @param genomeId ID del Genome.
+     * @return Contenido del archivo .fai.
+     */
+    @Override
+    public String generarIndiceFai(Long genomeId) {
+        StringBuilder fai = new StringBuilder();
+        long offset = 0;
+        for (Chromosome chromosome : exportableChromosomes(genomeId)) {
+            long length = chromosome.getLength();
+            offset += ('>' + chromosome.getName() + '\n').getBytes(StandardCharsets.UTF_8).length;
+            fai.append(new FaiRecord(chromosome.getName(), length, offset,
+                    SequenceStreamWriter.FASTA_LINE_WIDTH, LINE_WIDTH).format());
+            long lines = (length + SequenceStreamWriter.FASTA_LINE_WIDTH - 1) / SequenceStreamWriter.FASTA_LINE_WIDTH;
+            offset += length + lines;
+        }
+        return fai.toString();
+    }
+
+    /**
+     * Escribir el índice .gzi de la exportación BGZF. Se usa el de la última exportación si sigue
+     * siendo válido; si no, se recalcula comprimiendo todo el Genome sin guardar la salida, una
+     * pasada tan costosa en CPU como la exportación misma.
+     * @param genomeId ID del Genome.
+     * @param out Destino del índice.
+     */
+    @Override
+    public void exportarIndiceGzi(Long genomeId, OutputStream out) throws IOException {
+        long startGeneration = generation.get();
+        List<Chromosome> chromosomes = exportableChromosomes(genomeId);
+        List<ExportedChromosome> exported = exported(chromosomes);
+        CachedIndex cached = gziIndexes.get(genomeId);
+        byte[] gzi;
+        if (cached != null && cached.chromosomes().equals(exported)) {
+            gzi = cached.gzi();
+        } else {
+            BgzfOutputStream bgzf = openBgzf(OutputStream.nullOutputStream());
+            try (bgzf) {
+                escribirFasta(chromosomes, bgzf);
+            }
+            gzi = guardarIndice(genomeId, chromosomes, startGeneration, bgzf);
+        }
+        out.write(gzi);
+        out.flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChromosomeChanged(ChromosomeChangedEvent event) {
+        generation.incrementAndGet();
+        gziIndexes.values().removeIf(cached -> cached.chromosomes().stream()
+                .anyMatch(chromosome -> chromosome.id().equals(event.chromosomeId())));
+    }
+
+    private void escribirFasta(List<Chromosome> chromosomes, OutputStream out) throws IOException {
+        for (Chromosome chromosome : chromosomes) {
+            SequenceStreamWriter writer = new SequenceStreamWriter(out, SequenceFormat.FASTA);
+            writer.begin(chromosome.getName());
+            sequenceBackend.stream(chromosome.getId(), 0, chromosome.getLength(), writer);
+            writer.finish();
+        }
+    }
+
+    /**
+     * Obtener el índice .gzi de una compresión terminada y guardarlo, salvo que algún Chromosome
+     * haya cambiado mientras se comprimía.
+     * @return Contenido del índice.
+     */
+    private byte[] guardarIndice(Long genomeId, List<Chromosome> chromosomes, long startGeneration,
+                                 BgzfOutputStream bgzf) throws IOException {
+        ByteArrayOutputStream gzi = new ByteArrayOutputStream();
+        bgzf.writeIndex(gzi);
+        byte[] bytes = gzi.toByteArray();
+        CachedIndex index = new CachedIndex(exported(chromosomes), bytes);
+        gziIndexes.put(genomeId, index);
+        if (generation.get() != startGeneration) {
+            // Un cambio concurrente pudo no ver este índice al invalidar
+            gziIndexes.remove(genomeId, index);
+        }
+        return bytes;
+    }
+
+    private BgzfOutputStream openBgzf(OutputStream out) {
+        int maxInFlight = 2 * Runtime.getRuntime().availableProcessors();
+        return new BgzfOutputStream(out, compressionExecutor, maxInFlight, compressionLevel);
+    }
+
+    private static List<ExportedChromosome> exported(List<Chromosome> chromosomes) {
+        return chromosomes.stream()
+                .map(chromosome -> new ExportedChromosome(chromosome.getId(), chromosome.getName(),
+                        chromosome.getLength()))
+                .toList();
+    }
+
+    /**
+     * Chromosome incluido en una exportación, para comprobar si un índice guardado sigue valiendo.
+     */
+    private record ExportedChromosome(Long id, String name, int length) {
+    }
+
+    private record CachedIndex(List<ExportedChromosome> chromosomes, byte[] gzi) {
+    }
+
+    /**
+     * Chromosomes del Genome con secuencia almacenada, en orden de ID para que la exportación
+     * y sus índices coincidan.
+     */
+    private List<Chromosome> exportableChromosomes(Long genomeId) {
+        return chromosomeRepository.findByGenomeId(genomeId).stream()
+                .filter(chromosome -> sequenceBackend.hasSequence(chromosome.getId()))
+                .sorted(Comparator.comparing(Chromosome::getId))
+                .toList();
+    }
+}
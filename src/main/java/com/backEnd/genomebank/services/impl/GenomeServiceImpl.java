@@ -4,10 +4,13 @@ import com.backEnd.genomebank.dto.genome.*;
 import com.backEnd.genomebank.dto.species.SpeciesOutDTO;
 import com.backEnd.genomebank.entities.Genome;
 import com.backEnd.genomebank.entities.Species;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
 import com.backEnd.genomebank.repositories.GenomeRepository;
 import com.backEnd.genomebank.repositories.SpeciesRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
 import com.backEnd.genomebank.services.IGenomeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -23,6 +26,8 @@ public class GenomeServiceImpl implements IGenomeService {
 
     private final GenomeRepository genomeRepository;
     private final SpeciesRepository speciesRepository;
+    private final SequenceBackend sequenceBackend;
+    private final ApplicationEventPublisher eventPublisher;
     /**
      * Crear un nuevo Genome asociado a una Species existente.
      * @param genomeInDTO Datos de entrada para crear el Genome.
@@ -112,11 +117,15 @@ public class GenomeServiceImpl implements IGenomeService {
     @Override
     @Transactional
     public boolean eliminarGenome(Long id) {
-        if (genomeRepository.existsById(id)) {
-            genomeRepository.deleteById(id);
+        return genomeRepository.findById(id).map(genome -> {
+            // Los bloques se eliminan en cascada, pero los archivos del backend "mapped" no
+            genome.getChromosomes().forEach(chromosome -> {
+                sequenceBackend.delete(chromosome.getId());
+                eventPublisher.publishEvent(new ChromosomeChangedEvent(chromosome.getId()));
+            });
+            genomeRepository.delete(genome);
             return true;
-        }
-        return false;
+        }).orElse(false);
     }
     /**
      * Convertir una entidad Genome a GenomeOutDTO.
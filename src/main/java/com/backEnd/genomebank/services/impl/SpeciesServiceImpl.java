@@ -2,9 +2,12 @@ package com.backEnd.genomebank.services.impl;
 
 import com.backEnd.genomebank.dto.species.*;
 import com.backEnd.genomebank.entities.Species;
+import com.backEnd.genomebank.events.ChromosomeChangedEvent;
 import com.backEnd.genomebank.repositories.SpeciesRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
 import com.backEnd.genomebank.services.ISpeciesService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +19,8 @@ import java.util.Optional;
 public class SpeciesServiceImpl implements ISpeciesService {
 
     private final SpeciesRepository speciesRepository;
+    private final SequenceBackend sequenceBackend;
+    private final ApplicationEventPublisher eventPublisher;
     /**
      * Crear una nueva Species.
      * @param speciesInDTO Datos de entrada para crear la Species.
@@ -85,11 +90,15 @@ public class SpeciesServiceImpl implements ISpeciesService {
     @Override
     @Transactional
     public boolean eliminarSpecies(Long id) {
-        if (speciesRepository.existsById(id)) {
-            speciesRepository.deleteById(id);
+        return speciesRepository.findById(id).map(species -> {
+            // Como al eliminar un Genome: los archivos del backend "mapped" no se eliminan en cascada
+            species.getGenomes().forEach(genome -> genome.getChromosomes().forEach(chromosome -> {
+                sequenceBackend.delete(chromosome.getId());
+                eventPublisher.publishEvent(new ChromosomeChangedEvent(chromosome.getId()));
+            }));
+            speciesRepository.delete(species);
             return true;
-        }
-        return false;
+        }).orElse(false);
     }
     /**
      * Convertir una entidad Species a SpeciesOutDTO.
@@ -0,0 +1,118 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import com.backEnd.genomebank.sequence.SequenceWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompositionEngineTest {
+
+	private static final long CHROMOSOME_ID = 3;
+
+	@Test
+	void windowsMatchADirectCount() {
+		Random random = new Random(31);
+		String sequence = randomSequence(random, 2 * CompositionEngine.SEGMENT_SIZE + 12_345);
+		CompositionEngine engine = new CompositionEngine(new MemoryBackend(sequence), new ForkJoinPool(4));
+		int segment = CompositionEngine.SEGMENT_SIZE;
+
+		check(engine, sequence, 0, sequence.length());
+		check(engine, sequence, 0, 0);
+		check(engine, sequence, segment - 1, segment + 1);
+		check(engine, sequence, 1, segment + 1);
+		check(engine, sequence, 7, 2 * segment + 5);
+		for (int i = 0; i < 20; i++) {
+			int start = random.nextInt(sequence.length());
+			int width = random.nextInt(i % 2 == 0 ? 1000 : 3 * segment);
+			check(engine, sequence, start, Math.min(sequence.length(), start + width));
+		}
+	}
+
+	private static void check(CompositionEngine engine, String sequence, int start, int end) {
+		BaseComposition composition = engine.compute(CHROMOSOME_ID, start, end);
+		String window = sequence.substring(start, end);
+		String range = "[" + start + ", " + end + ")";
+		for (char base : "ACGTNRYSWKMBDHV".toCharArray()) {
+			long expected = window.chars().filter(c -> Character.toUpperCase(c) == base).count();
+			assertEquals(expected, composition.count(base), base + " in " + range);
+		}
+		assertEquals(window.chars().filter(Character::isLowerCase).count(), composition.softMasked(), range);
+		long[] dinucleotides = new long[16];
+		for (int i = 1; i < window.length(); i++) {
+			int first = BaseComposition.BASES.indexOf(Character.toUpperCase(window.charAt(i - 1)));
+			int second = BaseComposition.BASES.indexOf(Character.toUpperCase(window.charAt(i)));
+			if (first >= 0 && second >= 0) {
+				dinucleotides[first * 4 + second]++;
+			}
+		}
+		for (int i = 0; i < 16; i++) {
+			char first = BaseComposition.BASES.charAt(i / 4);
+			char second = BaseComposition.BASES.charAt(i % 4);
+			assertEquals(dinucleotides[i], composition.dinucleotide(first, second), "" + first + second + " in " + range);
+		}
+	}
+
+	/**
+	 * Mayormente ACGT, con tramos de N, códigos IUPAC y minúsculas.
+	 */
+	private static String randomSequence(Random random, int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		while (sequence.length() < length) {
+			int run = 1 + random.nextInt(200);
+			int kind = random.nextInt(20);
+			boolean lower = random.nextInt(5) == 0;
+			for (int i = 0; i < run && sequence.length() < length; i++) {
+				char base = switch (kind) {
+					case 0 -> 'N';
+					case 1 -> BaseComposition.IUPAC_AMBIGUITY_CODES.charAt(random.nextInt(10));
+					default -> BaseComposition.BASES.charAt(random.nextInt(4));
+				};
+				sequence.append(lower ? Character.toLowerCase(base) : base);
+			}
+		}
+		return sequence.toString();
+	}
+
+	/**
+	 * Secuencia en memoria, entregada en fragmentos pequeños; la mitad sin arreglo accesible.
+	 */
+	private record MemoryBackend(String sequence) implements SequenceBackend {
+
+		@Override
+		public SequenceWriter openWriter(Long chromosomeId, String name) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(Long chromosomeId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean hasSequence(Long chromosomeId) {
+			return chromosomeId == CHROMOSOME_ID;
+		}
+
+		@Override
+		public String read(Long chromosomeId, int start, int end) {
+			return sequence.substring(start, end);
+		}
+
+		@Override
+		public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException {
+			byte[] bytes = read(chromosomeId, start, end).getBytes(StandardCharsets.US_ASCII);
+			for (int from = 0; from < bytes.length; from += 4099) {
+				ByteBuffer chunk = ByteBuffer.wrap(bytes, from, Math.min(4099, bytes.length - from));
+				consumer.accept((from / 4099) % 2 == 0 ? chunk : chunk.asReadOnlyBuffer());
+			}
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.entities.ChromosomeCompositionIndex;
+import com.backEnd.genomebank.repositories.ChromosomeCompositionIndexRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import com.backEnd.genomebank.sequence.SequenceWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompositionIndexStoreTest {
+
+	private static final long CHROMOSOME_ID = 5;
+	private static final int BIN = CompositionIndex.BIN_SIZE;
+
+	private final Map<Long, byte[]> stored = new HashMap<>();
+
+	@Test
+	void rangeCountsMatchADirectCount() {
+		Random random = new Random(41);
+		// Más de 1024 bins para que la construcción se reparta en varias tareas, con un bin final parcial
+		String sequence = randomSequence(random, 1500 * BIN + 1234);
+		CompositionIndexStore store = store(sequence);
+
+		check(store, sequence, 0, sequence.length());
+		check(store, sequence, 0, BIN);
+		check(store, sequence, BIN, 3 * BIN);
+		check(store, sequence, BIN - 1, BIN + 1);
+		check(store, sequence, 5, 7);
+		check(store, sequence, 3 * BIN + 10, 9 * BIN - 1);
+		check(store, sequence, 3 * BIN, 9 * BIN + 1);
+		check(store, sequence, 1499 * BIN + 5, sequence.length());
+		check(store, sequence, 1500 * BIN, sequence.length());
+		check(store, sequence, 17, sequence.length() - 1);
+		for (int i = 0; i < 100; i++) {
+			int start = random.nextInt(sequence.length());
+			int width = 1 + random.nextInt(i % 3 == 0 ? 2 * BIN : sequence.length());
+			check(store, sequence, start, Math.min(sequence.length(), start + width));
+		}
+		assertTrue(stored.containsKey(CHROMOSOME_ID));
+	}
+
+	@Test
+	void storedIndexMatchesTheBuiltOne() {
+		String sequence = randomSequence(new Random(43), 40 * BIN + 17);
+		CompositionIndex.Builder builder = new CompositionIndex.Builder(sequence.length());
+		builder.append(sequence);
+		stored.put(CHROMOSOME_ID, builder.build().toBytes());
+		CompositionIndexStore store = store(sequence);
+
+		long[] all = new long[CompositionIndex.COUNTERS];
+		store.index(CHROMOSOME_ID, sequence.length()).addBins(all, 0, CompositionIndex.binCount(sequence.length()));
+		assertArrayEquals(directCount(sequence), all);
+
+		// Un índice guardado con otra longitud se reconstruye con la secuencia actual
+		String longer = sequence + "ACGTNacgtn";
+		store = store(longer);
+		check(store, longer, 0, longer.length());
+		assertEquals(longer.length(), CompositionIndex.fromBytes(stored.get(CHROMOSOME_ID)).length());
+	}
+
+	private static void check(CompositionIndexStore store, String sequence, int start, int end) {
+		assertArrayEquals(directCount(sequence.substring(start, end)),
+				store.count(CHROMOSOME_ID, sequence.length(), start, end), "[" + start + ", " + end + ")");
+	}
+
+	private static long[] directCount(String sequence) {
+		long[] counts = new long[CompositionIndex.COUNTERS];
+		for (char c : sequence.toCharArray()) {
+			int counter = "ACGTN".indexOf(Character.toUpperCase(c));
+			if (counter >= 0) {
+				counts[counter]++;
+			}
+			if (Character.isLowerCase(c)) {
+				counts[CompositionIndex.SOFT_MASKED]++;
+			}
+		}
+		return counts;
+	}
+
+	private CompositionIndexStore store(String sequence) {
+		return new CompositionIndexStore(indexRepository(), new MemoryBackend(sequence), new ForkJoinPool(4));
+	}
+
+	/**
+	 * Repositorio en memoria con las operaciones que usa el almacén de índices.
+	 */
+	private ChromosomeCompositionIndexRepository indexRepository() {
+		return (ChromosomeCompositionIndexRepository) Proxy.newProxyInstance(
+				ChromosomeCompositionIndexRepository.class.getClassLoader(),
+				new Class<?>[]{ChromosomeCompositionIndexRepository.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "findById" -> {
+							return Optional.ofNullable(stored.get((Long) args[0])).map(data -> {
+								ChromosomeCompositionIndex entity = new ChromosomeCompositionIndex();
+								entity.setChromosomeId((Long) args[0]);
+								entity.setData(data);
+								return entity;
+							});
+						}
+						case "existsById" -> {
+							return stored.containsKey((Long) args[0]);
+						}
+						case "insertIfAbsent" -> {
+							stored.putIfAbsent((Long) args[0], (byte[]) args[1]);
+							return null;
+						}
+						case "save" -> {
+							ChromosomeCompositionIndex entity = (ChromosomeCompositionIndex) args[0];
+							stored.put(entity.getChromosomeId(), entity.getData());
+							return entity;
+						}
+						default -> throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private static String randomSequence(Random random, int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		while (sequence.length() < length) {
+			int run = 1 + random.nextInt(300);
+			int kind = random.nextInt(15);
+			boolean lower = random.nextInt(4) == 0;
+			for (int i = 0; i < run && sequence.length() < length; i++) {
+				char base = switch (kind) {
+					case 0 -> 'N';
+					case 1 -> 'R';
+					default -> "ACGT".charAt(random.nextInt(4));
+				};
+				sequence.append(lower ? Character.toLowerCase(base) : base);
+			}
+		}
+		return sequence.toString();
+	}
+
+	/**
+	 * Secuencia en memoria, entregada en fragmentos que no coinciden con los bins.
+	 */
+	private record MemoryBackend(String sequence) implements SequenceBackend {
+
+		@Override
+		public SequenceWriter openWriter(Long chromosomeId, String name) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(Long chromosomeId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean hasSequence(Long chromosomeId) {
+			return chromosomeId == CHROMOSOME_ID;
+		}
+
+		@Override
+		public String read(Long chromosomeId, int start, int end) {
+			return sequence.substring(start, end);
+		}
+
+		@Override
+		public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException {
+			byte[] bytes = read(chromosomeId, start, end).getBytes(StandardCharsets.US_ASCII);
+			for (int from = 0; from < bytes.length; from += 1000) {
+				consumer.accept(ByteBuffer.wrap(bytes, from, Math.min(1000, bytes.length - from)));
+			}
+		}
+	}
+}
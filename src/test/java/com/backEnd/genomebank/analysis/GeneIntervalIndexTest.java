@@ -0,0 +1,136 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.entities.Chromosome;
+import com.backEnd.genomebank.entities.Gene;
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.repositories.GeneRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneIntervalIndexTest {
+
+	private static final long CHROMOSOME_ID = 7;
+
+	private final List<Gene> genes = new ArrayList<>();
+	private final List<String> calls = new ArrayList<>();
+
+	@Test
+	void boundedNearestQueriesMatchTheInMemoryIndex() {
+		Random random = new Random(9);
+		for (int i = 0; i < 2000; i++) {
+			int start = random.nextInt(1_000_000);
+			genes.add(gene(i + 1, start, start + 1 + random.nextInt(random.nextInt(50) == 0 ? 200_000 : 5_000)));
+		}
+		GeneIntervals all = index(true).find(CHROMOSOME_ID).orElseThrow();
+		GeneIntervalIndex bounded = index(false);
+
+		for (int i = 0; i < 300; i++) {
+			int start = random.nextInt(1_100_000);
+			int end = start + 1 + random.nextInt(i % 2 == 0 ? 10 : 50_000);
+			int k = 1 + random.nextInt(GeneIntervalIndex.MAX_NEAREST);
+			calls.clear();
+			GeneIntervals nearest = bounded.findNearest(CHROMOSOME_ID, start, end, k).orElseThrow();
+
+			assertFalse(calls.contains("findIntervalsByChromosomeId"), "read the whole chromosome");
+			assertTrue(nearest.size() <= 2 * k + all.overlapping(start, end).length);
+			assertArrayEquals(ids(all, all.overlapping(start, end)), ids(nearest, nearest.overlapping(start, end)));
+			assertArrayEquals(ends(all, all.nearestBefore(start, k)), ends(nearest, nearest.nearestBefore(start, k)));
+			assertArrayEquals(starts(all, all.nearestAfter(end, k)), starts(nearest, nearest.nearestAfter(end, k)));
+		}
+	}
+
+	@Test
+	void unknownChromosomeIsEmpty() {
+		assertTrue(index(false).findNearest(CHROMOSOME_ID + 1, 0, 10, 1).isEmpty());
+	}
+
+	private GeneIntervalIndex index(boolean enabled) {
+		return new GeneIntervalIndex(geneRepository(), chromosomeRepository(), null, enabled);
+	}
+
+	/**
+	 * Repositorio en memoria que responde las consultas de intervalos como las de la base de datos.
+	 */
+	private GeneRepository geneRepository() {
+		return (GeneRepository) Proxy.newProxyInstance(GeneRepository.class.getClassLoader(),
+				new Class<?>[]{GeneRepository.class}, (proxy, method, args) -> {
+					calls.add(method.getName());
+					if (method.isDefault()) {
+						return InvocationHandler.invokeDefault(proxy, method, args);
+					}
+					return switch (method.getName()) {
+						case "findIntervalsByChromosomeId" -> genes.stream().map(GeneIntervalIndexTest::row).toList();
+						case "findGenesInRangeAndBins", "findGenesInRangeAllBins" -> genes.stream()
+								.filter(gene -> gene.getStartPosition() < (Integer) args[2]
+										&& gene.getEndPosition() > (Integer) args[1])
+								.toList();
+						case "findIntervalsEndingBefore" -> genes.stream()
+								.filter(gene -> gene.getEndPosition() <= (Integer) args[1])
+								.sorted(Comparator.comparing(Gene::getEndPosition).reversed())
+								.limit(((Pageable) args[2]).getPageSize())
+								.map(GeneIntervalIndexTest::row).toList();
+						case "findIntervalsStartingAfter" -> genes.stream()
+								.filter(gene -> gene.getStartPosition() >= (Integer) args[1])
+								.sorted(Comparator.comparing(Gene::getStartPosition))
+								.limit(((Pageable) args[2]).getPageSize())
+								.map(GeneIntervalIndexTest::row).toList();
+						default -> throw new UnsupportedOperationException(method.getName());
+					};
+				});
+	}
+
+	private ChromosomeRepository chromosomeRepository() {
+		Chromosome chromosome = new Chromosome();
+		chromosome.setId(CHROMOSOME_ID);
+		chromosome.setName("chr7");
+		return (ChromosomeRepository) Proxy.newProxyInstance(ChromosomeRepository.class.getClassLoader(),
+				new Class<?>[]{ChromosomeRepository.class}, (proxy, method, args) -> {
+					if (method.getName().equals("findById")) {
+						return CHROMOSOME_ID == (Long) args[0] ? Optional.of(chromosome) : Optional.empty();
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private static Gene gene(long id, int start, int end) {
+		Gene gene = new Gene();
+		gene.setId(id);
+		gene.setSymbol("G" + id);
+		gene.setStartPosition(start);
+		gene.setEndPosition(end);
+		gene.setStrand(id % 2 == 0 ? '+' : '-');
+		return gene;
+	}
+
+	private static Object[] row(Gene gene) {
+		return new Object[]{gene.getId(), gene.getSymbol(), gene.getStartPosition(), gene.getEndPosition(),
+				gene.getStrand()};
+	}
+
+	private static long[] ids(GeneIntervals genes, int[] found) {
+		long[] ids = Arrays.stream(found).mapToLong(genes::geneId).toArray();
+		Arrays.sort(ids);
+		return ids;
+	}
+
+	private static int[] ends(GeneIntervals genes, int[] found) {
+		return Arrays.stream(found).map(genes::end).toArray();
+	}
+
+	private static int[] starts(GeneIntervals genes, int[] found) {
+		return Arrays.stream(found).map(genes::start).toArray();
+	}
+}
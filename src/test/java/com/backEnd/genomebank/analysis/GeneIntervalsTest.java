@@ -0,0 +1,168 @@
+package com.backEnd.genomebank.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneIntervalsTest {
+
+	private static final int LENGTH = 10_000;
+
+	@Test
+	void emptyChromosomeHasNoGenes() {
+		GeneIntervals intervals = GeneIntervals.empty("chrE");
+
+		assertEquals(0, intervals.size());
+		assertEquals(0, intervals.overlapping(0, Integer.MAX_VALUE).length);
+		assertEquals(0, intervals.nearestBefore(LENGTH, 5).length);
+		assertEquals(0, intervals.nearestAfter(0, 5).length);
+	}
+
+	@Test
+	void matchesBruteForceOnRandomGenes() {
+		Random random = new Random(11);
+		// Todos los tamaños pequeños, para cubrir árboles incompletos alrededor de cada potencia de 2
+		for (int n = 1; n <= 70; n++) {
+			check(random, randomGenes(random, n, Shape.values()[n % Shape.values().length]));
+		}
+		for (int round = 0; round < 20; round++) {
+			int n = 100 + random.nextInt(2000);
+			check(random, randomGenes(random, n, Shape.values()[round % Shape.values().length]));
+		}
+	}
+
+	@Test
+	void keepsInputOrderForDuplicateStarts() {
+		long[] ids = {5, 3, 9, 1};
+		int[] starts = {100, 100, 50, 100};
+		int[] ends = {200, 150, 300, 101};
+		GeneIntervals intervals = new GeneIntervals("chr1", ids, new String[4], starts, ends, new char[4]);
+
+		assertArrayEquals(new long[]{9, 5, 3, 1}, geneIds(intervals, intervals.overlapping(0, LENGTH)));
+		assertArrayEquals(new long[]{5, 3, 1}, geneIds(intervals, intervals.nearestAfter(100, 10)));
+		assertArrayEquals(new long[]{9}, geneIds(intervals, intervals.overlapping(250, 251)));
+		// Fines 101, 150 y 200 <= 200, del más cercano al más lejano
+		assertArrayEquals(new long[]{5, 3, 1}, geneIds(intervals, intervals.nearestBefore(200, 10)));
+	}
+
+	private enum Shape {
+		/** Inicios y fines al azar. */
+		RANDOM,
+		/** Pocos inicios distintos, muchos Genes con el mismo inicio. */
+		DUPLICATE_STARTS,
+		/** Pocos fines distintos. */
+		DUPLICATE_ENDS,
+		/** Genes largos que contienen a muchos cortos. */
+		CONTAINED
+	}
+
+	private record Genes(long[] ids, int[] starts, int[] ends) {
+	}
+
+	private static Genes randomGenes(Random random, int n, Shape shape) {
+		long[] ids = new long[n];
+		int[] starts = new int[n];
+		int[] ends = new int[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = i + 1;
+			switch (shape) {
+				case DUPLICATE_STARTS -> {
+					starts[i] = 1000 * random.nextInt(8);
+					ends[i] = starts[i] + 1 + random.nextInt(2000);
+				}
+				case DUPLICATE_ENDS -> {
+					ends[i] = 1 + 1000 * (1 + random.nextInt(9));
+					starts[i] = Math.max(0, ends[i] - 1 - random.nextInt(3000));
+				}
+				case CONTAINED -> {
+					if (random.nextInt(10) == 0) {
+						starts[i] = random.nextInt(100);
+						ends[i] = LENGTH - random.nextInt(100);
+					} else {
+						starts[i] = random.nextInt(LENGTH - 10);
+						ends[i] = starts[i] + 1 + random.nextInt(10);
+					}
+				}
+				default -> {
+					starts[i] = random.nextInt(LENGTH - 1);
+					ends[i] = starts[i] + 1 + random.nextInt(Math.min(LENGTH - starts[i], 500));
+				}
+			}
+		}
+		return new Genes(ids, starts, ends);
+	}
+
+	private static void check(Random random, Genes genes) {
+		int n = genes.ids().length;
+		GeneIntervals intervals = new GeneIntervals("chr1", genes.ids(), new String[n], genes.starts(), genes.ends(),
+				new char[n]);
+		assertEquals(n, intervals.size());
+		List<int[]> queries = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			int start = random.nextInt(LENGTH + 2) - 1;
+			queries.add(new int[]{start, start + random.nextInt(i % 4 == 0 ? 5 : 2000)});
+		}
+		// Rangos que empiezan o terminan justo en los extremos de un Gene
+		for (int i = 0; i < Math.min(n, 50); i++) {
+			queries.add(new int[]{genes.starts()[i], genes.ends()[i]});
+			queries.add(new int[]{genes.ends()[i], genes.ends()[i] + 1});
+			queries.add(new int[]{genes.starts()[i] - 1, genes.starts()[i]});
+		}
+		for (int[] query : queries) {
+			checkOverlapping(intervals, genes, query[0], query[1]);
+			int k = 1 + random.nextInt(20);
+			checkNearestBefore(intervals, genes, query[0], k);
+			checkNearestAfter(intervals, genes, query[0], k);
+		}
+	}
+
+	private static void checkOverlapping(GeneIntervals intervals, Genes genes, int start, int end) {
+		List<Long> expected = new ArrayList<>();
+		for (int i = 0; i < genes.ids().length; i++) {
+			if (genes.starts()[i] < end && genes.ends()[i] > start) {
+				expected.add(genes.ids()[i]);
+			}
+		}
+		int[] found = intervals.overlapping(start, end);
+		for (int i = 1; i < found.length; i++) {
+			assertTrue(intervals.start(found[i - 1]) <= intervals.start(found[i]), "order by start");
+		}
+		long[] actual = geneIds(intervals, found);
+		Arrays.sort(actual);
+		assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), actual,
+				"overlapping [" + start + ", " + end + ")");
+	}
+
+	private static void checkNearestBefore(GeneIntervals intervals, Genes genes, int position, int k) {
+		int[] expectedEnds = Arrays.stream(genes.ends()).filter(end -> end <= position)
+				.boxed().sorted((a, b) -> b - a).limit(k).mapToInt(Integer::intValue).toArray();
+		int[] found = intervals.nearestBefore(position, k);
+		assertArrayEquals(expectedEnds, Arrays.stream(found).map(intervals::end).toArray(),
+				"nearestBefore " + position + ", k " + k);
+		assertDistinct(found);
+	}
+
+	private static void checkNearestAfter(GeneIntervals intervals, Genes genes, int position, int k) {
+		int[] expectedStarts = Arrays.stream(genes.starts()).filter(start -> start >= position)
+				.sorted().limit(k).toArray();
+		int[] found = intervals.nearestAfter(position, k);
+		assertArrayEquals(expectedStarts, Arrays.stream(found).map(intervals::start).toArray(),
+				"nearestAfter " + position + ", k " + k);
+		assertDistinct(found);
+	}
+
+	private static void assertDistinct(int[] found) {
+		assertEquals(found.length, Arrays.stream(found).distinct().count(), "duplicate genes");
+	}
+
+	private static long[] geneIds(GeneIntervals intervals, int[] found) {
+		return Arrays.stream(found).mapToLong(intervals::geneId).toArray();
+	}
+}
@@ -0,0 +1,128 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.GenomicBins;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comparación de las consultas de solapamiento sobre Chromosomes con más de 100 mil Genes: filas
+ * que lee el índice (chromosome_id, bin, start_position) de la tabla genes frente a recorrer todos
+ * los Genes del Chromosome, y tiempo del índice en memoria {@link GeneIntervals}. El índice de la
+ * base de datos se simula con los inicios ordenados de cada bin, que es el rango que MySQL recorre
+ * por cada bin consultado.
+ * <p>
+ * No forma parte de {@code mvn test}; se ejecuta con {@code mvn test -Dtest=GeneQueryBenchmark}.
+ */
+class GeneQueryBenchmark {
+
+	private static final int[] QUERY_WIDTHS = {1_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+	private static final int QUERIES = 2_000;
+
+	@Test
+	void run() {
+		// Un cromosoma humano grande y uno de más de 512 Mb, que usa el esquema extendido
+		benchmark("chr1-like", 250_000_000, 150_000);
+		benchmark("wheat-like", 2_000_000_000, 120_000);
+	}
+
+	private record Chromosome(int length, long[] ids, int[] starts, int[] ends, Map<Integer, int[]> binStarts) {
+	}
+
+	private static void benchmark(String name, int length, int genes) {
+		Chromosome chromosome = generate(new Random(17), length, genes);
+		GeneIntervals intervals = new GeneIntervals(name, chromosome.ids(), new String[genes], chromosome.starts(),
+				chromosome.ends(), new char[genes]);
+		System.out.printf("%s: %,d bases, %,d genes, %,d bins in use%n", name, length, genes,
+				chromosome.binStarts().size());
+		System.out.printf("%12s %8s %12s %12s %10s %14s%n",
+				"width", "bins", "rows (bins)", "rows (all)", "matches", "in-memory us");
+		for (int width : QUERY_WIDTHS) {
+			Random random = new Random(width);
+			long bins = 0;
+			long binRows = 0;
+			long allRows = 0;
+			long matches = 0;
+			long nanos = 0;
+			for (int i = 0; i < QUERIES; i++) {
+				int start = random.nextInt(length - width);
+				int end = start + width;
+				List<Integer> probed = GenomicBins.overlapping(start, end);
+				bins += probed.size();
+				if (probed.size() > GenomicBins.MAX_QUERY_BINS) {
+					binRows += genes;
+				} else {
+					for (int bin : probed) {
+						int[] starts = chromosome.binStarts().get(bin);
+						binRows += starts == null ? 0 : lowerBound(starts, end);
+					}
+				}
+				allRows += genes;
+				long begin = System.nanoTime();
+				int found = intervals.overlapping(start, end).length;
+				nanos += System.nanoTime() - begin;
+				matches += found;
+			}
+			System.out.printf("%,12d %8d %,12d %,12d %,10d %14.1f%n", width, bins / QUERIES, binRows / QUERIES,
+					allRows / QUERIES, matches / QUERIES, nanos / 1000.0 / QUERIES);
+		}
+		assertEquals(genes, intervals.size());
+	}
+
+	/**
+	 * Genes repartidos al azar, en su mayoría de 1 a 100 kb y algunos de varias megabases, como en
+	 * las anotaciones reales.
+	 */
+	private static Chromosome generate(Random random, int length, int genes) {
+		long[] ids = new long[genes];
+		int[] starts = new int[genes];
+		int[] ends = new int[genes];
+		Map<Integer, int[]> binStarts = new HashMap<>();
+		Map<Integer, Integer> binSizes = new HashMap<>();
+		for (int i = 0; i < genes; i++) {
+			int geneLength = random.nextInt(100) == 0
+					? 1_000_000 + random.nextInt(2_000_000)
+					: (int) Math.exp(Math.log(1_000) + random.nextDouble() * Math.log(100));
+			ids[i] = i + 1;
+			starts[i] = random.nextInt(length - geneLength);
+			ends[i] = starts[i] + geneLength;
+			int bin = GenomicBins.bin(starts[i], ends[i]);
+			int size = binSizes.merge(bin, 1, Integer::sum);
+			int[] binArray = binStarts.computeIfAbsent(bin, b -> new int[16]);
+			if (size > binArray.length) {
+				binArray = Arrays.copyOf(binArray, binArray.length * 2);
+				binStarts.put(bin, binArray);
+			}
+			binArray[size - 1] = starts[i];
+		}
+		binStarts.replaceAll((bin, binArray) -> {
+			int[] sorted = Arrays.copyOf(binArray, binSizes.get(bin));
+			Arrays.sort(sorted);
+			return sorted;
+		});
+		return new Chromosome(length, ids, starts, ends, binStarts);
+	}
+
+	/**
+	 * Número de elementos de un arreglo ordenado menores que value.
+	 */
+	private static int lowerBound(int[] sorted, int value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,146 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import com.backEnd.genomebank.sequence.SequenceWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GenomeFmIndexTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void countAndLocateMatchBruteForceAcrossPartitions() throws IOException {
+		Random random = new Random(3);
+		Map<Long, String> sequences = new LinkedHashMap<>();
+		sequences.put(1L, randomSequence(random, 5000));
+		sequences.put(2L, "ACGT".repeat(300) + "NNNN" + "acgtACGT".repeat(100));
+		sequences.put(3L, "A".repeat(700));
+		sequences.put(4L, randomSequence(random, 1));
+		sequences.put(5L, randomSequence(random, 2000).replace('G', 'N'));
+		sequences.put(6L, "");
+		sequences.put(7L, "GATTACA".repeat(50) + "RYKM" + "GATTACA".repeat(50));
+
+		List<String> patterns = new ArrayList<>(List.of("A", "C", "G", "T", "AA", "AAAA", "ACGT", "ACGTACGT",
+				"GATTACA", "TACAGAT", "AT", "TTTTTTTTTTTTTTTTTTTT", "CCCCCCCCCCCCCCC"));
+		String first = sequences.get(1L);
+		for (int i = 0; i < 200; i++) {
+			int start = random.nextInt(first.length() - 40);
+			patterns.add(first.substring(start, start + 1 + random.nextInt(40)));
+		}
+		for (int i = 0; i < 100; i++) {
+			patterns.add(randomSequence(random, 1 + random.nextInt(8)));
+		}
+
+		// Una partición por Chromosome, varias por partición y todos en una sola
+		for (int partitionLength : new int[]{1, 800, 3000, 1 << 20}) {
+			GenomeFmIndex index = build(sequences, partitionLength);
+			for (String pattern : patterns) {
+				List<GenomeFmIndex.Location> expected = bruteForce(sequences, pattern);
+				assertEquals(expected.size(), index.count(pattern),
+						"count of " + pattern + " with partitions of " + partitionLength);
+				assertEquals(expected, index.locate(pattern, Integer.MAX_VALUE),
+						"locations of " + pattern + " with partitions of " + partitionLength);
+				assertEquals(expected.size(), index.count(pattern.toLowerCase(Locale.ROOT)));
+			}
+			assertEquals(5, index.locate("A", 5).size());
+		}
+	}
+
+	@Test
+	void matchesNeverCrossSeparatorsOrUnknownBases() throws IOException {
+		Map<Long, String> sequences = new LinkedHashMap<>();
+		sequences.put(1L, "AAAC");
+		sequences.put(2L, "GTTT");
+		sequences.put(3L, "CCNGG");
+		GenomeFmIndex index = build(sequences, 1 << 20);
+
+		assertEquals(0, index.count("ACGT"));
+		assertEquals(0, index.count("CG"));
+		assertEquals(1, index.count("CC"));
+		assertEquals(List.of(new GenomeFmIndex.Location(3L, 3)), index.locate("GG", 10));
+		assertThrows(IllegalArgumentException.class, () -> index.count("CCNGG"));
+		assertThrows(IllegalArgumentException.class, () -> index.count(""));
+	}
+
+	private GenomeFmIndex build(Map<Long, String> sequences, int partitionLength) throws IOException {
+		List<IndexedChromosome> chromosomes = sequences.entrySet().stream()
+				.map(entry -> new IndexedChromosome(entry.getKey(), entry.getValue().length()))
+				.toList();
+		Path file = directory.resolve("genome-" + partitionLength + ".fmi");
+		GenomeFmIndex.write(file, 1L, chromosomes, partitionLength, new MemoryBackend(sequences));
+		return GenomeFmIndex.open(file);
+	}
+
+	/**
+	 * Apariciones (incluidas las solapadas) con indexOf, en el orden del índice.
+	 */
+	private static List<GenomeFmIndex.Location> bruteForce(Map<Long, String> sequences, String pattern) {
+		List<GenomeFmIndex.Location> locations = new ArrayList<>();
+		for (Map.Entry<Long, String> entry : sequences.entrySet()) {
+			String sequence = entry.getValue().toUpperCase(Locale.ROOT);
+			for (int i = sequence.indexOf(pattern); i >= 0; i = sequence.indexOf(pattern, i + 1)) {
+				locations.add(new GenomeFmIndex.Location(entry.getKey(), i));
+			}
+		}
+		return locations;
+	}
+
+	private static String randomSequence(Random random, int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sequence.append("ACGT".charAt(random.nextInt(4)));
+		}
+		return sequence.toString();
+	}
+
+	/**
+	 * Secuencias en memoria, entregadas en fragmentos pequeños.
+	 */
+	private record MemoryBackend(Map<Long, String> sequences) implements SequenceBackend {
+
+		@Override
+		public SequenceWriter openWriter(Long chromosomeId, String name) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(Long chromosomeId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean hasSequence(Long chromosomeId) {
+			return sequences.containsKey(chromosomeId);
+		}
+
+		@Override
+		public String read(Long chromosomeId, int start, int end) {
+			return sequences.get(chromosomeId).substring(start, end);
+		}
+
+		@Override
+		public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException {
+			byte[] bytes = read(chromosomeId, start, end).getBytes(StandardCharsets.US_ASCII);
+			for (int from = 0; from < bytes.length; from += 97) {
+				consumer.accept(ByteBuffer.wrap(bytes, from, Math.min(97, bytes.length - from)));
+			}
+		}
+	}
+}
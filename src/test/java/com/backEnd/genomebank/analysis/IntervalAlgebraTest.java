@@ -0,0 +1,160 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.analysis.IntervalAlgebra.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Casos con la salida que da bedtools para los mismos intervalos (intersect, subtract, merge -c 1
+ * -o count, complement y closest -d). Cada resultado se escribe como "inicio-fin", con ":count" en
+ * merge y "&gt;b:distancia" en closest.
+ */
+class IntervalAlgebraTest {
+
+	private static final long CHROMOSOME_ID = 1;
+
+	private record Case(String name, Operation operation, int length, int[] a, int[] b, List<String> expected) {
+	}
+
+	private static final List<Case> CASES = List.of(
+			new Case("intersect overlapping b", Operation.INTERSECT, 0,
+					new int[]{10, 50}, new int[]{5, 20, 15, 30, 40, 60},
+					List.of("10-20", "15-30", "40-50")),
+			new Case("intersect adjacent", Operation.INTERSECT, 0,
+					new int[]{10, 20}, new int[]{0, 10, 20, 30},
+					List.of()),
+			new Case("intersect b spanning several a", Operation.INTERSECT, 0,
+					new int[]{10, 20, 30, 40, 50, 60}, new int[]{0, 100},
+					List.of("10-20", "30-40", "50-60")),
+			new Case("intersect empty b", Operation.INTERSECT, 0,
+					new int[]{10, 20}, new int[]{},
+					List.of()),
+			new Case("intersect long a keeps b open", Operation.INTERSECT, 0,
+					new int[]{0, 100, 10, 20}, new int[]{15, 18, 50, 60},
+					List.of("15-18", "50-60", "15-18")),
+			new Case("subtract overlapping b", Operation.SUBTRACT, 0,
+					new int[]{0, 100}, new int[]{10, 30, 20, 40, 60, 70},
+					List.of("0-10", "40-60", "70-100")),
+			new Case("subtract adjacent", Operation.SUBTRACT, 0,
+					new int[]{10, 20}, new int[]{0, 10, 20, 30},
+					List.of("10-20")),
+			new Case("subtract b spanning several a", Operation.SUBTRACT, 0,
+					new int[]{10, 20, 30, 40}, new int[]{0, 100},
+					List.of()),
+			new Case("subtract empty b", Operation.SUBTRACT, 0,
+					new int[]{10, 20, 30, 40}, new int[]{},
+					List.of("10-20", "30-40")),
+			new Case("subtract b at both ends", Operation.SUBTRACT, 0,
+					new int[]{0, 100}, new int[]{0, 10, 90, 100},
+					List.of("10-90")),
+			new Case("merge overlapping", Operation.MERGE, 0,
+					new int[]{0, 10, 5, 20, 30, 40}, null,
+					List.of("0-20:2", "30-40:1")),
+			new Case("merge adjacent", Operation.MERGE, 0,
+					new int[]{0, 10, 10, 20, 21, 30}, null,
+					List.of("0-20:2", "21-30:1")),
+			new Case("merge contained", Operation.MERGE, 0,
+					new int[]{0, 100, 10, 20, 50, 60, 100, 110}, null,
+					List.of("0-110:4")),
+			new Case("merge empty a", Operation.MERGE, 0,
+					new int[]{}, null,
+					List.of()),
+			new Case("complement overlapping", Operation.COMPLEMENT, 100,
+					new int[]{10, 20, 15, 30, 50, 60}, null,
+					List.of("0-10", "30-50", "60-100")),
+			new Case("complement adjacent", Operation.COMPLEMENT, 100,
+					new int[]{0, 10, 10, 20}, null,
+					List.of("20-100")),
+			new Case("complement covering the chromosome", Operation.COMPLEMENT, 100,
+					new int[]{0, 100}, null,
+					List.of()),
+			new Case("complement past the chromosome end", Operation.COMPLEMENT, 50,
+					new int[]{10, 20, 40, 60, 70, 80}, null,
+					List.of("0-10", "20-40")),
+			new Case("complement of empty a", Operation.COMPLEMENT, 100,
+					new int[]{}, null,
+					List.of("0-100")),
+			new Case("complement with length 0", Operation.COMPLEMENT, 0,
+					new int[]{10, 20, 50, 60}, null,
+					List.of("0-10", "20-50")),
+			new Case("complement of empty a with length 0", Operation.COMPLEMENT, 0,
+					new int[]{}, null,
+					List.of()),
+			new Case("closest overlapping b", Operation.CLOSEST, 0,
+					new int[]{10, 20}, new int[]{5, 12, 15, 25, 30, 40},
+					List.of("10-20>5-12:0", "10-20>15-25:0")),
+			new Case("closest adjacent", Operation.CLOSEST, 0,
+					new int[]{10, 20}, new int[]{0, 10, 25, 30},
+					List.of("10-20>0-10:1")),
+			new Case("closest tie on both sides", Operation.CLOSEST, 0,
+					new int[]{10, 20}, new int[]{0, 5, 25, 30},
+					List.of("10-20>0-5:6", "10-20>25-30:6")),
+			new Case("closest empty b", Operation.CLOSEST, 0,
+					new int[]{10, 20}, new int[]{},
+					List.of("10-20>.:-1")),
+			// Cinco empates antes de a: el ciclo pide 2, 4 y 8 vecinos
+			new Case("closest five ties before", Operation.CLOSEST, 0,
+					new int[]{100, 110}, new int[]{0, 50, 60, 90, 70, 90, 80, 90, 85, 90, 89, 90, 200, 300},
+					List.of("100-110>60-90:11", "100-110>70-90:11", "100-110>80-90:11", "100-110>85-90:11",
+							"100-110>89-90:11")),
+			// Cuatro empates, justo el número de vecinos pedidos en la segunda vuelta
+			new Case("closest four ties before", Operation.CLOSEST, 0,
+					new int[]{100, 110}, new int[]{0, 50, 70, 90, 80, 90, 85, 90, 89, 90},
+					List.of("100-110>70-90:11", "100-110>80-90:11", "100-110>85-90:11", "100-110>89-90:11")),
+			new Case("closest three ties after", Operation.CLOSEST, 0,
+					new int[]{0, 10}, new int[]{20, 30, 20, 25, 20, 40, 50, 60},
+					List.of("0-10>20-25:11", "0-10>20-30:11", "0-10>20-40:11"))
+	);
+
+	@Test
+	void matchesBedtools() throws IOException {
+		IntervalAlgebra algebra = new IntervalAlgebra(null);
+		for (Case c : CASES) {
+			IntervalAlgebra.Target target = new IntervalAlgebra.Target(CHROMOSOME_ID, "chr1", c.length());
+			IntervalAlgebra.Source b = c.b() != null ? source(c.b()) : null;
+			IntervalAlgebra.Search search = new IntervalAlgebra.Search(c.operation(), List.of(target), source(c.a()), b);
+			List<String> results = new ArrayList<>();
+			algebra.run(search, (t, a, bs, start, end, ai, bi, value) -> results.add(format(c.operation(),
+					bs, start, end, bi, value)));
+			List<String> expected = c.expected();
+			if (c.operation() == Operation.CLOSEST) {
+				// bedtools lista los empates en el orden de B; aquí el orden entre empates no está definido
+				results.sort(null);
+				expected = expected.stream().sorted().toList();
+			}
+			assertEquals(expected, results, c.name());
+		}
+	}
+
+	private static String format(Operation operation, GeneIntervals b, int start, int end, int bi, int value) {
+		String interval = start + "-" + end;
+		return switch (operation) {
+			case MERGE -> interval + ":" + value;
+			case CLOSEST -> interval + ">" + (bi >= 0 ? b.start(bi) + "-" + b.end(bi) : ".") + ":" + value;
+			default -> interval;
+		};
+	}
+
+	/**
+	 * Regiones en el orden dado, como pares inicio, fin.
+	 */
+	private static IntervalAlgebra.Source source(int[] coordinates) {
+		int n = coordinates.length / 2;
+		long[] ids = new long[n];
+		int[] starts = new int[n];
+		int[] ends = new int[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = i;
+			starts[i] = coordinates[2 * i];
+			ends[i] = coordinates[2 * i + 1];
+		}
+		GeneIntervals intervals = new GeneIntervals("chr1", ids, new String[n], starts, ends, new char[n]);
+		return new IntervalAlgebra.Source(Map.of(CHROMOSOME_ID, intervals), false);
+	}
+}
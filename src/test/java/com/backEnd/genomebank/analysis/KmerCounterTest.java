@@ -0,0 +1,226 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import com.backEnd.genomebank.sequence.SequenceWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KmerCounterTest {
+
+	private static final int SEGMENT = KmerCounter.SEGMENT_SIZE;
+
+	private final Random random = new Random(61);
+	// Un Chromosome de algo más de un segmento y uno corto: los k-mers no cruzan de uno a otro
+	private final Map<Long, String> sequences = Map.of(
+			1L, randomSequence(SEGMENT + 100_000),
+			2L, randomSequence(5000));
+	private final List<KmerCounter.Target> targets = List.of(
+			new KmerCounter.Target(1L, sequences.get(1L).length()),
+			new KmerCounter.Target(2L, sequences.get(2L).length()));
+
+	@Test
+	void denseCountsMatchANaiveCount() {
+		KmerCounter counter = counter(Long.MAX_VALUE);
+		for (boolean canonical : new boolean[]{false, true}) {
+			check(counter.count(targets, 7, canonical), canonical);
+		}
+	}
+
+	@Test
+	void hashedCountsMatchANaiveCount() {
+		KmerCounter counter = counter(Long.MAX_VALUE);
+		for (boolean canonical : new boolean[]{false, true}) {
+			check(counter.count(targets, 21, canonical), canonical);
+		}
+	}
+
+	@Test
+	void countsKmersAcrossSegmentBoundaries() {
+		String sequence = sequences.get(1L);
+		KmerCounter counter = counter(Long.MAX_VALUE);
+		for (int k : new int[]{1, 2, 10, 11, 31}) {
+			KmerCounts counts = counter.count(targets, k, false);
+			long[] naive = naiveKeys(k, false);
+			// k-mers que terminan justo antes, cruzan o empiezan justo en el límite del segmento
+			for (int start = SEGMENT - k; start <= SEGMENT; start++) {
+				String kmer = sequence.substring(start, start + k).toUpperCase();
+				assertEquals(occurrences(naive, KmerCounts.encode(kmer)), counts.count(kmer), k + "-mer at " + start);
+			}
+			assertEquals(naive.length, counts.getTotal(), "total for k " + k);
+		}
+	}
+
+	@Test
+	void reportsIncreasingProgress() {
+		List<Double> reported = new ArrayList<>();
+		counter(Long.MAX_VALUE).count(targets, 5, false, reported::add);
+
+		assertEquals(3, reported.size());
+		for (int i = 1; i < reported.size(); i++) {
+			assertTrue(reported.get(i) > reported.get(i - 1));
+		}
+		assertEquals(1.0, reported.get(reported.size() - 1), 0.0);
+	}
+
+	@Test
+	void stopsAboveTheEntryLimit() {
+		assertThrows(IllegalArgumentException.class, () -> counter(1000).count(targets, 15, false));
+	}
+
+	private void check(KmerCounts counts, boolean canonical) {
+		int k = counts.getK();
+		long[] naive = naiveKeys(k, canonical);
+		String message = k + "-mers, canonical " + canonical;
+		assertEquals(naive.length, counts.getTotal(), message);
+		long distinct = 0;
+		long maxCount = 0;
+		for (int i = 0; i < naive.length; ) {
+			int j = i;
+			while (j < naive.length && naive[j] == naive[i]) {
+				j++;
+			}
+			distinct++;
+			maxCount = Math.max(maxCount, j - i);
+			if (distinct % 97 == 0) {
+				assertEquals(j - i, counts.count(KmerCounts.decode(naive[i], k)), message);
+			}
+			i = j;
+		}
+		assertEquals(distinct, counts.getDistinct(), message);
+
+		List<KmerCounts.Entry> top = counts.top(20);
+		assertEquals(maxCount, top.get(0).count(), message);
+		for (int i = 0; i < top.size(); i++) {
+			KmerCounts.Entry entry = top.get(i);
+			assertEquals(occurrences(naive, KmerCounts.encode(entry.kmer())), entry.count(), message);
+			assertTrue(i == 0 || top.get(i - 1).count() >= entry.count(), message);
+		}
+		if (canonical) {
+			// Un k-mer y su complemento inverso tienen el mismo conteo
+			String kmer = KmerCounts.decode(naive[naive.length / 2], k);
+			assertEquals(counts.count(kmer), counts.count(reverseComplement(kmer)), message);
+		}
+	}
+
+	/**
+	 * Todos los k-mers de las secuencias, ordenados, calculados posición por posición.
+	 */
+	private long[] naiveKeys(int k, boolean canonical) {
+		long[] keys = new long[0];
+		int size = 0;
+		for (KmerCounter.Target target : targets) {
+			String sequence = sequences.get(target.chromosomeId()).toUpperCase();
+			keys = Arrays.copyOf(keys, size + sequence.length());
+			positions:
+			for (int i = 0; i + k <= sequence.length(); i++) {
+				long key = 0;
+				long reverse = 0;
+				for (int j = 0; j < k; j++) {
+					int code = "ACGT".indexOf(sequence.charAt(i + j));
+					int complement = "TGCA".indexOf(sequence.charAt(i + k - 1 - j));
+					if (code < 0) {
+						continue positions;
+					}
+					key = (key << 2) | code;
+					reverse = (reverse << 2) | complement;
+				}
+				keys[size++] = canonical ? Math.min(key, reverse) : key;
+			}
+		}
+		keys = Arrays.copyOf(keys, size);
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	private static long occurrences(long[] sortedKeys, long key) {
+		int from = Arrays.binarySearch(sortedKeys, key);
+		if (from < 0) {
+			return 0;
+		}
+		int to = from;
+		while (from > 0 && sortedKeys[from - 1] == key) {
+			from--;
+		}
+		while (to < sortedKeys.length && sortedKeys[to] == key) {
+			to++;
+		}
+		return to - from;
+	}
+
+	private static String reverseComplement(String kmer) {
+		StringBuilder reverse = new StringBuilder(kmer.length());
+		for (int i = kmer.length() - 1; i >= 0; i--) {
+			reverse.append("TGCA".charAt("ACGT".indexOf(kmer.charAt(i))));
+		}
+		return reverse.toString();
+	}
+
+	private KmerCounter counter(long maxEntries) {
+		return new KmerCounter(new MemoryBackend(sequences), new ForkJoinPool(4), maxEntries);
+	}
+
+	/**
+	 * Bases de un alfabeto reducido para que se repitan k-mers largos, con tramos de N y minúsculas.
+	 */
+	private String randomSequence(int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		while (sequence.length() < length) {
+			int run = 1 + random.nextInt(500);
+			boolean gap = random.nextInt(30) == 0;
+			boolean lower = random.nextInt(5) == 0;
+			for (int i = 0; i < run && sequence.length() < length; i++) {
+				char base = gap ? 'N' : "ACGTAAT".charAt(random.nextInt(7));
+				sequence.append(lower ? Character.toLowerCase(base) : base);
+			}
+		}
+		return sequence.toString();
+	}
+
+	/**
+	 * Secuencias en memoria, entregadas en fragmentos pequeños.
+	 */
+	private record MemoryBackend(Map<Long, String> sequences) implements SequenceBackend {
+
+		@Override
+		public SequenceWriter openWriter(Long chromosomeId, String name) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(Long chromosomeId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean hasSequence(Long chromosomeId) {
+			return sequences.containsKey(chromosomeId);
+		}
+
+		@Override
+		public String read(Long chromosomeId, int start, int end) {
+			return sequences.get(chromosomeId).substring(start, end);
+		}
+
+		@Override
+		public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException {
+			byte[] bytes = read(chromosomeId, start, end).getBytes(StandardCharsets.US_ASCII);
+			for (int from = 0; from < bytes.length; from += 8191) {
+				consumer.accept(ByteBuffer.wrap(bytes, from, Math.min(8191, bytes.length - from)));
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.backEnd.genomebank.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinimizersTest {
+
+	@Test
+	void matchesABruteForceWindowScan() {
+		Random random = new Random(81);
+		String sequence = randomSequence(random, 30_000);
+		int[][] parameters = {{15, 10}, {5, 1}, {1, 4}, {4, 7}, {Minimizers.MAX_K, 3}, {11, 25}};
+		for (int[] kw : parameters) {
+			int k = kw[0];
+			int w = kw[1];
+			long[][] sketch = Minimizers.sketch(sequence, k, w);
+			List<String> found = new ArrayList<>();
+			for (int i = 0; i < sketch[0].length; i++) {
+				found.add(sketch[1][i] + ":" + sketch[0][i] + ":" + sketch[2][i]);
+			}
+			assertEquals(bruteForce(sequence, k, w), found, "k " + k + ", w " + w);
+		}
+	}
+
+	@Test
+	void sharedStretchesShareAMinimizer() {
+		Random random = new Random(83);
+		int k = 15;
+		int w = 10;
+		for (int i = 0; i < 200; i++) {
+			String shared = randomSequence(random, w + k - 1).toUpperCase().replace('N', 'A');
+			String a = randomSequence(random, random.nextInt(50)) + shared + randomSequence(random, random.nextInt(50));
+			String b = reverseComplement(randomSequence(random, 30) + shared);
+			Set<Long> hashes = new HashSet<>();
+			for (long hash : Minimizers.sketch(a, k, w)[0]) {
+				hashes.add(hash);
+			}
+			boolean palindromes = false;
+			for (int j = 0; j + k <= shared.length(); j++) {
+				palindromes |= shared.substring(j, j + k).equals(reverseComplement(shared.substring(j, j + k)));
+			}
+			if (!palindromes) {
+				assertTrue(Arrays.stream(Minimizers.sketch(b, k, w)[0]).anyMatch(hashes::contains), shared);
+			}
+		}
+	}
+
+	@Test
+	void samplesAboutTwoPerWindow() {
+		String sequence = randomSequence(new Random(87), 200_000).toUpperCase().replace('N', 'C');
+		int w = 10;
+		double density = (double) Minimizers.sketch(sequence, 15, w)[0].length / sequence.length();
+
+		assertTrue(Math.abs(density - 2.0 / (w + 1)) < 0.02, "density " + density);
+	}
+
+	@Test
+	void skipsPalindromesAndNonAcgtBases() {
+		// k = 4: ACGT es su propio reverso complementario
+		assertEquals(0, Minimizers.sketch("ACGTNACGTNACGT", 4, 1)[0].length);
+		assertFalse(Arrays.stream(Minimizers.sketch("AAAANAAAAC", 5, 1)[1]).anyMatch(position -> position < 5));
+	}
+
+	/**
+	 * Para cada ventana de w k-mers dentro de un tramo de A, C, G y T, el k-mer no palindrómico de
+	 * menor hash (el primero si hay empate); cada posición se informa una vez.
+	 */
+	private static List<String> bruteForce(String sequence, int k, int w) {
+		String upper = sequence.toUpperCase();
+		long mask = (1L << (2 * k)) - 1;
+		List<String> found = new ArrayList<>();
+		long last = -1;
+		for (int first = 0; first + w - 1 + k <= upper.length(); first++) {
+			if (!upper.substring(first, first + w - 1 + k).chars().allMatch(c -> "ACGT".indexOf(c) >= 0)) {
+				continue;
+			}
+			long bestHash = Long.MAX_VALUE;
+			int bestPosition = -1;
+			boolean bestReverse = false;
+			for (int start = first; start < first + w; start++) {
+				String kmer = upper.substring(start, start + k);
+				long forward = KmerCounts.encode(kmer);
+				long reverse = KmerCounts.encode(reverseComplement(kmer));
+				if (forward == reverse) {
+					continue;
+				}
+				long hash = Minimizers.hash(Math.min(forward, reverse), mask);
+				if (hash < bestHash) {
+					bestHash = hash;
+					bestPosition = start;
+					bestReverse = reverse < forward;
+				}
+			}
+			if (bestPosition >= 0 && bestPosition != last) {
+				last = bestPosition;
+				found.add(bestPosition + ":" + bestHash + ":" + (bestReverse ? 1 : 0));
+			}
+		}
+		return found;
+	}
+
+	private static String reverseComplement(String sequence) {
+		StringBuilder reverse = new StringBuilder(sequence.length());
+		for (int i = sequence.length() - 1; i >= 0; i--) {
+			char base = Character.toUpperCase(sequence.charAt(i));
+			reverse.append("ACGT".indexOf(base) >= 0 ? "TGCA".charAt("ACGT".indexOf(base)) : base);
+		}
+		return reverse.toString();
+	}
+
+	/**
+	 * Bases ACGT en mayúsculas y minúsculas con N ocasionales y tramos repetidos con palíndromos.
+	 */
+	private static String randomSequence(Random random, int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		while (sequence.length() < length) {
+			int kind = random.nextInt(100);
+			if (kind == 0) {
+				sequence.append('N');
+			} else if (kind == 1) {
+				sequence.append("ACGTACGTAATT");
+			} else {
+				char base = "ACGT".charAt(random.nextInt(4));
+				sequence.append(kind < 20 ? Character.toLowerCase(base) : base);
+			}
+		}
+		sequence.setLength(length);
+		return sequence.toString();
+	}
+}
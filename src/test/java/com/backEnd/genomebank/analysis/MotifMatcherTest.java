@@ -0,0 +1,165 @@
+package com.backEnd.genomebank.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Map.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MotifMatcherTest {
+
+	private static final Map<Character, String> IUPAC = Map.ofEntries(
+			entry('A', "A"), entry('C', "C"), entry('G', "G"), entry('T', "T"),
+			entry('R', "AG"), entry('Y', "CT"), entry('S', "CG"), entry('W', "AT"), entry('K', "GT"),
+			entry('M', "AC"), entry('B', "CGT"), entry('D', "AGT"), entry('H', "ACT"), entry('V', "ACG"),
+			entry('N', "ACGT"));
+	private static final Map<Character, Character> COMPLEMENT = Map.ofEntries(
+			entry('A', 'T'), entry('C', 'G'), entry('G', 'C'), entry('T', 'A'),
+			entry('R', 'Y'), entry('Y', 'R'), entry('S', 'S'), entry('W', 'W'), entry('K', 'M'),
+			entry('M', 'K'), entry('B', 'V'), entry('D', 'H'), entry('H', 'D'), entry('V', 'B'),
+			entry('N', 'N'));
+
+	@Test
+	void packsMotifsOfEveryLengthIntoWords() {
+		Random random = new Random(71);
+		String sequence = randomSequence(random, 20_000);
+		List<String> motifs = new ArrayList<>();
+		// Uno que llena una palabra, varios que no caben en lo que queda y muchos cortos
+		motifs.add(sequence.substring(100, 164).toUpperCase());
+		for (int length : new int[]{33, 32, 40, 24, 63, 1, 2, 3}) {
+			int start = random.nextInt(sequence.length() - length);
+			motifs.add(sequence.substring(start, start + length).toUpperCase());
+		}
+		for (int i = 0; i < 60; i++) {
+			int length = 1 + random.nextInt(12);
+			int start = random.nextInt(sequence.length() - length);
+			motifs.add(sequence.substring(start, start + length).toUpperCase());
+		}
+
+		for (boolean bothStrands : new boolean[]{false, true}) {
+			assertEquals(naiveHits(sequence, motifs, bothStrands), hits(sequence, motifs, bothStrands));
+		}
+	}
+
+	@Test
+	void expandsIupacCodes() {
+		Random random = new Random(73);
+		String sequence = randomSequence(random, 20_000);
+		String codes = "ACGTRYSWKMBDHVN";
+		List<String> motifs = new ArrayList<>(List.of("N", "NN", "RYR", "GAATTC", "TATAWAWR", "CANNTG", "BDHV"));
+		for (int i = 0; i < 20; i++) {
+			StringBuilder motif = new StringBuilder();
+			for (int j = 0, length = 2 + random.nextInt(8); j < length; j++) {
+				motif.append(codes.charAt(random.nextInt(codes.length())));
+			}
+			motifs.add(motif.toString());
+		}
+
+		for (boolean bothStrands : new boolean[]{false, true}) {
+			assertEquals(naiveHits(sequence, motifs, bothStrands), hits(sequence, motifs, bothStrands));
+		}
+	}
+
+	@Test
+	void reportsBothStrandsAndPalindromesOnce() {
+		List<String> motifs = List.of("GAATTC", "AAC", "TTAA");
+		String sequence = "xGAATTCgttAACn";
+
+		assertEquals(List.of("1:0:+", "7:1:-", "8:2:+", "10:1:+"), hits(sequence, motifs, true));
+		assertEquals(List.of("1:0:+", "8:2:+", "10:1:+"), hits(sequence, motifs, false));
+	}
+
+	@Test
+	void normalizesMotifs() {
+		MotifMatcher matcher = new MotifMatcher(List.of("gauuc", "uAc"), false);
+
+		assertEquals(List.of("GATTC", "TAC"), matcher.getMotifs());
+		assertEquals(5, matcher.getMaxLength());
+	}
+
+	@Test
+	void rejectsInvalidMotifs() {
+		assertThrows(IllegalArgumentException.class, () -> new MotifMatcher(List.of(""), true));
+		assertThrows(IllegalArgumentException.class, () -> new MotifMatcher(List.of("ACGTX"), true));
+		assertThrows(IllegalArgumentException.class, () -> new MotifMatcher(List.of("A".repeat(65)), true));
+	}
+
+	/**
+	 * Coincidencias como "inicio:motivo:hebra", en orden de posición final y de motivo.
+	 */
+	private static List<String> hits(String sequence, List<String> motifs, boolean bothStrands) {
+		List<long[]> hits = new ArrayList<>();
+		MotifMatcher.Scanner scanner = new MotifMatcher(motifs, bothStrands).new Scanner(0,
+				(start, motif, reverse) -> hits.add(new long[]{start, motif, reverse ? 1 : 0}));
+		for (int i = 0; i < sequence.length(); i++) {
+			scanner.accept((byte) sequence.charAt(i));
+		}
+		return sorted(hits, motifs);
+	}
+
+	private static List<String> naiveHits(String sequence, List<String> motifs, boolean bothStrands) {
+		List<long[]> hits = new ArrayList<>();
+		for (int m = 0; m < motifs.size(); m++) {
+			String motif = motifs.get(m);
+			String reverse = reverseComplement(motif);
+			for (int start = 0; start + motif.length() <= sequence.length(); start++) {
+				if (matches(sequence, start, motif)) {
+					hits.add(new long[]{start, m, 0});
+				}
+				if (bothStrands && !reverse.equals(motif) && matches(sequence, start, reverse)) {
+					hits.add(new long[]{start, m, 1});
+				}
+			}
+		}
+		return sorted(hits, motifs);
+	}
+
+	private static List<String> sorted(List<long[]> hits, List<String> motifs) {
+		return hits.stream()
+				.sorted((a, b) -> a[0] + motifs.get((int) a[1]).length() != b[0] + motifs.get((int) b[1]).length()
+						? Long.compare(a[0] + motifs.get((int) a[1]).length(), b[0] + motifs.get((int) b[1]).length())
+						: a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]))
+				.map(hit -> hit[0] + ":" + hit[1] + ":" + (hit[2] == 1 ? "-" : "+"))
+				.toList();
+	}
+
+	/**
+	 * Una base distinta de A, C, G y T solo coincide con N.
+	 */
+	private static boolean matches(String sequence, int start, String motif) {
+		for (int i = 0; i < motif.length(); i++) {
+			char base = Character.toUpperCase(sequence.charAt(start + i));
+			char code = motif.charAt(i);
+			if (!(code == 'N' || IUPAC.get(code).indexOf(base) >= 0)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String reverseComplement(String motif) {
+		StringBuilder reverse = new StringBuilder(motif.length());
+		for (int i = motif.length() - 1; i >= 0; i--) {
+			reverse.append(COMPLEMENT.get(motif.charAt(i)));
+		}
+		return reverse.toString();
+	}
+
+	/**
+	 * Bases ACGT en mayúsculas y minúsculas, con algunas N y otros códigos.
+	 */
+	private static String randomSequence(Random random, int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			int kind = random.nextInt(100);
+			sequence.append(kind == 0 ? 'N' : kind == 1 ? 'R' : kind < 20 ? "acgt".charAt(random.nextInt(4))
+					: "ACGT".charAt(random.nextInt(4)));
+		}
+		return sequence.toString();
+	}
+}
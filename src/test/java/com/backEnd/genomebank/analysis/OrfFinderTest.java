@@ -0,0 +1,194 @@
+package com.backEnd.genomebank.analysis;
+
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import com.backEnd.genomebank.sequence.SequenceWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrfFinderTest {
+
+	private static final long CHROMOSOME_ID = 3;
+	private static final int SEGMENT = OrfFinder.SEGMENT_SIZE;
+	// ORFs de 33 bases que terminan y empiezan en la posición 36 del patrón, en la hebra + y en la -
+	private static final String FORWARD = "TAG" + "ATG" + "GCC".repeat(9) + "TAA" + "ATG" + "GCC".repeat(9) + "TGA";
+	private static final String REVERSE = "TTA" + "GGC".repeat(9) + "CAT" + "TCA" + "GGC".repeat(9) + "CAT" + "CTA";
+
+	private final String sequence = sequence();
+	private final OrfFinder finder = new OrfFinder(new MemoryBackend(sequence), new ForkJoinPool(4));
+	private final OrfFinder.CodonTable codons = new OrfFinder.CodonTable(List.of("ATG"), List.of("TAA", "TAG", "TGA"));
+
+	@Test
+	void matchesANaiveSixFrameScan() throws IOException {
+		List<String> all = naive(0, sequence.length(), codons, 6);
+		// Los ORFs plantados en los límites de segmento: terminan justo antes o empiezan justo en él
+		for (String orf : new String[]{
+				(SEGMENT - 33) + "-" + SEGMENT, SEGMENT + "-" + (SEGMENT + 33),
+				(2 * SEGMENT - 33) + "-" + 2 * SEGMENT, 2 * SEGMENT + "-" + (2 * SEGMENT + 33),
+				(3 * SEGMENT - 32) + "-" + (3 * SEGMENT + 1), (3 * SEGMENT + 1) + "-" + (3 * SEGMENT + 34),
+				(4 * SEGMENT - 34) + "-" + (4 * SEGMENT - 1), (4 * SEGMENT - 1) + "-" + (4 * SEGMENT + 32)}) {
+			assertTrue(all.stream().anyMatch(found -> found.startsWith(orf + ":")), orf);
+		}
+		assertEquals(all, search(0, sequence.length(), codons, 6, Long.MAX_VALUE));
+	}
+
+	@Test
+	void matchesANaiveScanOnSubranges() throws IOException {
+		OrfFinder.CodonTable alternative = new OrfFinder.CodonTable(List.of("atg", "GTG"), List.of("TAA", "TAG"));
+		int[][] ranges = {{0, 2 * SEGMENT}, {SEGMENT / 2 + 1, 3 * SEGMENT + 2}, {SEGMENT - 35, 2 * SEGMENT + 34},
+				{7, sequence.length() - 1}, {100, 200}};
+		for (int[] range : ranges) {
+			String message = "[" + range[0] + ", " + range[1] + ")";
+			assertEquals(naive(range[0], range[1], codons, 6), search(range[0], range[1], codons, 6, Long.MAX_VALUE),
+					message);
+			assertEquals(naive(range[0], range[1], alternative, 90),
+					search(range[0], range[1], alternative, 90, Long.MAX_VALUE), message);
+		}
+	}
+
+	@Test
+	void stopsAtTheLimit() throws IOException {
+		List<String> all = naive(0, sequence.length(), codons, 6);
+		List<String> limited = search(0, sequence.length(), codons, 6, 1000);
+
+		assertEquals(1000, limited.size());
+		assertTrue(all.containsAll(limited));
+	}
+
+	/**
+	 * ORFs de la búsqueda como "inicio-fin:marco", ordenados.
+	 */
+	private List<String> search(int start, int end, OrfFinder.CodonTable codons, int minLength, long limit)
+			throws IOException {
+		List<String> found = new ArrayList<>();
+		OrfFinder.Target target = new OrfFinder.Target(CHROMOSOME_ID, "chr1", start, end);
+		finder.search(new OrfFinder.Search(target, codons, minLength, limit), (searched, segmentEnd, orfs) -> {
+			for (int i = 0; i < orfs.size(); i++) {
+				found.add(orfs.start(i) + "-" + orfs.end(i) + ":" + orfs.frame(i));
+			}
+		});
+		return found.stream().sorted().toList();
+	}
+
+	/**
+	 * Recorre cada marco codón a codón en su sentido de lectura: el primer codón de inicio después
+	 * de un codón de terminación (o del comienzo del marco) abre un ORF y el siguiente codón de
+	 * terminación lo cierra.
+	 */
+	private List<String> naive(int start, int end, OrfFinder.CodonTable codons, int minLength) {
+		List<String> found = new ArrayList<>();
+		for (int frame = 0; frame < 3; frame++) {
+			int open = -1;
+			for (int position = start + frame; position + 3 <= end; position += 3) {
+				String codon = codon(position);
+				if (open < 0 && codons.getStarts().contains(codon)) {
+					open = position;
+				} else if (codons.getStops().contains(codon)) {
+					if (open >= 0 && position + 3 - open >= minLength) {
+						found.add(open + "-" + (position + 3) + ":" + (frame + 1));
+					}
+					open = -1;
+				}
+			}
+			open = -1;
+			for (int position = end - 3 - frame; position >= start; position -= 3) {
+				String codon = reverseComplement(codon(position));
+				if (open < 0 && codons.getStarts().contains(codon)) {
+					open = position + 3;
+				} else if (codons.getStops().contains(codon)) {
+					if (open >= 0 && open - position >= minLength) {
+						found.add(position + "-" + open + ":" + (-frame - 1));
+					}
+					open = -1;
+				}
+			}
+		}
+		return found.stream().sorted().toList();
+	}
+
+	private String codon(int position) {
+		return sequence.substring(position, position + 3).toUpperCase();
+	}
+
+	private static String reverseComplement(String codon) {
+		StringBuilder reverse = new StringBuilder(3);
+		for (int i = 2; i >= 0; i--) {
+			int base = "ACGT".indexOf(codon.charAt(i));
+			reverse.append(base >= 0 ? "TGCA".charAt(base) : 'N');
+		}
+		return reverse.toString();
+	}
+
+	/**
+	 * Algo más de cuatro segmentos de bases al azar con tramos de N y minúsculas, y los patrones
+	 * en los límites: alineados en los dos primeros y con el codón de terminación cruzando el
+	 * límite en los dos siguientes.
+	 */
+	private static String sequence() {
+		Random random = new Random(91);
+		StringBuilder sequence = new StringBuilder(4 * SEGMENT + 12_345);
+		while (sequence.length() < 4 * SEGMENT + 12_345) {
+			int run = 1 + random.nextInt(400);
+			boolean gap = random.nextInt(40) == 0;
+			boolean lower = random.nextInt(5) == 0;
+			for (int i = 0; i < run; i++) {
+				char base = gap ? 'N' : "ACGT".charAt(random.nextInt(4));
+				sequence.append(lower ? Character.toLowerCase(base) : base);
+			}
+		}
+		sequence.setLength(4 * SEGMENT + 12_345);
+		plant(sequence, SEGMENT - 36, FORWARD);
+		plant(sequence, 2 * SEGMENT - 33, REVERSE);
+		plant(sequence, 3 * SEGMENT - 35, FORWARD);
+		plant(sequence, 4 * SEGMENT - 34, REVERSE);
+		return sequence.toString();
+	}
+
+	private static void plant(StringBuilder sequence, int position, String pattern) {
+		sequence.replace(position, position + pattern.length(), pattern);
+	}
+
+	/**
+	 * Secuencia en memoria, entregada en fragmentos que no coinciden con los codones.
+	 */
+	private record MemoryBackend(String sequence) implements SequenceBackend {
+
+		@Override
+		public SequenceWriter openWriter(Long chromosomeId, String name) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(Long chromosomeId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean hasSequence(Long chromosomeId) {
+			return chromosomeId == CHROMOSOME_ID;
+		}
+
+		@Override
+		public String read(Long chromosomeId, int start, int end) {
+			return sequence.substring(start, end);
+		}
+
+		@Override
+		public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) throws IOException {
+			byte[] bytes = read(chromosomeId, start, end).getBytes(StandardCharsets.US_ASCII);
+			for (int from = 0; from < bytes.length; from += 8192) {
+				consumer.accept(ByteBuffer.wrap(bytes, from, Math.min(8192, bytes.length - from)));
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.backEnd.genomebank.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SmithWatermanTest {
+
+	private static final SmithWaterman.Scoring SCORING = new SmithWaterman.Scoring(2, 3, 5, 2);
+
+	@Test
+	void reportsADeletionFromTheQuery() {
+		// La secuencia tiene una A de más entre las C y las G
+		SmithWaterman.Alignment alignment = align("AAAAACCCCCGGGGGTTTTT", "GCGCAAAAACCCCCAGGGGGTTTTTCGCG");
+
+		assertEquals(new SmithWaterman.Alignment(20 * 2 - 5, 0, 20, 4, 25, "10M1D10M", 20, 21), alignment);
+	}
+
+	@Test
+	void reportsAnInsertionWithClippedQueryBases() {
+		// La consulta tiene TT de más y empieza con bases que no están en la secuencia
+		SmithWaterman.Alignment alignment = align("ACAC" + "AAAAACCCCC" + "TT" + "GGGGGTTTTT", "AAAAACCCCCGGGGGTTTTT");
+
+		assertEquals(new SmithWaterman.Alignment(20 * 2 - 5 - 2, 4, 26, 0, 20, "4S10M2I10M", 20, 22), alignment);
+	}
+
+	@Test
+	void reportsMismatchesInsideAMatchRun() {
+		SmithWaterman.Alignment alignment = align("ACGTACGTACGTACGT", "TTTTACGTACGAACGTACGTTTT");
+
+		assertEquals(new SmithWaterman.Alignment(15 * 2 - 3, 0, 16, 4, 20, "16M", 15, 16), alignment);
+	}
+
+	@Test
+	void returnsAnEmptyAlignmentWithoutPositiveScore() {
+		assertEquals(new SmithWaterman.Alignment(0, 0, 0, 0, 0, null, -1, -1), align("AAAA", "CCCCNNNN"));
+	}
+
+	private static SmithWaterman.Alignment align(String query, String target) {
+		return new SmithWaterman(query, SCORING).align(SmithWaterman.encode(target), Long.MAX_VALUE);
+	}
+}
@@ -0,0 +1,79 @@
+package com.backEnd.genomebank.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StripedAlignerTest {
+
+	private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	@Test
+	void matchesScalarAlignerOnRandomSequences() {
+		assumeTrue(SmithWaterman.isVectorAvailable(), "jdk.incubator.vector is not available");
+		Random random = new Random(17);
+		LocalAligner.Factory striped = new StripedAligner();
+		LocalAligner.Factory scalar = new ScalarAligner();
+		// Todas las longitudes hasta más de dos vectores de 32 carriles, múltiplos o no del número de carriles
+		for (int length = 1; length <= 100; length++) {
+			for (int round = 0; round < 10; round++) {
+				SmithWaterman.Scoring scoring = new SmithWaterman.Scoring(1 + random.nextInt(5), random.nextInt(6),
+						1 + random.nextInt(10), 1 + random.nextInt(4));
+				byte[] query = randomCodes(random, length);
+				byte[] target = round % 2 == 0
+						? mutate(random, query)
+						: randomCodes(random, random.nextInt(300));
+				int[] expected = scalar.forQuery(query, scoring).align(target, NO_DEADLINE);
+				int[] actual = striped.forQuery(query, scoring).align(target, NO_DEADLINE);
+				assertArrayEquals(expected, actual, () -> "query " + Arrays.toString(query)
+						+ ", target " + Arrays.toString(target) + ", " + scoring);
+			}
+		}
+	}
+
+	@Test
+	void stopsAtTheDeadline() {
+		assumeTrue(SmithWaterman.isVectorAvailable(), "jdk.incubator.vector is not available");
+		byte[] query = randomCodes(new Random(1), 50);
+		byte[] target = randomCodes(new Random(2), 5000);
+		SmithWaterman.Scoring scoring = new SmithWaterman.Scoring(2, 3, 5, 2);
+		assertNull(new StripedAligner().forQuery(query, scoring).align(target, System.nanoTime() - 1));
+	}
+
+	private static byte[] randomCodes(Random random, int length) {
+		byte[] codes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			// Algunas bases desconocidas (código 4), que nunca coinciden
+			codes[i] = (byte) (random.nextInt(20) == 0 ? SmithWaterman.OTHER : random.nextInt(4));
+		}
+		return codes;
+	}
+
+	/**
+	 * Copia de la consulta entre dos tramos aleatorios, con sustituciones, inserciones y deleciones.
+	 */
+	private static byte[] mutate(Random random, byte[] query) {
+		byte[] prefix = randomCodes(random, random.nextInt(40));
+		byte[] suffix = randomCodes(random, random.nextInt(40));
+		byte[] target = new byte[prefix.length + 2 * query.length + suffix.length];
+		System.arraycopy(prefix, 0, target, 0, prefix.length);
+		int length = prefix.length;
+		for (byte code : query) {
+			int edit = random.nextInt(20);
+			if (edit == 0) {
+				continue;
+			}
+			if (edit == 1) {
+				target[length++] = (byte) random.nextInt(4);
+			}
+			target[length++] = edit == 2 ? (byte) random.nextInt(4) : code;
+		}
+		System.arraycopy(suffix, 0, target, length, suffix.length);
+		return Arrays.copyOf(target, length + suffix.length);
+	}
+}
@@ -0,0 +1,95 @@
+package com.backEnd.genomebank.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class SuffixArraysTest {
+
+	private static final int UPPER = 5;
+
+	@Test
+	void matchesNaiveSortOnRandomTexts() {
+		Random random = new Random(11);
+		for (int length = 0; length <= 64; length++) {
+			check(randomText(random, length, UPPER + 1));
+		}
+		for (int round = 0; round < 200; round++) {
+			check(randomText(random, 1 + random.nextInt(3000), 1 + random.nextInt(UPPER + 1)));
+		}
+	}
+
+	@Test
+	void matchesNaiveSortOnRepetitiveTexts() {
+		for (int length : new int[]{1, 2, 3, 7, 64, 65, 1000}) {
+			check(repeat(new byte[]{1}, length));
+			check(repeat(new byte[]{1, 2}, length));
+			check(repeat(new byte[]{2, 1}, length));
+			check(repeat(new byte[]{1, 1, 2}, length));
+			check(repeat(new byte[]{3, 1, 4, 1, 5}, length));
+		}
+		// Texto de Fibonacci: muchas repeticiones anidadas, el caso que más recursión produce
+		byte[] a = {1};
+		byte[] b = {2};
+		while (b.length < 5000) {
+			byte[] next = Arrays.copyOf(b, b.length + a.length);
+			System.arraycopy(a, 0, next, b.length, a.length);
+			a = b;
+			b = next;
+		}
+		check(b);
+	}
+
+	@Test
+	void matchesNaiveSortWithManySeparators() {
+		Random random = new Random(5);
+		check(new byte[2000]);
+		check(repeat(new byte[]{0, 1}, 1500));
+		check(repeat(new byte[]{1, 2, 0}, 1500));
+		for (int round = 0; round < 100; round++) {
+			// Chromosomes cortos separados por 0, como en una partición del índice FM
+			byte[] text = randomText(random, 1 + random.nextInt(2000), UPPER + 1);
+			for (int i = 0; i < text.length; i++) {
+				if (random.nextInt(1 + round % 10) == 0) {
+					text[i] = 0;
+				}
+			}
+			text[text.length - 1] = 0;
+			check(text);
+		}
+	}
+
+	private static void check(byte[] text) {
+		assertArrayEquals(naive(text), SuffixArrays.build(text, UPPER), () -> "text " + Arrays.toString(text));
+	}
+
+	/**
+	 * Ordenar los sufijos comparándolos directamente; un sufijo que es prefijo de otro va antes.
+	 */
+	private static int[] naive(byte[] text) {
+		return IntStream.range(0, text.length).boxed()
+				.sorted((x, y) -> Arrays.compare(text, x, text.length, text, y, text.length))
+				.mapToInt(Integer::intValue)
+				.toArray();
+	}
+
+	private static byte[] randomText(Random random, int length, int symbols) {
+		byte[] text = new byte[length];
+		for (int i = 0; i < length; i++) {
+			text[i] = (byte) random.nextInt(symbols);
+		}
+		return text;
+	}
+
+	private static byte[] repeat(byte[] unit, int length) {
+		byte[] text = new byte[length];
+		for (int i = 0; i < length; i++) {
+			text[i] = unit[i % unit.length];
+		}
+		return text;
+	}
+}
@@ -0,0 +1,123 @@
+package com.backEnd.genomebank.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZoomLevelTest {
+
+	// Con un último bin de 1 kb parcial y el último bin de cada nivel grueso incompleto
+	private static final int LENGTH = 2_345_678;
+
+	@Test
+	void coarseBinsSummarizeTheFullResolutionValues() {
+		float[][] values = randomValues(new Random(51));
+		ZoomLevel level = ZoomLevel.base(LENGTH, values);
+		int previous = ZoomLevel.BASE_BIN_SIZE;
+		for (int binSize : ZoomSummaryStore.BIN_SIZES) {
+			if (binSize != ZoomLevel.BASE_BIN_SIZE) {
+				level = level.coarsen(binSize);
+			}
+			assertTrue(binSize % previous == 0);
+			previous = binSize;
+			int factor = binSize / ZoomLevel.BASE_BIN_SIZE;
+			assertEquals(ZoomLevel.binCount(LENGTH, binSize), level.bins());
+			for (int metric = 0; metric < ZoomLevel.METRICS; metric++) {
+				for (int bin = 0; bin < level.bins(); bin++) {
+					check(values[metric], bin * factor, (bin + 1) * factor, level.summarize(metric, bin, bin + 1),
+							binSize + " bin " + bin);
+				}
+			}
+		}
+	}
+
+	@Test
+	void rangeSummariesMatchTheFullResolutionValues() {
+		Random random = new Random(53);
+		float[][] values = randomValues(random);
+		ZoomLevel base = ZoomLevel.base(LENGTH, values);
+		ZoomLevel coarse = base.coarsen(10_000);
+		for (int i = 0; i < 200; i++) {
+			int first = random.nextInt(coarse.bins());
+			int last = first + 1 + random.nextInt(coarse.bins() - first);
+			int metric = random.nextInt(ZoomLevel.METRICS);
+			check(values[metric], first * 10, last * 10, coarse.summarize(metric, first, last), first + "-" + last);
+			check(values[metric], first * 10, last * 10, base.summarize(metric, first * 10,
+					Math.min(base.bins(), last * 10)), first + "-" + last);
+		}
+	}
+
+	@Test
+	void roundTripsThroughBytes() {
+		float[][] values = randomValues(new Random(57));
+		ZoomLevel level = ZoomLevel.base(LENGTH, values).coarsen(100_000);
+		ZoomLevel copy = ZoomLevel.fromBytes(level.toBytes());
+
+		assertEquals(level.getBinSize(), copy.getBinSize());
+		assertEquals(LENGTH, copy.getLength());
+		for (int metric = 0; metric < ZoomLevel.METRICS; metric++) {
+			for (int bin = 0; bin < level.bins(); bin++) {
+				assertEquals(Arrays.toString(level.summarize(metric, bin, bin + 1)),
+						Arrays.toString(copy.summarize(metric, bin, bin + 1)));
+			}
+		}
+	}
+
+	@Test
+	void replacesOneMetricOfTheBaseLevel() {
+		Random random = new Random(59);
+		float[][] values = randomValues(random);
+		float[][] genes = randomValues(random);
+		ZoomLevel level = ZoomLevel.base(LENGTH, values).withBaseValues(ZoomLevel.GENE_DENSITY,
+				genes[ZoomLevel.GENE_DENSITY]);
+
+		int bins = level.bins();
+		check(values[ZoomLevel.GC_PERCENTAGE], 0, bins, level.summarize(ZoomLevel.GC_PERCENTAGE, 0, bins), "gc");
+		check(values[ZoomLevel.N_FRACTION], 0, bins, level.summarize(ZoomLevel.N_FRACTION, 0, bins), "n");
+		check(genes[ZoomLevel.GENE_DENSITY], 0, bins, level.summarize(ZoomLevel.GENE_DENSITY, 0, bins), "genes");
+	}
+
+	/**
+	 * Compara un resumen con mínimo, máximo, suma y número de valores de los bins de 1 kb
+	 * [first, last), recortado al final del Chromosome.
+	 */
+	private static void check(float[] values, int first, int last, double[] summary, String message) {
+		float min = Float.POSITIVE_INFINITY;
+		float max = Float.NEGATIVE_INFINITY;
+		double sum = 0;
+		int count = 0;
+		for (int i = first; i < Math.min(last, values.length); i++) {
+			if (!Float.isNaN(values[i])) {
+				min = Math.min(min, values[i]);
+				max = Math.max(max, values[i]);
+				sum += values[i];
+				count++;
+			}
+		}
+		assertEquals(count, (int) summary[3], message);
+		assertEquals(count > 0 ? min : Double.NaN, summary[0], 0.0, message);
+		assertEquals(count > 0 ? max : Double.NaN, summary[1], 0.0, message);
+		// Las sumas de cada nivel se guardan como float
+		assertEquals(sum, summary[2], Math.max(1e-3, Math.abs(sum) * 1e-5), message);
+	}
+
+	/**
+	 * Valores de 1 kb como los de la base: GC en porcentaje, fracción de N y Genes por bin, con
+	 * tramos indefinidos (bins solo con N).
+	 */
+	private static float[][] randomValues(Random random) {
+		int bins = ZoomLevel.binCount(LENGTH, ZoomLevel.BASE_BIN_SIZE);
+		float[][] values = new float[ZoomLevel.METRICS][bins];
+		for (int bin = 0; bin < bins; bin++) {
+			boolean gap = bin % 700 < 40;
+			values[ZoomLevel.GC_PERCENTAGE][bin] = gap ? Float.NaN : 30 + random.nextFloat() * 40;
+			values[ZoomLevel.N_FRACTION][bin] = gap ? 1 : random.nextInt(10) == 0 ? random.nextFloat() : 0;
+			values[ZoomLevel.GENE_DENSITY][bin] = random.nextInt(20) == 0 ? 1 + random.nextInt(3) : 0;
+		}
+		return values;
+	}
+}
@@ -0,0 +1,63 @@
+package com.backEnd.genomebank.repositories;
+
+import com.backEnd.genomebank.sequence.GenomicBins;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneRepositoryTest {
+
+	private final List<String> calls = new ArrayList<>();
+	private final List<Object[]> arguments = new ArrayList<>();
+
+	@Test
+	void filtersByBinForOrdinaryRanges() {
+		repository().findGenesInRange(1L, 1_000_000, 3_000_000);
+
+		assertEquals(List.of("findGenesInRange", "findGenesInRangeAndBins"), calls);
+		assertEquals(GenomicBins.overlapping(1_000_000, 3_000_000), arguments.get(1)[3]);
+	}
+
+	@Test
+	void filtersByBinAbove512Mb() {
+		repository().findGenesInRange(1L, 600_000_000, 600_100_000);
+
+		assertEquals("findGenesInRangeAndBins", calls.get(1));
+		@SuppressWarnings("unchecked")
+		List<Integer> bins = (List<Integer>) arguments.get(1)[3];
+		assertTrue(bins.contains(GenomicBins.bin(600_000_000, 600_000_001)));
+	}
+
+	@Test
+	void skipsTheBinFilterAboveTheBinLimit() {
+		assertTrue(GenomicBins.overlapping(0, Integer.MAX_VALUE).size() > GenomicBins.MAX_QUERY_BINS);
+
+		repository().findGenesInRange(1L, 0, Integer.MAX_VALUE);
+
+		assertEquals(List.of("findGenesInRange", "findGenesInRangeAllBins"), calls);
+		assertEquals(0, arguments.get(1)[1]);
+		assertEquals(Integer.MAX_VALUE, arguments.get(1)[2]);
+	}
+
+	/**
+	 * Repositorio que ejecuta los métodos default y registra las consultas que llaman.
+	 */
+	private GeneRepository repository() {
+		InvocationHandler handler = (proxy, method, args) -> {
+			calls.add(method.getName());
+			arguments.add(args);
+			if (method.isDefault()) {
+				return InvocationHandler.invokeDefault(proxy, method, args);
+			}
+			return List.of();
+		};
+		return (GeneRepository) Proxy.newProxyInstance(GeneRepository.class.getClassLoader(),
+				new Class<?>[]{GeneRepository.class}, handler);
+	}
+}
@@ -0,0 +1,166 @@
+package com.backEnd.genomebank.sequence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BgzfOutputStreamTest {
+
+	private static final byte[] EOF_BLOCK = {
+			0x1f, (byte) 0x8b, 0x08, 0x04, 0, 0, 0, 0, 0, (byte) 0xff, 0x06, 0, 0x42, 0x43, 0x02, 0,
+			0x1b, 0, 0x03, 0, 0, 0, 0, 0, 0, 0, 0, 0
+	};
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void roundTripsThroughMultiMemberGzip() throws IOException {
+		Random random = new Random(42);
+		for (int length : new int[]{0, 1, BgzfOutputStream.BLOCK_DATA_SIZE - 1, BgzfOutputStream.BLOCK_DATA_SIZE,
+				BgzfOutputStream.BLOCK_DATA_SIZE + 1, 5 * BgzfOutputStream.BLOCK_DATA_SIZE + 1234}) {
+			byte[] data = sequence(random, length);
+			Compressed compressed = compress(data, 2, 1000);
+
+			assertArrayEquals(data, gunzip(compressed.bytes()), "length " + length);
+			assertEndsWithEofBlock(compressed.bytes());
+		}
+	}
+
+	@Test
+	void storesIncompressibleBlocksWithinTheBlockSizeLimit() throws IOException {
+		byte[] data = new byte[3 * BgzfOutputStream.BLOCK_DATA_SIZE];
+		new Random(7).nextBytes(data);
+		Compressed compressed = compress(data, 3, BgzfOutputStream.BLOCK_DATA_SIZE);
+
+		assertArrayEquals(data, gunzip(compressed.bytes()));
+		for (long[] block : blocks(compressed.bytes())) {
+			assertTrue(block[1] <= 65536, "block of " + block[1] + " bytes");
+		}
+	}
+
+	@Test
+	void gziOffsetsMatchBlockBoundaries() throws IOException {
+		Random random = new Random(1);
+		byte[] data = sequence(random, 7 * BgzfOutputStream.BLOCK_DATA_SIZE + 100);
+		// Escrituras de tamaño variable y pocos bloques en vuelo para ejercitar el orden de escritura
+		Compressed compressed = compress(data, 1, 777);
+
+		List<long[]> blocks = blocks(compressed.bytes());
+		// Último bloque: el de fin de archivo, que no tiene entrada en el índice
+		assertEquals(EOF_BLOCK.length, blocks.get(blocks.size() - 1)[1]);
+		List<long[]> dataBlocks = blocks.subList(0, blocks.size() - 1);
+		assertEquals(8, dataBlocks.size());
+
+		ByteBuffer gzi = ByteBuffer.wrap(compressed.gzi()).order(ByteOrder.LITTLE_ENDIAN);
+		long entries = gzi.getLong();
+		assertEquals(dataBlocks.size() - 1, entries);
+		assertEquals(8 + 16 * entries, compressed.gzi().length);
+		long uncompressed = 0;
+		for (int i = 1; i < dataBlocks.size(); i++) {
+			uncompressed += BgzfOutputStream.BLOCK_DATA_SIZE;
+			assertEquals(dataBlocks.get(i)[0], gzi.getLong(), "compressed offset of block " + i);
+			assertEquals(uncompressed, gzi.getLong(), "uncompressed offset of block " + i);
+		}
+	}
+
+	@Test
+	void flushEndsTheCurrentBlock() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream gzi = new ByteArrayOutputStream();
+		try (BgzfOutputStream bgzf = new BgzfOutputStream(out, executor, 4, 6)) {
+			bgzf.write("ACGT".getBytes());
+			bgzf.flush();
+			bgzf.write("TTTT".getBytes());
+			bgzf.close();
+			bgzf.writeIndex(gzi);
+		}
+
+		assertArrayEquals("ACGTTTTT".getBytes(), gunzip(out.toByteArray()));
+		assertEquals(3, blocks(out.toByteArray()).size());
+		ByteBuffer index = ByteBuffer.wrap(gzi.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(1, index.getLong());
+		assertEquals(blocks(out.toByteArray()).get(1)[0], index.getLong());
+		assertEquals(4, index.getLong());
+	}
+
+	private record Compressed(byte[] bytes, byte[] gzi) {
+	}
+
+	private Compressed compress(byte[] data, int maxInFlight, int chunk) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream gzi = new ByteArrayOutputStream();
+		BgzfOutputStream bgzf = new BgzfOutputStream(out, executor, maxInFlight, 6);
+		try (bgzf) {
+			for (int offset = 0; offset < data.length; offset += chunk) {
+				bgzf.write(data, offset, Math.min(chunk, data.length - offset));
+			}
+		}
+		bgzf.writeIndex(gzi);
+		return new Compressed(out.toByteArray(), gzi.toByteArray());
+	}
+
+	/**
+	 * GZIPInputStream lee todos los miembros gzip concatenados, como hace bgzip -d.
+	 */
+	private static byte[] gunzip(byte[] bytes) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static void assertEndsWithEofBlock(byte[] bytes) {
+		assertTrue(bytes.length >= EOF_BLOCK.length);
+		assertArrayEquals(EOF_BLOCK, Arrays.copyOfRange(bytes, bytes.length - EOF_BLOCK.length, bytes.length));
+	}
+
+	/**
+	 * Desplazamiento y tamaño de cada bloque BGZF, leídos del subcampo BC (BSIZE) de su cabecera.
+	 */
+	private static List<long[]> blocks(byte[] bytes) {
+		List<long[]> blocks = new ArrayList<>();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		int offset = 0;
+		while (offset < bytes.length) {
+			assertEquals(0x1f, bytes[offset] & 0xff);
+			assertEquals(0x8b, bytes[offset + 1] & 0xff);
+			assertEquals(4, bytes[offset + 3] & 0x04, "FEXTRA flag");
+			assertEquals('B', (char) bytes[offset + 12]);
+			assertEquals('C', (char) bytes[offset + 13]);
+			int size = (buffer.getShort(offset + 16) & 0xffff) + 1;
+			blocks.add(new long[]{offset, size});
+			offset += size;
+		}
+		assertEquals(bytes.length, offset);
+		return blocks;
+	}
+
+	private static byte[] sequence(Random random, int length) {
+		byte[] bases = "ACGT".getBytes();
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (i + 1) % 61 == 0 ? (byte) '\n' : bases[random.nextInt(4)];
+		}
+		return data;
+	}
+}
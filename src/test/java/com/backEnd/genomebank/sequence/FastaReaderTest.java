@@ -0,0 +1,120 @@
+package com.backEnd.genomebank.sequence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FastaReaderTest {
+
+	@Test
+	void readsWrappedMultiRecordFiles() throws IOException {
+		Random random = new Random(21);
+		Map<String, String> records = new LinkedHashMap<>();
+		records.put("chr1 primary assembly", randomSequence(random, 150_000));
+		records.put("chr2", randomSequence(random, 61));
+		records.put("chrM", randomSequence(random, 60));
+		records.put("empty", "");
+		records.put("chrUn", randomSequence(random, 1));
+
+		for (int width : new int[]{60, 61, 80, 1}) {
+			for (String newline : new String[]{"\n", "\r\n"}) {
+				byte[] fasta = fasta(records, width, newline);
+				assertEquals(records, readAll(new FastaReader(new ByteArrayInputStream(fasta)), random),
+						"width " + width);
+			}
+		}
+	}
+
+	@Test
+	void keepsLowercaseBases() throws IOException {
+		byte[] fasta = ">chr1\nacgtNNNN\nACGTnnrY\n>chr2\ngattaca\n".getBytes(StandardCharsets.US_ASCII);
+
+		assertEquals(Map.of("chr1", "acgtNNNNACGTnnrY", "chr2", "gattaca"),
+				readAll(new FastaReader(new ByteArrayInputStream(fasta)), new Random(1)));
+	}
+
+	@Test
+	void readsGzipInput() throws IOException {
+		Map<String, String> records = new LinkedHashMap<>();
+		records.put("chr1", randomSequence(new Random(23), 200_000));
+		records.put("chr2", "ACGT");
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(fasta(records, 70, "\n"));
+		}
+
+		assertEquals(records, readAll(new FastaReader(new ByteArrayInputStream(compressed.toByteArray())),
+				new Random(2)));
+	}
+
+	@Test
+	void skipsUnreadBases() throws IOException {
+		FastaReader reader = new FastaReader(new ByteArrayInputStream(
+				">a\nACGT\nACGT\n>b desc\nTTTT\n".getBytes(StandardCharsets.US_ASCII)));
+		byte[] bases = new byte[3];
+
+		assertEquals("a", reader.nextHeader());
+		assertEquals(3, reader.read(bases, 0, 3));
+		assertEquals("b desc", reader.nextHeader());
+		assertEquals(3, reader.read(bases, 0, 3));
+		assertNull(reader.nextHeader());
+		assertEquals(-1, reader.read(bases, 0, 3));
+	}
+
+	@Test
+	void rejectsBasesBeforeTheFirstHeader() throws IOException {
+		FastaReader reader = new FastaReader(new ByteArrayInputStream(
+				"\nACGT\n>a\nACGT\n".getBytes(StandardCharsets.US_ASCII)));
+
+		assertThrows(IllegalArgumentException.class, reader::nextHeader);
+	}
+
+	/**
+	 * Lee todos los registros con lecturas de tamaño aleatorio.
+	 */
+	private static Map<String, String> readAll(FastaReader reader, Random random) throws IOException {
+		Map<String, String> records = new LinkedHashMap<>();
+		byte[] buffer = new byte[5000];
+		for (String header = reader.nextHeader(); header != null; header = reader.nextHeader()) {
+			StringBuilder sequence = new StringBuilder();
+			for (int n = reader.read(buffer, 0, 1 + random.nextInt(buffer.length)); n >= 0;
+				 n = reader.read(buffer, 0, 1 + random.nextInt(buffer.length))) {
+				sequence.append(new String(buffer, 0, n, StandardCharsets.US_ASCII));
+			}
+			records.put(header, sequence.toString());
+		}
+		return records;
+	}
+
+	private static byte[] fasta(Map<String, String> records, int width, String newline) {
+		List<String> lines = new ArrayList<>();
+		records.forEach((header, sequence) -> {
+			lines.add(">" + header);
+			for (int from = 0; from < sequence.length(); from += width) {
+				lines.add(sequence.substring(from, Math.min(sequence.length(), from + width)));
+			}
+		});
+		return (String.join(newline, lines) + newline).getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static String randomSequence(Random random, int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sequence.append("ACGTNacgtn".charAt(random.nextInt(10)));
+		}
+		return sequence.toString();
+	}
+}
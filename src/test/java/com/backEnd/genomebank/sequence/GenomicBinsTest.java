@@ -0,0 +1,103 @@
+package com.backEnd.genomebank.sequence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenomicBinsTest {
+
+	private static final int MB_512 = 1 << 29;
+
+	@Test
+	void matchesUcscBinNumbers() {
+		assertEquals(585, GenomicBins.bin(0, 1));
+		assertEquals(585, GenomicBins.bin(0, 1 << 17));
+		assertEquals(73, GenomicBins.bin(0, (1 << 17) + 1));
+		assertEquals(0, GenomicBins.bin(0, MB_512));
+		assertEquals(4680, GenomicBins.bin(MB_512 - 1, MB_512));
+		// Esquema extendido: cruzar los 512 Mb solo cabe en el bin de 4 Gb, y cada nivel se desplaza en 4681
+		assertEquals(4681, GenomicBins.bin(0, MB_512 + 1));
+		assertEquals(4681 + 4681 + 4096, GenomicBins.bin(MB_512, MB_512 + 1));
+		assertEquals(4681 + 4681 + 16383, GenomicBins.bin(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+	}
+
+	@Test
+	void overlappingIntervalsFallInProbedBins() {
+		Random random = new Random(3);
+		List<int[]> intervals = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			intervals.add(randomInterval(random));
+		}
+		for (int i = 0; i < 400; i++) {
+			int[] query = randomInterval(random);
+			if (i % 10 == 0) {
+				// Rango vacío o invertido: cuenta como la posición start
+				query[1] = query[0] - random.nextInt(3);
+			}
+			checkQuery(intervals, query[0], query[1]);
+		}
+	}
+
+	@Test
+	void probesEveryLevelAroundThe512MbBoundary() {
+		Random random = new Random(5);
+		List<int[]> intervals = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			int start = MB_512 - (1 << 24) + random.nextInt(1 << 25);
+			intervals.add(new int[]{start, start + 1 + random.nextInt(1 << (1 + random.nextInt(26)))});
+		}
+		intervals.add(new int[]{0, MB_512 + 1});
+		intervals.add(new int[]{MB_512 - 1, MB_512});
+		intervals.add(new int[]{MB_512, MB_512 + 1});
+		for (int[] query : new int[][]{{MB_512 - 1, MB_512}, {MB_512, MB_512 + 1}, {MB_512 - 1, MB_512 + 1},
+				{0, 1}, {MB_512 - 1000, MB_512 + 1000}}) {
+			checkQuery(intervals, query[0], query[1]);
+		}
+		for (int i = 0; i < 200; i++) {
+			int start = MB_512 - (1 << 24) + random.nextInt(1 << 25);
+			checkQuery(intervals, start, start + random.nextInt(1 << (1 + random.nextInt(24))));
+		}
+	}
+
+	@Test
+	void onlyVeryLargeRangesExceedTheQueryBinLimit() {
+		int limit = GenomicBins.MAX_QUERY_BINS;
+		assertTrue(GenomicBins.overlapping(0, 400_000_000).size() <= limit);
+		assertTrue(GenomicBins.overlapping(MB_512 + 1, MB_512 + 400_000_000).size() <= limit);
+		assertTrue(GenomicBins.overlapping(0, 500_000_000).size() > limit);
+		assertTrue(GenomicBins.overlapping(0, Integer.MAX_VALUE).size() > limit);
+		// Por encima del límite se consulta sin filtro de bin: la lista debe seguir siendo correcta
+		assertEquals(GenomicBins.overlapping(0, Integer.MAX_VALUE).size(),
+				new HashSet<>(GenomicBins.overlapping(0, Integer.MAX_VALUE)).size());
+	}
+
+	/**
+	 * Intervalo con longitud de escala logarítmica, de 1 base a todo el rango de posiciones.
+	 */
+	private static int[] randomInterval(Random random) {
+		int length = 1 + random.nextInt(1 << random.nextInt(31));
+		int start = random.nextInt(Integer.MAX_VALUE - length + 1);
+		return new int[]{start, start + length};
+	}
+
+	private static void checkQuery(List<int[]> intervals, int start, int end) {
+		List<Integer> probed = GenomicBins.overlapping(start, end);
+		Set<Integer> bins = new HashSet<>(probed);
+		assertEquals(probed.size(), bins.size(), "duplicate bins for [" + start + ", " + end + ")");
+		for (int[] interval : intervals) {
+			boolean overlaps = interval[0] < end && interval[1] > start;
+			if (overlaps || (start >= end && interval[0] <= start && interval[1] > start)) {
+				int bin = GenomicBins.bin(interval[0], interval[1]);
+				assertTrue(bins.contains(bin), "bin " + bin + " of [" + interval[0] + ", " + interval[1]
+						+ ") not probed for [" + start + ", " + end + ")");
+			}
+		}
+	}
+}
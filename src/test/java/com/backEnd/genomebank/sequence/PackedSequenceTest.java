@@ -0,0 +1,88 @@
+package com.backEnd.genomebank.sequence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PackedSequenceTest {
+
+	@Test
+	void roundTripsLengthsThatAreNotAMultipleOfFour() {
+		for (int length = 0; length <= 13; length++) {
+			String sequence = "ACGTTGCAACGTG".substring(0, length);
+			assertEquals(sequence, roundTrip(sequence).decode(), "length " + length);
+		}
+	}
+
+	@Test
+	void keepsNAndOtherIupacRuns() {
+		String sequence = "NNNNACGTNNRYACGGTTKMNNNNNNNNNACGSWBDHVNA-N";
+		PackedSequence packed = roundTrip(sequence);
+
+		assertEquals(sequence.length(), packed.length());
+		assertEquals(sequence, packed.decode());
+	}
+
+	@Test
+	void keepsLowercaseBases() {
+		String sequence = "acgtACGTacgtnnNNrYacGTtt";
+
+		assertEquals(sequence, roundTrip(sequence).decode());
+	}
+
+	@Test
+	void decodesRangesAcrossByteBoundaries() {
+		Random random = new Random(11);
+		String sequence = randomSequence(random, 1000);
+		PackedSequence packed = roundTrip(sequence);
+
+		for (int start = 0; start < 12; start++) {
+			for (int end = start; end < start + 12; end++) {
+				assertEquals(sequence.substring(start, end), packed.decode(start, end), start + "-" + end);
+			}
+		}
+		for (int i = 0; i < 2000; i++) {
+			int start = random.nextInt(sequence.length());
+			int end = start + random.nextInt(sequence.length() - start + 1);
+			assertEquals(sequence.substring(start, end), packed.decode(start, end), start + "-" + end);
+		}
+	}
+
+	@Test
+	void decodesIntoAnArrayAtAnOffset() {
+		String sequence = randomSequence(new Random(13), 100);
+		PackedSequence packed = PackedSequence.encode(sequence);
+		byte[] dest = new byte[20];
+
+		packed.decodeTo(37, 51, dest, 3);
+
+		assertEquals(sequence.substring(37, 51), new String(dest, 3, 14));
+	}
+
+	private static PackedSequence roundTrip(String sequence) {
+		return PackedSequence.fromBytes(PackedSequence.encode(sequence).toBytes());
+	}
+
+	/**
+	 * Bases ACGT con tramos de N, otros códigos IUPAC y minúsculas de longitud variable.
+	 */
+	private static String randomSequence(Random random, int length) {
+		StringBuilder sequence = new StringBuilder(length);
+		while (sequence.length() < length) {
+			int run = 1 + random.nextInt(9);
+			int kind = random.nextInt(6);
+			boolean lower = random.nextInt(4) == 0;
+			for (int i = 0; i < run && sequence.length() < length; i++) {
+				char base = switch (kind) {
+					case 0 -> 'N';
+					case 1 -> "RYKMSWBDHV".charAt(random.nextInt(10));
+					default -> "ACGT".charAt(random.nextInt(4));
+				};
+				sequence.append(lower ? Character.toLowerCase(base) : base);
+			}
+		}
+		return sequence.toString();
+	}
+}
@@ -0,0 +1,445 @@
+package com.backEnd.genomebank.services.impl;
+
+import com.backEnd.genomebank.dto.analysis.MotifSearchInDTO;
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobInDTO;
+import com.backEnd.genomebank.dto.analysisjob.AnalysisJobOutDTO;
+import com.backEnd.genomebank.entities.AnalysisJob;
+import com.backEnd.genomebank.repositories.AnalysisJobRepository;
+import com.backEnd.genomebank.services.IAnalysisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalysisJobServiceImplTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Map<Long, AnalysisJob> jobs = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong(1);
+	// Veces que se guardó un trabajo desde un hilo interrumpido (JDBC puede fallar en ese caso)
+	private final AtomicInteger interruptedSaves = new AtomicInteger();
+	private final AtomicInteger analyses = new AtomicInteger();
+	private final ManualExecutor executor = new ManualExecutor(3);
+	private volatile Analysis analysis = (out, progress) -> out.write("ok\n".getBytes(StandardCharsets.UTF_8));
+
+	@TempDir
+	Path directory;
+
+	private AnalysisJobServiceImpl service;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		service = new AnalysisJobServiceImpl(jobRepository(), analysisService(), objectMapper, executor,
+				directory.toString(), 2);
+	}
+
+	@Test
+	void rejectsInvalidRequestsBeforeQueueing() {
+		assertBadRequest(request("FOO", "{}"));
+		assertBadRequest(request(null, "{}"));
+		assertBadRequest(request("MOTIF_SEARCH", null));
+		assertBadRequest(request("MOTIF_SEARCH", "[\"ACGT\"]"));
+		assertBadRequest(request("KMER_COUNT", "{\"chromosomeId\": 1}"));
+		assertBadRequest(request("KMER_COUNT", "{\"k\": \"many\"}"));
+		// La validación del análisis se hace al pedirlo, no en segundo plano
+		assertBadRequest(request("MOTIF_SEARCH", "{\"motifs\": []}"));
+
+		assertTrue(jobs.isEmpty());
+		assertEquals(0, executor.queued());
+	}
+
+	@Test
+	void returnsTheSameJobForAnIdenticalRequest() throws Exception {
+		AnalysisJobOutDTO first = service.crearTrabajo(motifSearch("GAATTC"), "ana");
+		AnalysisJobOutDTO again = service.crearTrabajo(request("motif_search", "{\"motifs\": [\"GAATTC\"]}"), "ana");
+		AnalysisJobOutDTO other = service.crearTrabajo(motifSearch("TATA"), "ana");
+
+		assertEquals("QUEUED", first.getStatus());
+		assertEquals(first.getId(), again.getId());
+		assertNotEquals(first.getId(), other.getId());
+		assertEquals(2, executor.queued());
+		// El mismo análisis de otro usuario es otro trabajo, y cada usuario tiene su límite
+		assertNotEquals(first.getId(), service.crearTrabajo(motifSearch("GAATTC"), "luis").getId());
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> service.crearTrabajo(motifSearch("CANNTG"), "ana"));
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatusCode());
+
+		// Una vez terminado, pedirlo de nuevo crea otro trabajo
+		executor.runNext().join();
+		assertEquals("SUCCEEDED", service.obtenerTrabajo(first.getId(), "ana", false).getStatus());
+		assertNotEquals(first.getId(), service.crearTrabajo(motifSearch("GAATTC"), "ana").getId());
+	}
+
+	@Test
+	void deletesTheJobWhenTheQueueIsFull() throws Exception {
+		for (String motif : List.of("A", "C", "G")) {
+			service.crearTrabajo(motifSearch(motif), "user-" + motif);
+		}
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> service.crearTrabajo(motifSearch("T"), "ana"));
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+		assertEquals(3, jobs.size());
+		// No queda en curso: se puede pedir de nuevo
+		executor.runNext().join();
+		assertEquals("QUEUED", service.crearTrabajo(motifSearch("T"), "ana").getStatus());
+	}
+
+	@Test
+	void reportsProgressAndStoresTheResult() throws Exception {
+		CountDownLatch halfway = new CountDownLatch(1);
+		CountDownLatch resume = new CountDownLatch(1);
+		analysis = (out, progress) -> {
+			progress.accept(0.25);
+			out.write("first\n".getBytes(StandardCharsets.UTF_8));
+			halfway.countDown();
+			await(resume);
+			progress.accept(1.5);
+			out.write("second\n".getBytes(StandardCharsets.UTF_8));
+		};
+		Long jobId = service.crearTrabajo(motifSearch("GAATTC"), "ana").getId();
+		assertEquals(0.0, service.obtenerTrabajo(jobId, "ana", false).getProgress());
+
+		Thread worker = executor.runNext();
+		await(halfway);
+		AnalysisJobOutDTO running = service.obtenerTrabajo(jobId, "ana", false);
+		assertEquals("RUNNING", running.getStatus());
+		assertEquals(25.0, running.getProgress());
+		assertNotNull(running.getStartedAt());
+		assertThrows(ResponseStatusException.class, () -> service.prepararResultado(jobId, "ana", false));
+		resume.countDown();
+		worker.join();
+
+		AnalysisJobOutDTO done = service.obtenerTrabajo(jobId, "ana", false);
+		assertEquals("SUCCEEDED", done.getStatus());
+		assertEquals(100.0, done.getProgress());
+		assertEquals(13L, done.getResultSize());
+		assertNotNull(done.getFinishedAt());
+		assertEquals("application/x-ndjson", service.prepararResultado(jobId, "ana", false).getResultType());
+		assertEquals("first\nsecond\n", result(jobId));
+		// Los trabajos de otro usuario no se ven
+		assertThrows(ResponseStatusException.class, () -> service.obtenerTrabajo(jobId, "luis", false));
+		assertEquals("SUCCEEDED", service.obtenerTrabajo(jobId, "luis", true).getStatus());
+	}
+
+	@Test
+	void cancelsAQueuedJob() throws Exception {
+		Long jobId = service.crearTrabajo(motifSearch("GAATTC"), "ana").getId();
+
+		AnalysisJobOutDTO cancelled = service.cancelarTrabajo(jobId, "ana", false);
+		assertEquals("CANCELLED", cancelled.getStatus());
+		assertNotNull(cancelled.getFinishedAt());
+		// La tarea ya no ejecuta el análisis al salir de la cola
+		executor.runNext().join();
+		assertEquals(0, analyses.get());
+		assertEquals("CANCELLED", service.obtenerTrabajo(jobId, "ana", false).getStatus());
+		assertNull(service.obtenerTrabajo(jobId, "ana", false).getStartedAt());
+
+		// Deja de contar como en curso
+		assertNotEquals(jobId, service.crearTrabajo(motifSearch("GAATTC"), "ana").getId());
+		service.eliminarTrabajo(jobId, "ana", false);
+		assertFalse(jobs.containsKey(jobId));
+	}
+
+	@Test
+	void cancelsARunningJob() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		analysis = (out, progress) -> {
+			progress.accept(0.4);
+			out.write("partial\n".getBytes(StandardCharsets.UTF_8));
+			started.countDown();
+			try {
+				Thread.sleep(60_000);
+			} catch (InterruptedException e) {
+				// Como los análisis del pool: la marca se conserva al convertir la interrupción
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted");
+			}
+		};
+		Long jobId = service.crearTrabajo(motifSearch("GAATTC"), "ana").getId();
+		Thread worker = executor.runNext();
+		await(started);
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> service.eliminarTrabajo(jobId, "ana", false));
+		assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+		service.cancelarTrabajo(jobId, "ana", false);
+		worker.join(10_000);
+
+		assertFalse(worker.isAlive());
+		AnalysisJobOutDTO cancelled = service.obtenerTrabajo(jobId, "ana", false);
+		assertEquals("CANCELLED", cancelled.getStatus());
+		assertEquals(40.0, cancelled.getProgress());
+		assertNull(cancelled.getError());
+		// El estado final se guardó sin la marca de interrupción y el resultado parcial se descartó
+		assertEquals(0, interruptedSaves.get());
+		try (var files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+		service.eliminarTrabajo(jobId, "ana", false);
+	}
+
+	@Test
+	void storesTheFailure() throws Exception {
+		analysis = (out, progress) -> {
+			progress.accept(0.5);
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sequence not loaded for chromosome 1");
+		};
+		Long failedId = service.crearTrabajo(motifSearch("GAATTC"), "ana").getId();
+		executor.runNext().join();
+
+		AnalysisJobOutDTO failed = service.obtenerTrabajo(failedId, "ana", false);
+		assertEquals("FAILED", failed.getStatus());
+		assertEquals("Sequence not loaded for chromosome 1", failed.getError());
+		assertEquals(50.0, failed.getProgress());
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> service.prepararResultado(failedId, "ana", false));
+		assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+
+		// Los mensajes largos se recortan al tamaño de la columna
+		analysis = (out, progress) -> {
+			throw new IOException("x".repeat(5000));
+		};
+		Long truncatedId = service.crearTrabajo(motifSearch("TATA"), "ana").getId();
+		executor.runNext().join();
+		assertEquals(1000, service.obtenerTrabajo(truncatedId, "ana", false).getError().length());
+		try (var files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	@Test
+	void failsJobsLeftByARestart() {
+		AnalysisJob queued = job(AnalysisJob.Status.QUEUED);
+		AnalysisJob running = job(AnalysisJob.Status.RUNNING);
+		AnalysisJob succeeded = job(AnalysisJob.Status.SUCCEEDED);
+		Long currentId = service.crearTrabajo(motifSearch("GAATTC"), "ana").getId();
+
+		service.onApplicationReady();
+
+		assertEquals(AnalysisJob.Status.FAILED, jobs.get(queued.getId()).getStatus());
+		assertEquals(AnalysisJob.Status.FAILED, jobs.get(running.getId()).getStatus());
+		assertEquals("Interrupted by an application restart", jobs.get(running.getId()).getError());
+		assertEquals(AnalysisJob.Status.SUCCEEDED, jobs.get(succeeded.getId()).getStatus());
+		// Los trabajos de este arranque siguen en cola
+		assertEquals(AnalysisJob.Status.QUEUED, jobs.get(currentId).getStatus());
+	}
+
+	private void assertBadRequest(AnalysisJobInDTO request) {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> service.crearTrabajo(request, "ana"));
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+	}
+
+	private AnalysisJobInDTO request(String type, String parameters) {
+		AnalysisJobInDTO request = new AnalysisJobInDTO();
+		request.setType(type);
+		try {
+			request.setParameters(parameters != null ? objectMapper.readTree(parameters) : null);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+		return request;
+	}
+
+	private AnalysisJobInDTO motifSearch(String motif) {
+		return request("MOTIF_SEARCH", "{\"motifs\": [\"" + motif + "\"]}");
+	}
+
+	private AnalysisJob job(AnalysisJob.Status status) {
+		AnalysisJob job = new AnalysisJob();
+		job.setType(AnalysisJob.Type.ORF_SEARCH);
+		job.setStatus(status);
+		job.setUsername("ana");
+		job.setParameters("{}");
+		return jobRepository().save(job);
+	}
+
+	private String result(Long jobId) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.transmitirResultado(jobId, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private static void await(CountDownLatch latch) throws InterruptedIOException {
+		try {
+			if (!latch.await(10, TimeUnit.SECONDS)) {
+				throw new AssertionError("Timed out");
+			}
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException("interrupted");
+		}
+	}
+
+	/**
+	 * Repositorio en memoria con las operaciones que usa el servicio. Guarda copias, como la base
+	 * de datos.
+	 */
+	private AnalysisJobRepository jobRepository() {
+		return (AnalysisJobRepository) Proxy.newProxyInstance(AnalysisJobRepository.class.getClassLoader(),
+				new Class<?>[]{AnalysisJobRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "save" -> {
+						if (Thread.currentThread().isInterrupted()) {
+							interruptedSaves.incrementAndGet();
+						}
+						AnalysisJob job = copy((AnalysisJob) args[0]);
+						if (job.getId() == null) {
+							job.setId(nextId.getAndIncrement());
+						}
+						jobs.put(job.getId(), job);
+						yield copy(job);
+					}
+					case "findById" -> Optional.ofNullable(jobs.get((Long) args[0])).map(AnalysisJobServiceImplTest::copy);
+					case "deleteById" -> {
+						jobs.remove((Long) args[0]);
+						yield null;
+					}
+					case "findByStatusIn" -> jobs.values().stream()
+							.filter(job -> ((Collection<?>) args[0]).contains(job.getStatus()))
+							.sorted(Comparator.comparing(AnalysisJob::getId))
+							.map(AnalysisJobServiceImplTest::copy)
+							.toList();
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private static AnalysisJob copy(AnalysisJob job) {
+		AnalysisJob copy = new AnalysisJob();
+		copy.setId(job.getId());
+		copy.setType(job.getType());
+		copy.setStatus(job.getStatus());
+		copy.setUsername(job.getUsername());
+		copy.setParameters(job.getParameters());
+		copy.setProgress(job.getProgress());
+		copy.setResultType(job.getResultType());
+		copy.setResultSize(job.getResultSize());
+		copy.setError(job.getError());
+		copy.setCreatedAt(job.getCreatedAt());
+		copy.setStartedAt(job.getStartedAt());
+		copy.setFinishedAt(job.getFinishedAt());
+		return copy;
+	}
+
+	/**
+	 * Servicio de análisis con la búsqueda de motivos: rechaza una lista vacía al prepararla y
+	 * ejecuta {@link #analysis} al transmitirla.
+	 */
+	private IAnalysisService analysisService() {
+		return (IAnalysisService) Proxy.newProxyInstance(IAnalysisService.class.getClassLoader(),
+				new Class<?>[]{IAnalysisService.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "prepararBusquedaMotivos" -> {
+						List<String> motifs = ((MotifSearchInDTO) args[0]).getMotifs();
+						if (motifs == null || motifs.isEmpty()) {
+							throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "motifs is required");
+						}
+						yield null;
+					}
+					case "prepararConteoKmers" -> null;
+					case "transmitirBusquedaMotivos" -> {
+						analyses.incrementAndGet();
+						analysis.run((OutputStream) args[1], (DoubleConsumer) args[2]);
+						yield null;
+					}
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	@FunctionalInterface
+	private interface Analysis {
+		void run(OutputStream out, DoubleConsumer progress) throws IOException;
+	}
+
+	/**
+	 * Cola de trabajos que se ejecutan cuando el test lo indica, cada uno en un hilo propio, con
+	 * capacidad limitada como el pool real.
+	 */
+	private static final class ManualExecutor extends AbstractExecutorService {
+		private final Deque<Runnable> queue = new ArrayDeque<>();
+		private final int capacity;
+
+		ManualExecutor(int capacity) {
+			this.capacity = capacity;
+		}
+
+		@Override
+		public synchronized void execute(Runnable command) {
+			if (queue.size() >= capacity) {
+				throw new RejectedExecutionException("Queue full");
+			}
+			queue.addLast(command);
+		}
+
+		synchronized int queued() {
+			return queue.size();
+		}
+
+		Thread runNext() {
+			Runnable next;
+			synchronized (this) {
+				next = queue.removeFirst();
+			}
+			Thread thread = new Thread(next, "analysis-job");
+			thread.start();
+			return thread;
+		}
+
+		@Override
+		public void shutdown() {
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return List.of();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return false;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return false;
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) {
+			return true;
+		}
+	}
+}
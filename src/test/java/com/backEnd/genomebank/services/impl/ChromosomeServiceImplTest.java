@@ -0,0 +1,128 @@
+package com.backEnd.genomebank.services.impl;
+
+import com.backEnd.genomebank.dto.chromosome.ChromosomeUpdateDTO;
+import com.backEnd.genomebank.entities.Chromosome;
+import com.backEnd.genomebank.entities.Genome;
+import com.backEnd.genomebank.entities.Species;
+import com.backEnd.genomebank.repositories.ChromosomeRepository;
+import com.backEnd.genomebank.sequence.SequenceBackend;
+import com.backEnd.genomebank.sequence.SequenceChunkConsumer;
+import com.backEnd.genomebank.sequence.SequenceWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChromosomeServiceImplTest {
+
+	private static final long CHROMOSOME_ID = 4;
+	private static final String SEQUENCE = "ACGTACGTNNacgtACGTAC";
+
+	private final Chromosome chromosome = chromosome();
+	private final Map<Long, String> sequences = new HashMap<>();
+	private final List<Object> events = new ArrayList<>();
+	private final ChromosomeServiceImpl service = new ChromosomeServiceImpl(chromosomeRepository(), null,
+			new MemoryBackend(sequences), events::add, null);
+
+	@Test
+	void rejectsALengthChangeWhileASequenceIsStored() {
+		sequences.put(CHROMOSOME_ID, SEQUENCE);
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> service.actualizarChromosome(CHROMOSOME_ID, update(SEQUENCE.length() + 5)));
+
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+		assertEquals(SEQUENCE.length(), chromosome.getLength());
+		assertTrue(events.isEmpty());
+		// La secuencia completa se sigue leyendo con la longitud guardada
+		assertEquals(SEQUENCE, service.obtenerSecuenciaPorRango(CHROMOSOME_ID, 0, SEQUENCE.length()).orElseThrow());
+		assertThrows(ResponseStatusException.class,
+				() -> service.obtenerSecuenciaPorRango(CHROMOSOME_ID, 0, SEQUENCE.length() + 5));
+	}
+
+	@Test
+	void acceptsTheSameLengthWhileASequenceIsStored() {
+		sequences.put(CHROMOSOME_ID, SEQUENCE);
+
+		assertEquals(SEQUENCE.length(),
+				service.actualizarChromosome(CHROMOSOME_ID, update(SEQUENCE.length())).orElseThrow().getLength());
+		assertTrue(events.isEmpty());
+		assertEquals(SEQUENCE.substring(4, 12), service.obtenerSecuenciaPorRango(CHROMOSOME_ID, 4, 12).orElseThrow());
+	}
+
+	@Test
+	void changesTheLengthWithoutASequence() {
+		assertEquals(50, service.actualizarChromosome(CHROMOSOME_ID, update(50)).orElseThrow().getLength());
+		assertEquals(1, events.size());
+	}
+
+	private static ChromosomeUpdateDTO update(int length) {
+		ChromosomeUpdateDTO dto = new ChromosomeUpdateDTO();
+		dto.setLength(length);
+		return dto;
+	}
+
+	private static Chromosome chromosome() {
+		Species species = new Species();
+		species.setId(1L);
+		Genome genome = new Genome();
+		genome.setId(2L);
+		genome.setSpecies(species);
+		Chromosome chromosome = new Chromosome();
+		chromosome.setId(CHROMOSOME_ID);
+		chromosome.setName("chr4");
+		chromosome.setLength(SEQUENCE.length());
+		chromosome.setGenome(genome);
+		return chromosome;
+	}
+
+	private ChromosomeRepository chromosomeRepository() {
+		return (ChromosomeRepository) Proxy.newProxyInstance(ChromosomeRepository.class.getClassLoader(),
+				new Class<?>[]{ChromosomeRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "findById" -> CHROMOSOME_ID == (Long) args[0] ? Optional.of(chromosome) : Optional.empty();
+					case "save" -> args[0];
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	/**
+	 * Secuencias en memoria; solo se leen.
+	 */
+	private record MemoryBackend(Map<Long, String> sequences) implements SequenceBackend {
+
+		@Override
+		public SequenceWriter openWriter(Long chromosomeId, String name) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(Long chromosomeId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean hasSequence(Long chromosomeId) {
+			return sequences.containsKey(chromosomeId);
+		}
+
+		@Override
+		public String read(Long chromosomeId, int start, int end) {
+			return sequences.get(chromosomeId).substring(start, end);
+		}
+
+		@Override
+		public void stream(Long chromosomeId, int start, int end, SequenceChunkConsumer consumer) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}